@@ -0,0 +1,96 @@
+package bch;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import cls.Aircraft;
+import cls.AircraftUpdater;
+import cls.Waypoint;
+
+/**
+ * Measures updating every aircraft in the airspace for one frame.
+ * <p>
+ * Aircraft which finish their flights are replaced by copies of the
+ * aircraft first created in their place, so the airspace stays full.
+ * </p>
+ * <p>
+ * Aircraft may be updated one at a time, or shared between a thread for
+ * each core, as the game does when there are enough of them.
+ * </p>
+ */
+public class AircraftUpdateBenchmark extends Benchmark {
+
+	/** The time between frames, in seconds */
+	private static final double FRAME_TIME = 1.0 / 60;
+
+	/** The aircraft as first created */
+	private Aircraft[] templates;
+
+	/** The aircraft being updated */
+	private Aircraft[] aircraft;
+
+	/** Shares the aircraft between threads, or <code>null</code> to update
+	 * them one at a time */
+	private final AircraftUpdater updater;
+
+
+	/**
+	 * Constructor for the benchmark, updating aircraft one at a time.
+	 */
+	public AircraftUpdateBenchmark() {
+		this(false);
+	}
+
+	/**
+	 * Constructor for the benchmark.
+	 * @param parallel - <code>true</code> to share aircraft between a
+	 * 			thread for each core, or <code>false</code> to update them
+	 * 			one at a time
+	 */
+	public AircraftUpdateBenchmark(boolean parallel) {
+		super(parallel ? "AircraftUpdater.update" : "Aircraft.update", "aircraft",
+				parallel ? new int[] {100, 1000, 10000} : new int[] {10, 100, 1000});
+		this.updater = parallel ? new AircraftUpdater(
+				Runtime.getRuntime().availableProcessors(),
+				AircraftUpdater.DEFAULT_THRESHOLD) : null;
+	}
+
+	@Override
+	public void setup(int param) {
+		Random random = new Random(SEED);
+		Waypoint[] waypoints = createWaypoints(random, 20);
+
+		templates = new Aircraft[param];
+		aircraft = new Aircraft[param];
+
+		for (int i = 0; i < param; i++) {
+			templates[i] = createAircraft(random, "BM" + i, waypoints);
+			aircraft[i] = templates[i].clone();
+		}
+	}
+
+	@Override
+	public Object run() {
+		for (int i = 0; i < aircraft.length; i++) {
+			if (aircraft[i].isFinished()) {
+				aircraft[i] = templates[i].clone();
+			}
+
+			if (updater == null) aircraft[i].update(FRAME_TIME);
+		}
+
+		if (updater != null) {
+			// The list is a view of the array, so isn't copied
+			updater.update(Arrays.asList(aircraft), FRAME_TIME);
+		}
+
+		return aircraft[0].getPosition();
+	}
+
+	@Override
+	public void teardown() {
+		templates = null;
+		aircraft = null;
+	}
+
+}
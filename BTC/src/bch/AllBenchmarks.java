@@ -0,0 +1,207 @@
+package bch;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lib.jog.window;
+
+/**
+ * <h1>All Benchmarks</h1>
+ * <p>
+ * Runs every benchmark, prints a summary, and writes the results as JSON.
+ * </p>
+ * <p>
+ * Usage: <code>java bch.AllBenchmarks [output.json] [name filter]</code>
+ * </p>
+ * <p>
+ * The window is given a virtual size first, as the airspace's waypoints
+ * and aircraft are positioned relative to its size, so the benchmarks
+ * run without a display.
+ * </p>
+ * <p>
+ * The runs can be configured with the properties btc.bench.warmup and
+ * btc.bench.iterations (the number of warmup and measured iterations),
+ * and btc.bench.time (the length of each iteration, in seconds).
+ * </p>
+ * <p>
+ * The runner exits with status 1 if any benchmark fails. Failed
+ * benchmarks are left out of the results file, as they have no score.
+ * </p>
+ * <p>
+ * If btc.bench.baseline names an earlier results file, each result is
+ * compared with it, and the runner also exits with status 1 if any
+ * benchmark is slower by more than btc.bench.tolerance (a fraction, by
+ * default 0.1) beyond the error of both results, or if any benchmark in
+ * the earlier results which matches the filter has no new result.
+ * </p>
+ */
+public class AllBenchmarks {
+
+	/** The width of the window simulated for the benchmarks */
+	private static final int WINDOW_WIDTH = 1280;
+
+	/** The height of the window simulated for the benchmarks */
+	private static final int WINDOW_HEIGHT = 960;
+
+	/** Finds each result's name, parameters and score in a results file */
+	private static final Pattern RESULT = Pattern.compile(
+			"\"benchmark\" : \"([^\"]*)\".*?\"params\" : \\{([^}]*)\\}"
+			+ ".*?\"score\" : ([-0-9.]+),\\s*\"scoreError\" : \"?([-0-9.NaN]+)",
+			Pattern.DOTALL);
+
+	/**
+	 * Creates every benchmark.
+	 * @return the benchmarks, in the order they are run
+	 */
+	public static Benchmark[] getBenchmarks() {
+		return new Benchmark[] {
+				new VectorBenchmark(),
+				new AircraftUpdateBenchmark(),
+				new AircraftUpdateBenchmark(true),
+				new CollisionBenchmark(),
+				new RouteBenchmark(),
+				new SerialisationBenchmark(false),
+				new SerialisationBenchmark(true),
+				new CreateAircraftBenchmark(),
+				new StressBenchmark()
+		};
+	}
+
+	/**
+	 * Runs the benchmarks.
+	 * @param args - the file to write the results to (by default
+	 * 			benchmarks.json), and optionally a filter which benchmarks'
+	 * 			names must contain to be run
+	 */
+	public static void main(String[] args) throws IOException {
+		String output = (args.length > 0) ? args[0] : "benchmarks.json";
+		String filter = (args.length > 1) ? args[1] : "";
+
+		BenchmarkRunner runner = new BenchmarkRunner(
+				Integer.getInteger("btc.bench.warmup", 3),
+				Integer.getInteger("btc.bench.iterations", 5),
+				Double.parseDouble(System.getProperty("btc.bench.time", "1")));
+
+		window.setVirtualSize(WINDOW_WIDTH, WINDOW_HEIGHT);
+
+		List<BenchmarkRunner.Result> results =
+				new ArrayList<BenchmarkRunner.Result>();
+		int failures = 0;
+
+		for (Benchmark benchmark : getBenchmarks()) {
+			if (!benchmark.getName().contains(filter)) continue;
+
+			for (BenchmarkRunner.Result result : runner.run(benchmark)) {
+				System.out.println(BenchmarkRunner.format(result));
+				results.add(result);
+
+				if (result.getError() != null) failures++;
+			}
+		}
+
+		FileWriter writer = new FileWriter(output);
+		try {
+			runner.writeJson(results, writer);
+		} finally {
+			writer.close();
+		}
+
+		System.out.println("Results written to " + output);
+
+		String baseline = System.getProperty("btc.bench.baseline");
+		if (baseline != null) {
+			double tolerance = Double.parseDouble(
+					System.getProperty("btc.bench.tolerance", "0.1"));
+
+			failures += countRegressions(results, baseline, filter, tolerance);
+		}
+
+		if (failures > 0) {
+			System.out.println(failures + " benchmark(s) failed, regressed "
+					+ "or were missing");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Compares results with those in an earlier results file, printing
+	 * any which have become slower, and any earlier results which weren't
+	 * run again.
+	 * @param results - the new results
+	 * @param baseline - the earlier results file
+	 * @param filter - the text which benchmarks' names had to contain to
+	 * 			be run
+	 * @param tolerance - the fraction by which a benchmark may slow down
+	 * @return the number of benchmarks which have become slower or have
+	 * 			no new result
+	 * @throws IOException if the earlier results can't be read
+	 */
+	private static int countRegressions(List<BenchmarkRunner.Result> results,
+			String baseline, String filter, double tolerance)
+			throws IOException {
+		String json = new String(Files.readAllBytes(Paths.get(baseline)),
+				StandardCharsets.UTF_8);
+
+		// Key each earlier result by its name and parameters
+		HashMap<String, double[]> earlier = new HashMap<String, double[]>();
+		HashMap<String, String> names = new HashMap<String, String>();
+		Matcher matcher = RESULT.matcher(json);
+
+		while (matcher.find()) {
+			String params = matcher.group(2).replaceAll("[\\s\"]", "")
+					.replace(':', '=');
+			double error = matcher.group(4).equals("NaN") ? 0
+					: Double.parseDouble(matcher.group(4));
+			earlier.put(matcher.group(1) + params, new double[] {
+					Double.parseDouble(matcher.group(3)), error});
+			names.put(matcher.group(1) + params, matcher.group(1));
+		}
+
+		int regressions = 0;
+		HashSet<String> run = new HashSet<String>();
+
+		for (BenchmarkRunner.Result result : results) {
+			String key = "bch." + result.getBenchmark() + result.getParams();
+			run.add(key);
+
+			// Failed benchmarks are counted as they are run
+			if (result.getError() != null) continue;
+
+			double[] before = earlier.get(key);
+			if (before == null) continue;
+
+			double error = Double.isNaN(result.getScoreError()) ? 0
+					: result.getScoreError();
+			double limit = before[0] * (1 + tolerance) + before[1] + error;
+
+			if (result.getScore() > limit) {
+				System.out.println(String.format(Locale.UK,
+						"REGRESSION %s %s: %.1f ns/op, was %.1f ns/op",
+						result.getBenchmark(), result.getParams(),
+						result.getScore(), before[0]));
+				regressions++;
+			}
+		}
+
+		// Benchmarks which no longer produce a result can't be compared
+		for (String key : earlier.keySet()) {
+			if (!run.contains(key) && names.get(key).contains(filter)) {
+				System.out.println("MISSING " + key);
+				regressions++;
+			}
+		}
+
+		return regressions;
+	}
+
+}
@@ -0,0 +1,155 @@
+package bch;
+
+import java.util.Random;
+
+import scn.Game.DifficultySetting;
+import cls.Aircraft;
+import cls.Waypoint;
+
+/**
+ * <h1>Benchmark</h1>
+ * <p>
+ * A piece of code whose speed is measured by the benchmark runner.
+ * </p>
+ * <p>
+ * A benchmark may be run with a number of values of a parameter, such as
+ * the number of aircraft in the airspace. For each value, the runner
+ * calls setup() once, then calls run() repeatedly, timing the calls, and
+ * finally calls teardown().
+ * </p>
+ * <p>
+ * run() should return the result of its work, which the runner consumes
+ * so that the work can't be optimised away.
+ * </p>
+ */
+public abstract class Benchmark {
+
+	/** The seed for benchmarks' random numbers, so runs are comparable */
+	protected static final long SEED = 2014;
+
+	/** The benchmark's name */
+	private final String name;
+
+	/** The name of the benchmark's parameter, or <code>null</code> if it
+	 * doesn't have one */
+	private final String paramName;
+
+	/** The values of the parameter to run the benchmark with */
+	private final int[] params;
+
+
+	/**
+	 * Constructor for a benchmark without a parameter.
+	 * @param name - the benchmark's name
+	 */
+	protected Benchmark(String name) {
+		this(name, null, 0);
+	}
+
+	/**
+	 * Constructor for a benchmark.
+	 * @param name - the benchmark's name
+	 * @param paramName - the name of the benchmark's parameter
+	 * @param params - the values of the parameter to run the benchmark with
+	 */
+	protected Benchmark(String name, String paramName, int... params) {
+		this.name = name;
+		this.paramName = paramName;
+		this.params = params;
+	}
+
+
+	// Running --------------------------------------------------------------------------
+
+	/**
+	 * Prepares to run the benchmark.
+	 * @param param - the value of the benchmark's parameter
+	 * @throws Exception if the benchmark can't be set up
+	 */
+	public void setup(int param) throws Exception {}
+
+	/**
+	 * Runs the code being measured once.
+	 * @return the result of the work done
+	 * @throws Exception if the code being measured fails
+	 */
+	public abstract Object run() throws Exception;
+
+	/**
+	 * Cleans up after running the benchmark.
+	 */
+	public void teardown() {}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the benchmark's name.
+	 * @return the benchmark's name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the name of the benchmark's parameter.
+	 * @return the parameter's name, or <code>null</code> if the benchmark
+	 * 			doesn't have a parameter
+	 */
+	public String getParamName() {
+		return paramName;
+	}
+
+	/**
+	 * Gets the values of the parameter to run the benchmark with.
+	 * @return the parameter's values
+	 */
+	public int[] getParams() {
+		return params;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Creates waypoints scattered across the airspace.
+	 * <p>
+	 * Waypoints are placed relative to the airspace's size, as the game's
+	 * are, so they can be created before the window has been opened.
+	 * </p>
+	 * @param random - the random number generator to place them with
+	 * @param count - the number of waypoints to create
+	 * @return the waypoints
+	 */
+	protected static Waypoint[] createWaypoints(Random random, int count) {
+		Waypoint[] waypoints = new Waypoint[count];
+
+		for (int i = 0; i < count; i++) {
+			waypoints[i] = new Waypoint(random.nextDouble(),
+					random.nextDouble(), false, true);
+		}
+
+		return waypoints;
+	}
+
+	/**
+	 * Creates an aircraft flying between two random points in the
+	 * airspace.
+	 * @param random - the random number generator to place it with
+	 * @param name - the aircraft's flight name
+	 * @param waypoints - the waypoints it may route through
+	 * @return the aircraft
+	 */
+	protected static Aircraft createAircraft(Random random, String name,
+			Waypoint[] waypoints) {
+		Waypoint origin = new Waypoint(random.nextDouble(),
+				random.nextDouble(), true, "Origin", true);
+		Waypoint destination = new Waypoint(random.nextDouble(),
+				random.nextDouble(), true, "Destination", true);
+
+		return new Aircraft(name, "Benchmark Air", "Destination", "Origin",
+				destination, origin, 10, waypoints, DifficultySetting.MEDIUM,
+				null, null);
+	}
+
+}
@@ -0,0 +1,320 @@
+package bch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <h1>Benchmark Runner</h1>
+ * <p>
+ * Times benchmarks, and writes the results as JSON in the layout JMH
+ * uses, so they can be read by the same tools.
+ * </p>
+ * <p>
+ * Each benchmark is run for a number of warmup iterations, which give
+ * the JIT compiler time to compile the code being measured and aren't
+ * recorded, then for a number of measured iterations. Each iteration runs
+ * the benchmark for a fixed time, in batches which grow until timing a
+ * batch costs little next to running it, and records the average time
+ * taken by each run.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+	/** The time a batch of runs should take, in nanoseconds, before the
+	 * batch stops growing */
+	private static final long MIN_BATCH_TIME = 1000000;
+
+	/** Student's t values for a 99.9% confidence interval, by degrees
+	 * of freedom from 1 to 20 */
+	private static final double[] T_999 = {636.62, 31.60, 12.92, 8.61, 6.87,
+		5.96, 5.41, 5.04, 4.78, 4.59, 4.44, 4.32, 4.22, 4.14, 4.07, 4.01, 3.97,
+		3.92, 3.88, 3.85};
+
+	/** The t value used for more than 20 degrees of freedom */
+	private static final double T_999_LARGE = 3.29;
+
+	/**
+	 * The measurements of a benchmark with one value of its parameter.
+	 */
+	public static class Result {
+
+		/** The benchmark's name */
+		private final String benchmark;
+
+		/** The name of the benchmark's parameter, or <code>null</code> */
+		private final String paramName;
+
+		/** The value of the benchmark's parameter */
+		private final int param;
+
+		/** The average time per run in each measured iteration, in ns */
+		private final double[] samples;
+
+		/** The reason the benchmark failed, or <code>null</code> if it ran */
+		private final String error;
+
+		/**
+		 * Constructor for a result.
+		 * @param benchmark - the benchmark measured
+		 * @param param - the value of the benchmark's parameter
+		 * @param samples - the average time per run in each iteration
+		 * @param error - the reason the benchmark failed, or
+		 * 			<code>null</code> if it ran
+		 */
+		private Result(Benchmark benchmark, int param, double[] samples,
+				String error) {
+			this.benchmark = benchmark.getName();
+			this.paramName = benchmark.getParamName();
+			this.param = param;
+			this.samples = samples;
+			this.error = error;
+		}
+
+		/**
+		 * Gets the name of the benchmark measured.
+		 * @return the benchmark's name
+		 */
+		public String getBenchmark() {
+			return benchmark;
+		}
+
+		/**
+		 * Gets the benchmark's parameter, as it is written to the results.
+		 * @return "name=value", or an empty string if the benchmark
+		 * 			doesn't have a parameter
+		 */
+		public String getParams() {
+			return (paramName == null) ? "" : paramName + "=" + param;
+		}
+
+		/**
+		 * Gets the mean time taken by each run.
+		 * @return the mean time per run, in nanoseconds
+		 */
+		public double getScore() {
+			double total = 0;
+			for (double sample : samples) total += sample;
+			return (samples.length == 0) ? Double.NaN : total / samples.length;
+		}
+
+		/**
+		 * Gets the half-width of the 99.9% confidence interval of the
+		 * mean time per run.
+		 * @return the error of the score, in nanoseconds
+		 */
+		public double getScoreError() {
+			int n = samples.length;
+			if (n < 2) return Double.NaN;
+
+			double mean = getScore();
+			double squares = 0;
+			for (double sample : samples) {
+				squares += (sample - mean) * (sample - mean);
+			}
+
+			double t = (n - 1 <= T_999.length) ? T_999[n - 2] : T_999_LARGE;
+			return t * Math.sqrt(squares / (n - 1)) / Math.sqrt(n);
+		}
+
+		/**
+		 * Gets why the benchmark failed.
+		 * @return the reason the benchmark failed, or <code>null</code>
+		 * 			if it ran
+		 */
+		public String getError() {
+			return error;
+		}
+
+	}
+
+	/** The number of warmup iterations */
+	private final int warmupIterations;
+
+	/** The number of measured iterations */
+	private final int measurementIterations;
+
+	/** The time each iteration runs for, in nanoseconds */
+	private final long iterationTime;
+
+	/** Consumes the benchmarks' results, so their work isn't optimised away */
+	private volatile int sink;
+
+
+	/**
+	 * Constructor for a benchmark runner.
+	 * @param warmupIterations - the number of warmup iterations
+	 * @param measurementIterations - the number of measured iterations
+	 * @param iterationTime - the time each iteration runs for, in seconds
+	 */
+	public BenchmarkRunner(int warmupIterations, int measurementIterations,
+			double iterationTime) {
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = measurementIterations;
+		this.iterationTime = (long) (iterationTime * 1e9);
+	}
+
+
+	// Running --------------------------------------------------------------------------
+
+	/**
+	 * Runs a benchmark with each value of its parameter.
+	 * <p>
+	 * A benchmark which throws is recorded as failed, rather than stopping
+	 * the other benchmarks from running.
+	 * </p>
+	 * @param benchmark - the benchmark to run
+	 * @return the results, one for each value of the parameter
+	 */
+	public List<Result> run(Benchmark benchmark) {
+		List<Result> results = new ArrayList<Result>();
+
+		for (int param : benchmark.getParams()) {
+			try {
+				benchmark.setup(param);
+
+				for (int i = 0; i < warmupIterations; i++) {
+					iterate(benchmark);
+				}
+
+				double[] samples = new double[measurementIterations];
+				for (int i = 0; i < measurementIterations; i++) {
+					samples[i] = iterate(benchmark);
+				}
+
+				results.add(new Result(benchmark, param, samples, null));
+			} catch (Throwable e) {
+				results.add(new Result(benchmark, param, new double[0],
+						e.toString()));
+			} finally {
+				benchmark.teardown();
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Runs a benchmark for one iteration.
+	 * @param benchmark - the benchmark to run
+	 * @return the average time per run, in nanoseconds
+	 * @throws Exception if the benchmark fails
+	 */
+	private double iterate(Benchmark benchmark) throws Exception {
+		long runs = 0;
+		long elapsed = 0;
+		int batch = 1;
+		int consumed = 0;
+
+		while (elapsed < iterationTime) {
+			long start = System.nanoTime();
+
+			for (int i = 0; i < batch; i++) {
+				Object result = benchmark.run();
+				consumed += (result == null) ? 0 : result.hashCode();
+			}
+
+			long batchTime = System.nanoTime() - start;
+			elapsed += batchTime;
+			runs += batch;
+
+			if (batchTime < MIN_BATCH_TIME && batch < (1 << 24)) {
+				batch *= 2;
+			}
+		}
+
+		sink += consumed;
+		return (double) elapsed / runs;
+	}
+
+
+	// Output ---------------------------------------------------------------------------
+
+	/**
+	 * Writes results as a JSON array in JMH's layout.
+	 * <p>
+	 * Failed benchmarks are left out of the JSON.
+	 * </p>
+	 * @param results - the results to write
+	 * @param out - the writer to write them to
+	 * @throws IOException if the results can't be written
+	 */
+	public void writeJson(List<Result> results, Writer out) throws IOException {
+		out.write("[\n");
+		boolean first = true;
+
+		for (Result result : results) {
+			if (result.getError() != null) continue;
+
+			if (!first) out.write(",\n");
+			first = false;
+
+			out.write("    {\n");
+			out.write("        \"benchmark\" : \"bch." + result.benchmark + "\",\n");
+			out.write("        \"mode\" : \"avgt\",\n");
+			out.write("        \"threads\" : 1,\n");
+			out.write("        \"forks\" : 1,\n");
+			out.write("        \"warmupIterations\" : " + warmupIterations + ",\n");
+			out.write("        \"warmupTime\" : \"" + iterationTime / 1000000
+					+ " ms\",\n");
+			out.write("        \"measurementIterations\" : "
+					+ measurementIterations + ",\n");
+			out.write("        \"measurementTime\" : \"" + iterationTime / 1000000
+					+ " ms\",\n");
+			out.write("        \"params\" : {"
+					+ ((result.paramName == null) ? "" : " \"" + result.paramName
+							+ "\" : \"" + result.param + "\" ") + "},\n");
+			out.write("        \"primaryMetric\" : {\n");
+			out.write("            \"score\" : " + number(result.getScore()) + ",\n");
+			out.write("            \"scoreError\" : "
+					+ number(result.getScoreError()) + ",\n");
+			out.write("            \"scoreConfidence\" : [ "
+					+ number(result.getScore() - result.getScoreError()) + ", "
+					+ number(result.getScore() + result.getScoreError()) + " ],\n");
+			out.write("            \"scoreUnit\" : \"ns/op\",\n");
+			out.write("            \"rawData\" : [ [ ");
+			for (int i = 0; i < result.samples.length; i++) {
+				if (i > 0) out.write(", ");
+				out.write(number(result.samples[i]));
+			}
+			out.write(" ] ]\n");
+			out.write("        },\n");
+			out.write("        \"secondaryMetrics\" : {}\n");
+			out.write("    }");
+		}
+
+		out.write("\n]\n");
+		out.flush();
+	}
+
+	/**
+	 * Formats a result as a line of the summary table.
+	 * @param result - the result to format
+	 * @return the result's name, parameter, score and error
+	 */
+	public static String format(Result result) {
+		String name = result.getBenchmark()
+				+ (result.paramName == null ? "" : " (" + result.getParams() + ")");
+
+		if (result.getError() != null) {
+			return String.format(Locale.UK, "%-40s FAILED: %s", name,
+					result.getError());
+		}
+
+		return String.format(Locale.UK, "%-40s %14.1f +- %10.1f ns/op", name,
+				result.getScore(), result.getScoreError());
+	}
+
+	/**
+	 * Formats a number for JSON, which has no NaN.
+	 * @param value - the number to format
+	 * @return the number, or "NaN" as a string
+	 */
+	private static String number(double value) {
+		return Double.isNaN(value) ? "\"NaN\""
+				: String.format(Locale.UK, "%.3f", value);
+	}
+
+}
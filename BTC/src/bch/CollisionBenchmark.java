@@ -0,0 +1,58 @@
+package bch;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import cls.Aircraft;
+import cls.Waypoint;
+
+/**
+ * Measures checking every aircraft in the airspace for crashes and
+ * separation breaches, as the game does each frame.
+ */
+public class CollisionBenchmark extends Benchmark {
+
+	/** The time between frames, in seconds */
+	private static final double FRAME_TIME = 1.0 / 60;
+
+	/** The aircraft in the airspace */
+	private ArrayList<Aircraft> aircraft;
+
+
+	/**
+	 * Constructor for the benchmark.
+	 */
+	public CollisionBenchmark() {
+		super("Aircraft.updateCollisions", "aircraft", 10, 100, 1000);
+	}
+
+	@Override
+	public void setup(int param) {
+		Random random = new Random(SEED);
+		Waypoint[] waypoints = createWaypoints(random, 20);
+
+		aircraft = new ArrayList<Aircraft>(param);
+		for (int i = 0; i < param; i++) {
+			aircraft.add(createAircraft(random, "BM" + i, waypoints));
+		}
+	}
+
+	@Override
+	public Object run() {
+		Aircraft collided = null;
+
+		for (int i = 0; i < aircraft.size(); i++) {
+			Aircraft result = aircraft.get(i).updateCollisions(FRAME_TIME,
+					aircraft);
+			if (result != null) collided = result;
+		}
+
+		return collided;
+	}
+
+	@Override
+	public void teardown() {
+		aircraft = null;
+	}
+
+}
@@ -0,0 +1,42 @@
+package bch;
+
+import scn.Game;
+import scn.Game.DifficultySetting;
+import scn.SinglePlayerGame;
+
+/**
+ * Measures generating a new flight, including finding its route.
+ */
+public class CreateAircraftBenchmark extends Benchmark {
+
+	/** The game creating aircraft */
+	private Game game;
+
+
+	/**
+	 * Constructor for the benchmark.
+	 */
+	public CreateAircraftBenchmark() {
+		super("Game.createAircraft");
+	}
+
+	@Override
+	public void setup(int param) {
+		game = SinglePlayerGame.createSinglePlayerGame(DifficultySetting.MEDIUM);
+		game.start();
+	}
+
+	@Override
+	public Object run() {
+		return game.createAircraft(game.getPlayer());
+	}
+
+	@Override
+	public void teardown() {
+		if (game != null) {
+			game.close();
+			game = null;
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+package bch;
+
+import java.util.Random;
+
+import cls.Aircraft;
+import cls.FlightPlan;
+import cls.Waypoint;
+
+/**
+ * Measures finding a route across the airspace as the number of
+ * waypoints to choose from grows.
+ */
+public class RouteBenchmark extends Benchmark {
+
+	/** The flight plan finding routes */
+	private FlightPlan flightPlan;
+
+	/** The waypoints to route through */
+	private Waypoint[] waypoints;
+
+	/** The point routes start from */
+	private Waypoint origin;
+
+	/** The point routes end at */
+	private Waypoint destination;
+
+
+	/**
+	 * Constructor for the benchmark.
+	 */
+	public RouteBenchmark() {
+		super("FlightPlan.findGreedyRoute", "waypoints", 10, 50, 200, 1000);
+	}
+
+	@Override
+	public void setup(int param) {
+		Random random = new Random(SEED);
+		waypoints = createWaypoints(random, param);
+
+		// Route between opposite corners, so routes use many waypoints
+		origin = new Waypoint(0, 0, true, "Origin", true);
+		destination = new Waypoint(1, 1, true, "Destination", true);
+
+		Aircraft aircraft = createAircraft(random, "BM0", waypoints);
+		flightPlan = aircraft.getFlightPlan();
+	}
+
+	@Override
+	public Object run() {
+		return flightPlan.findGreedyRoute(origin, destination, waypoints);
+	}
+
+	@Override
+	public void teardown() {
+		flightPlan = null;
+		waypoints = null;
+	}
+
+}
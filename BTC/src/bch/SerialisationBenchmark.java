@@ -0,0 +1,70 @@
+package bch;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Random;
+
+import net.NetworkManager;
+import cls.Aircraft;
+import cls.Player;
+import cls.Waypoint;
+
+/**
+ * Measures serialising a player, with their aircraft, to send to the
+ * opponent, or deserialising one received.
+ */
+public class SerialisationBenchmark extends Benchmark {
+
+	/** Whether deserialising is measured, rather than serialising */
+	private final boolean deserialise;
+
+	/** The player to serialise */
+	private Player player;
+
+	/** The serialised player */
+	private byte[] data;
+
+
+	/**
+	 * Constructor for the benchmark.
+	 * @param deserialise - <code>true</code> to measure deserialising,
+	 * 			or <code>false</code> to measure serialising
+	 */
+	public SerialisationBenchmark(boolean deserialise) {
+		super(deserialise ? "NetworkManager.deserialiseData"
+				: "NetworkManager.serialiseData", "aircraft", 0, 10, 100);
+		this.deserialise = deserialise;
+	}
+
+	@Override
+	public void setup(int param) {
+		Random random = new Random(SEED);
+		Waypoint[] waypoints = createWaypoints(random, 20);
+
+		ArrayList<Aircraft> aircraft = new ArrayList<Aircraft>(param);
+		for (int i = 0; i < param; i++) {
+			aircraft.add(createAircraft(random, "BM" + i, waypoints));
+		}
+
+		player = new Player(0, null, waypoints);
+		player.setAircraft(aircraft);
+		data = NetworkManager.serialiseData(player);
+	}
+
+	@Override
+	public Object run() {
+		if (deserialise) {
+			Serializable result = NetworkManager.deserialiseData(data);
+			return (result != null);
+		} else {
+			return NetworkManager.serialiseData(player).length;
+		}
+	}
+
+	@Override
+	public void teardown() {
+		player = null;
+		data = null;
+	}
+
+}
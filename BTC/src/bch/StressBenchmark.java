@@ -0,0 +1,301 @@
+package bch;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import btc.Main;
+import lib.jog.input;
+import lib.jog.window;
+import scn.Game;
+import scn.Game.DifficultySetting;
+import scn.StressGame;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * <h1>Stress Benchmark</h1>
+ * <p>
+ * Measures updating a game with thousands of aircraft in the air: moving
+ * every aircraft, checking them for collisions, updating the airports,
+ * and scoring and replacing the aircraft which finish.
+ * </p>
+ * <p>
+ * Run by itself, it plays a stress game for a time, and reports the
+ * number of updates played each second, the rate memory is allocated at,
+ * and the garbage collectors' pauses.
+ * </p>
+ * <p>
+ * Usage: <code>java bch.StressBenchmark aircraft seconds [difficulty]
+ * [grid size] [seed]</code>
+ * </p>
+ */
+public class StressBenchmark extends Benchmark {
+
+	/** The time step each update is given, as at 60 frames a second */
+	private static final double TIME_STEP = 1 / 60d;
+
+	/** The number of waypoints along each side of the grid, by default */
+	public static final int DEFAULT_GRID_SIZE = 12;
+
+	/**
+	 * Measures the memory allocated, and the garbage collections made,
+	 * while the stress game is played.
+	 */
+	private static class Monitor implements NotificationListener {
+
+		/** The threads, if allocations can be measured */
+		private final com.sun.management.ThreadMXBean threads;
+
+		/** The bytes allocated by the threads when last reset */
+		private long allocated;
+
+		/** The number of collections since last reset */
+		private int collections;
+
+		/** The total length of the collections' pauses since last reset,
+		 * in milliseconds */
+		private long pauseTime;
+
+		/** The longest pause since last reset, in milliseconds */
+		private long maxPause;
+
+		/**
+		 * Constructor for a monitor, which starts listening for collections.
+		 */
+		private Monitor() {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			threads = (bean instanceof com.sun.management.ThreadMXBean)
+					? (com.sun.management.ThreadMXBean) bean : null;
+
+			for (GarbageCollectorMXBean collector
+					: ManagementFactory.getGarbageCollectorMXBeans()) {
+				if (collector instanceof NotificationEmitter) {
+					((NotificationEmitter) collector)
+							.addNotificationListener(this, null, null);
+				}
+			}
+
+			reset();
+		}
+
+		@Override
+		public synchronized void handleNotification(Notification notification,
+				Object handback) {
+			if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+					.equals(notification.getType())) {
+				return;
+			}
+
+			long pause = GarbageCollectionNotificationInfo.from(
+					(CompositeData) notification.getUserData())
+					.getGcInfo().getDuration();
+
+			collections++;
+			pauseTime += pause;
+			maxPause = Math.max(maxPause, pause);
+		}
+
+		/**
+		 * Starts measuring afresh.
+		 */
+		private synchronized void reset() {
+			allocated = getAllocated();
+			collections = 0;
+			pauseTime = 0;
+			maxPause = 0;
+		}
+
+		/**
+		 * Gets the bytes allocated by every live thread.
+		 * @return the bytes allocated, or -1 if they can't be measured
+		 */
+		private long getAllocated() {
+			if (threads == null || !threads.isThreadAllocatedMemorySupported()
+					|| !threads.isThreadAllocatedMemoryEnabled()) {
+				return -1;
+			}
+
+			long total = 0;
+			for (long bytes : threads.getThreadAllocatedBytes(
+					threads.getAllThreadIds())) {
+				if (bytes > 0) total += bytes;
+			}
+
+			return total;
+		}
+
+		/**
+		 * Describes what has been measured since last reset.
+		 * @param seconds - the time since last reset
+		 * @return the description
+		 */
+		private synchronized String report(double seconds) {
+			long now = getAllocated();
+			String allocation = (now < 0 || allocated < 0) ? "n/a"
+					: String.format(Locale.UK, "%.1f MB/s",
+							(now - allocated) / (seconds * 1024 * 1024));
+
+			return String.format(Locale.UK, "allocated %s, %d GCs,"
+					+ " %d ms paused, longest pause %d ms", allocation,
+					collections, pauseTime, maxPause);
+		}
+
+		/**
+		 * Stops listening for collections.
+		 */
+		private void close() {
+			for (GarbageCollectorMXBean collector
+					: ManagementFactory.getGarbageCollectorMXBeans()) {
+				if (collector instanceof NotificationEmitter) {
+					try {
+						((NotificationEmitter) collector)
+								.removeNotificationListener(this);
+					} catch (Exception e) {
+						// Not listening to this collector
+					}
+				}
+			}
+		}
+
+	}
+
+	/** The game being updated */
+	private StressGame game;
+
+
+	/**
+	 * Plays a stress game for a time, reporting its speed each second.
+	 * @param args - the number of aircraft and the seconds to run for,
+	 * 			and optionally the difficulty, the size of the waypoint
+	 * 			grid and the seed
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.out.println("Usage: StressBenchmark aircraft seconds"
+					+ " [easy|medium|hard] [grid size] [seed]");
+			return;
+		}
+
+		int aircraft = Integer.parseInt(args[0]);
+		int seconds = Integer.parseInt(args[1]);
+		DifficultySetting difficulty = (args.length > 2)
+				? DifficultySetting.valueOf(args[2].toUpperCase())
+				: DifficultySetting.MEDIUM;
+		int gridSize = (args.length > 3) ? Integer.parseInt(args[3])
+				: DEFAULT_GRID_SIZE;
+		int seed = (args.length > 4) ? Integer.parseInt(args[4]) : (int) SEED;
+
+		StressBenchmark benchmark = new StressBenchmark();
+		Monitor monitor = new Monitor();
+
+		long start = System.nanoTime();
+		benchmark.startGame(aircraft, difficulty, gridSize, seed);
+		System.out.println(String.format(Locale.UK,
+				"Filled the airspace with %d aircraft in %.1fs, %s",
+				benchmark.game.getAllAircraft().size(),
+				(System.nanoTime() - start) / 1e9,
+				monitor.report((System.nanoTime() - start) / 1e9)));
+
+		long totalTicks = 0;
+		long totalTime = 0;
+
+		try {
+			for (int second = 1; second <= seconds; second++) {
+				monitor.reset();
+				start = System.nanoTime();
+
+				long ticks = 0;
+				long longestTick = 0;
+				long now = start;
+
+				while (now - start < 1000000000L) {
+					benchmark.run();
+					ticks++;
+
+					long end = System.nanoTime();
+					longestTick = Math.max(longestTick, end - now);
+					now = end;
+				}
+
+				totalTicks += ticks;
+				totalTime += now - start;
+
+				System.out.println(String.format(Locale.UK,
+						"%3ds: %.1f ticks/s, longest tick %.1f ms, %d aircraft,"
+						+ " %d crashes, %s", second, ticks * 1e9 / (now - start),
+						longestTick / 1e6, benchmark.game.getAllAircraft().size(),
+						benchmark.game.getCrashes(),
+						monitor.report((now - start) / 1e9)));
+			}
+
+			System.out.println(String.format(Locale.UK,
+					"Mean: %.1f ticks/s with %d aircraft",
+					totalTicks * 1e9 / Math.max(1, totalTime), aircraft));
+		} finally {
+			benchmark.teardown();
+			monitor.close();
+		}
+	}
+
+	/**
+	 * Constructor for the benchmark.
+	 */
+	public StressBenchmark() {
+		super("StressGame.update", "aircraft", 1000, 5000);
+	}
+
+	@Override
+	public void setup(int param) {
+		startGame(param, DifficultySetting.MEDIUM, DEFAULT_GRID_SIZE, (int) SEED);
+	}
+
+	@Override
+	public Object run() {
+		game.update(TIME_STEP);
+		return game.getAllAircraft().size();
+	}
+
+	@Override
+	public void teardown() {
+		if (game != null) {
+			game.close();
+			game = null;
+
+			input.setState(null);
+		}
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Creates a stress game, and fills its airspace.
+	 * @param aircraft - the number of aircraft to keep in the air
+	 * @param difficulty - the difficulty to play at
+	 * @param gridSize - the number of waypoints along each side of the grid
+	 * @param seed - the seed of the game's random numbers
+	 */
+	private void startGame(int aircraft, DifficultySetting difficulty,
+			int gridSize, int seed) {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		if (window.width() == 0) window.setVirtualSize(1280, 960);
+		Main.setRandomSeed(seed);
+
+		// Nobody is at the keyboard or mouse
+		input.setState(input.IDLE_STATE);
+
+		game = StressGame.createStressGame(difficulty, aircraft, gridSize);
+		game.start();
+	}
+
+}
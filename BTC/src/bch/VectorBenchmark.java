@@ -0,0 +1,43 @@
+package bch;
+
+import cls.Vector;
+
+/**
+ * Measures the vector arithmetic used to move and steer aircraft.
+ */
+public class VectorBenchmark extends Benchmark {
+
+	/** A position */
+	private Vector position;
+
+	/** A velocity */
+	private Vector velocity;
+
+	/** A target */
+	private Vector target;
+
+
+	/**
+	 * Constructor for the benchmark.
+	 */
+	public VectorBenchmark() {
+		super("Vector.arithmetic");
+	}
+
+	@Override
+	public void setup(int param) {
+		position = new Vector(120, 340, 28000);
+		velocity = new Vector(3, 4, 0);
+		target = new Vector(600, 200, 28000);
+	}
+
+	@Override
+	public Object run() {
+		// Move, then steer towards the target, as an aircraft update does
+		Vector moved = position.add(velocity.scaleBy(1.0 / 60));
+		Vector heading = target.sub(moved).normalise();
+		double angle = heading.angleBetween(velocity);
+		return moved.magnitude() + angle;
+	}
+
+}
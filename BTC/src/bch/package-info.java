@@ -0,0 +1,5 @@
+/**
+ * Contains the benchmarks for the simulation's hot paths
+ */
+package bch;
+//This is a header file for Javadoc
@@ -0,0 +1,105 @@
+package bot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import cls.Aircraft;
+import cls.Airport;
+import cls.RunwaySequencer.Operation;
+import cls.Vector;
+import cls.Waypoint;
+
+/**
+ * <h1>Aggressive Strategy</h1>
+ * <p>
+ * Clears every departure and arrival as soon as it can, and with every
+ * decision takes another action on one of the player's aircraft: steering
+ * it straight for its destination, rerouting it through another waypoint,
+ * changing its altitude or handing it back to its flight plan.
+ * </p>
+ * <p>
+ * It doesn't look out for conflicts, so plays badly, but keeps the game
+ * as busy as a player can, which makes it useful for load testing.
+ * </p>
+ */
+public class AggressiveStrategy implements Strategy {
+
+	/** Chooses the aircraft and actions, apart from the game's own randomness */
+	private final Random random;
+
+
+	/**
+	 * Constructor for an aggressive strategy.
+	 * @param seed - the seed of the strategy's choices
+	 */
+	public AggressiveStrategy(long seed) {
+		this.random = new Random(seed);
+	}
+
+
+	@Override
+	public void act(Controls controls) {
+		for (Airport airport : controls.getPlayer().getAirports()) {
+			int cleared = airport.getRunwaySequencer().getQueueLength(
+					Operation.DEPARTURE);
+
+			for (int i = cleared; i < airport.aircraftHangar.size(); i++) {
+				controls.takeOff(airport);
+			}
+		}
+
+		List<Aircraft> aircraft = controls.getAircraft();
+
+		for (Aircraft waiting : aircraft) {
+			if (waiting.isWaitingToLand && !waiting.isLanding()) {
+				controls.select(waiting);
+				controls.land();
+			}
+		}
+
+		if (aircraft.isEmpty()) return;
+
+		Aircraft chosen = aircraft.get(random.nextInt(aircraft.size()));
+		if (chosen.isLanding() || !controls.select(chosen)) return;
+
+		switch (random.nextInt(4)) {
+		case 0:
+			// Head straight for the destination
+			Vector offset = chosen.getFlightPlan().getDestination()
+					.sub(chosen.getPosition());
+			controls.steer(Math.atan2(offset.getY(), offset.getX()));
+			break;
+		case 1:
+			reroute(controls, chosen);
+			break;
+		case 2:
+			if (!controls.climb()) controls.descend();
+			break;
+		default:
+			if (chosen.isManuallyControlled()) controls.toggleManualControl();
+			break;
+		}
+	}
+
+	/**
+	 * Changes one of the waypoints ahead of an aircraft to another.
+	 * @param controls - the player's controls
+	 * @param aircraft - the selected aircraft
+	 */
+	private void reroute(Controls controls, Aircraft aircraft) {
+		int stages = aircraft.getFlightPlan().getRoute().length
+				- aircraft.getRouteStage();
+		if (stages <= 0) return;
+
+		ArrayList<Waypoint> waypoints = new ArrayList<Waypoint>();
+		for (Waypoint waypoint : controls.getPlayer().getWaypoints()) {
+			if (!waypoint.isEntryOrExit()) waypoints.add(waypoint);
+		}
+		if (waypoints.isEmpty()) return;
+
+		controls.alterPath(aircraft.getRouteStage() + random.nextInt(stages),
+				waypoints.get(random.nextInt(waypoints.size())));
+	}
+
+}
@@ -0,0 +1,128 @@
+package bot;
+
+import scn.Game;
+
+/**
+ * <h1>Autopilot</h1>
+ * <p>
+ * Plays a game in place of its current player, so that games can be
+ * played unattended, e.g. to load and soak test the game and its network
+ * play.
+ * </p>
+ * <p>
+ * The autopilot only acts through the player's controls, at most once
+ * per reaction time, as a quick human player would. How it plays is
+ * decided by its strategy:
+ * </p>
+ * <ul>
+ * <li>idle takes no actions, leaving aircraft to follow their flight
+ * plans;</li>
+ * <li>greedy clears departures and arrivals, and changes the altitude of
+ * aircraft which are about to lose separation;</li>
+ * <li>aggressive clears every departure and arrival straight away, and
+ * keeps steering, rerouting and changing the altitude of aircraft.</li>
+ * </ul>
+ * <p>
+ * Games started with the btc.bot property set to a strategy's name are
+ * played by an autopilot with that strategy. Its decisions depend only on
+ * the state of the game, so recorded sessions replay exactly as long as
+ * the property is the same.
+ * </p>
+ */
+public class Autopilot {
+
+	/** The default time between decisions, in seconds */
+	public static final double DEFAULT_REACTION_TIME = 0.25;
+
+	/** The strategy new games are played with, or "off" to not play them */
+	private static String defaultStrategy = System.getProperty("btc.bot", "off");
+
+	/** The controls of the player being played for */
+	private final Controls controls;
+
+	/** Decides the player's actions */
+	private final Strategy strategy;
+
+	/** The time between decisions, in seconds */
+	private final double reactionTime;
+
+	/** The time the next decision is due */
+	private double nextDecisionTime;
+
+
+	/**
+	 * Starts playing a new game, if the btc.bot property names a strategy.
+	 * @param game - the game to play
+	 * @return the autopilot, or <code>null</code> if the game is played
+	 * 			by a person
+	 */
+	public static Autopilot start(Game game) {
+		if (defaultStrategy.equals("off")) return null;
+
+		return new Autopilot(game, createStrategy(defaultStrategy),
+				DEFAULT_REACTION_TIME);
+	}
+
+	/**
+	 * Creates a strategy from its name.
+	 * @param name - idle, greedy or aggressive
+	 * @return a new strategy
+	 * @throws IllegalArgumentException if there is no strategy with the name
+	 */
+	public static Strategy createStrategy(String name) {
+		if (name.equals("idle")) {
+			return new IdleStrategy();
+		} else if (name.equals("greedy")) {
+			return new GreedyStrategy();
+		} else if (name.equals("aggressive")) {
+			return new AggressiveStrategy(0);
+		} else {
+			throw new IllegalArgumentException("Unknown strategy: " + name
+					+ " (expected idle, greedy or aggressive)");
+		}
+	}
+
+	/**
+	 * Constructor for an autopilot.
+	 * @param game - the game to play
+	 * @param strategy - decides the player's actions
+	 * @param reactionTime - the time between decisions, in seconds
+	 */
+	public Autopilot(Game game, Strategy strategy, double reactionTime) {
+		this.controls = new Controls(game);
+		this.strategy = strategy;
+		this.reactionTime = reactionTime;
+	}
+
+
+	/**
+	 * Takes the player's actions, if a decision is due.
+	 * @param time - the time the game has run for
+	 */
+	public void update(double time) {
+		if (time < nextDecisionTime || controls.getPlayer() == null) return;
+		nextDecisionTime = time + reactionTime;
+
+		strategy.act(controls);
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the controls of the player being played for.
+	 * @return the controls of the player being played for
+	 */
+	public Controls getControls() {
+		return controls;
+	}
+
+	/**
+	 * Gets the strategy deciding the player's actions.
+	 * @return the strategy deciding the player's actions
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+}
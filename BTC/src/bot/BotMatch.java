@@ -0,0 +1,312 @@
+package bot;
+
+import btc.Main;
+import cls.GameEvent;
+import cls.Player;
+import lib.EventBus;
+import lib.jog.input;
+import lib.jog.window;
+import scn.Game;
+import scn.SinglePlayerGame;
+import scn.Game.DifficultySetting;
+
+/**
+ * <h1>Bot Match</h1>
+ * <p>
+ * Plays single player games headlessly with an autopilot, as fast as
+ * possible, and reports how each went and how quickly they ran.
+ * </p>
+ * <p>
+ * Games are played one after another, as there is only one game at a
+ * time in each process; to play many at once, start several processes.
+ * Each game's random numbers are seeded with its index, offset by the
+ * btc.bot.seed property, so a match can be played again exactly.
+ * </p>
+ * <p>
+ * Usage: <code>java bot.BotMatch strategy [games] [seconds] [difficulty]</code>
+ * </p>
+ */
+public class BotMatch {
+
+	/**
+	 * The outcome of one game.
+	 */
+	public static class Result {
+
+		/** The seed of the game's random numbers */
+		private final int seed;
+
+		/** The number of updates played */
+		private final long ticks;
+
+		/** The time the game ran for */
+		private final double time;
+
+		/** The player's final score */
+		private final int score;
+
+		/** The number of aircraft the player landed */
+		private final int landed;
+
+		/** The number of aircraft the player cleared from the airspace */
+		private final int cleared;
+
+		/** The number of actions the autopilot took */
+		private final int actions;
+
+		/** The number of times aircraft came within the minimum separation */
+		private final int breaches;
+
+		/** Whether the game ended in a crash, before its time was up */
+		private final boolean isCrashed;
+
+		/** The time taken to play the game, in nanoseconds */
+		private final long nanos;
+
+		/**
+		 * Constructor for a result.
+		 * @param seed - the seed of the game's random numbers
+		 * @param ticks - the number of updates played
+		 * @param game - the game which was played
+		 * @param actions - the number of actions the autopilot took
+		 * @param breaches - the number of separation breaches
+		 * @param nanos - the time taken to play the game
+		 */
+		private Result(int seed, long ticks, Game game, int actions,
+				int breaches, long nanos) {
+			Player player = game.getPlayer();
+
+			this.seed = seed;
+			this.ticks = ticks;
+			this.time = game.getTime();
+			this.score = player.getScore();
+			this.landed = player.getPlanesLanded();
+			this.cleared = player.getPlanesCleared();
+			this.actions = actions;
+			this.breaches = breaches;
+			this.isCrashed = game.isCrashed();
+			this.nanos = nanos;
+		}
+
+		/**
+		 * Gets the seed of the game's random numbers.
+		 * @return the seed of the game's random numbers
+		 */
+		public int getSeed() {
+			return seed;
+		}
+
+		/**
+		 * Gets the number of updates played.
+		 * @return the number of updates played
+		 */
+		public long getTicks() {
+			return ticks;
+		}
+
+		/**
+		 * Gets the time the game ran for.
+		 * @return the time the game ran for, in seconds
+		 */
+		public double getTime() {
+			return time;
+		}
+
+		/**
+		 * Gets the player's final score.
+		 * @return the player's final score
+		 */
+		public int getScore() {
+			return score;
+		}
+
+		/**
+		 * Gets the number of aircraft the player landed.
+		 * @return the number of aircraft the player landed
+		 */
+		public int getLanded() {
+			return landed;
+		}
+
+		/**
+		 * Gets the number of aircraft the player cleared from the airspace.
+		 * @return the number of aircraft the player cleared from the airspace
+		 */
+		public int getCleared() {
+			return cleared;
+		}
+
+		/**
+		 * Gets the number of actions the autopilot took.
+		 * @return the number of actions the autopilot took
+		 */
+		public int getActions() {
+			return actions;
+		}
+
+		/**
+		 * Gets the number of separation breaches.
+		 * @return the number of times aircraft came within the minimum
+		 * 			separation of another
+		 */
+		public int getBreaches() {
+			return breaches;
+		}
+
+		/**
+		 * Gets whether the game ended in a crash before its time was up.
+		 * @return whether the game ended in a crash before its time was up
+		 */
+		public boolean isCrashed() {
+			return isCrashed;
+		}
+
+		/**
+		 * Gets the time taken to play the game.
+		 * @return the time taken to play the game, in nanoseconds
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			return "seed " + seed + ": " + String.format("%.1f", time) + "s, score "
+					+ score + ", " + landed + " landed, " + cleared + " cleared, "
+					+ actions + " actions, " + breaches + " breaches, "
+					+ (isCrashed ? "crashed" : "survived")
+					+ " (" + String.format("%.0f", ticks / (nanos / 1e9)) + " ticks/s)";
+		}
+
+	}
+
+	/** The time step each update is given, as at 60 frames a second */
+	public static final double TIME_STEP = 1 / 60d;
+
+	/** The offset of each game's seed from its index */
+	private static int seedOffset = Integer.getInteger("btc.bot.seed", 0);
+
+	/** The name of the strategy the games are played with */
+	private final String strategy;
+
+	/** The difficulty the games are played at */
+	private final DifficultySetting difficulty;
+
+	/** The longest time each game is played for, in seconds */
+	private final double duration;
+
+
+	/**
+	 * Plays a number of games with a strategy, printing how each went and
+	 * a summary of them all.
+	 * @param args - the strategy, and optionally the number of games, the
+	 * 			longest time to play each for, and the difficulty
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Usage: BotMatch idle|greedy|aggressive"
+					+ " [games] [seconds] [easy|medium|hard]");
+			return;
+		}
+
+		int games = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		double duration = (args.length > 2) ? Double.parseDouble(args[2]) : 300;
+		DifficultySetting difficulty = (args.length > 3)
+				? DifficultySetting.valueOf(args[3].toUpperCase())
+				: DifficultySetting.MEDIUM;
+
+		BotMatch match = new BotMatch(args[0], difficulty, duration);
+
+		long ticks = 0;
+		long nanos = 0;
+		long score = 0;
+		int crashes = 0;
+
+		for (int i = 0; i < games; i++) {
+			Result result = match.play(seedOffset + i);
+			System.out.println(result);
+
+			ticks += result.getTicks();
+			nanos += result.getNanos();
+			score += result.getScore();
+			if (result.isCrashed()) crashes++;
+		}
+
+		System.out.println(games + " games, " + crashes + " crashed, mean score "
+				+ (score / Math.max(1, games)) + ", "
+				+ String.format("%.0f", ticks / (nanos / 1e9)) + " ticks/s");
+	}
+
+	/**
+	 * Constructor for a match.
+	 * <p>
+	 * Games are played headlessly, so Main.testing must be set, as it is
+	 * unless the game was started by Main.main().
+	 * </p>
+	 * @param strategy - the name of the strategy to play with
+	 * @param difficulty - the difficulty to play at
+	 * @param duration - the longest time to play each game for, in seconds
+	 */
+	public BotMatch(String strategy, DifficultySetting difficulty,
+			double duration) {
+		// Check the strategy exists before playing
+		Autopilot.createStrategy(strategy);
+
+		this.strategy = strategy;
+		this.difficulty = difficulty;
+		this.duration = duration;
+	}
+
+
+	/**
+	 * Plays a game until it ends or its time is up.
+	 * @param seed - the seed of the game's random numbers
+	 * @return how the game went
+	 * @throws IllegalStateException if a game is already running
+	 */
+	public Result play(int seed) {
+		if (Game.getInstance() != null) {
+			throw new IllegalStateException("A game is already running");
+		}
+
+		if (window.width() == 0) window.setVirtualSize(1280, 960);
+		Main.setRandomSeed(seed);
+
+		SinglePlayerGame game = SinglePlayerGame.createSinglePlayerGame(difficulty);
+		Autopilot autopilot = new Autopilot(game,
+				Autopilot.createStrategy(strategy), Autopilot.DEFAULT_REACTION_TIME);
+
+		long ticks = 0;
+		long start = System.nanoTime();
+		final int[] breaches = new int[1];
+
+		// Nobody is at the keyboard or mouse
+		input.setState(input.IDLE_STATE);
+
+		try {
+			game.start();
+			game.setAutopilot(autopilot);
+
+			game.getEvents().subscribe(GameEvent.SeparationBreached.class,
+					new EventBus.Listener<GameEvent.SeparationBreached>() {
+				@Override
+				public void handle(GameEvent.SeparationBreached event) {
+					breaches[0]++;
+				}
+			});
+
+			while (game.getTime() < duration && !game.isOver()) {
+				game.update(TIME_STEP);
+				ticks++;
+			}
+
+			return new Result(seed, ticks, game,
+					autopilot.getControls().getActions(), breaches[0],
+					System.nanoTime() - start);
+		} finally {
+			game.close();
+			input.setState(null);
+		}
+	}
+
+}
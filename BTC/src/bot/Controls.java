@@ -0,0 +1,289 @@
+package bot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cls.Aircraft;
+import cls.Airport;
+import cls.Player;
+import cls.Waypoint;
+import scn.Game;
+
+/**
+ * <h1>Controls</h1>
+ * <p>
+ * The controls a player has over their aircraft and airports, for an
+ * autopilot to play with.
+ * </p>
+ * <p>
+ * Each action is the one the game takes for the matching mouse or
+ * keyboard input, and is only allowed when that input would be, e.g. an
+ * aircraft must be selected before its altitude can be changed. Actions
+ * which aren't allowed do nothing, and return <code>false</code>.
+ * </p>
+ */
+public class Controls {
+
+	/** The game being played */
+	private final Game game;
+
+	/** The number of actions which have been taken */
+	private int actions;
+
+
+	/**
+	 * Constructor for a set of controls.
+	 * @param game - the game to control the current player in
+	 */
+	public Controls(Game game) {
+		this.game = game;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the game being played.
+	 * @return the game being played
+	 */
+	public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * Gets the player being controlled.
+	 * @return the player being controlled
+	 */
+	public Player getPlayer() {
+		return game.getPlayer();
+	}
+
+	/**
+	 * Gets the player's aircraft which are still flying.
+	 * @return the player's aircraft
+	 */
+	public List<Aircraft> getAircraft() {
+		ArrayList<Aircraft> flying = new ArrayList<Aircraft>();
+
+		for (Aircraft aircraft : getPlayer().getAircraft()) {
+			if (!aircraft.isFinished()) flying.add(aircraft);
+		}
+
+		return flying;
+	}
+
+	/**
+	 * Gets every aircraft which is still flying, including other players'.
+	 * @return all of the aircraft in the airspace
+	 */
+	public List<Aircraft> getAllAircraft() {
+		ArrayList<Aircraft> flying = new ArrayList<Aircraft>();
+
+		for (Aircraft aircraft : game.getAllAircraft()) {
+			if (!aircraft.isFinished()) flying.add(aircraft);
+		}
+
+		return flying;
+	}
+
+	/**
+	 * Gets the aircraft the player has selected.
+	 * @return the aircraft the player has selected, or <code>null</code>
+	 */
+	public Aircraft getSelectedAircraft() {
+		return getPlayer().getSelectedAircraft();
+	}
+
+	/**
+	 * Gets whether an aircraft is one of the player's.
+	 * @param aircraft - the aircraft to check
+	 * @return <code>true</code> if the player controls the aircraft
+	 */
+	public boolean isOwn(Aircraft aircraft) {
+		return getPlayer().getAircraft().contains(aircraft);
+	}
+
+	/**
+	 * Gets the number of actions which have been taken.
+	 * @return the number of actions which have been taken
+	 */
+	public int getActions() {
+		return actions;
+	}
+
+
+	// Actions --------------------------------------------------------------------------
+
+	/**
+	 * Selects one of the player's aircraft, as clicking on it does.
+	 * @param aircraft - the aircraft to select
+	 * @return <code>true</code> if the aircraft was selected
+	 */
+	public boolean select(Aircraft aircraft) {
+		if (aircraft == null || aircraft.isFinished() || !isOwn(aircraft)) {
+			return false;
+		}
+
+		if (aircraft != getSelectedAircraft()) {
+			game.deselectAircraft(getPlayer());
+			getPlayer().setSelectedAircraft(aircraft);
+			actions++;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Deselects the selected aircraft, as right clicking away from it does.
+	 * <p>
+	 * An aircraft under manual control is returned to its flight plan.
+	 * </p>
+	 */
+	public void deselect() {
+		if (getSelectedAircraft() != null) {
+			game.deselectAircraft(getPlayer());
+			actions++;
+		}
+	}
+
+	/**
+	 * Toggles manual control of the selected aircraft, as space does.
+	 * @return <code>true</code> if an aircraft was selected
+	 */
+	public boolean toggleManualControl() {
+		if (getSelectedAircraft() == null) return false;
+
+		getSelectedAircraft().toggleManualControl();
+		actions++;
+		return true;
+	}
+
+	/**
+	 * Steers the selected aircraft to a bearing, as dragging its compass
+	 * does, taking manual control of it if needed.
+	 * @param bearing - the bearing to steer to, in radians
+	 * @return <code>true</code> if the aircraft is being steered
+	 */
+	public boolean steer(double bearing) {
+		Aircraft aircraft = getSelectedAircraft();
+		if (aircraft == null) return false;
+
+		if (!aircraft.isManuallyControlled()) {
+			aircraft.toggleManualControl();
+
+			// Aircraft which are landing can't be manually controlled
+			if (!aircraft.isManuallyControlled()) return false;
+		}
+
+		aircraft.setBearing(bearing);
+		actions++;
+		return true;
+	}
+
+	/**
+	 * Starts the selected aircraft climbing, as W does.
+	 * @return <code>true</code> if the aircraft is below the highest
+	 * 			altitude, so can climb
+	 */
+	public boolean climb() {
+		Aircraft aircraft = getSelectedAircraft();
+		if (aircraft == null || aircraft.getPosition().getZ() >= 30000) {
+			return false;
+		}
+
+		aircraft.setAltitudeState(Aircraft.ALTITUDE_CLIMB);
+		actions++;
+		return true;
+	}
+
+	/**
+	 * Starts the selected aircraft descending, as S does.
+	 * @return <code>true</code> if the aircraft is above the lowest
+	 * 			altitude, so can descend
+	 */
+	public boolean descend() {
+		Aircraft aircraft = getSelectedAircraft();
+		if (aircraft == null || aircraft.getPosition().getZ() <= 28000) {
+			return false;
+		}
+
+		aircraft.setAltitudeState(Aircraft.ALTITUDE_FALL);
+		actions++;
+		return true;
+	}
+
+	/**
+	 * Changes a waypoint in the selected aircraft's flight plan, as
+	 * dragging it to another waypoint does.
+	 * @param routeStage - the index of the waypoint to change
+	 * @param waypoint - the waypoint to go to instead
+	 * @return <code>true</code> if the flight plan was changed
+	 */
+	public boolean alterPath(int routeStage, Waypoint waypoint) {
+		Aircraft aircraft = getSelectedAircraft();
+		if (aircraft == null || waypoint == null || waypoint.isEntryOrExit()
+				|| routeStage < aircraft.getRouteStage()
+				|| routeStage >= aircraft.getFlightPlan().getRoute().length) {
+			return false;
+		}
+
+		// Only waypoints which can be dragged can be changed
+		Waypoint current = aircraft.getFlightPlan().getRoute()[routeStage];
+		if (current == null || current.isEntryOrExit()) return false;
+
+		aircraft.alterPath(routeStage, waypoint);
+		actions++;
+		return true;
+	}
+
+	/**
+	 * Clears the next aircraft in one of the player's hangars to take
+	 * off, as clicking its departures does.
+	 * @param airport - the airport to take off from
+	 * @return <code>true</code> if there was an aircraft to clear
+	 */
+	public boolean takeOff(Airport airport) {
+		if (!isOwn(airport) || airport.aircraftHangar.size() == 0) return false;
+
+		airport.signalTakeOff();
+		actions++;
+		return true;
+	}
+
+	/**
+	 * Clears the selected aircraft to land at its destination, as
+	 * clicking the airport's arrivals does.
+	 * @return <code>true</code> if the aircraft was cleared to land
+	 */
+	public boolean land() {
+		Aircraft aircraft = getSelectedAircraft();
+		if (aircraft == null || !aircraft.isWaitingToLand) return false;
+
+		Airport airport = aircraft.getFlightPlan().getDestinationAirport();
+		if (airport == null || !isOwn(airport)
+				|| !aircraft.currentTarget.equals(airport.getLocation())
+				|| !airport.requestLanding(aircraft)) {
+			return false;
+		}
+
+		game.deselectAircraft(getPlayer());
+		actions++;
+		return true;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Gets whether an airport is one of the player's.
+	 * @param airport - the airport to check
+	 * @return <code>true</code> if the player controls the airport
+	 */
+	private boolean isOwn(Airport airport) {
+		for (Airport own : getPlayer().getAirports()) {
+			if (own == airport) return true;
+		}
+		return false;
+	}
+
+}
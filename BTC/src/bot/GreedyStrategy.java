@@ -0,0 +1,181 @@
+package bot;
+
+import java.util.List;
+
+import cls.Aircraft;
+import cls.Airport;
+import cls.Vector;
+
+/**
+ * <h1>Greedy Strategy</h1>
+ * <p>
+ * Keeps traffic moving and aircraft apart, dealing with each problem the
+ * quickest way it can:
+ * </p>
+ * <ul>
+ * <li>departures are cleared to take off when the airspace over their
+ * airport is clear;</li>
+ * <li>aircraft waiting to land are cleared to land;</li>
+ * <li>pairs of aircraft which will lose separation within the lookahead
+ * time, if they hold their courses, are separated by moving one of the
+ * player's to the other altitude.</li>
+ * </ul>
+ */
+public class GreedyStrategy implements Strategy {
+
+	/** The default time ahead to look for conflicts, in seconds */
+	public static final double DEFAULT_LOOKAHEAD = 6;
+
+	/** The altitude between the two flight levels */
+	private static final double MIDDLE_ALTITUDE = 29000;
+
+	/** The time ahead to look for conflicts, in seconds */
+	private final double lookahead;
+
+
+	/**
+	 * Constructor for a greedy strategy, with the default lookahead.
+	 */
+	public GreedyStrategy() {
+		this(DEFAULT_LOOKAHEAD);
+	}
+
+	/**
+	 * Constructor for a greedy strategy.
+	 * @param lookahead - the time ahead to look for conflicts, in seconds
+	 */
+	public GreedyStrategy(double lookahead) {
+		this.lookahead = lookahead;
+	}
+
+
+	@Override
+	public void act(Controls controls) {
+		resolveConflicts(controls);
+		clearArrivals(controls);
+		clearDepartures(controls);
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Moves one aircraft of each conflicting pair to the other altitude.
+	 * @param controls - the player's controls
+	 */
+	private void resolveConflicts(Controls controls) {
+		List<Aircraft> aircraft = controls.getAllAircraft();
+
+		for (int i = 0; i < aircraft.size(); i++) {
+			for (int j = i + 1; j < aircraft.size(); j++) {
+				Aircraft first = aircraft.get(i);
+				Aircraft second = aircraft.get(j);
+				double separation = 1.5 * Math.max(first.getMinimumSeparation(),
+						second.getMinimumSeparation());
+
+				if (getLevel(first) != getLevel(second)
+						|| getClosestApproach(first, second) >= separation) {
+					continue;
+				}
+
+				// Move whichever of the player's aircraft can be moved
+				if (!changeLevel(controls, first)) {
+					changeLevel(controls, second);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Clears every aircraft waiting to land to land.
+	 * @param controls - the player's controls
+	 */
+	private void clearArrivals(Controls controls) {
+		for (Aircraft aircraft : controls.getAircraft()) {
+			if (aircraft.isWaitingToLand && !aircraft.isLanding()) {
+				controls.select(aircraft);
+				controls.land();
+			}
+		}
+	}
+
+	/**
+	 * Clears the next departure at each airport whose airspace is clear.
+	 * @param controls - the player's controls
+	 */
+	private void clearDepartures(Controls controls) {
+		for (Airport airport : controls.getPlayer().getAirports()) {
+			if (airport.aircraftHangar.size() == 0) continue;
+
+			boolean isClear = true;
+			for (Aircraft aircraft : controls.getAllAircraft()) {
+				Vector offset = aircraft.getPosition().sub(airport.getLocation());
+				if (Math.hypot(offset.getX(), offset.getY())
+						< aircraft.getMinimumSeparation() * 2) {
+					isClear = false;
+					break;
+				}
+			}
+
+			if (isClear) controls.takeOff(airport);
+		}
+	}
+
+	/**
+	 * Sends one of the player's aircraft to the other altitude.
+	 * @param controls - the player's controls
+	 * @param aircraft - the aircraft to move
+	 * @return <code>true</code> if the aircraft was moved
+	 */
+	private boolean changeLevel(Controls controls, Aircraft aircraft) {
+		if (!controls.isOwn(aircraft) || aircraft.isLanding()
+				|| aircraft.getAltitudeState() != Aircraft.ALTITUDE_LEVEL
+				|| !controls.select(aircraft)) {
+			return false;
+		}
+
+		return (aircraft.getPosition().getZ() < MIDDLE_ALTITUDE)
+				? controls.climb() : controls.descend();
+	}
+
+	/**
+	 * Gets the altitude an aircraft is flying at, or heading for.
+	 * @param aircraft - the aircraft
+	 * @return 1 for the upper flight level, or -1 for the lower
+	 */
+	private static int getLevel(Aircraft aircraft) {
+		switch (aircraft.getAltitudeState()) {
+		case Aircraft.ALTITUDE_CLIMB:
+			return 1;
+		case Aircraft.ALTITUDE_FALL:
+			return -1;
+		default:
+			return (aircraft.getPosition().getZ() < MIDDLE_ALTITUDE) ? -1 : 1;
+		}
+	}
+
+	/**
+	 * Gets how close two aircraft will come within the lookahead time, if
+	 * they hold their courses.
+	 * @param first - the first aircraft
+	 * @param second - the second aircraft
+	 * @return the smallest horizontal distance between them
+	 */
+	private double getClosestApproach(Aircraft first, Aircraft second) {
+		Vector offset = second.getPosition().sub(first.getPosition());
+		Vector velocity = second.getVelocity().sub(first.getVelocity());
+
+		double dx = offset.getX();
+		double dy = offset.getY();
+		double vx = velocity.getX();
+		double vy = velocity.getY();
+		double speed = vx * vx + vy * vy;
+
+		// The time at which they are closest, within the lookahead
+		double t = (speed == 0) ? 0
+				: Math.max(0, Math.min(lookahead, -(dx * vx + dy * vy) / speed));
+
+		return Math.hypot(dx + vx * t, dy + vy * t);
+	}
+
+}
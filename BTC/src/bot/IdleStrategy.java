@@ -0,0 +1,16 @@
+package bot;
+
+/**
+ * <h1>Idle Strategy</h1>
+ * <p>
+ * Takes no actions. Aircraft follow their flight plans, aircraft waiting
+ * to land hold and departures stay in their hangars, giving a baseline to
+ * compare other strategies with.
+ * </p>
+ */
+public class IdleStrategy implements Strategy {
+
+	@Override
+	public void act(Controls controls) {}
+
+}
@@ -0,0 +1,23 @@
+package bot;
+
+/**
+ * <h1>Strategy</h1>
+ * <p>
+ * Decides how an autopilot plays: which of the player's controls to use,
+ * and when.
+ * </p>
+ * <p>
+ * A strategy may keep track of the decisions it has made, so each
+ * autopilot should be given its own strategy.
+ * </p>
+ */
+public interface Strategy {
+
+	/**
+	 * Takes the player's actions for one decision.
+	 * @param controls - the player's controls, through which the strategy
+	 * 			sees the game and acts in it
+	 */
+	void act(Controls controls);
+
+}
@@ -0,0 +1,705 @@
+package bot;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import btc.GameSettings;
+import btc.SessionContext;
+import scn.Game.DifficultySetting;
+import trf.TrafficGenerator;
+
+/**
+ * <h1>Tuning Harness</h1>
+ * <p>
+ * Plays many seeded games with an autopilot for each of a grid of
+ * handling and traffic settings, and summarises how they went, so that
+ * difficulties can be tuned from data rather than by play-testing.
+ * </p>
+ * <p>
+ * For each set of settings it reports the proportion of games ending in
+ * a crash, how long games lasted, how often aircraft came within the
+ * minimum separation, and the distribution of scores. Every set is played
+ * with the same seeds, so differences between sets aren't down to some
+ * being dealt easier traffic.
+ * </p>
+ * <p>
+ * There is only one game at a time in each process, so games are shared
+ * between worker processes, one for each core by default. A fork-join
+ * pool splits each set's seeds into chunks and hands them to workers as
+ * they become free; each worker plays its chunk and reports every game
+ * back. With no workers, every game is played in this process instead.
+ * </p>
+ * <p>
+ * Usage: <code>java bot.TuningHarness strategy difficulty games seconds
+ * [separation=a,b,...] [turnSpeed=...] [spawnInterval=...]
+ * [maxAircraft=...]</code>
+ * </p>
+ */
+public class TuningHarness {
+
+	/**
+	 * A set of handling and traffic settings to play games with.
+	 * <p>
+	 * Settings of 0 leave the difficulty's own setting.
+	 * </p>
+	 */
+	public static class Parameters {
+
+		/** The minimum distance aircraft should keep apart */
+		private final int separation;
+
+		/** How quickly aircraft can turn, in radians per second */
+		private final double turnSpeed;
+
+		/** The time between flights entering the airspace, in seconds */
+		private final double spawnInterval;
+
+		/** The maximum number of aircraft each player may have */
+		private final int maxAircraft;
+
+		/**
+		 * Constructor for a set of settings.
+		 * @param separation - the minimum distance aircraft should keep apart
+		 * @param turnSpeed - how quickly aircraft can turn, in radians per second
+		 * @param spawnInterval - the time between flights entering the airspace
+		 * @param maxAircraft - the maximum number of aircraft each player may have
+		 */
+		public Parameters(int separation, double turnSpeed, double spawnInterval,
+				int maxAircraft) {
+			this.separation = separation;
+			this.turnSpeed = turnSpeed;
+			this.spawnInterval = spawnInterval;
+			this.maxAircraft = maxAircraft;
+		}
+
+		/**
+		 * Reads a set of settings written by toString().
+		 * @param description - the settings, as name=value pairs separated
+		 * 			by commas
+		 * @return the settings
+		 * @throws IllegalArgumentException if a setting isn't recognised
+		 */
+		public static Parameters parse(String description) {
+			int separation = 0;
+			double turnSpeed = 0;
+			double spawnInterval = 0;
+			int maxAircraft = 0;
+
+			for (String pair : description.split(",")) {
+				String[] fields = pair.split("=", 2);
+				if (fields.length < 2) {
+					throw new IllegalArgumentException("Expected name=value: " + pair);
+				}
+
+				if (fields[0].equals("separation")) {
+					separation = Integer.parseInt(fields[1]);
+				} else if (fields[0].equals("turnSpeed")) {
+					turnSpeed = Double.parseDouble(fields[1]);
+				} else if (fields[0].equals("spawnInterval")) {
+					spawnInterval = Double.parseDouble(fields[1]);
+				} else if (fields[0].equals("maxAircraft")) {
+					maxAircraft = Integer.parseInt(fields[1]);
+				} else {
+					throw new IllegalArgumentException("Unknown setting: " + fields[0]);
+				}
+			}
+
+			return new Parameters(separation, turnSpeed, spawnInterval, maxAircraft);
+		}
+
+		/**
+		 * Applies the settings to games started from now on in the
+		 * current session.
+		 */
+		public void apply() {
+			GameSettings settings = SessionContext.current().getSettings();
+			settings.setHandling(separation, turnSpeed);
+			settings.setTraffic((spawnInterval > 0) ? "fixed:" + spawnInterval : null,
+					maxAircraft, TrafficGenerator.DEFAULT_MAX_BACKLOG);
+		}
+
+		/**
+		 * Gets the minimum distance aircraft should keep apart.
+		 * @return the minimum distance aircraft should keep apart
+		 */
+		public int getSeparation() {
+			return separation;
+		}
+
+		/**
+		 * Gets how quickly aircraft can turn.
+		 * @return how quickly aircraft can turn, in radians per second
+		 */
+		public double getTurnSpeed() {
+			return turnSpeed;
+		}
+
+		/**
+		 * Gets the time between flights entering the airspace.
+		 * @return the time between flights entering the airspace
+		 */
+		public double getSpawnInterval() {
+			return spawnInterval;
+		}
+
+		/**
+		 * Gets the maximum number of aircraft each player may have.
+		 * @return the maximum number of aircraft each player may have
+		 */
+		public int getMaxAircraft() {
+			return maxAircraft;
+		}
+
+		@Override
+		public String toString() {
+			return "separation=" + separation + ",turnSpeed=" + turnSpeed
+					+ ",spawnInterval=" + spawnInterval + ",maxAircraft=" + maxAircraft;
+		}
+
+	}
+
+	/**
+	 * How the games played with a set of settings went.
+	 */
+	public static class Summary {
+
+		/** The settings the games were played with */
+		private final Parameters parameters;
+
+		/** The time each game lasted */
+		private final ArrayList<Double> times = new ArrayList<Double>();
+
+		/** The player's final score in each game */
+		private final ArrayList<Integer> scores = new ArrayList<Integer>();
+
+		/** The number of separation breaches across every game */
+		private int breaches;
+
+		/** The number of games which ended in a crash */
+		private int crashes;
+
+		/**
+		 * Constructor for an empty summary.
+		 * @param parameters - the settings the games were played with
+		 */
+		public Summary(Parameters parameters) {
+			this.parameters = parameters;
+		}
+
+		/**
+		 * Adds a game to the summary.
+		 * @param time - the time the game lasted, in seconds
+		 * @param score - the player's final score
+		 * @param breaches - the number of separation breaches
+		 * @param isCrashed - whether the game ended in a crash
+		 */
+		public void add(double time, int score, int breaches, boolean isCrashed) {
+			times.add(time);
+			scores.add(score);
+			this.breaches += breaches;
+			if (isCrashed) crashes++;
+		}
+
+		/**
+		 * Adds every game in another summary of the same settings.
+		 * @param other - the summary to add
+		 * @return this summary
+		 */
+		public Summary merge(Summary other) {
+			times.addAll(other.times);
+			scores.addAll(other.scores);
+			breaches += other.breaches;
+			crashes += other.crashes;
+			return this;
+		}
+
+		/**
+		 * Gets the settings the games were played with.
+		 * @return the settings the games were played with
+		 */
+		public Parameters getParameters() {
+			return parameters;
+		}
+
+		/**
+		 * Gets the number of games played.
+		 * @return the number of games played
+		 */
+		public int getGames() {
+			return times.size();
+		}
+
+		/**
+		 * Gets the proportion of games which ended in a crash.
+		 * @return the proportion of games which ended in a crash
+		 */
+		public double getCrashRate() {
+			return times.isEmpty() ? 0 : (double) crashes / times.size();
+		}
+
+		/**
+		 * Gets the mean time games lasted, where games which didn't crash
+		 * count as lasting their whole time.
+		 * @return the mean time, in seconds
+		 */
+		public double getMeanSurvival() {
+			double total = 0;
+			for (double time : times) total += time;
+			return times.isEmpty() ? 0 : total / times.size();
+		}
+
+		/**
+		 * Gets the median time games lasted.
+		 * @return the median time games lasted, in seconds
+		 */
+		public double getMedianSurvival() {
+			ArrayList<Double> sorted = new ArrayList<Double>(times);
+			Collections.sort(sorted);
+			return sorted.isEmpty() ? 0 : sorted.get(sorted.size() / 2);
+		}
+
+		/**
+		 * Gets the number of separation breaches per minute played.
+		 * @return the number of separation breaches per minute played
+		 */
+		public double getBreachesPerMinute() {
+			double total = 0;
+			for (double time : times) total += time;
+			return (total == 0) ? 0 : breaches / (total / 60);
+		}
+
+		/**
+		 * Gets the mean of the final scores.
+		 * @return the mean of the final scores
+		 */
+		public double getMeanScore() {
+			double total = 0;
+			for (int score : scores) total += score;
+			return scores.isEmpty() ? 0 : total / scores.size();
+		}
+
+		/**
+		 * Gets a percentile of the final scores.
+		 * @param percentile - the percentile, from 0 to 100
+		 * @return the lowest score at least that percentage of games
+		 * 			scored no more than
+		 */
+		public int getScorePercentile(double percentile) {
+			if (scores.isEmpty()) return 0;
+
+			ArrayList<Integer> sorted = new ArrayList<Integer>(scores);
+			Collections.sort(sorted);
+
+			int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+			return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+		}
+
+		/**
+		 * Gets the names of the columns written by toString().
+		 * @return the names of the columns written by toString()
+		 */
+		public static String getHeader() {
+			return "separation,turnSpeed,spawnInterval,maxAircraft,games,crashRate,"
+					+ "meanSurvival,medianSurvival,breachesPerMinute,meanScore,"
+					+ "p10Score,p50Score,p90Score";
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT,
+					"%d,%.3f,%.2f,%d,%d,%.3f,%.1f,%.1f,%.2f,%.0f,%d,%d,%d",
+					parameters.getSeparation(), parameters.getTurnSpeed(),
+					parameters.getSpawnInterval(), parameters.getMaxAircraft(),
+					getGames(), getCrashRate(), getMeanSurvival(),
+					getMedianSurvival(), getBreachesPerMinute(), getMeanScore(),
+					getScorePercentile(10), getScorePercentile(50),
+					getScorePercentile(90));
+		}
+
+	}
+
+	/**
+	 * Plays a range of seeds with one set of settings, splitting it
+	 * between workers.
+	 */
+	private class SweepTask extends RecursiveTask<Summary> {
+
+		private static final long serialVersionUID = 1L;
+
+		/** The settings to play with */
+		private final Parameters parameters;
+
+		/** The first seed to play */
+		private final int firstSeed;
+
+		/** The number of seeds to play */
+		private final int count;
+
+		/**
+		 * Constructor for a sweep task.
+		 * @param parameters - the settings to play with
+		 * @param firstSeed - the first seed to play
+		 * @param count - the number of seeds to play
+		 */
+		private SweepTask(Parameters parameters, int firstSeed, int count) {
+			this.parameters = parameters;
+			this.firstSeed = firstSeed;
+			this.count = count;
+		}
+
+		@Override
+		protected Summary compute() {
+			if (count > chunkSize) {
+				int half = count / 2;
+				SweepTask first = new SweepTask(parameters, firstSeed, half);
+				SweepTask second = new SweepTask(parameters, firstSeed + half,
+						count - half);
+
+				first.fork();
+				return second.compute().merge(first.join());
+			}
+
+			try {
+				return playInWorker(parameters, firstSeed, count);
+			} catch (IOException e) {
+				throw new IllegalStateException("Worker failed to play seeds "
+						+ firstSeed + " to " + (firstSeed + count - 1), e);
+			}
+		}
+
+	}
+
+	/** The most games each worker plays before reporting back */
+	private static final int MAX_CHUNK_SIZE = 50;
+
+	/** The prefix of the lines workers report games with */
+	private static final String GAME_PREFIX = "GAME ";
+
+	/** The name of the strategy the games are played with */
+	private final String strategy;
+
+	/** The difficulty the games are played at */
+	private final DifficultySetting difficulty;
+
+	/** The number of games to play with each set of settings */
+	private final int games;
+
+	/** The longest time each game is played for, in seconds */
+	private final double duration;
+
+	/** The number of worker processes, or 0 to play in this process */
+	private int workers = Runtime.getRuntime().availableProcessors();
+
+	/** The number of games each worker plays at a time */
+	private int chunkSize;
+
+
+	/**
+	 * Plays games for every combination of the given settings, printing a
+	 * summary of each combination.
+	 * @param args - the strategy, difficulty, number of games and seconds
+	 * 			to play each for, then the values of each setting to try
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length > 0 && args[0].equals("--worker")) {
+			playAsWorker(args);
+			return;
+		}
+
+		if (args.length < 4) {
+			System.out.println("Usage: TuningHarness idle|greedy|aggressive"
+					+ " easy|medium|hard games seconds [separation=a,b,...]"
+					+ " [turnSpeed=...] [spawnInterval=...] [maxAircraft=...]");
+			return;
+		}
+
+		int[] separations = {0};
+		double[] turnSpeeds = {0};
+		double[] spawnIntervals = {0};
+		int[] maxAircraft = {0};
+
+		for (int i = 4; i < args.length; i++) {
+			String[] fields = args[i].split("=", 2);
+			String[] values = (fields.length > 1) ? fields[1].split(",") : new String[0];
+
+			if (fields[0].equals("separation")) {
+				separations = parseInts(values);
+			} else if (fields[0].equals("turnSpeed")) {
+				turnSpeeds = parseDoubles(values);
+			} else if (fields[0].equals("spawnInterval")) {
+				spawnIntervals = parseDoubles(values);
+			} else if (fields[0].equals("maxAircraft")) {
+				maxAircraft = parseInts(values);
+			} else {
+				throw new IllegalArgumentException("Unknown setting: " + fields[0]);
+			}
+		}
+
+		TuningHarness harness = new TuningHarness(args[0],
+				DifficultySetting.valueOf(args[1].toUpperCase()),
+				Integer.parseInt(args[2]), Double.parseDouble(args[3]));
+		harness.setWorkers(Integer.getInteger("btc.tune.workers",
+				Runtime.getRuntime().availableProcessors()));
+
+		long start = System.nanoTime();
+		List<Summary> summaries = harness.sweep(createGrid(separations,
+				turnSpeeds, spawnIntervals, maxAircraft));
+
+		System.out.println(Summary.getHeader());
+		for (Summary summary : summaries) {
+			System.out.println(summary);
+		}
+
+		System.err.println(String.format(Locale.ROOT, "%d games in %.1fs",
+				summaries.size() * harness.games, (System.nanoTime() - start) / 1e9));
+	}
+
+	/**
+	 * Constructor for a tuning harness.
+	 * @param strategy - the name of the strategy to play with
+	 * @param difficulty - the difficulty to play at
+	 * @param games - the number of games to play with each set of settings
+	 * @param duration - the longest time to play each game for, in seconds
+	 */
+	public TuningHarness(String strategy, DifficultySetting difficulty,
+			int games, double duration) {
+		// Check the strategy exists before playing
+		Autopilot.createStrategy(strategy);
+
+		this.strategy = strategy;
+		this.difficulty = difficulty;
+		this.games = games;
+		this.duration = duration;
+	}
+
+
+	// Sweeping -------------------------------------------------------------------------
+
+	/**
+	 * Gets every combination of the given settings.
+	 * @param separations - the minimum separations to try
+	 * @param turnSpeeds - the turn speeds to try
+	 * @param spawnIntervals - the spawn intervals to try
+	 * @param maxAircraft - the maximum numbers of aircraft to try
+	 * @return the combinations, varying the maximum number of aircraft
+	 * 			fastest and the separation slowest
+	 */
+	public static List<Parameters> createGrid(int[] separations,
+			double[] turnSpeeds, double[] spawnIntervals, int[] maxAircraft) {
+		ArrayList<Parameters> grid = new ArrayList<Parameters>();
+
+		for (int separation : separations) {
+			for (double turnSpeed : turnSpeeds) {
+				for (double spawnInterval : spawnIntervals) {
+					for (int max : maxAircraft) {
+						grid.add(new Parameters(separation, turnSpeed,
+								spawnInterval, max));
+					}
+				}
+			}
+		}
+
+		return grid;
+	}
+
+	/**
+	 * Plays the games for each set of settings.
+	 * @param grid - the sets of settings to play with
+	 * @return a summary of the games played with each set, in order
+	 */
+	public List<Summary> sweep(List<Parameters> grid) {
+		ArrayList<Summary> summaries = new ArrayList<Summary>();
+
+		if (workers <= 0) {
+			try {
+				for (Parameters parameters : grid) {
+					summaries.add(playInProcess(parameters, 0, games));
+				}
+			} finally {
+				// Restore the difficulties' own settings
+				new Parameters(0, 0, 0, 0).apply();
+			}
+			return summaries;
+		}
+
+		// Split each set's games into about two chunks per worker, so
+		// workers which finish early can take on more
+		chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE,
+				(games * grid.size()) / (workers * 2)));
+
+		ForkJoinPool pool = new ForkJoinPool(workers);
+		try {
+			ArrayList<SweepTask> tasks = new ArrayList<SweepTask>();
+			for (Parameters parameters : grid) {
+				SweepTask task = new SweepTask(parameters, 0, games);
+				tasks.add(task);
+				pool.execute(task);
+			}
+
+			for (SweepTask task : tasks) {
+				summaries.add(task.join());
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		return summaries;
+	}
+
+	/**
+	 * Sets the number of worker processes to play games in.
+	 * @param workers - the number of workers, or 0 to play every game in
+	 * 			this process
+	 */
+	public void setWorkers(int workers) {
+		this.workers = workers;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Plays a range of seeds in this process.
+	 * @param parameters - the settings to play with
+	 * @param firstSeed - the first seed to play
+	 * @param count - the number of seeds to play
+	 * @return a summary of the games
+	 */
+	private Summary playInProcess(Parameters parameters, int firstSeed, int count) {
+		Summary summary = new Summary(parameters);
+		BotMatch match = new BotMatch(strategy, difficulty, duration);
+
+		parameters.apply();
+		for (int seed = firstSeed; seed < firstSeed + count; seed++) {
+			BotMatch.Result result = match.play(seed);
+			summary.add(result.getTime(), result.getScore(),
+					result.getBreaches(), result.isCrashed());
+		}
+
+		return summary;
+	}
+
+	/**
+	 * Plays a range of seeds in a new worker process.
+	 * @param parameters - the settings to play with
+	 * @param firstSeed - the first seed to play
+	 * @param count - the number of seeds to play
+	 * @return a summary of the games
+	 * @throws IOException if the worker can't be started, or fails
+	 */
+	private Summary playInWorker(Parameters parameters, int firstSeed, int count)
+			throws IOException {
+		ArrayList<String> command = new ArrayList<String>();
+		command.add(System.getProperty("java.home") + File.separator + "bin"
+				+ File.separator + "java");
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add("-Djava.awt.headless=true");
+
+		// Workers play with the same game properties as the harness
+		for (Map.Entry<Object, Object> property : System.getProperties().entrySet()) {
+			if (property.getKey().toString().startsWith("btc.")) {
+				command.add("-D" + property.getKey() + "=" + property.getValue());
+			}
+		}
+
+		command.add(TuningHarness.class.getName());
+		command.add("--worker");
+		command.add(strategy);
+		command.add(difficulty.name());
+		command.add(Double.toString(duration));
+		command.add(parameters.toString());
+		command.add(Integer.toString(firstSeed));
+		command.add(Integer.toString(count));
+
+		Process process = new ProcessBuilder(command)
+				.redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		Summary summary = new Summary(parameters);
+
+		BufferedReader reader = new BufferedReader(
+				new InputStreamReader(process.getInputStream()));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.startsWith(GAME_PREFIX)) continue;
+
+				String[] fields = line.substring(GAME_PREFIX.length()).split(" ");
+				summary.add(Double.parseDouble(fields[0]), Integer.parseInt(fields[1]),
+						Integer.parseInt(fields[2]), Boolean.parseBoolean(fields[3]));
+			}
+		} finally {
+			reader.close();
+		}
+
+		try {
+			if (process.waitFor() != 0 || summary.getGames() != count) {
+				throw new IOException("Worker exited with " + process.exitValue()
+						+ " after " + summary.getGames() + " of " + count + " games");
+			}
+		} catch (InterruptedException e) {
+			process.destroy();
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted waiting for worker", e);
+		}
+
+		return summary;
+	}
+
+	/**
+	 * Plays a range of seeds as a worker, reporting each game on a line.
+	 * @param args - --worker, then the strategy, difficulty, seconds to
+	 * 			play each game for, settings, first seed and number of seeds
+	 */
+	private static void playAsWorker(String[] args) {
+		Parameters parameters = Parameters.parse(args[4]);
+		BotMatch match = new BotMatch(args[1],
+				DifficultySetting.valueOf(args[2]), Double.parseDouble(args[3]));
+		int firstSeed = Integer.parseInt(args[5]);
+		int count = Integer.parseInt(args[6]);
+
+		parameters.apply();
+		for (int seed = firstSeed; seed < firstSeed + count; seed++) {
+			BotMatch.Result result = match.play(seed);
+			System.out.println(GAME_PREFIX + result.getTime() + " "
+					+ result.getScore() + " " + result.getBreaches() + " "
+					+ result.isCrashed());
+		}
+		System.out.flush();
+	}
+
+	/**
+	 * Parses a list of integers.
+	 * @param values - the integers, as text
+	 * @return the integers
+	 */
+	private static int[] parseInts(String[] values) {
+		int[] parsed = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			parsed[i] = Integer.parseInt(values[i]);
+		}
+		return parsed;
+	}
+
+	/**
+	 * Parses a list of numbers.
+	 * @param values - the numbers, as text
+	 * @return the numbers
+	 */
+	private static double[] parseDoubles(String[] values) {
+		double[] parsed = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			parsed[i] = Double.parseDouble(values[i]);
+		}
+		return parsed;
+	}
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains the autopilot which plays games unattended, and its strategies
+ */
+package bot;
+//This is a header file for Javadoc
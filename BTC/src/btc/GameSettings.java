@@ -0,0 +1,330 @@
+package btc;
+
+import cls.AircraftUpdater;
+import cls.Airport;
+import trf.TrafficGenerator;
+
+/**
+ * <h1>Game Settings</h1>
+ * <p>
+ * The settings games are created with, beyond their difficulty: the
+ * traffic, airport capacity, aircraft handling and how the airspace is
+ * updated.
+ * </p>
+ * <p>
+ * Each session context has its own settings, so that sessions hosted
+ * in the same process can be played with different settings. The
+ * process's settings are read from system properties, and a new context
+ * starts with a copy of the settings of the context it was created in.
+ * </p>
+ * <p>
+ * Most settings are applied when a game or aircraft is created, so
+ * changing them only affects games and aircraft created afterwards.
+ * </p>
+ */
+public class GameSettings {
+
+	/**
+	 * The traffic model to use for each player, as described to
+	 * {@link TrafficGenerator#parseModel(String)}, or <code>null</code> to
+	 * use the difficulty's fixed rate. Set by the btc.traffic property.
+	 */
+	private String trafficModel;
+
+	/**
+	 * The maximum number of aircraft each player may have, or 0 for the
+	 * default. Set by the btc.maxAircraft property.
+	 */
+	private int maxAircraft;
+
+	/**
+	 * The number of arrivals which may wait to enter each player's airspace.
+	 * Set by the btc.maxBacklog property.
+	 */
+	private int maxBacklog;
+
+	/**
+	 * The number of aircraft each airport's hangar can hold.
+	 * Set by the btc.hangarSize property.
+	 */
+	private int hangarSize;
+
+	/**
+	 * The number of runways at each airport.
+	 * Set by the btc.runways property.
+	 */
+	private int runways;
+
+	/**
+	 * The minimum time between take-offs from each runway, or 0 for no
+	 * limit. Set by the btc.departureInterval property.
+	 */
+	private double departureInterval;
+
+	/**
+	 * Whether each player's most urgent flight strips are shown first.
+	 * Set by the btc.urgentStrips property.
+	 */
+	private boolean sortStripsByUrgency;
+
+	/**
+	 * The number of threads to share each player's aircraft between while
+	 * updating them. Set by the btc.updateThreads property.
+	 */
+	private int updateThreads;
+
+	/**
+	 * The fewest aircraft a player must have for them to be shared between
+	 * threads. Set by the btc.updateThreshold property.
+	 */
+	private int updateThreshold;
+
+	/**
+	 * How many updates aircraft in sectors out of view are updated once
+	 * every, while only part of the airspace is in view. Set by the
+	 * btc.lodInterval property.
+	 */
+	private int detailInterval;
+
+	/**
+	 * The minimum separation to use instead of the difficulty's, or 0 for
+	 * the difficulty's. Set by the btc.separation property.
+	 */
+	private int separation;
+
+	/**
+	 * The turn speed to use instead of the difficulty's, or 0 for the
+	 * difficulty's. Set by the btc.turnSpeed property.
+	 */
+	private double turnSpeed;
+
+
+	/**
+	 * Constructor for settings read from system properties.
+	 */
+	public GameSettings() {
+		trafficModel = System.getProperty("btc.traffic");
+		maxAircraft = Integer.getInteger("btc.maxAircraft", 0);
+		maxBacklog = Integer.getInteger("btc.maxBacklog",
+				TrafficGenerator.DEFAULT_MAX_BACKLOG);
+		hangarSize = Integer.getInteger("btc.hangarSize",
+				Airport.DEFAULT_HANGAR_SIZE);
+		runways = Integer.getInteger("btc.runways", Airport.DEFAULT_RUNWAYS);
+		departureInterval = Double.parseDouble(
+				System.getProperty("btc.departureInterval", "0"));
+		sortStripsByUrgency = Boolean.getBoolean("btc.urgentStrips");
+		updateThreads = Integer.getInteger("btc.updateThreads",
+				Runtime.getRuntime().availableProcessors());
+		updateThreshold = Integer.getInteger("btc.updateThreshold",
+				AircraftUpdater.DEFAULT_THRESHOLD);
+		detailInterval = Integer.getInteger("btc.lodInterval", 4);
+		separation = Integer.getInteger("btc.separation", 0);
+		turnSpeed = Double.parseDouble(System.getProperty("btc.turnSpeed", "0"));
+	}
+
+	/**
+	 * Constructor for a copy of some settings.
+	 * @param settings - the settings to copy
+	 */
+	public GameSettings(GameSettings settings) {
+		trafficModel = settings.trafficModel;
+		maxAircraft = settings.maxAircraft;
+		maxBacklog = settings.maxBacklog;
+		hangarSize = settings.hangarSize;
+		runways = settings.runways;
+		departureInterval = settings.departureInterval;
+		sortStripsByUrgency = settings.sortStripsByUrgency;
+		updateThreads = settings.updateThreads;
+		updateThreshold = settings.updateThreshold;
+		detailInterval = settings.detailInterval;
+		separation = settings.separation;
+		turnSpeed = settings.turnSpeed;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the traffic model.
+	 * @return the traffic model, or <code>null</code> to use the
+	 * 			difficulty's fixed rate
+	 */
+	public String getTrafficModel() {
+		return trafficModel;
+	}
+
+	/**
+	 * Gets the maximum number of aircraft each player may have.
+	 * @return the maximum number of aircraft each player may have, or 0
+	 * 			for the default
+	 */
+	public int getMaxAircraft() {
+		return maxAircraft;
+	}
+
+	/**
+	 * Gets the number of arrivals which may wait to enter.
+	 * @return the number of arrivals which may wait to enter each
+	 * 			player's airspace
+	 */
+	public int getMaxBacklog() {
+		return maxBacklog;
+	}
+
+	/**
+	 * Gets the number of aircraft each airport's hangar can hold.
+	 * @return the number of aircraft each airport's hangar can hold
+	 */
+	public int getHangarSize() {
+		return hangarSize;
+	}
+
+	/**
+	 * Gets the number of runways at each airport.
+	 * @return the number of runways at each airport
+	 */
+	public int getRunways() {
+		return runways;
+	}
+
+	/**
+	 * Gets the minimum time between take-offs from each runway.
+	 * @return the minimum time between take-offs from each runway, or 0
+	 * 			for no limit
+	 */
+	public double getDepartureInterval() {
+		return departureInterval;
+	}
+
+	/**
+	 * Gets whether each player's most urgent flight strips are shown first.
+	 * @return whether each player's most urgent flight strips are shown
+	 * 			first
+	 */
+	public boolean isSortingStripsByUrgency() {
+		return sortStripsByUrgency;
+	}
+
+	/**
+	 * Gets the number of threads to share aircraft between.
+	 * @return the number of threads to share each player's aircraft
+	 * 			between while updating them
+	 */
+	public int getUpdateThreads() {
+		return updateThreads;
+	}
+
+	/**
+	 * Gets the fewest aircraft worth sharing between threads.
+	 * @return the fewest aircraft a player must have for them to be
+	 * 			shared between threads
+	 */
+	public int getUpdateThreshold() {
+		return updateThreshold;
+	}
+
+	/**
+	 * Gets how often aircraft out of view are updated.
+	 * @return how many updates aircraft out of view are updated once every
+	 */
+	public int getDetailInterval() {
+		return detailInterval;
+	}
+
+	/**
+	 * Gets the minimum separation to use instead of the difficulty's.
+	 * @return the minimum separation to use instead of the difficulty's,
+	 * 			or 0 for the difficulty's
+	 */
+	public int getSeparation() {
+		return separation;
+	}
+
+	/**
+	 * Gets the turn speed to use instead of the difficulty's.
+	 * @return the turn speed to use instead of the difficulty's, or 0 for
+	 * 			the difficulty's
+	 */
+	public double getTurnSpeed() {
+		return turnSpeed;
+	}
+
+
+	// Mutators -------------------------------------------------------------------------
+
+	/**
+	 * Sets the traffic to generate.
+	 * @param model - the traffic model, as described to
+	 * 			{@link TrafficGenerator#parseModel(String)}, or
+	 * 			<code>null</code> to use the difficulty's fixed rate
+	 * @param maxAircraft - the maximum number of aircraft each player may
+	 * 			have, or 0 for the default
+	 * @param maxBacklog - the number of arrivals which may wait to enter
+	 * 			each player's airspace
+	 */
+	public void setTraffic(String model, int maxAircraft, int maxBacklog) {
+		this.trafficModel = model;
+		this.maxAircraft = maxAircraft;
+		this.maxBacklog = maxBacklog;
+	}
+
+	/**
+	 * Sets the capacity of airports.
+	 * @param hangarSize - the number of aircraft each airport's hangar
+	 * 			can hold
+	 * @param runways - the number of runways at each airport
+	 * @param departureInterval - the minimum time between take-offs from
+	 * 			each runway, or 0 for no limit
+	 */
+	public void setAirportCapacity(int hangarSize, int runways,
+			double departureInterval) {
+		this.hangarSize = hangarSize;
+		this.runways = runways;
+		this.departureInterval = departureInterval;
+	}
+
+	/**
+	 * Sets whether each player's most urgent flight strips are shown first.
+	 * @param sortStripsByUrgency - <code>true</code> to show the most
+	 * 			urgent strips first
+	 */
+	public void setSortStripsByUrgency(boolean sortStripsByUrgency) {
+		this.sortStripsByUrgency = sortStripsByUrgency;
+	}
+
+	/**
+	 * Sets how aircraft are updated.
+	 * @param threads - the number of threads to share each player's
+	 * 			aircraft between, or 1 to update them one at a time
+	 * @param threshold - the fewest aircraft a player must have for them
+	 * 			to be shared between threads
+	 */
+	public void setUpdateThreads(int threads, int threshold) {
+		this.updateThreads = threads;
+		this.updateThreshold = threshold;
+	}
+
+	/**
+	 * Sets how often aircraft out of view are updated. Unlike the other
+	 * settings, this applies to games already being played.
+	 * @param interval - the number of updates aircraft in sectors out of
+	 * 			view are updated once every, while only part of the
+	 * 			airspace is in view; 1 updates every aircraft every update
+	 */
+	public void setDetailInterval(int interval) {
+		this.detailInterval = interval;
+	}
+
+	/**
+	 * Sets the handling of aircraft, in place of their difficulty's.
+	 * @param separation - the minimum distance aircraft should keep apart,
+	 * 			or 0 for the difficulty's
+	 * @param turnSpeed - how quickly aircraft can turn, in radians per
+	 * 			second, or 0 for the difficulty's
+	 */
+	public void setHandling(int separation, double turnSpeed) {
+		this.separation = separation;
+		this.turnSpeed = turnSpeed;
+	}
+
+}
@@ -1,21 +1,21 @@
 package btc;
 
-import java.awt.FontFormatException;
 import java.awt.GraphicsEnvironment;
 import java.awt.Rectangle;
 import java.io.File;
-import java.io.IOException;
 import java.util.Random;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import net.NetworkManager;
 
 import org.lwjgl.Sys;
 import org.newdawn.slick.TrueTypeFont;
-import org.newdawn.slick.util.ResourceLoader;
 
 import scn.Scene;
 import scn.Title;
+import lib.AssetManager;
+import lib.Profiler;
 import lib.jog.*;
 
 /**
@@ -76,9 +76,6 @@ public class Main implements input.EventHandler {
 	/** The scale the game has been resized to in the vertical plane */
 	private static double yScale = 1;
 
-	/** The random instance to use to synchronise across the network */
-	private static Random random = new Random();
-
 	/** Whether the game is being exited */
 	private static boolean exiting;
 
@@ -95,7 +92,37 @@ public class Main implements input.EventHandler {
 	private double lastFrameTime;
 	private double timeDifference;
 	private static Stack<Scene> sceneStack;
-	private static Scene currentScene;
+	private static volatile Scene currentScene;
+
+	/** Lock held while the current scene is being updated or changed */
+	static final Object sceneLock = new Object();
+
+	/** The thread which owns the window, and so does all drawing */
+	private static Thread renderThread;
+
+	/** The thread which updates scenes that are simulated concurrently */
+	private static SimulationThread simulationThread;
+
+	/** Profiler scopes for each stage of the frame */
+	private static final Profiler.Scope FRAME_SCOPE = Profiler.scope(Profiler.FRAME_SCOPE);
+	private static final Profiler.Scope INPUT_SCOPE = Profiler.scope("input.update");
+	private static final Profiler.Scope AUDIO_SCOPE = Profiler.scope("audio.update");
+	private static final Profiler.Scope UPDATE_SCOPE = Profiler.scope("scene.update");
+	private static final Profiler.Scope DRAW_SCOPE = Profiler.scope("draw");
+	private static final Profiler.Scope PRESENT_SCOPE = Profiler.scope("Display.update");
+
+	/** The time which may be spent loading assets each frame, in nanoseconds */
+	private static final long ASSET_LOAD_TIME = 8000000;
+
+	/** The preload of the current scene's assets, or null once the scene has started */
+	private static volatile AssetManager.Preload sceneAssets;
+
+	/** The proportion of the current scene's assets which have been loaded */
+	private static volatile double loadingProgress;
+
+	/** Scene changes requested from threads other than the render thread */
+	private static final ConcurrentLinkedQueue<Runnable> sceneChanges =
+			new ConcurrentLinkedQueue<Runnable>();
 	private int fpsCounter;
 	private long lastFpsTime;
 
@@ -139,9 +166,12 @@ public class Main implements input.EventHandler {
 		start(width, height, xOffset, yOffset, fullscreen);
 
 		while(!window.isClosed() && !exiting) {
+			long frameStart = FRAME_SCOPE.begin();
 			timeDifference = getTimeSinceLastFrame();
 			update(timeDifference);
 			draw();
+			present();
+			FRAME_SCOPE.end(frameStart);
 		}
 		quit();
 	}
@@ -151,6 +181,15 @@ public class Main implements input.EventHandler {
 	 */
 	private void start(double width, double height, double xOffset,
 			double yOffset, boolean fullscreen) {
+		// Begin parsing the fonts while the window is created
+		AssetManager.Handle<java.awt.Font> mediumFont = AssetManager.acquire(
+				AssetManager.FONT, "gfx" + File.separator + "fnt"
+						+ File.separator + "Roboto-Medium.ttf");
+		AssetManager.Handle<java.awt.Font> blackFont = AssetManager.acquire(
+				AssetManager.FONT, "gfx" + File.separator + "fnt"
+						+ File.separator + "Roboto-Black.ttf");
+		AssetManager.preload(new AssetManager.Handle<?>[] {mediumFont, blackFont}, null);
+
 		window.setIcon(ICON_FILENAMES);
 		window.initialise(TITLE, (int)(width),(int)(height),
 				(int)(xOffset), (int)(yOffset), fullscreen);
@@ -161,73 +200,118 @@ public class Main implements input.EventHandler {
 				("ABCDEFGHIJKLMNOPQRSTUVWXYZ abcdefghijklmnopqrstuvwxyz" +
 						"1234567890.,_-!?()[]><#~:;/\\^'\"{}+=@@@@@@@@`"));
 
-		try {
-			mainFont = new TrueTypeFont(
-					java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
-							ResourceLoader.getResourceAsStream(
-									"gfx" + File.separator + "fnt" + File.separator
-									+ "Roboto-Medium.ttf")).deriveFont(12F), true);
-      menuMainFont = new TrueTypeFont(
-          java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
-              ResourceLoader.getResourceAsStream(
-                  "gfx" + File.separator + "fnt" + File.separator
-                  + "Roboto-Medium.ttf")).deriveFont(18F), true);
-			flightstripFontWarn = new TrueTypeFont(
-					java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
-							ResourceLoader.getResourceAsStream(
-									"gfx" + File.separator + "fnt" + File.separator
-									+ "Roboto-Black.ttf")).deriveFont(12F), true);
-			flightstripFontSuper = new TrueTypeFont(
-					java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
-							ResourceLoader.getResourceAsStream(
-									"gfx" + File.separator + "fnt" + File.separator
-									+ "Roboto-Black.ttf")).deriveFont(20F), true);
-			flightstripFontMid = new TrueTypeFont(
-					java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
-							ResourceLoader.getResourceAsStream(
-									"gfx" + File.separator + "fnt" + File.separator
-									+ "Roboto-Black.ttf")).deriveFont(16F), true);
-			menuTitleFont = new TrueTypeFont(
-					java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
-							ResourceLoader.getResourceAsStream(
-									"gfx" + File.separator + "fnt" + File.separator
-									+ "Roboto-Black.ttf")).deriveFont(42F), true);
-			engSignFont = new TrueTypeFont(
-					java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
-							ResourceLoader.getResourceAsStream(
-									"gfx" + File.separator + "fnt" + File.separator
-									+ "Roboto-Black.ttf")).deriveFont(32F), true);
-			transSign = new TrueTypeFont(
-					java.awt.Font.createFont(java.awt.Font.TRUETYPE_FONT,
-							ResourceLoader.getResourceAsStream(
-									"gfx" + File.separator + "fnt" + File.separator
-									+ "Roboto-Medium.ttf")).deriveFont(16F), true);
-
-		} catch (FontFormatException | IOException e) {
-			e.printStackTrace();
-		}
+		// Begin loading the title screen, so that its images are decoded
+		// while the fonts are created
+		sceneStack = new Stack<Scene>();
+		renderThread = Thread.currentThread();
+		setScene(new Title());
+
+		// Each font file is parsed once, and resized for each font
+		java.awt.Font medium = mediumFont.get();
+		java.awt.Font black = blackFont.get();
+
+		mainFont = newFont(medium, 12);
+		menuMainFont = newFont(medium, 18);
+		transSign = newFont(medium, 16);
+		flightstripFontWarn = newFont(black, 12);
+		flightstripFontMid = newFont(black, 16);
+		flightstripFontSuper = newFont(black, 20);
+		engSignFont = newFont(black, 32);
+		menuTitleFont = newFont(black, 42);
+
+		AssetManager.release(mediumFont);
+		AssetManager.release(blackFont);
 
 		graphics.setFont(mainFont);
 
-		sceneStack = new Stack<Scene>();
-		setScene(new Title());
+		simulationThread = new SimulationThread();
+		simulationThread.start();
 
 		lastFrameTime = (double)(Sys.getTime()) / Sys.getTimerResolution();
 		lastFpsTime = Sys.getTime()* 1000 / Sys.getTimerResolution(); // Set to current Time
 	}
 
 	/**
-	 * Updates audio, input handling, the window, the current scene and FPS.
+	 * Creates a font of the specified size.
+	 * @param font - the parsed font file, which may be <code>null</code>
+	 * 			if it couldn't be loaded
+	 * @param size - the size of font to create
+	 * @return the created font, or <code>null</code> if the font file
+	 * 			couldn't be loaded
+	 */
+	private static TrueTypeFont newFont(java.awt.Font font, float size) {
+		return (font == null) ? null : new TrueTypeFont(font.deriveFont(size), true);
+	}
+
+	/**
+	 * Updates audio, input handling, the current scene and FPS.
+	 * <p>
+	 * Scenes which are simulated concurrently are updated on the
+	 * simulation thread instead, so are not updated here.
+	 * </p>
 	 * @param timeDifference - the time elapsed since the last frame.
 	 */
 	private void update(double timeDifference) {
+		applySceneChanges();
+		updateAssets();
+
+		long start = AUDIO_SCOPE.begin();
 		audio.update();
+		AUDIO_SCOPE.end(start);
+
+		start = INPUT_SCOPE.begin();
 		input.update(this);
-		window.update();
-		currentScene.update(timeDifference);
+		INPUT_SCOPE.end(start);
+
+		if (sceneAssets == null && !currentScene.isSimulatedConcurrently()) {
+			start = UPDATE_SCOPE.begin();
+			currentScene.update(timeDifference);
+			currentScene.publishFrame();
+			UPDATE_SCOPE.end(start);
+		}
+
 		updateFPS();
 	}
 
+	/**
+	 * Updates the window, presenting the frame which has just been drawn.
+	 * <p>
+	 * This may block waiting for the display, so is kept separate from
+	 * updating scenes.
+	 * </p>
+	 */
+	private void present() {
+		long start = PRESENT_SCOPE.begin();
+		window.update();
+		PRESENT_SCOPE.end(start);
+	}
+
+	/**
+	 * Continues loading the current scene's assets, starting the scene once
+	 * they have all been loaded.
+	 */
+	private void updateAssets() {
+		AssetManager.update(ASSET_LOAD_TIME);
+
+		synchronized (sceneLock) {
+			if (sceneAssets != null && sceneAssets.isFinished()) {
+				startScene();
+			}
+		}
+	}
+
+	/**
+	 * Applies any scene changes requested by other threads.
+	 */
+	private void applySceneChanges() {
+		synchronized (sceneLock) {
+			Runnable change;
+			while ((change = sceneChanges.poll()) != null) {
+				change.run();
+			}
+		}
+	}
+
 	/**
 	 * Calculates the time since the last frame in seconds as a double-precision
 	 * floating point number.
@@ -242,11 +326,38 @@ public class Main implements input.EventHandler {
 
 	/**
 	 * Clears the graphical viewport and calls the draw function of the current
-	 * scene.
+	 * scene, then draws the profiler overlay if it is visible.
 	 */
 	private void draw() {
+		long start = DRAW_SCOPE.begin();
 		graphics.clear();
-		currentScene.draw();
+		if (sceneAssets == null) {
+			currentScene.draw();
+		} else {
+			drawLoading();
+		}
+		DRAW_SCOPE.end(start);
+
+		if (Profiler.isOverlayVisible()) {
+			graphics.setFont(mainFont);
+			Profiler.drawOverlay();
+		}
+	}
+
+	/**
+	 * Draws the progress of loading the current scene's assets.
+	 */
+	private void drawLoading() {
+		int width = window.width() / 3;
+		int height = 16;
+		int x = (window.width() - width) / 2;
+		int y = (window.height() - height) / 2;
+
+		graphics.setColour(graphics.white);
+		graphics.setFont(mainFont);
+		graphics.printCentred("LOADING", x, y - 24, 1, width);
+		graphics.rectangle(false, x, y, width, height);
+		graphics.rectangle(true, x, y, width * loadingProgress, height);
 	}
 
 	/**
@@ -254,6 +365,7 @@ public class Main implements input.EventHandler {
 	 * resources and quits the process.
 	 */
 	public static void quit() {
+		if (simulationThread != null) simulationThread.finish();
 		currentScene.close();
 		NetworkManager.stopThread();
 		window.dispose();
@@ -265,11 +377,28 @@ public class Main implements input.EventHandler {
 	 * Closes the current scene, adds new scene to scene stack and starts it
 	 * @param newScene - the scene to set as current scene
 	 */
-	public static void setScene(Scene newScene) {
-		if (currentScene != null) currentScene.close();
-		// Add new scene to scene stack and set to current scene
-		currentScene = sceneStack.push(newScene);
-		currentScene.start();
+	public static void setScene(final Scene newScene) {
+		// Scenes aren't run when the game is headless, e.g. replaying a session
+		if (sceneStack == null) return;
+
+		// Scenes may load textures when started, which can only be done
+		// on the render thread
+		if (!isRenderThread()) {
+			sceneChanges.add(new Runnable() {
+				@Override
+				public void run() {
+					setScene(newScene);
+				}
+			});
+			return;
+		}
+
+		synchronized (sceneLock) {
+			if (currentScene != null) closeCurrentScene();
+			// Add new scene to scene stack and set to current scene
+			currentScene = sceneStack.push(newScene);
+			beginScene();
+		}
 	}
 
 	/**
@@ -277,9 +406,105 @@ public class Main implements input.EventHandler {
 	 * scene to top of stack.
 	 */
 	public static void closeScene() {
-		currentScene.close();
-		sceneStack.pop();
-		currentScene = sceneStack.peek();
+		if (sceneStack == null) return;
+
+		if (!isRenderThread()) {
+			sceneChanges.add(new Runnable() {
+				@Override
+				public void run() {
+					closeScene();
+				}
+			});
+			return;
+		}
+
+		synchronized (sceneLock) {
+			closeCurrentScene();
+			sceneStack.pop();
+			currentScene = sceneStack.peek();
+			AssetManager.purge();
+		}
+	}
+
+	/**
+	 * Begins preloading the current scene's assets.
+	 * <p>
+	 * If they have already been loaded, the scene is started straight away;
+	 * otherwise it is started by updateAssets() once they have loaded.
+	 * </p>
+	 */
+	private static void beginScene() {
+		if (testing) {
+			startScene();
+			return;
+		}
+
+		AssetManager.Preload preload = AssetManager.preload(
+				currentScene.getAssets(), new AssetManager.ProgressListener() {
+					@Override
+					public void progress(int loaded, int total) {
+						loadingProgress = (double) loaded / total;
+					}
+				});
+
+		if (preload.isFinished()) {
+			startScene();
+		} else {
+			loadingProgress = preload.getProgress();
+			sceneAssets = preload;
+		}
+	}
+
+	/**
+	 * Starts the current scene, unloading any assets which are no longer used.
+	 */
+	private static void startScene() {
+		sceneAssets = null;
+		AssetManager.purge();
+		currentScene.start();
+	}
+
+	/**
+	 * Closes the current scene.
+	 * <p>
+	 * A scene which is still loading was never started, so isn't closed.
+	 * </p>
+	 */
+	private static void closeCurrentScene() {
+		if (sceneAssets == null) {
+			currentScene.close();
+		} else {
+			sceneAssets = null;
+		}
+	}
+
+	/**
+	 * Checks whether the calling thread is the render thread.
+	 * <p>
+	 * If the game loop hasn't been started (e.g. when testing), every
+	 * thread is treated as the render thread.
+	 * </p>
+	 * @return <code>true</code> if the calling thread is the render thread
+	 */
+	private static boolean isRenderThread() {
+		return renderThread == null || Thread.currentThread() == renderThread;
+	}
+
+	/**
+	 * Gets whether a scene change is waiting to be applied on the render thread,
+	 * or the current scene is still loading.
+	 * @return <code>true</code> if a scene change is pending
+	 */
+	static boolean isSceneChangePending() {
+		return !sceneChanges.isEmpty() || sceneAssets != null;
+	}
+
+	/**
+	 * Gets the scene currently being run.
+	 * @return the current scene
+	 */
+	static Scene getCurrentScene() {
+		return currentScene;
 	}
 
 	/**
@@ -306,36 +531,105 @@ public class Main implements input.EventHandler {
 		return yScale;
 	}
 
+	/**
+	 * Gets the random numbers of the session being run on the calling
+	 * thread, used to synchronise across the network.
+	 * @return the session's random numbers
+	 */
 	public static Random getRandom() {
-		return random;
+		return SessionContext.current().getRandom();
 	}
 
+	/**
+	 * Seeds the random numbers of the session being run on the calling
+	 * thread.
+	 * @param seed - the seed
+	 */
 	public static void setRandomSeed(int seed) {
-		random.setSeed(seed);
+		SessionContext.current().getRandom().setSeed(seed);
 	}
 
 	public static void setExiting() {
 		exiting = true;
 	}
 
+	/**
+	 * Passes an input event to the current scene.
+	 * <p>
+	 * If the scene is simulated concurrently, the event is queued to be
+	 * handled on the simulation thread before its next update. Events
+	 * received while the scene is loading are ignored.
+	 * </p>
+	 * @param event - the event to pass on
+	 */
+	private void dispatch(Runnable event) {
+		// Scenes which haven't started yet don't receive input
+		if (sceneAssets != null) return;
+
+		if (currentScene.isSimulatedConcurrently()) {
+			simulationThread.post(event);
+		} else {
+			event.run();
+		}
+	}
+
 	@Override
-	public void mousePressed(int key, int x, int y) {
-		currentScene.mousePressed(key, x, y);
+	public void mousePressed(final int key, final int x, final int y) {
+		dispatch(new Runnable() {
+			@Override
+			public void run() {
+				currentScene.mousePressed(key, x, y);
+			}
+		});
 	}
 
 	@Override
-	public void mouseReleased(int key, int x, int y) {
-		currentScene.mouseReleased(key, x, y);
+	public void mouseReleased(final int key, final int x, final int y) {
+		dispatch(new Runnable() {
+			@Override
+			public void run() {
+				currentScene.mouseReleased(key, x, y);
+			}
+		});
 	}
 
 	@Override
-	public void keyPressed(int key) {
-		currentScene.keyPressed(key);
+	public void keyPressed(final int key) {
+		dispatch(new Runnable() {
+			@Override
+			public void run() {
+				currentScene.keyPressed(key);
+			}
+		});
 	}
 
+	/**
+	 * Handles key release events.
+	 * <p>
+	 * F11 toggles the profiler overlay, and F12 exports the profiler trace
+	 * while the overlay is shown; no scene uses either key. All other keys
+	 * are passed to the current scene.
+	 * </p>
+	 * @param key - the key which was released
+	 */
 	@Override
-	public void keyReleased(int key) {
-		currentScene.keyReleased(key);
+	public void keyReleased(final int key) {
+		if (key == input.KEY_F11) {
+			Profiler.toggleOverlay();
+			return;
+		}
+
+		if (key == input.KEY_F12 && Profiler.isOverlayVisible()) {
+			Profiler.exportCSV("profile-" + System.currentTimeMillis() + ".csv");
+			return;
+		}
+
+		dispatch(new Runnable() {
+			@Override
+			public void run() {
+				currentScene.keyReleased(key);
+			}
+		});
 	}
 
 }
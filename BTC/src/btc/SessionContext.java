@@ -0,0 +1,136 @@
+package btc;
+
+import java.util.Random;
+
+import scn.Game;
+
+/**
+ * <h1>Session Context</h1>
+ * <p>
+ * The state which belongs to a game session, rather than to the process:
+ * the game being played, the random numbers it is played with, and the
+ * settings games are created with.
+ * </p>
+ * <p>
+ * Normally there is a single session, whose context is used on every
+ * thread. A server hosting many sessions gives each its own context, and
+ * enters it on whichever thread is running that session, so code which
+ * asks for the current game, random numbers or settings gets that
+ * session's.
+ * </p>
+ * <p>
+ * The network connection used by multiplayer games still belongs to the
+ * process, so only one session in a process can play a multiplayer game.
+ * </p>
+ */
+public class SessionContext {
+
+	/** The context used on threads which haven't entered another */
+	private static final SessionContext PROCESS_CONTEXT =
+			new SessionContext(new GameSettings());
+
+	/** The context each thread has entered, if any */
+	private static final ThreadLocal<SessionContext> entered =
+			new ThreadLocal<SessionContext>();
+
+	/** The session's random numbers */
+	private final Random random = new Random();
+
+	/** The settings games in the session are created with */
+	private final GameSettings settings;
+
+	/** The game being played in the session, if any */
+	private volatile Game game;
+
+
+	/**
+	 * Constructor for a session context, starting with a copy of the
+	 * settings of the context current on the calling thread.
+	 */
+	public SessionContext() {
+		this(current().getSettings());
+	}
+
+	/**
+	 * Constructor for a session context with its own settings.
+	 * @param settings - the settings to start with, which are copied
+	 */
+	public SessionContext(GameSettings settings) {
+		this.settings = new GameSettings(settings);
+	}
+
+	/**
+	 * Gets the context of the session being run on the calling thread.
+	 * @return the context the thread has entered, or the process's
+	 * 			context if it hasn't entered one
+	 */
+	public static SessionContext current() {
+		SessionContext context = entered.get();
+		return (context != null) ? context : PROCESS_CONTEXT;
+	}
+
+	/**
+	 * Makes this the current context on the calling thread, until exit()
+	 * is called.
+	 * @return the context which was current before, to pass to exit()
+	 */
+	public SessionContext enter() {
+		SessionContext previous = entered.get();
+		entered.set(this);
+		return previous;
+	}
+
+	/**
+	 * Makes the context which was current before enter() was called the
+	 * current context on the calling thread again.
+	 * @param previous - the context returned by enter()
+	 */
+	public static void exit(SessionContext previous) {
+		if (previous != null) {
+			entered.set(previous);
+		} else {
+			entered.remove();
+		}
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the game being played in the session.
+	 * @return the game being played in the session, or <code>null</code>
+	 * 			if there isn't one
+	 */
+	public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * Gets the session's random numbers.
+	 * @return the session's random numbers
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Gets the settings games in the session are created with.
+	 * @return the settings games in the session are created with, which
+	 * 			may be changed
+	 */
+	public GameSettings getSettings() {
+		return settings;
+	}
+
+
+	// Mutators -------------------------------------------------------------------------
+
+	/**
+	 * Sets the game being played in the session.
+	 * @param game - the game, or <code>null</code> if it has ended
+	 */
+	public void setGame(Game game) {
+		this.game = game;
+	}
+
+}
@@ -0,0 +1,131 @@
+package btc;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import lib.Profiler;
+import scn.Scene;
+
+/**
+ * <h1>Simulation Thread</h1>
+ * <p>
+ * Updates scenes which are simulated concurrently, at a fixed rate,
+ * independently of the render thread.
+ * </p>
+ * <p>
+ * Input events for these scenes are collected on the render thread (which
+ * owns the window) and queued here, so that they are handled between
+ * updates rather than part way through one.
+ * </p>
+ */
+public class SimulationThread extends Thread {
+
+	/** The number of updates to run per second */
+	private static final int TICKS_PER_SECOND = 60;
+
+	/** The time between updates, in nanoseconds */
+	private static final long TICK_PERIOD = 1000000000L / TICKS_PER_SECOND;
+
+	/** Profiler scopes for updating the scene and publishing its state */
+	private static final Profiler.Scope UPDATE_SCOPE = Profiler.scope("scene.update");
+	private static final Profiler.Scope PUBLISH_SCOPE = Profiler.scope("publishFrame");
+
+	/** The input events waiting to be passed to the current scene */
+	private final ConcurrentLinkedQueue<Runnable> events =
+			new ConcurrentLinkedQueue<Runnable>();
+
+	/** Whether the thread should continue running */
+	private volatile boolean running = true;
+
+
+	/**
+	 * Constructor for the simulation thread.
+	 */
+	public SimulationThread() {
+		super("Simulation");
+		setDaemon(true);
+	}
+
+	/**
+	 * Updates the current scene until the thread is stopped.
+	 * <p>
+	 * The time difference passed to the scene is measured, rather than
+	 * assumed, so the game runs at the same speed if an update overruns.
+	 * </p>
+	 */
+	@Override
+	public void run() {
+		long lastTickTime = System.nanoTime();
+		long nextTickTime = lastTickTime;
+
+		while (running) {
+			long currentTime = System.nanoTime();
+
+			synchronized (Main.sceneLock) {
+				Scene scene = Main.getCurrentScene();
+
+				if (scene != null && scene.isSimulatedConcurrently()
+						&& !Main.isSceneChangePending()) {
+					// Handle any input received since the last update
+					Runnable event;
+					while ((event = events.poll()) != null) {
+						event.run();
+					}
+
+					// A scene change may have been requested by an event
+					if (!Main.isSceneChangePending()) {
+						long start = UPDATE_SCOPE.begin();
+						scene.update((currentTime - lastTickTime) / 1000000000d);
+						UPDATE_SCOPE.end(start);
+
+						start = PUBLISH_SCOPE.begin();
+						scene.publishFrame();
+						PUBLISH_SCOPE.end(start);
+					}
+				} else {
+					// Input meant for a previous scene is discarded
+					events.clear();
+				}
+			}
+
+			lastTickTime = currentTime;
+
+			// Wait until the next update is due
+			nextTickTime += TICK_PERIOD;
+			long sleepTime = nextTickTime - System.nanoTime();
+
+			if (sleepTime > 0) {
+				try {
+					Thread.sleep(sleepTime / 1000000, (int)(sleepTime % 1000000));
+				} catch (InterruptedException e) {
+					// Woken to stop running
+				}
+			} else {
+				// Running behind, so don't try to catch up
+				nextTickTime = System.nanoTime();
+			}
+		}
+	}
+
+	/**
+	 * Queues an input event to be handled before the next update.
+	 * @param event - the event to handle
+	 */
+	public void post(Runnable event) {
+		events.add(event);
+	}
+
+	/**
+	 * Stops the thread, waiting for the update in progress to finish.
+	 */
+	public void finish() {
+		running = false;
+		interrupt();
+
+		try {
+			join(1000);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -1,18 +1,18 @@
 package cls;
 
-import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
 
+import btc.GameSettings;
 import btc.Main;
+import btc.SessionContext;
 import scn.Game;
 import scn.Game.DifficultySetting;
 import scn.MultiPlayerGame;
-import lib.jog.audio;
-import lib.jog.audio.Sound;
+import lib.TimerWheel;
 import lib.jog.graphics;
 import lib.jog.input;
-import lib.jog.window;
 
 /**
  * <h1>Aircraft</h1>
@@ -40,12 +40,8 @@ public class Aircraft implements Serializable {
 	/** The size of the compass circle */
 	public final static int COMPASS_RADIUS = 64;
 
-	/** The sound to play when the separation distance is violated */
-	private final static Sound WARNING_SOUND = audio.newSoundEffect("sfx"
-			+ File.separator + "beep.ogg");
-
-	/** The minimum distance planes should keep apart */
-	private static int minimumSeparation;
+	/** The minimum distance the plane should keep from others */
+	private int minimumSeparation;
 
 	/** How much the plane can turn per second - in radians */
 	private double turnSpeed;
@@ -67,8 +63,15 @@ public class Aircraft implements Serializable {
 	/** The aircraft's score */
 	private int score;
 	
-	/** The time since a separation violation last occured */
-	private double separationViolationCounter;
+	/** The distance from an entry point within which an aircraft
+	 * prevents another from entering there */
+	public static final double ENTRY_CLEARANCE = 300;
+
+	/** The minimum time between separation violation penalties */
+	private static final double SEPARATION_PENALTY_INTERVAL = 0.25;
+
+	/** Pending until another separation violation penalty may be applied */
+	private transient TimerWheel.Timer separationPenaltyCooldown;
 
 	/** Whether the aircraft is currently under manual control */
 	private boolean isManuallyControlled = false;
@@ -94,6 +97,15 @@ public class Aircraft implements Serializable {
 	/** The point the aircraft is currently heading towards */
 	public Vector currentTarget;
 
+	/** The airport whose arrivals the aircraft is waiting in, if any */
+	private transient Airport arrivalAirport;
+
+	/**
+	 * The changes to airports and events the aircraft has made since it
+	 * began deferring them, or <code>null</code> if they're made at once
+	 */
+	private transient ArrayList<Runnable> deferredEffects;
+
 	/** The bearing specified whilst the aircraft is under manual control */
 	private double manualBearingTarget = Double.NaN;
 
@@ -108,6 +120,10 @@ public class Aircraft implements Serializable {
 
 	/** A list of the aircraft violation this aircraft's separation distance */
 	private ArrayList<Aircraft> planesTooNear = new ArrayList<Aircraft>();
+
+	/** The time passed since the aircraft was last updated, if its updates
+	 * have been skipped */
+	private double skippedTime;
 	
 	private boolean inDanger = false;
 	
@@ -153,7 +169,7 @@ public class Aircraft implements Serializable {
 		this.position = position.add(new Vector(0, 0, altitudeOffset));
 
 		// Calculate initial velocity (direction)
-		this.currentTarget = flightPlan.getRoute()[0].getLocation();
+		setCurrentTarget(flightPlan.getRoute()[0].getLocation());
 		double x = currentTarget.getX() - position.getX();
 		double y = currentTarget.getY() - position.getY();
 		this.velocity = new Vector(x, y, 0).normalise().scaleBy(speed);
@@ -170,6 +186,7 @@ public class Aircraft implements Serializable {
 	@SuppressWarnings("unchecked")
 	private Aircraft(Aircraft aircraft) {
 		turnSpeed = aircraft.turnSpeed;
+		minimumSeparation = aircraft.minimumSeparation;
 		flightName = aircraft.flightName;
 		airline = aircraft.airline;
 		position = (aircraft.position != null)
@@ -177,7 +194,6 @@ public class Aircraft implements Serializable {
 		velocity = (aircraft.velocity != null)
 				? aircraft.velocity.clone() : null;
 		score = aircraft.score;
-		separationViolationCounter = aircraft.separationViolationCounter;
 		isManuallyControlled = aircraft.isManuallyControlled;
 		hasFinished = aircraft.hasFinished;
 		hasCrashed = aircraft.hasCrashed;
@@ -196,6 +212,7 @@ public class Aircraft implements Serializable {
 		inDanger = aircraft.inDanger;
 		timeWaiting = aircraft.timeWaiting;
 		airportPenaltyApplied = aircraft.airportPenaltyApplied;
+		skippedTime = aircraft.skippedTime;
 	}
 
 	/**
@@ -236,6 +253,17 @@ public class Aircraft implements Serializable {
 					+ ".");
 			e.printStackTrace();
 		}
+
+		// The session's settings may override the difficulty's handling
+		GameSettings settings = SessionContext.current().getSettings();
+
+		if (settings.getSeparation() > 0) {
+			minimumSeparation = settings.getSeparation();
+		}
+
+		if (settings.getTurnSpeed() > 0) {
+			turnSpeed = settings.getTurnSpeed();
+		}
 	}
 
 	/**
@@ -246,7 +274,9 @@ public class Aircraft implements Serializable {
 	public void update(double timeDifference) {
 		if (hasFinished) return;
 
-		separationViolationCounter += timeDifference;
+		// Catch up on any updates which were skipped
+		timeDifference += skippedTime;
+		skippedTime = 0;
 		
 		// Update altitude
 		if (isLanding) {
@@ -256,8 +286,9 @@ public class Aircraft implements Serializable {
 				position.setZ(position.getZ() - 2501 * timeDifference);
 			} else { // Gone too low, land it now
 				if (flightPlan.getDestinationAirport() != null) {
-					flightPlan.getDestinationAirport().isActive = false;
+					releaseRunway(flightPlan.getDestinationAirport());
 					hasFinished = true;
+					post(new GameEvent.AircraftLanded(this));
 				}
 			}
 		} else {
@@ -308,16 +339,19 @@ public class Aircraft implements Serializable {
 			if (!isWaitingToLand) { // Ready to land
 				hasFinished = true;
 				if (flightPlan.getDestinationAirport() != null) { // Landed at airport
-					flightPlan.getDestinationAirport().isActive = false;
+					releaseRunway(flightPlan.getDestinationAirport());
+					post(new GameEvent.AircraftLanded(this));
+				} else {
+					post(new GameEvent.AircraftCleared(this));
 				}
 			}
 		} else if (isAt(currentTarget)) {
 			currentRouteStage++;
 			// Next target is the destination if you're at the end of the plan,
 			// otherwise it's the next waypoint
-			currentTarget = (currentRouteStage >= flightPlan.getRoute().length) ? flightPlan
-					.getDestination()
-					: flightPlan.getRoute()[currentRouteStage].getLocation();
+			setCurrentTarget((currentRouteStage >= flightPlan.getRoute().length)
+					? flightPlan.getDestination()
+					: flightPlan.getRoute()[currentRouteStage].getLocation());
 		}
 
 		// Update bearing
@@ -326,6 +360,15 @@ public class Aircraft implements Serializable {
 		}
 	}
 
+	/**
+	 * Skips updating the aircraft, leaving it where it is until its next
+	 * update, which covers the time skipped as well.
+	 * @param timeDifference - the time since the last update
+	 */
+	public void skipUpdate(double timeDifference) {
+		if (!hasFinished) skippedTime += timeDifference;
+	}
+
 	/**
 	 * Calculates the angle from the plane's position, to its current target.
 	 * @return the angle in radians to the plane's current target
@@ -350,9 +393,9 @@ public class Aircraft implements Serializable {
 		double x = position.getX();
 		double y = position.getY();
 		return ((x < (RADIUS / 2))
-				|| (x > window.width() - (RADIUS / 2) - (2 * Game.getXOffset()))
-				|| (y < (RADIUS / 2)) || (y > window.height() + (RADIUS / 2)
-						- (2 * Game.getYOffset())));
+				|| (x > Game.getAirspaceWidth() - (RADIUS / 2))
+				|| (y < (RADIUS / 2))
+				|| (y > Game.getAirspaceHeight() + (RADIUS / 2)));
 	}
 
 	/**
@@ -431,7 +474,7 @@ public class Aircraft implements Serializable {
 			}
 			
 			if (routeStage == currentRouteStage) {
-				currentTarget = newWaypoint.getLocation();
+				setCurrentTarget(newWaypoint.getLocation());
 			}
 		}
 	}
@@ -450,14 +493,14 @@ public class Aircraft implements Serializable {
 	}
 
 	/**
-	 * Calls {@link #isMouseOver(int, int)} using {@link lib.jog.input#mouseX()} and
-	 * {@link  lib.jog.input#mouseY()} as the arguments.
+	 * Calls {@link #isMouseOver(int, int)} with the position in the airspace
+	 * under {@link lib.jog.input#mouseX()} and {@link lib.jog.input#mouseY()}.
 	 * @return <code>true</code>, if the mouse is close enough to this aircraft;
 	 * 			<code>false</code> otherwise
 	 */
 	public boolean isMouseOver() {
-		return isMouseOver(input.mouseX() - Game.getXOffset(), input.mouseY()
-				- Game.getYOffset());
+		return isMouseOver((int) Game.toAirspaceX(input.mouseX()),
+				(int) Game.toAirspaceY(input.mouseY()));
 	}
 
 	/**
@@ -639,9 +682,9 @@ public class Aircraft implements Serializable {
 		double x, y;
 		if (isManuallyControlled && input.isMouseDown(input.MOUSE_RIGHT)) {
 			graphics.setColour(graphics.green_transp);
-			double r = Math.atan2((input.mouseY() - Game.getYOffset())
+			double r = Math.atan2(Game.toAirspaceY(input.mouseY())
 					- position.getY(),
-					(input.mouseX() - Game.getXOffset())
+					Game.toAirspaceX(input.mouseX())
 					- position.getX());
 			x = xpos + (COMPASS_RADIUS * Math.cos(r));
 			y = ypos + (COMPASS_RADIUS * Math.sin(r));
@@ -692,7 +735,7 @@ public class Aircraft implements Serializable {
 	 */
 	public void drawFlightPath() {
 		if (Game.getInstance().getPlayer().getSelectedAircraft() != null
-				&& Game.getInstance().getPlayer().getSelectedAircraft() == this) {
+				&& Game.getInstance().getPlayer().getSelectedAircraft().equals(this)) {
 			graphics.setColour(0, 128, 128);
 		} else {
 			graphics.setColour(0, 128, 128, 128);
@@ -773,7 +816,7 @@ public class Aircraft implements Serializable {
 	 * @return index of plane breaching separation distance with this plane, or
 	 *         -1 if no planes are in violation.
 	 */
-	public Aircraft updateCollisions(double timeDifference, ArrayList<Aircraft> aircraft) {
+	public Aircraft updateCollisions(double timeDifference, List<Aircraft> aircraft) {
 		planesTooNear.clear();
 		for (int i = 0; i < aircraft.size(); i++) {
 			Aircraft plane = aircraft.get(i);
@@ -781,14 +824,16 @@ public class Aircraft implements Serializable {
 				hasFinished = true;
 				hasCrashed = true;
 				plane.crashPlane();
+				post(new GameEvent.Crash(this, plane));
+				post(new GameEvent.Crash(plane, this));
 				return plane;
 			} else if (plane != this && isWithin(plane, minimumSeparation)) {
 				// Breaching separation distance
 				planesTooNear.add(plane);
 				if (!collisionWarningSoundFlag) {
 					collisionWarningSoundFlag = true;
-					WARNING_SOUND.play();
 					inDanger = true;
+					post(new GameEvent.SeparationBreached(this, plane));
 				}
 				
 				// Decrement score for getting within separation distance
@@ -850,8 +895,8 @@ public class Aircraft implements Serializable {
 		try { //FIXME
 			if (currentRouteStage < flightPlan.getRoute().length
 					&& flightPlan.getRoute()[currentRouteStage] != null) {
-				currentTarget = flightPlan.getRoute()[currentRouteStage]
-						.getLocation();
+				setCurrentTarget(flightPlan.getRoute()[currentRouteStage]
+						.getLocation());
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -889,6 +934,9 @@ public class Aircraft implements Serializable {
 
 	/**
 	 * Causes the aircraft to land at its airport.
+	 * <p>
+	 * Called by the airport once the aircraft has been given a runway.
+	 * </p>
 	 */
 	public void land() {
 		isWaitingToLand = false;
@@ -897,10 +945,6 @@ public class Aircraft implements Serializable {
 		if (isManuallyControlled) {
 			toggleManualControl();
 		}
-		
-		if (flightPlan.getDestinationAirport() != null) {
-			flightPlan.getDestinationAirport().isActive = true;
-		}
 	}
 
 	/**
@@ -914,10 +958,14 @@ public class Aircraft implements Serializable {
 			// it is departing from
 			for (Airport airport : Game.getInstance().getAllAirports()) {
 				if (airport.equals(flightPlan.getOriginAirport())) {
-					Game.getInstance().getPlayerFromAirport(
-							airport).getAircraft().add(this);
-					Game.getInstance().getPlayer().getFlightStrips()
-							.add(new FlightStrip(this, FlightStrip
+					AircraftRegistry registry = Game.getInstance()
+							.getAircraftRegistry();
+					registry.add(Game.getInstance()
+							.getPlayerFromAirport(airport), this);
+					post(new GameEvent.AircraftSpawned(this,
+							Game.getInstance().getPlayerFromAirport(airport)));
+					registry.addFlightStrip(Game.getInstance().getPlayer(),
+							new FlightStrip(this, FlightStrip
 									.BACKGROUND_COLOURS[Game.getInstance()
 									                    .getPlayer().getID()]));
 					return;
@@ -935,7 +983,7 @@ public class Aircraft implements Serializable {
 	public boolean isCloseToEntry(Vector position) {
 		double x = this.getPosition().getX() - position.getX();
 		double y = this.getPosition().getY() - position.getY();
-		return x * x + y * y <= 300 * 300;
+		return x * x + y * y <= ENTRY_CLEARANCE * ENTRY_CLEARANCE;
 	}
 
 	/**
@@ -962,6 +1010,16 @@ public class Aircraft implements Serializable {
         return airline;
     }
 
+	/**
+	 * Gets how far along its route the aircraft is.
+	 * @return the index of the waypoint in the route the aircraft is
+	 * 			heading for, or the route's length once it is heading for
+	 * 			its destination
+	 */
+	public int getRouteStage() {
+		return currentRouteStage;
+	}
+
 	/**
 	 * Gets whether or not the aircraft has completed its route.
 	 * @return <code>true</code> if the aircraft has finished, otherwise
@@ -1007,38 +1065,53 @@ public class Aircraft implements Serializable {
 		return Math.atan2(scaledVelocity.getY(), scaledVelocity.getX());
 	}
 	
+	/**
+	 * Gets the aircraft's velocity, including any change in speed due to
+	 * the player's powerups.
+	 * @return the aircraft's velocity, in pixels per second
+	 */
+	public Vector getVelocity() {
+		return velocity.scaleBy(getSpeedScale());
+	}
+
+	/**
+	 * Gets whether the aircraft has been given a runway and is landing.
+	 * @return <code>true</code> if the aircraft is landing
+	 */
+	public boolean isLanding() {
+		return isLanding;
+	}
+
+	/**
+	 * Gets the minimum distance the aircraft should keep from others at
+	 * its difficulty.
+	 * @return the separation distance
+	 */
+	public int getMinimumSeparation() {
+		return minimumSeparation;
+	}
+
+	/**
+	 * Gets the furthest another aircraft can be from this one and still
+	 * crash into it, or breach its separation.
+	 * @return the distance collisions are checked within
+	 */
+	public int getCollisionRange() {
+		return Math.max(RADIUS, minimumSeparation);
+	}
+
 	/** 
 	 * Gets the current speed modifier due to the player's powerups.
 	 * @return the amount to scale the aircraft's speed by
 	 */
 	public double getSpeedScale() {
-		// Check if this is a multiplayer game
-		if (Game.getInstance() instanceof MultiPlayerGame) {
-			// Check if the player has an active velocity-affecting powerup
-			Player player = null;
-			if (Game.getInstance() != null) {
-				player = Game.getInstance().getPlayerFromAircraft(this);
-			}
+		// The modifier is kept up to date as the player's powerups
+		// are activated and deactivated
+		Player player = (Game.getInstance() != null)
+				? Game.getInstance().getPlayerFromAircraft(this) : null;
 
-			double speedScale = 1;
-			if (player != null && player.getPowerups() != null) {
-				for (Powerup powerup : player.getPowerups()) {
-					if (powerup.isActive()) {
-						switch (powerup.getEffect()) {
-						case SPEED_UP:
-							speedScale *= 2;
-							break;
-						case SLOW_DOWN:
-							speedScale /= 2;
-							break;
-						default:
-							break;
-						}
-					}
-				}
-			}
-
-			return speedScale;
+		if (player != null && player.getEffects() != null) {
+			return player.getEffects().getSpeedScale();
 		} else {
 			return 1;
 		}
@@ -1090,9 +1163,14 @@ public class Aircraft implements Serializable {
 	}
 	
 	private void decrementScoreSeparationViolation() {
-		if (separationViolationCounter > 0.25) {
+		if (separationPenaltyCooldown == null
+				|| !separationPenaltyCooldown.isPending()) {
 			decrementScoreSmall();
-			separationViolationCounter = 0;
+
+			if (Game.getInstance() != null) {
+				separationPenaltyCooldown = Game.getInstance().getTimers()
+						.schedule(SEPARATION_PENALTY_INTERVAL, null);
+			}
 		}
 	}
 	
@@ -1151,6 +1229,135 @@ public class Aircraft implements Serializable {
 				destinationAirport);
 		
 		currentRouteStage = 0;
+		
+		// The new destination may be a different airport
+		setCurrentTarget(currentTarget);
+	}
+	
+	/**
+	 * Sets the point the aircraft is heading towards.
+	 * <p>
+	 * If the target is the aircraft's destination airport, the aircraft
+	 * joins that airport's arrivals; if it was heading for an airport and
+	 * no longer is, it leaves that airport's arrivals.
+	 * </p>
+	 * @param target - the point to head towards
+	 */
+	private void setCurrentTarget(Vector target) {
+		currentTarget = target;
+		
+		Airport airport = flightPlan.getDestinationAirport();
+		if (airport != null && (target == null
+				|| !target.equals(airport.getLocation()))) {
+			airport = null;
+		}
+		
+		if (airport != arrivalAirport) {
+			cancelArrival();
+			
+			if (airport != null) {
+				final Airport destination = airport;
+				makeEffect(new Runnable() {
+					@Override
+					public void run() {
+						destination.addArrival(Aircraft.this);
+					}
+				});
+				arrivalAirport = airport;
+			}
+		}
+	}
+	
+	/**
+	 * Removes the aircraft from the arrivals of the airport it is
+	 * heading for, such as when it leaves the airspace.
+	 */
+	public void cancelArrival() {
+		if (arrivalAirport != null) {
+			final Airport airport = arrivalAirport;
+			makeEffect(new Runnable() {
+				@Override
+				public void run() {
+					airport.removeArrival(Aircraft.this);
+				}
+			});
+			arrivalAirport = null;
+		}
+	}
+	
+	/**
+	 * Holds back the changes the aircraft makes to airports, and the
+	 * events it posts, until applyDeferredEffects() is called.
+	 * <p>
+	 * This lets aircraft be updated in parallel, as they change nothing
+	 * but themselves while their effects are deferred.
+	 * </p>
+	 */
+	public void deferEffects() {
+		if (deferredEffects == null) {
+			deferredEffects = new ArrayList<Runnable>();
+		}
+	}
+	
+	/**
+	 * Makes the changes held back since deferEffects() was called, in the
+	 * order they would have been made, and stops holding them back.
+	 */
+	public void applyDeferredEffects() {
+		ArrayList<Runnable> effects = deferredEffects;
+		deferredEffects = null;
+		
+		if (effects != null) {
+			for (Runnable effect : effects) {
+				effect.run();
+			}
+		}
+	}
+	
+	/**
+	 * Frees the runway the aircraft used to land.
+	 * @param airport - the airport the aircraft landed at
+	 */
+	private void releaseRunway(final Airport airport) {
+		makeEffect(new Runnable() {
+			@Override
+			public void run() {
+				airport.releaseRunway(Aircraft.this);
+			}
+		});
+	}
+	
+	/**
+	 * Makes a change outside the aircraft, or holds it back if the
+	 * aircraft's effects are being deferred.
+	 * @param effect - the change to make
+	 */
+	private void makeEffect(Runnable effect) {
+		if (deferredEffects != null) {
+			deferredEffects.add(effect);
+		} else {
+			effect.run();
+		}
+	}
+	
+	/**
+	 * Posts an event about the aircraft to the running game's event bus.
+	 * <p>
+	 * The event is delivered on the game loop once the aircraft have been
+	 * updated, so listeners can safely add and remove aircraft.
+	 * </p>
+	 * @param event - the event to post
+	 */
+	private void post(final GameEvent event) {
+		final Game game = Game.getInstance();
+		if (game == null) return;
+		
+		makeEffect(new Runnable() {
+			@Override
+			public void run() {
+				game.getEvents().post(event);
+			}
+		});
 	}
 	
 	
@@ -0,0 +1,318 @@
+package cls;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * <h1>Aircraft Registry</h1>
+ * <p>
+ * Indexes the aircraft, flight strips and airports of the players in a
+ * game, so that they can be looked up without searching every player's
+ * lists.
+ * </p>
+ * <p>
+ * Aircraft should be added, transferred and removed through the registry,
+ * which updates both the players' lists and its indexes. If a player is
+ * replaced (e.g. by data received over the network), calling setPlayers()
+ * with the new players rebuilds the indexes.
+ * </p>
+ * <p>
+ * Changes must be made on the simulation thread. Lookups may be made from
+ * any thread, as the indexes are never left part way through a change.
+ * </p>
+ */
+public class AircraftRegistry {
+
+	/**
+	 * The indexes for a set of players.
+	 * <p>
+	 * A new index is built whenever the players are replaced, so that a
+	 * lookup made during the rebuild sees either the old index or the new
+	 * one, rather than a partly built one.
+	 * </p>
+	 */
+	private static class Index {
+
+		/** The players indexed */
+		private final Player[] players;
+
+		/** The aircraft lists of the players, when they were indexed */
+		private final Object[] aircraftLists;
+
+		/** The aircraft, keyed by flight name */
+		private final ConcurrentHashMap<String, Aircraft> aircraftByName =
+				new ConcurrentHashMap<String, Aircraft>();
+
+		/** The player controlling each aircraft */
+		private final ConcurrentHashMap<Aircraft, Player> owners =
+				new ConcurrentHashMap<Aircraft, Player>();
+
+		/** The flight strip of each aircraft */
+		private final ConcurrentHashMap<Aircraft, FlightStrip> flightStrips =
+				new ConcurrentHashMap<Aircraft, FlightStrip>();
+
+		/** The airports, keyed by name */
+		private final ConcurrentHashMap<String, Airport> airportsByName =
+				new ConcurrentHashMap<String, Airport>();
+
+		/** Every aircraft controlled by any of the players */
+		private final CopyOnWriteArrayList<Aircraft> allAircraft =
+				new CopyOnWriteArrayList<Aircraft>();
+
+		/** A read-only view of every aircraft */
+		private final List<Aircraft> allAircraftView =
+				Collections.unmodifiableList(allAircraft);
+
+		/**
+		 * Constructor for an index.
+		 * <p>
+		 * Where an aircraft or flight strip is held by more than one player,
+		 * the first of the players takes precedence.
+		 * </p>
+		 * @param players - the players to index
+		 */
+		private Index(Player[] players) {
+			this.players = players;
+			this.aircraftLists = new Object[players.length];
+
+			ArrayList<Aircraft> all = new ArrayList<Aircraft>();
+
+			for (int i = 0; i < players.length; i++) {
+				Player player = players[i];
+				if (player == null) continue;
+
+				aircraftLists[i] = player.getAircraft();
+
+				if (player.getAircraft() != null) {
+					for (Aircraft aircraft : player.getAircraft()) {
+						if (owners.putIfAbsent(aircraft, player) == null) {
+							aircraftByName.put(aircraft.getName(), aircraft);
+							all.add(aircraft);
+						}
+					}
+				}
+
+				if (player.getFlightStrips() != null) {
+					for (FlightStrip fs : player.getFlightStrips()) {
+						if (fs.getAircraft() != null) {
+							flightStrips.putIfAbsent(fs.getAircraft(), fs);
+						}
+					}
+				}
+
+				if (player.getAirports() != null) {
+					for (Airport airport : player.getAirports()) {
+						airportsByName.putIfAbsent(airport.getName(), airport);
+					}
+				}
+			}
+
+			allAircraft.addAll(all);
+		}
+
+		/**
+		 * Checks whether the index was built for a set of players.
+		 * @param players - the players to check
+		 * @return <code>true</code> if the players, and their lists of
+		 * 			aircraft, are the same objects as those indexed
+		 */
+		private boolean isFor(Player[] players) {
+			if (players.length != this.players.length) return false;
+
+			for (int i = 0; i < players.length; i++) {
+				if (players[i] != this.players[i]) return false;
+
+				if (players[i] != null
+						&& players[i].getAircraft() != aircraftLists[i]) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+	}
+
+
+	/** The current indexes */
+	private volatile Index index = new Index(new Player[0]);
+
+
+	// Players --------------------------------------------------------------------------
+
+	/**
+	 * Sets the players whose aircraft are indexed.
+	 * <p>
+	 * The indexes are only rebuilt if the players, or their lists of
+	 * aircraft, have been replaced since they were last set, so this is
+	 * cheap to call every update.
+	 * </p>
+	 * @param players - the players in the game
+	 */
+	public synchronized void setPlayers(Player... players) {
+		if (!index.isFor(players)) {
+			index = new Index(players.clone());
+		}
+	}
+
+
+	// Changes --------------------------------------------------------------------------
+
+	/**
+	 * Adds an aircraft to a player's control.
+	 * @param owner - the player to control the aircraft
+	 * @param aircraft - the aircraft to add
+	 */
+	public synchronized void add(Player owner, Aircraft aircraft) {
+		Index index = this.index;
+
+		owner.getAircraft().add(aircraft);
+
+		if (index.owners.putIfAbsent(aircraft, owner) == null) {
+			index.aircraftByName.put(aircraft.getName(), aircraft);
+			index.allAircraft.add(aircraft);
+		}
+	}
+
+	/**
+	 * Adds a flight strip to a player's list of flight strips.
+	 * @param player - the player to add the flight strip to
+	 * @param flightStrip - the flight strip to add
+	 */
+	public synchronized void addFlightStrip(Player player, FlightStrip flightStrip) {
+		player.getFlightStripBoard().add(flightStrip);
+		index.flightStrips.putIfAbsent(flightStrip.getAircraft(), flightStrip);
+	}
+
+	/**
+	 * Moves an aircraft to another player's control.
+	 * <p>
+	 * The aircraft's flight strip is removed; a new one may be added
+	 * for the new player.
+	 * </p>
+	 * @param aircraft - the aircraft to transfer
+	 * @param newOwner - the player to take control of the aircraft
+	 */
+	public synchronized void transfer(Aircraft aircraft, Player newOwner) {
+		unindex(aircraft);
+		add(newOwner, aircraft);
+	}
+
+	/**
+	 * Removes an aircraft, and its flight strip, from the game.
+	 * @param aircraft - the aircraft to remove
+	 */
+	public synchronized void remove(Aircraft aircraft) {
+		unindex(aircraft);
+		aircraft.cancelArrival();
+	}
+
+	/**
+	 * Removes an aircraft, and its flight strip, from its owner and the
+	 * indexes.
+	 * @param aircraft - the aircraft to remove
+	 */
+	private void unindex(Aircraft aircraft) {
+		Index index = this.index;
+		Player owner = index.owners.remove(aircraft);
+
+		if (owner != null) {
+			owner.getAircraft().remove(aircraft);
+			index.aircraftByName.remove(aircraft.getName());
+			index.allAircraft.remove(aircraft);
+		}
+
+		FlightStrip flightStrip = index.flightStrips.remove(aircraft);
+
+		if (flightStrip != null) {
+			for (Player player : index.players) {
+				if (player != null && player.getFlightStripBoard() != null) {
+					player.getFlightStripBoard().remove(flightStrip);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all of a player's aircraft.
+	 * <p>
+	 * The player's flight strips are left in place, so that they can still
+	 * be shown once the game has ended.
+	 * </p>
+	 * @param player - the player whose aircraft should be removed
+	 */
+	public synchronized void clear(Player player) {
+		Index index = this.index;
+
+		for (Aircraft aircraft : player.getAircraft()) {
+			if (index.owners.remove(aircraft, player)) {
+				index.aircraftByName.remove(aircraft.getName());
+				index.allAircraft.remove(aircraft);
+			}
+
+			aircraft.cancelArrival();
+		}
+
+		player.getAircraft().clear();
+	}
+
+
+	// Lookups --------------------------------------------------------------------------
+
+	/**
+	 * Gets an aircraft from its flight name.
+	 * @param name - the aircraft's flight name
+	 * @return the aircraft with the specified name, or <code>null</code>
+	 * 			if there isn't one
+	 */
+	public Aircraft getAircraft(String name) {
+		return (name == null) ? null : index.aircraftByName.get(name);
+	}
+
+	/**
+	 * Gets the player controlling an aircraft.
+	 * @param aircraft - the aircraft to get the controlling player of
+	 * @return the player controlling the aircraft, or <code>null</code>
+	 * 			if it isn't controlled by any player
+	 */
+	public Player getOwner(Aircraft aircraft) {
+		return (aircraft == null) ? null : index.owners.get(aircraft);
+	}
+
+	/**
+	 * Gets the flight strip of an aircraft.
+	 * @param aircraft - the aircraft whose flight strip should be returned
+	 * @return the aircraft's flight strip, or <code>null</code> if it
+	 * 			doesn't have one
+	 */
+	public FlightStrip getFlightStrip(Aircraft aircraft) {
+		return (aircraft == null) ? null : index.flightStrips.get(aircraft);
+	}
+
+	/**
+	 * Gets an airport from its name.
+	 * @param name - the airport's name
+	 * @return the airport with the specified name, or <code>null</code>
+	 * 			if there isn't one
+	 */
+	public Airport getAirport(String name) {
+		return (name == null) ? null : index.airportsByName.get(name);
+	}
+
+	/**
+	 * Gets every aircraft controlled by any player.
+	 * <p>
+	 * The list is a read-only view which reflects later changes, until
+	 * the players are replaced. It may be iterated while aircraft are
+	 * being added or removed.
+	 * </p>
+	 * @return every aircraft controlled by any player
+	 */
+	public List<Aircraft> getAllAircraft() {
+		return index.allAircraftView;
+	}
+
+}
@@ -0,0 +1,206 @@
+package cls;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import btc.SessionContext;
+
+/**
+ * <h1>Aircraft Updater</h1>
+ * <p>
+ * Updates a list of aircraft, sharing them between threads when there are
+ * enough of them to be worth it.
+ * </p>
+ * <p>
+ * While an aircraft updates, it changes nothing but itself, apart from
+ * the arrivals and runways of airports and the events it posts. When
+ * updating in parallel, each aircraft holds these changes back, and once
+ * every aircraft has been updated they are made in the order the aircraft
+ * are listed. They are therefore made in exactly the order they would be
+ * if the aircraft were updated one at a time, so the game plays out the
+ * same either way.
+ * </p>
+ */
+public class AircraftUpdater {
+
+	/** The fewest aircraft worth sharing between threads, by default */
+	public static final int DEFAULT_THRESHOLD = 64;
+
+	/** The fewest aircraft each thread is given */
+	private static final int MIN_PARTITION_SIZE = 16;
+
+	/** The threads shared by every updater, created when first needed */
+	private static ExecutorService workers;
+
+	/** The number of threads to share aircraft between */
+	private final int threads;
+
+	/** The fewest aircraft worth sharing between threads */
+	private final int threshold;
+
+
+	/**
+	 * Constructor for an updater.
+	 * @param threads - the number of threads to share aircraft between,
+	 * 			including the thread calling update(); 1 or fewer updates
+	 * 			every aircraft on the calling thread
+	 * @param threshold - the fewest aircraft worth sharing between threads
+	 */
+	public AircraftUpdater(int threads, int threshold) {
+		this.threads = threads;
+		this.threshold = threshold;
+	}
+
+
+	/**
+	 * Updates every aircraft which hasn't finished.
+	 * <p>
+	 * The aircraft must not be changed by anything else during the update.
+	 * If an aircraft's update fails, the effects of every aircraft are
+	 * still made, and the failure is then thrown.
+	 * </p>
+	 * @param aircraft - the aircraft to update
+	 * @param timeDifference - the time since the last update
+	 */
+	public void update(List<Aircraft> aircraft, double timeDifference) {
+		int partitions = Math.min(threads, aircraft.size() / MIN_PARTITION_SIZE);
+
+		if (aircraft.size() < threshold || partitions <= 1) {
+			for (Aircraft plane : aircraft) {
+				plane.update(timeDifference);
+			}
+			return;
+		}
+
+		final Aircraft[] planes = aircraft.toArray(new Aircraft[aircraft.size()]);
+		ArrayList<Future<?>> results = new ArrayList<Future<?>>();
+		SessionContext context = SessionContext.current();
+
+		for (Aircraft plane : planes) {
+			plane.deferEffects();
+		}
+
+		try {
+			// The calling thread updates the first partition itself
+			for (int i = 1; i < partitions; i++) {
+				results.add(getWorkers().submit(createPartition(context, planes,
+						planes.length * i / partitions,
+						planes.length * (i + 1) / partitions, timeDifference)));
+			}
+
+			createPartition(context, planes, 0, planes.length / partitions,
+					timeDifference).run();
+
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted updating aircraft", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			} else if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			// Wait for every partition, so none is still running when the
+			// effects are made
+			for (Future<?> result : results) {
+				try {
+					result.get();
+				} catch (Exception e) {
+					// Already thrown
+				}
+			}
+
+			for (Aircraft plane : planes) {
+				plane.applyDeferredEffects();
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of threads aircraft are shared between.
+	 * @return the number of threads aircraft are shared between
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Gets the fewest aircraft worth sharing between threads.
+	 * @return the fewest aircraft worth sharing between threads
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Creates a task which updates some of the aircraft.
+	 * <p>
+	 * The task runs in the context of the session the aircraft belong to,
+	 * so they see that session's game whichever thread runs it.
+	 * </p>
+	 * @param context - the context of the aircraft's session
+	 * @param planes - the aircraft being updated
+	 * @param from - the index of the first aircraft to update
+	 * @param to - the index after the last aircraft to update
+	 * @param timeDifference - the time since the last update
+	 * @return the task
+	 */
+	private static Runnable createPartition(final SessionContext context,
+			final Aircraft[] planes, final int from, final int to,
+			final double timeDifference) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				SessionContext previous = context.enter();
+				try {
+					for (int i = from; i < to; i++) {
+						planes[i].update(timeDifference);
+					}
+				} finally {
+					SessionContext.exit(previous);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Gets the threads shared by every updater.
+	 * <p>
+	 * There is one for each core beside the one the game runs on.
+	 * </p>
+	 * @return the threads
+	 */
+	private static synchronized ExecutorService getWorkers() {
+		if (workers == null) {
+			workers = Executors.newFixedThreadPool(
+					Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+					new ThreadFactory() {
+						private int count = 0;
+
+						@Override
+						public synchronized Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"Aircraft Updater " + count++);
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+
+		return workers;
+	}
+
+}
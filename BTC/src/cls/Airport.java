@@ -2,15 +2,17 @@ package cls;
 
 import java.io.File;
 import java.io.Serializable;
-import java.util.ArrayList;
-
-import cls.Powerup.PowerupEffect;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 
 import btc.Main;
+import cls.RunwaySequencer.Clearance;
+import cls.RunwaySequencer.Operation;
 import scn.Game;
+import lib.AssetManager;
+import lib.TimerWheel;
 import lib.jog.graphics;
 import lib.jog.input;
-import lib.jog.window;
 import lib.jog.graphics.Image;
 import lib.jog.input.EventHandler;
 
@@ -43,9 +45,9 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 	/** The relative height of the departures area */
 	private static final double RELATIVE_DEPARTURES_HEIGHT = 37;
 	
-	/** Whether the airport currently in use - i.e. whether an aircraft is either
-	 * arriving or departing */
-	public boolean isActive = false;
+	/** Whether the airport is closed to arrivals and departures, such as
+	 * by fog */
+	private boolean isClosed = false;
 	
 	/** Whether the arrivals area has been clicked */
 	private boolean isArrivalsClicked = false;
@@ -53,24 +55,39 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 	/** Whether the departures area has been clicked */
 	private boolean isDeparturesClicked = false;
 	
-	/** A list of aircraft waiting to land at the airport */
-	public ArrayList<Aircraft> aircraftWaitingToLand = new ArrayList<Aircraft>();
+	/** The default maximum number of aircraft the hangar can hold */
+	public static final int DEFAULT_HANGAR_SIZE = 3;
+	
+	/** The aircraft heading for the airport, in the order they began their
+	 * approach; aircraft add and remove themselves as their target changes */
+	public LinkedHashSet<Aircraft> aircraftWaitingToLand = new LinkedHashSet<Aircraft>();
+	
+	/** The aircraft at the airport waiting to take off, and the time each
+	 * entered the hangar */
+	public Hangar aircraftHangar = new Hangar(DEFAULT_HANGAR_SIZE);
+	
+	/** The default number of runways */
+	public static final int DEFAULT_RUNWAYS = 1;
 	
-	/** A list of aircraft at the airport */
-	public ArrayList<Aircraft> aircraftHangar = new ArrayList<Aircraft>();
+	/** Decides when the aircraft cleared to land or take off may use
+	 * each of the airport's runways */
+	private RunwaySequencer<Aircraft> runways =
+			new RunwaySequencer<Aircraft>(DEFAULT_RUNWAYS);
 	
-	/** Time entered is directly related to the aircraft hangar and stores the time each aircraft entered the
-	 * hangar this is used to determine score multiplier decrease if aircraft is in the hangar for too long */
-	public ArrayList<Double> timeEntered = new ArrayList<Double>();
+	/** The time an aircraft can wait in the hangar before being penalised */
+	private static final double HANGAR_TIMEOUT = 5;
 	
-	/** The maximum number of aircraft the airport can hold */
-	private int hangarSize = 3;
+	/** The timers which penalise each aircraft in the hangar once it has
+	 * waited too long */
+	private transient HashMap<Aircraft, TimerWheel.Timer> hangarTimeouts;
 	
 	/** THe alpha of the fog effect rendered on an airport */
 	private double fogRender = 0;
 	
-	private static final Image FOG =
-			graphics.newImage("gfx" + File.separator + "apt"
+	/** The fog image, which is loaded when first drawn, so that airports
+	 * can be simulated without a display */
+	private static final AssetManager.Handle<Image> FOG = AssetManager
+			.acquire(AssetManager.IMAGE, "gfx" + File.separator + "apt"
 					+ File.separator + "fog.png");
 	
 	/**
@@ -96,35 +113,162 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 	@SuppressWarnings("unchecked")
 	private Airport(Airport airport, Waypoint waypoint) {
 		super(waypoint);
-		isActive = airport.isActive;
+		isClosed = airport.isClosed;
 		isArrivalsClicked = airport.isArrivalsClicked;
 		isDeparturesClicked = airport.isDeparturesClicked;
 		aircraftWaitingToLand = (airport.aircraftWaitingToLand != null)
-				? (ArrayList<Aircraft>)
+				? (LinkedHashSet<Aircraft>)
 						airport.aircraftWaitingToLand.clone() : null;
 		aircraftHangar = (airport.aircraftHangar != null)
-				? (ArrayList<Aircraft>)
-						airport.aircraftHangar.clone() : null;
-		timeEntered = (airport.timeEntered != null)
-				? (ArrayList<Double>)
-						airport.timeEntered.clone() : null;
-		hangarSize = airport.hangarSize;
+				? new Hangar(airport.aircraftHangar) : null;
+		runways = (airport.runways != null)
+				? new RunwaySequencer<Aircraft>(airport.runways) : null;
+		fogRender = airport.fogRender;
 	}
 	
 	
 	/** 
 	 * Updates the aircraft at the airport.
-	 * @param aircraft - the list of aircraft to check
+	 * <p>
+	 * The aircraft waiting to land aren't checked here, as each aircraft
+	 * joins and leaves the airport's arrivals as its target changes.
+	 * </p>
+	 */
+	public void update() {
+		sequenceRunways();
+		updateHangar();
+		updateFog();
+	}
+	
+	/**
+	 * Lands or takes off each cleared aircraft which has been given
+	 * a runway.
 	 */
-	public void update(ArrayList<Aircraft> aircraft) {
-		aircraftWaitingToLand.clear();
-		for (Aircraft a : aircraft) {
-			if (a.currentTarget.equals(getLocation())) {
-				aircraftWaitingToLand.add(a);
+	private void sequenceRunways() {
+		if (isClosed) return;
+		
+		double time = getTime();
+		Clearance<Aircraft> clearance;
+		
+		while ((clearance = runways.next(time)) != null) {
+			Aircraft aircraft = clearance.getAircraft();
+			
+			if (clearance.getOperation() == Operation.ARRIVAL) {
+				aircraft.land();
+			} else if (!aircraftHangar.isEmpty()
+					&& aircraftHangar.get(0).equals(aircraft)) {
+				// Departures are cleared in the order of the hangar
+				aircraftHangar.remove();
+				cancelHangarTimeout(aircraft);
+				aircraft.takeOff();
+				
+				// Increment the player's number of planes taken off
+				Player player = Game.getInstance().getPlayerFromAirport(this);
+				player.setPlanesTakenOff(player.getPlanesTakenOff() + 1);
 			}
 		}
 	}
 	
+	/**
+	 * Adds an aircraft to the aircraft waiting to land.
+	 * @param aircraft - the aircraft which is now heading for the airport
+	 */
+	void addArrival(Aircraft aircraft) {
+		aircraftWaitingToLand.add(aircraft);
+	}
+	
+	/**
+	 * Removes an aircraft from the aircraft waiting to land.
+	 * @param aircraft - the aircraft which is no longer heading for the airport
+	 */
+	void removeArrival(Aircraft aircraft) {
+		aircraftWaitingToLand.remove(aircraft);
+		runways.cancel(aircraft, getTime());
+	}
+	
+	/**
+	 * Frees the runway used by an aircraft which has landed.
+	 * @param aircraft - the aircraft which has landed
+	 */
+	void releaseRunway(Aircraft aircraft) {
+		runways.release(aircraft, getTime());
+	}
+	
+	/**
+	 * Updates the time each aircraft in the hangar has been waiting.
+	 * <p>
+	 * The score penalty for waiting too long is applied by a timer
+	 * started when each aircraft enters the hangar.
+	 * </p>
+	 */
+	private void updateHangar() {
+		if (aircraftHangar.size() > 0 && Game.getInstance() != null) {
+			int timeWaiting = (int)(Game.getInstance().getTime() - aircraftHangar.getTimeEntered(0));
+			
+			for(int i = 0; i < aircraftHangar.size(); i++ ) {
+				aircraftHangar.get(i).setTimeWaiting(timeWaiting);
+			}
+		}
+	}
+	
+	/**
+	 * Starts the timer which penalises an aircraft if it waits in the
+	 * hangar for too long.
+	 * @param aircraft - the aircraft which has entered the hangar
+	 */
+	private void startHangarTimeout(final Aircraft aircraft) {
+		if (hangarTimeouts == null) {
+			hangarTimeouts = new HashMap<Aircraft, TimerWheel.Timer>();
+		}
+		
+		cancelHangarTimeout(aircraft);
+		
+		hangarTimeouts.put(aircraft, Game.getInstance().getTimers().schedule(
+				HANGAR_TIMEOUT, new Runnable() {
+					@Override
+					public void run() {
+						hangarTimeouts.remove(aircraft);
+						
+						// Decrement the score of an aircraft that has stayed
+						// in the airport too long, only once
+						if (!aircraft.isAirportPenaltyApplied()) {
+							aircraft.decrementScoreLarge();
+							aircraft.setAirportPenaltyApplied(true);
+						}
+					}
+				}));
+	}
+	
+	/**
+	 * Stops the timer which penalises an aircraft for waiting in the hangar.
+	 * @param aircraft - the aircraft which has left the hangar
+	 */
+	private void cancelHangarTimeout(Aircraft aircraft) {
+		if (hangarTimeouts == null) return;
+		
+		TimerWheel.Timer timeout = hangarTimeouts.remove(aircraft);
+		
+		if (timeout != null) {
+			timeout.cancel();
+		}
+	}
+	
+	/**
+	 * Fades the fog effect in or out, depending on whether the player
+	 * owning the airport is affected by a fog powerup.
+	 */
+	private void updateFog() {
+		Player player = (Game.getInstance() != null)
+				? Game.getInstance().getPlayerFromAirport(this) : null;
+		
+		if (player != null && player.getEffects() != null
+				&& player.getEffects().isFogged()) {
+			fogRender = fogRender + ( 1 - fogRender ) * 0.1;
+		} else {
+			fogRender -= fogRender * 0.04;
+		}
+	}
+	
 	/**
 	 * Draws the airport.
 	 * <p>
@@ -147,12 +291,7 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 		if (aircraftHangar.size() > 0) {
 			// Colour fades from green (fine) to red (danger)
 			// over 5 seconds as plane is waiting
-			int timeWaiting = (int)(Game.getInstance().getTime() - timeEntered.get(0));
-			
-			for(int i = 0; i < aircraftHangar.size(); i++ ) {
-				int planeTimeWaiting = (int)(Game.getInstance().getTime() - timeEntered.get(0));
-				aircraftHangar.get(i).setTimeWaiting(planeTimeWaiting);
-			}
+			int timeWaiting = (int)(Game.getInstance().getTime() - aircraftHangar.getTimeEntered(0));
 			
 			// Assume it hasn't been waiting
 			int greenNow = greenFine; 
@@ -162,17 +301,6 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 				if (timeWaiting >= 5) { // Cap at 5 seconds
 					greenNow = greenDanger;
 					redNow = redDanger;
-					
-					//Decrement the score of an aircraft that has stayed in the airport too long
-					//Only decrement score once
-					for(int i = 0; i < aircraftHangar.size(); i++ ) {
-						Aircraft currentAircraft = aircraftHangar.get(i);
-						if(currentAircraft.isAirportPenaltyApplied() == false && currentAircraft.getTimeWaiting() >= 5) {
-							currentAircraft.decrementScoreLarge();
-							currentAircraft.setAirportPenaltyApplied(true);
-						}
-					}
-					
 				} else {
 					// Colour between fine and danger, scaled by timeWaiting
 					greenNow = greenFine - (int)(Math.abs(greenFine-greenDanger)
@@ -219,17 +347,20 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 					getArrivalsY() + (getArrivalsHeight() / 2));
 		}
 		
-		boolean dec = true;
-		for (Powerup pp : Game.getInstance().getPlayerFromAirport(this).getPowerups()) {
-			if (pp.isActive() && pp.getEffect() == PowerupEffect.FOG) {
-				fogRender = fogRender + ( 1 - fogRender ) * 0.1;
-				dec = false;
-				break;
-			}
-		}
-		if (dec) fogRender -= fogRender * 0.04;
+		// Print the runway use, and the number and average delay of the
+		// aircraft waiting for a runway
+		double time = getTime();
+		graphics.setColour(255, 255, 255, 128);
+		graphics.print(String.format("RWY %d/%d  Q %d  DLY %ds",
+				runways.getRunwaysInUse(time), runways.getRunways(),
+				runways.getQueueLength(Operation.ARRIVAL)
+						+ runways.getQueueLength(Operation.DEPARTURE),
+				(int) runways.getAverageDelay()),
+				getLocationX(), getLocationY()
+						+ (Game.airportImage.height() * getMinScale()) + 2);
+		
 		graphics.setColour( 255, 255, 255, fogRender * 255 );
-		if (fogRender>0.001) graphics.drawScaled( FOG, getLocationX(), getLocationY()-getMinScale()*FOG.height()/3, getMinScale());
+		if (fogRender>0.001) graphics.drawScaled( FOG.get(), getLocationX(), getLocationY()-getMinScale()*FOG.get().height()/3, getMinScale());
 	}
 
 	/**
@@ -281,7 +412,7 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 	 * 			<code>false</code> otherwise
 	 */
 	public boolean isArrivalsClicked(int x, int y) {
-		return isWithinArrivals(new Vector(x, y, 0)) && !isActive;
+		return isWithinArrivals(new Vector(x, y, 0)) && !isClosed;
 	}
 	
 	/**
@@ -292,7 +423,7 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 	 * 			<code>false</code> otherwise
 	 */
 	public boolean isDeparturesClicked(int x, int y) {
-		return isWithinDepartures(new Vector(x, y, 0)) && !isActive;
+		return isWithinDepartures(new Vector(x, y, 0)) && !isClosed;
 	}
 	
 	/**
@@ -377,43 +508,120 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 	 * @return the size of the airport's hangar
 	 */
 	public int getHangarSize() {
-		return hangarSize;
+		return aircraftHangar.getCapacity();
+	}
+	
+	/**
+	 * Sets the maximum number of aircraft the airport's hangar can hold.
+	 * <p>
+	 * The hangar can't be made smaller than the number of aircraft in it.
+	 * </p>
+	 * @param hangarSize - the maximum number of aircraft
+	 */
+	public void setHangarSize(int hangarSize) {
+		aircraftHangar.setCapacity(hangarSize);
+	}
+	
+	/**
+	 * Gets the minimum time between take-offs, which limits the airport's
+	 * departure throughput.
+	 * @return the minimum time between take-offs
+	 */
+	public double getDepartureInterval() {
+		return runways.getSeparation(Operation.DEPARTURE, Operation.DEPARTURE);
+	}
+	
+	/**
+	 * Sets the minimum time between take-offs.
+	 * @param departureInterval - the minimum time between take-offs,
+	 * 			or 0 for no limit
+	 */
+	public void setDepartureInterval(double departureInterval) {
+		runways.setSeparation(Operation.DEPARTURE, Operation.DEPARTURE,
+				departureInterval);
+	}
+	
+	/**
+	 * Sets the number of runways, each of which can be used by one
+	 * arrival or departure at a time.
+	 * @param count - the number of runways
+	 */
+	public void setRunways(int count) {
+		runways.setRunways(count);
+	}
+	
+	/**
+	 * Gets the sequencer which decides when aircraft may use the
+	 * airport's runways, along with its queue and delay figures.
+	 * @return the airport's runway sequencer
+	 */
+	public RunwaySequencer<Aircraft> getRunwaySequencer() {
+		return runways;
 	}
 	
 	/**
 	 * Adds an aircraft to the back of the hangar.
 	 * <p>
-	 * Also records the time in the timeEntered list.
+	 * Also records the time the aircraft entered the hangar.
 	 * </p>
 	 * <p>
-	 * The aircraft will only be added if the current size is less than the maximum
-	 * specified by hangarSize.
+	 * The aircraft will only be added if the hangar isn't full.
 	 * </p>
 	 * @param aircraft - the aircraft to add to the hangar
 	 */
 	public void addToHangar(Aircraft aircraft) {
-		if (aircraftHangar.size() < hangarSize) {
-			aircraftHangar.add(aircraft);
-			
-			if (Game.getInstance() != null) {
-				timeEntered.add(Game.getInstance().getTime());
-			}
+		if (aircraftHangar.add(aircraft, getTime()) && Game.getInstance() != null) {
+			startHangarTimeout(aircraft);
 		}
 	}
 	
 	/**
-	 * Causes the next aircraft in the hangar to take off.
+	 * Clears the next aircraft in the hangar which hasn't already been
+	 * cleared to take off.
+	 * <p>
+	 * The aircraft takes off once it is given a runway, which may be
+	 * straight away.
+	 * </p>
 	 */
 	public void signalTakeOff() {
-		if (!aircraftHangar.isEmpty() && !isActive) {
-			Aircraft aircraft = aircraftHangar.remove(0);
-			timeEntered.remove(0);
-			aircraft.takeOff();
-			
-			// Increment the player's number of planes taken off
-			Player player = Game.getInstance().getPlayerFromAirport(this);
-			player.setPlanesTakenOff(player.getPlanesTakenOff() + 1);
-		}	
+		int cleared = runways.getQueueLength(Operation.DEPARTURE);
+		
+		if (cleared < aircraftHangar.size()) {
+			runways.request(Operation.DEPARTURE,
+					aircraftHangar.get(cleared), getTime());
+			sequenceRunways();
+		}
+	}
+	
+	/**
+	 * Clears an aircraft waiting to land at the airport to land.
+	 * <p>
+	 * The aircraft lands once it is given a runway, which may be straight
+	 * away; until then it holds over the airport.
+	 * </p>
+	 * @param aircraft - the aircraft to clear
+	 * @return <code>true</code> if the aircraft was cleared, or
+	 * 			<code>false</code> if it isn't waiting to land here or was
+	 * 			already cleared
+	 */
+	public boolean requestLanding(Aircraft aircraft) {
+		if (!aircraftWaitingToLand.contains(aircraft)
+				|| !runways.request(Operation.ARRIVAL, aircraft, getTime())) {
+			return false;
+		}
+		
+		sequenceRunways();
+		return true;
+	}
+	
+	/**
+	 * Gets an aircraft's position in the queue for a runway.
+	 * @param aircraft - the aircraft to check
+	 * @return the aircraft's position, where 1 is the next to go, or 0 if
+	 * 			it isn't waiting for a runway
+	 */
+	public int getRunwayPosition(Aircraft aircraft) {
+		return runways.getPosition(aircraft);
 	}
 	
 	/**
@@ -422,19 +630,23 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 	 * @return the longest amount of time an aircraft has been waiting for
 	 */
 	public double getLongestTimeInHangar(double currentTime) {
-		return aircraftHangar.isEmpty() ? 0 : currentTime-timeEntered.get(0);
+		return aircraftHangar.isEmpty() ? 0 : currentTime-aircraftHangar.getTimeEntered(0);
 	}
 
 	/**
 	 * Clears the airport.
 	 * <p>
-	 * Clears the hangar, and resets the time and activation attributes.
+	 * Clears the hangar and the runways, and reopens the airport.
 	 * </p>
 	 */
 	public void clear() {
+		for (int i = 0; i < aircraftHangar.size(); i++) {
+			cancelHangarTimeout(aircraftHangar.get(i));
+		}
+		
 		aircraftHangar.clear();
-		timeEntered.clear();
-		isActive = false;
+		runways.clear();
+		isClosed = false;
 	}
 	
 	/**
@@ -451,10 +663,8 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 	 * @return the minimum scale
 	 */
 	public static double getMinScale() {
-		double xScale = (double)(window.width() - (2 * Game.getXOffset()))
-				/ (double)Main.TARGET_WIDTH;
-		double yScale = (double)(window.height() - (2 * Game.getYOffset()))
-				/ (double)Main.TARGET_HEIGHT;
+		double xScale = Game.getAirspaceWidth() / (double)Main.TARGET_WIDTH;
+		double yScale = Game.getAirspaceHeight() / (double)Main.TARGET_HEIGHT;
 		
 		return Math.min(xScale, yScale);
 	}
@@ -543,20 +753,6 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 		return RELATIVE_DEPARTURES_HEIGHT * getMinScale();
 	}
 	
-	/**
-	 * Sets the airport as active.
-	 */
-	public void setActive() {
-		this.isActive = true;
-	}
-	
-	/**
-	 * Sets the airport as not active.
-	 */
-	public void setInactive() {
-		this.isActive = false;
-	}
-	
 	/**
 	 * Instructs an aircraft to take off.
 	 * <p>
@@ -566,11 +762,31 @@ public class Airport extends Waypoint implements EventHandler, Serializable {
 	@Deprecated
 	public void signalTakeOffTesting() {
 		if (aircraftHangar.size() > 0) {
-			aircraftHangar.remove(0);
-			timeEntered.remove(0);
+			Aircraft aircraft = aircraftHangar.remove();
+			cancelHangarTimeout(aircraft);
+			runways.cancel(aircraft, getTime());
 		}	
 	}
 	
+	/**
+	 * Closes or reopens the airport.
+	 * <p>
+	 * While the airport is closed, no aircraft are given a runway.
+	 * </p>
+	 * @param isClosed - whether the airport should be closed
+	 */
+	public void setClosed(boolean isClosed) {
+		this.isClosed = isClosed;
+	}
+	
+	/**
+	 * Gets the current game time.
+	 * @return the time the game has been running, or 0 if there isn't a game
+	 */
+	private double getTime() {
+		return (Game.getInstance() != null) ? Game.getInstance().getTime() : 0;
+	}
+	
 	/**
 	 * Clones the airport.
 	 */
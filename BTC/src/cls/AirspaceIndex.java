@@ -0,0 +1,282 @@
+package cls;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>Airspace Index</h1>
+ * <p>
+ * Indexes the aircraft in the airspace by where they are and where they
+ * are heading, so that whether an entry point is clear can be checked
+ * without looking at every aircraft.
+ * </p>
+ * <p>
+ * Aircraft are held in a grid of cells the size of the clearance needed
+ * around an entry point, so only the aircraft in the cells around an
+ * entry point need checking. The number of aircraft heading towards each
+ * target is also counted.
+ * </p>
+ * <p>
+ * The index is brought up to date by calling update() once per update
+ * with every aircraft; an aircraft is only moved between cells or targets
+ * when its cell or target has changed. It must only be used on the
+ * simulation thread.
+ * </p>
+ */
+public class AirspaceIndex {
+
+	/**
+	 * Where an aircraft was when it was last indexed.
+	 */
+	private static class Entry {
+
+		/** The aircraft object held in the grid */
+		private Aircraft aircraft;
+
+		/** The key of the cell the aircraft is in */
+		private long cell;
+
+		/** The target the aircraft is heading towards */
+		private Vector target;
+
+		/** The update in which the aircraft was last seen */
+		private int stamp;
+
+	}
+
+
+	/** The size of each cell of the grid */
+	private static final double CELL_SIZE = Aircraft.ENTRY_CLEARANCE;
+
+	/** The indexed position of each aircraft */
+	private final HashMap<Aircraft, Entry> entries =
+			new HashMap<Aircraft, Entry>();
+
+	/** The aircraft in each cell of the grid, keyed by cell */
+	private final HashMap<Long, ArrayList<Aircraft>> cells =
+			new HashMap<Long, ArrayList<Aircraft>>();
+
+	/** The number of aircraft heading towards each target */
+	private final HashMap<Vector, Integer> inbound =
+			new HashMap<Vector, Integer>();
+
+	/** The number of times the index has been updated */
+	private int stamp;
+
+
+	// Changes --------------------------------------------------------------------------
+
+	/**
+	 * Updates the index with every aircraft in the airspace.
+	 * <p>
+	 * Any aircraft indexed previously which aren't in the list are removed.
+	 * </p>
+	 * @param aircraft - every aircraft in the airspace
+	 */
+	public void update(List<Aircraft> aircraft) {
+		stamp++;
+
+		for (int i = 0; i < aircraft.size(); i++) {
+			update(aircraft.get(i));
+		}
+
+		// Remove any aircraft which have left the airspace
+		Iterator<Map.Entry<Aircraft, Entry>> iterator =
+				entries.entrySet().iterator();
+
+		while (iterator.hasNext()) {
+			Map.Entry<Aircraft, Entry> indexed = iterator.next();
+
+			if (indexed.getValue().stamp != stamp) {
+				removeFromCell(indexed.getValue().aircraft,
+						indexed.getValue().cell);
+				removeInbound(indexed.getValue().target);
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Updates the position and target of a single aircraft, adding it to
+	 * the index if it isn't already indexed.
+	 * @param aircraft - the aircraft to update
+	 */
+	public void update(Aircraft aircraft) {
+		long cell = getCell(aircraft.getPosition());
+		Vector target = aircraft.currentTarget;
+		Entry entry = entries.get(aircraft);
+
+		if (entry == null) {
+			entry = new Entry();
+			entry.aircraft = aircraft;
+			entry.cell = cell;
+			entry.target = target;
+			entries.put(aircraft, entry);
+
+			addToCell(aircraft, cell);
+			addInbound(target);
+		} else {
+			// The aircraft may have been replaced by a copy, such as when
+			// the opposing player's data is received
+			if (entry.cell != cell || entry.aircraft != aircraft) {
+				removeFromCell(entry.aircraft, entry.cell);
+				addToCell(aircraft, cell);
+				entry.aircraft = aircraft;
+				entry.cell = cell;
+			}
+
+			if ((target == null) ? (entry.target != null)
+					: !target.equals(entry.target)) {
+				removeInbound(entry.target);
+				addInbound(target);
+				entry.target = target;
+			}
+		}
+
+		entry.stamp = stamp;
+	}
+
+	/**
+	 * Removes every aircraft from the index.
+	 */
+	public void clear() {
+		entries.clear();
+		cells.clear();
+		inbound.clear();
+	}
+
+
+	// Queries --------------------------------------------------------------------------
+
+	/**
+	 * Checks whether any aircraft is heading towards a target.
+	 * @param target - the target to check
+	 * @return <code>true</code> if an aircraft's current target is
+	 * 			the specified target
+	 */
+	public boolean isInbound(Vector target) {
+		return inbound.containsKey(target);
+	}
+
+	/**
+	 * Checks whether any aircraft is too close to an entry point for
+	 * another aircraft to enter there.
+	 * @param position - the position of the entry point
+	 * @return <code>true</code> if an aircraft is close to the position
+	 */
+	public boolean isNear(Vector position) {
+		long cellX = (long) Math.floor(position.getX() / CELL_SIZE);
+		long cellY = (long) Math.floor(position.getY() / CELL_SIZE);
+
+		// Anything close enough is at most one cell away
+		for (long x = cellX - 1; x <= cellX + 1; x++) {
+			for (long y = cellY - 1; y <= cellY + 1; y++) {
+				ArrayList<Aircraft> cell = cells.get(getKey(x, y));
+				if (cell == null) continue;
+
+				for (int i = 0; i < cell.size(); i++) {
+					if (cell.get(i).isCloseToEntry(position)) {
+						return true;
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets the number of aircraft indexed.
+	 * @return the number of aircraft indexed
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Gets the key of the cell containing a position.
+	 * @param position - the position to get the cell of
+	 * @return the key of the cell containing the position
+	 */
+	private static long getCell(Vector position) {
+		return getKey((long) Math.floor(position.getX() / CELL_SIZE),
+				(long) Math.floor(position.getY() / CELL_SIZE));
+	}
+
+	/**
+	 * Gets the key of a cell from its coordinates.
+	 * @param x - the x coordinate of the cell
+	 * @param y - the y coordinate of the cell
+	 * @return the key of the cell
+	 */
+	private static long getKey(long x, long y) {
+		return (x << 32) ^ (y & 0xffffffffL);
+	}
+
+	/**
+	 * Adds an aircraft to a cell of the grid.
+	 * @param aircraft - the aircraft to add
+	 * @param key - the key of the cell
+	 */
+	private void addToCell(Aircraft aircraft, long key) {
+		ArrayList<Aircraft> cell = cells.get(key);
+
+		if (cell == null) {
+			cell = new ArrayList<Aircraft>();
+			cells.put(key, cell);
+		}
+
+		cell.add(aircraft);
+	}
+
+	/**
+	 * Removes an aircraft from a cell of the grid.
+	 * @param aircraft - the aircraft to remove
+	 * @param key - the key of the cell
+	 */
+	private void removeFromCell(Aircraft aircraft, long key) {
+		ArrayList<Aircraft> cell = cells.get(key);
+		if (cell == null) return;
+
+		cell.remove(aircraft);
+
+		if (cell.isEmpty()) {
+			cells.remove(key);
+		}
+	}
+
+	/**
+	 * Counts an aircraft as heading towards a target.
+	 * @param target - the aircraft's target
+	 */
+	private void addInbound(Vector target) {
+		if (target == null) return;
+
+		Integer count = inbound.get(target);
+		inbound.put(target, (count == null) ? 1 : count + 1);
+	}
+
+	/**
+	 * Stops counting an aircraft as heading towards a target.
+	 * @param target - the aircraft's previous target
+	 */
+	private void removeInbound(Vector target) {
+		if (target == null) return;
+
+		Integer count = inbound.get(target);
+		if (count == null) return;
+
+		if (count <= 1) {
+			inbound.remove(target);
+		} else {
+			inbound.put(target, count - 1);
+		}
+	}
+
+}
@@ -0,0 +1,264 @@
+package cls;
+
+import lib.jog.graphics;
+import scn.Game;
+
+/**
+ * <h1>Camera</h1>
+ * <p>
+ * The view of the airspace shown on screen, which can be panned and
+ * zoomed independently of where things are in the airspace.
+ * </p>
+ * <p>
+ * Positions in the airspace are world coordinates, in pixels from the
+ * airspace's top left corner at normal zoom. The camera maps them onto
+ * the map area of the screen, whose coordinates are also measured from
+ * its top left corner. With the camera reset, the whole airspace is
+ * shown, and the two are the same.
+ * </p>
+ * <p>
+ * The view is held relative to the size of the airspace, as vectors are,
+ * so it stays over the same part of the airspace if the window is resized.
+ * The view is always kept within the airspace.
+ * </p>
+ */
+public class Camera {
+
+	/** The furthest the camera can zoom in */
+	public static final double MAX_ZOOM = 16;
+
+	/** The horizontal centre of the view, relative to the airspace's width */
+	private double centreX = 0.5;
+
+	/** The vertical centre of the view, relative to the airspace's height */
+	private double centreY = 0.5;
+
+	/** The zoom, which is 1 when the whole airspace is shown */
+	private double zoom = 1;
+
+
+	/**
+	 * Constructor for a camera which shows the whole airspace.
+	 */
+	public Camera() {}
+
+	/**
+	 * Constructor for a copy of a camera.
+	 * @param camera - the camera to copy
+	 */
+	private Camera(Camera camera) {
+		centreX = camera.centreX;
+		centreY = camera.centreY;
+		zoom = camera.zoom;
+	}
+
+
+	// Movement -------------------------------------------------------------------------
+
+	/**
+	 * Moves the view across the airspace.
+	 * @param dx - the distance to move the airspace across the screen, in
+	 * 			screen pixels
+	 * @param dy - the distance to move the airspace down the screen, in
+	 * 			screen pixels
+	 */
+	public void pan(double dx, double dy) {
+		centreX -= dx / (zoom * Game.getAirspaceWidth());
+		centreY -= dy / (zoom * Game.getAirspaceHeight());
+		clamp();
+	}
+
+	/**
+	 * Zooms the view, keeping the point under a position on screen still.
+	 * @param factor - the amount to zoom in by, or out by if less than 1
+	 * @param screenX - the x position to zoom about, on the map area
+	 * @param screenY - the y position to zoom about, on the map area
+	 */
+	public void zoomAt(double factor, double screenX, double screenY) {
+		double worldX = toWorldX(screenX);
+		double worldY = toWorldY(screenY);
+
+		zoom = Math.max(1, Math.min(MAX_ZOOM, zoom * factor));
+
+		// Put the point back under the same position on screen
+		centreX = (worldX - (screenX / zoom)) / Game.getAirspaceWidth()
+				+ (0.5 / zoom);
+		centreY = (worldY - (screenY / zoom)) / Game.getAirspaceHeight()
+				+ (0.5 / zoom);
+		clamp();
+	}
+
+	/**
+	 * Centres the view on a position in the airspace.
+	 * @param worldX - the x position to centre on
+	 * @param worldY - the y position to centre on
+	 */
+	public void centreOn(double worldX, double worldY) {
+		centreX = worldX / Game.getAirspaceWidth();
+		centreY = worldY / Game.getAirspaceHeight();
+		clamp();
+	}
+
+	/**
+	 * Shows the whole airspace again.
+	 */
+	public void reset() {
+		centreX = 0.5;
+		centreY = 0.5;
+		zoom = 1;
+	}
+
+
+	// Drawing --------------------------------------------------------------------------
+
+	/**
+	 * Transforms everything drawn afterwards from world coordinates to
+	 * the map area's.
+	 * <p>
+	 * Must be called once the map area's viewport is set, and be followed
+	 * by restore() before the viewport is reset.
+	 * </p>
+	 */
+	public void apply() {
+		graphics.push();
+		graphics.scale(zoom);
+		graphics.translate(-getViewX(), -getViewY());
+	}
+
+	/**
+	 * Stops transforming what is drawn.
+	 */
+	public void restore() {
+		graphics.pop();
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the zoom.
+	 * @return the zoom, which is 1 when the whole airspace is shown
+	 */
+	public double getZoom() {
+		return zoom;
+	}
+
+	/**
+	 * Checks whether the whole airspace is in view.
+	 * @return <code>true</code> if the whole airspace is in view,
+	 * 			otherwise <code>false</code>
+	 */
+	public boolean isWholeAirspace() {
+		return zoom <= 1;
+	}
+
+	/**
+	 * Gets the x position of the view's left edge in the airspace.
+	 * @return the x position of the view's left edge in the airspace
+	 */
+	public double getViewX() {
+		return (centreX - (0.5 / zoom)) * Game.getAirspaceWidth();
+	}
+
+	/**
+	 * Gets the y position of the view's top edge in the airspace.
+	 * @return the y position of the view's top edge in the airspace
+	 */
+	public double getViewY() {
+		return (centreY - (0.5 / zoom)) * Game.getAirspaceHeight();
+	}
+
+	/**
+	 * Gets the width of the airspace in view.
+	 * @return the width of the airspace in view
+	 */
+	public double getViewWidth() {
+		return Game.getAirspaceWidth() / zoom;
+	}
+
+	/**
+	 * Gets the height of the airspace in view.
+	 * @return the height of the airspace in view
+	 */
+	public double getViewHeight() {
+		return Game.getAirspaceHeight() / zoom;
+	}
+
+	/**
+	 * Gets whether a position in the airspace is in view.
+	 * @param worldX - the x position to check
+	 * @param worldY - the y position to check
+	 * @param margin - how far outside the view the position can be, to
+	 * 			allow for the size of what is drawn there
+	 * @return <code>true</code> if the position is in view, otherwise
+	 * 			<code>false</code>
+	 */
+	public boolean isVisible(double worldX, double worldY, double margin) {
+		double viewX = getViewX();
+		double viewY = getViewY();
+
+		return worldX >= viewX - margin
+				&& worldX <= viewX + getViewWidth() + margin
+				&& worldY >= viewY - margin
+				&& worldY <= viewY + getViewHeight() + margin;
+	}
+
+	/**
+	 * Converts a position on the map area to a position in the airspace.
+	 * @param screenX - the x position on the map area
+	 * @return the x position in the airspace
+	 */
+	public double toWorldX(double screenX) {
+		return getViewX() + (screenX / zoom);
+	}
+
+	/**
+	 * Converts a position on the map area to a position in the airspace.
+	 * @param screenY - the y position on the map area
+	 * @return the y position in the airspace
+	 */
+	public double toWorldY(double screenY) {
+		return getViewY() + (screenY / zoom);
+	}
+
+	/**
+	 * Converts a position in the airspace to a position on the map area.
+	 * @param worldX - the x position in the airspace
+	 * @return the x position on the map area
+	 */
+	public double toScreenX(double worldX) {
+		return (worldX - getViewX()) * zoom;
+	}
+
+	/**
+	 * Converts a position in the airspace to a position on the map area.
+	 * @param worldY - the y position in the airspace
+	 * @return the y position on the map area
+	 */
+	public double toScreenY(double worldY) {
+		return (worldY - getViewY()) * zoom;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Keeps the view within the airspace.
+	 */
+	private void clamp() {
+		// The view is the same fraction of the airspace in each direction
+		double half = 0.5 / zoom;
+
+		centreX = Math.max(half, Math.min(1 - half, centreX));
+		centreY = Math.max(half, Math.min(1 - half, centreY));
+	}
+
+	/**
+	 * Clones the camera.
+	 * @return a copy of the camera
+	 */
+	public Camera clone() {
+		return new Camera(this);
+	}
+
+}
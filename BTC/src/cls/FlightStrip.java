@@ -26,13 +26,25 @@ public class FlightStrip implements Serializable {
 			new Color[] {graphics.blue, graphics.red};
 
 	/** The default width */
-	private static final int STANDARD_WIDTH = 160;
+	public static final int STANDARD_WIDTH = 160;
 
 	/** The default height */
 	private static final int STANDARD_HEIGHT = 60;
 
 	/** The default separation */
-	private static final int SEPARATION = 10;
+	static final int SEPARATION = 10;
+
+	/** The urgency of a strip whose aircraft is too close to another */
+	public static final int URGENCY_DANGER = 3;
+
+	/** The urgency of a strip whose aircraft is holding for a runway */
+	public static final int URGENCY_HOLDING = 2;
+
+	/** The urgency of a strip whose aircraft is waiting to land */
+	public static final int URGENCY_ARRIVING = 1;
+
+	/** The urgency of a strip whose aircraft is en route */
+	public static final int URGENCY_NONE = 0;
 
 	/** The colour to draw the strip background */
 	private Color background;
@@ -46,9 +58,22 @@ public class FlightStrip implements Serializable {
 	/** The aircraft which the flight strip is linked to */
     private Aircraft aircraft;
 
-    /** The flight strip's vertical position */
+    /** The flight strip's vertical position, set by its board */
     public double positionY;
 
+    /** The urgency the flight strip's board last sorted it by */
+    int urgency;
+
+    /** The order the flight strip was added to its board in */
+    long sequence;
+
+    /** Whether the flight strip's board last found it hidden by a filter */
+    boolean isFiltered;
+
+    /** The board laying out the flight strip, which attaches itself again
+     * when it is deserialised */
+    private transient FlightStripBoard board;
+
 
 
     /** The flight strip's width */
@@ -75,7 +100,7 @@ public class FlightStrip implements Serializable {
     	this.isVisible = true;
     	this.isActive = false;
     	this.aircraft = aircraft;
-    	this.positionY = getNextSlot();
+    	this.positionY = 0;
     	this.width = STANDARD_WIDTH;
     	this.height = STANDARD_HEIGHT;
     	this.xOffset = 0;
@@ -96,7 +121,7 @@ public class FlightStrip implements Serializable {
     	this.isVisible = true;
     	this.isActive = false;
     	this.aircraft = aircraft;
-    	this.positionY = getNextSlot();
+    	this.positionY = 0;
     	this.width = width;
     	this.height = height;
     	this.xOffset = Double.NaN;
@@ -108,21 +133,40 @@ public class FlightStrip implements Serializable {
      * @param flightStrip - the flight strip to copy
      */
     private FlightStrip(FlightStrip flightStrip) {
+    	background = flightStrip.background;
     	isVisible = flightStrip.isVisible;
+    	isActive = flightStrip.isActive;
         aircraft = (flightStrip.aircraft != null)
         		? flightStrip.aircraft.clone() : null;
         positionY = flightStrip.positionY;
+        urgency = flightStrip.urgency;
+        sequence = flightStrip.sequence;
+        isFiltered = flightStrip.isFiltered;
         width = flightStrip.width;
         height = flightStrip.height;
+        xOffset = flightStrip.xOffset;
+        yOffset = flightStrip.yOffset;
     }
 
 
+    /**
+     * Sets the offsets at which the flight strip is drawn.
+     * <p>
+     * The strips drawn are copies, so the offsets used to check whether
+     * the mouse is over a strip are set here when it is updated.
+     * </p>
+     * @param xOffset - the horizontal offset from the window's left edge
+     * @param yOffset - the vertical offset from the window's top edge
+     */
+    public void setOffset(double xOffset, double yOffset) {
+    	this.xOffset = xOffset;
+    	this.yOffset = yOffset;
+    }
+
     /**
      * Updates the flight strip.
      */
     public void update(double dt) {
-    	this.positionY = getNextSlot();
-
     	// If the mouse is hovering over the flight strip
     	if (isMouseOver()) {
     		isActive = true;
@@ -157,7 +201,9 @@ public class FlightStrip implements Serializable {
     			graphics.setViewport(Game.getXOffset(), Game.getYOffset(),
     					window.width() - (2 * Game.getXOffset()),
     					window.height() - (2 * Game.getYOffset()));
+    			Game.getInstance().getFrameCamera().apply();
     			aircraft.drawFlightPath();
+    			Game.getInstance().getFrameCamera().restore();
     			graphics.setViewport();
     		}
     	}
@@ -251,6 +297,15 @@ public class FlightStrip implements Serializable {
 	            graphics.printCentred("WARNING", (xOffset + 100),
 	            		(yOffset + positionY + height - 15), 1, 1);
 
+	    	} else if (getRunwayPosition() > 0) {
+	    		graphics.setColour(graphics.safetyOrange);
+	    		graphics.rectangle(true, (xOffset + 40),
+	    				(yOffset + positionY + height - 12),
+	    				120, 12);
+
+	    		graphics.setColour(graphics.black);
+	            graphics.printCentred("HOLDING #" + getRunwayPosition(),
+	            		(xOffset + 100), (yOffset + positionY + height - 14), 1, 1);
 	    	} else {
 	    		graphics.setColour(graphics.green);
 	    		graphics.rectangle(true, (xOffset + 40),
@@ -276,6 +331,17 @@ public class FlightStrip implements Serializable {
     	graphics.setColour(graphics.black);
     }
 
+    /**
+     * Gets the aircraft's position in the queue for a runway at its
+     * destination airport.
+     * @return the aircraft's position, where 1 is the next to land, or 0
+     * 			if it isn't waiting for a runway
+     */
+    private int getRunwayPosition() {
+    	Airport airport = aircraft.getFlightPlan().getDestinationAirport();
+    	return (airport != null) ? airport.getRunwayPosition(aircraft) : 0;
+    }
+
     private void drawHighlight(boolean boom) {
     	if (!boom) {
 	    	if (aircraft.equals(Game.getInstance().getPlayer().getSelectedAircraft())) {
@@ -356,24 +422,47 @@ public class FlightStrip implements Serializable {
     }
 
     /**
-     * Gets the top of the next available slot for a flight strip.
-     * @return the top of the next available slot for a flight strip
+     * Gets how urgently the flight strip's aircraft needs attention.
+     * @return one of the URGENCY constants, where higher is more urgent
      */
-    private double getNextSlot() {
-    	double nextSlot = 0;
-
-    	if (Game.getInstance() != null
-    			&&  Game.getInstance().getPlayer() != null
-    			&& Game.getInstance().getPlayer().getFlightStrips() != null) {
-    		for (FlightStrip fs : Game.getInstance()
-    				.getPlayer().getFlightStrips()) {
-    			if (fs.isVisible) {
-    				nextSlot += fs.height + SEPARATION;
-    			}
-    		}
+    public int getUrgency() {
+    	if (aircraft.isInDanger()) {
+    		return URGENCY_DANGER;
+    	} else if (getRunwayPosition() > 0) {
+    		return URGENCY_HOLDING;
+    	} else if (aircraft.isWaitingToLand && aircraft.getFlightPlan()
+    			.getDestinationAirport() != null && aircraft.currentTarget
+    			.equals(aircraft.getFlightPlan().getDestinationAirport()
+    					.getLocation())) {
+    		return URGENCY_ARRIVING;
+    	} else {
+    		return URGENCY_NONE;
     	}
+    }
 
-    	return nextSlot;
+    /**
+     * Gets whether the flight strip is drawn.
+     * @return <code>true</code> if the flight strip is visible
+     */
+    public boolean isVisible() {
+    	return isVisible;
+    }
+
+    /**
+     * Gets the height of the flight strip.
+     * @return the flight strip's height
+     */
+    public double getHeight() {
+    	return height;
+    }
+
+    /**
+     * Sets the board laying out the flight strip.
+     * @param board - the board, or <code>null</code> if the strip has
+     * 			been removed from its board
+     */
+    void setBoard(FlightStripBoard board) {
+    	this.board = board;
     }
 
     /**
@@ -384,6 +473,7 @@ public class FlightStrip implements Serializable {
      * </p>
      */
 	public void show() {
+		if (!isVisible && board != null) board.invalidate();
 		isVisible = true;
 	}
 
@@ -391,6 +481,7 @@ public class FlightStrip implements Serializable {
 	 * Stops the flight strip from being drawn.
 	 */
     public void hide() {
+    	if (isVisible && board != null) board.invalidate();
         isVisible = false;
     }
 
@@ -0,0 +1,679 @@
+package cls;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+import lib.jog.graphics;
+
+/**
+ * <h1>Flight Strip Board</h1>
+ * <p>
+ * Holds a player's flight strips in the order they are shown, and lays
+ * them out down the side of the screen.
+ * </p>
+ * <p>
+ * The strips' positions are only recalculated when a strip is added,
+ * removed, shown or hidden, or when the order changes, rather than every
+ * strip working out its own position every update.
+ * </p>
+ * <p>
+ * Strips are normally shown in the order they were added. If sorting by
+ * urgency is turned on, the most urgent strips are shown first; strips
+ * of equal urgency are shown in the order they were added, and the board
+ * is only re-sorted when a strip's urgency changes.
+ * </p>
+ * <p>
+ * Only the rows which fit in the board's height are laid out, updated
+ * and drawn, so drawing the board costs the same however many strips it
+ * holds. The rows can be scrolled through, and filtered by altitude,
+ * airport and whether the aircraft is in danger.
+ * </p>
+ */
+public class FlightStripBoard implements Serializable {
+
+	/** Serialisation ID */
+	private static final long serialVersionUID = 2768126466357474587L;
+
+	/** Orders flight strips from the most urgent to the least, and those
+	 * of equal urgency in the order they were added */
+	private static final Comparator<FlightStrip> BY_URGENCY =
+			new Comparator<FlightStrip>() {
+		@Override
+		public int compare(FlightStrip a, FlightStrip b) {
+			if (a.urgency != b.urgency) return b.urgency - a.urgency;
+			return Long.compare(a.sequence, b.sequence);
+		}
+	};
+
+	/** Orders flight strips in the order they were added */
+	private static final Comparator<FlightStrip> BY_SEQUENCE =
+			new Comparator<FlightStrip>() {
+		@Override
+		public int compare(FlightStrip a, FlightStrip b) {
+			return Long.compare(a.sequence, b.sequence);
+		}
+	};
+
+	/** The flight strips, in the order they are shown */
+	private final ArrayList<FlightStrip> strips;
+
+	/** The strips which are visible and pass the filters, in order */
+	private final ArrayList<FlightStrip> rows;
+
+	/** The rows which fit on the board from the first row shown */
+	private final ArrayList<FlightStrip> shown;
+
+	/** Whether the rows are up to date */
+	private boolean isLaidOut;
+
+	/** Whether the rows shown are up to date */
+	private boolean isShownLaidOut;
+
+	/** The index of the first row shown */
+	private int firstRow;
+
+	/** The height available for showing rows */
+	private double height = Double.POSITIVE_INFINITY;
+
+	/** Whether the most urgent strips are shown first */
+	private boolean sortByUrgency;
+
+	/** The lowest altitude of aircraft to show, or NaN for no limit */
+	private double minAltitude = Double.NaN;
+
+	/** The highest altitude of aircraft to show, or NaN for no limit */
+	private double maxAltitude = Double.NaN;
+
+	/** The name of the airport aircraft must be arriving at or departing
+	 * from to be shown, or <code>null</code> for any */
+	private String airportFilter;
+
+	/** Whether only aircraft in danger are shown */
+	private boolean conflictsOnly;
+
+	/** The number given to the next strip added, to keep the order they
+	 * were added in */
+	private long nextSequence;
+
+
+	/**
+	 * Constructor for an empty flight strip board.
+	 */
+	public FlightStripBoard() {
+		strips = new ArrayList<FlightStrip>();
+		rows = new ArrayList<FlightStrip>();
+		shown = new ArrayList<FlightStrip>();
+		isLaidOut = true;
+		isShownLaidOut = true;
+	}
+
+	/**
+	 * Constructor for a flight strip board.
+	 * <p>
+	 * The copy holds the same flight strips as the original.
+	 * </p>
+	 * @param board - the board to copy
+	 */
+	@SuppressWarnings("unchecked")
+	public FlightStripBoard(FlightStripBoard board) {
+		strips = (ArrayList<FlightStrip>) board.strips.clone();
+		rows = (ArrayList<FlightStrip>) board.rows.clone();
+		shown = (ArrayList<FlightStrip>) board.shown.clone();
+		isLaidOut = board.isLaidOut;
+		isShownLaidOut = board.isShownLaidOut;
+		firstRow = board.firstRow;
+		height = board.height;
+		sortByUrgency = board.sortByUrgency;
+		minAltitude = board.minAltitude;
+		maxAltitude = board.maxAltitude;
+		airportFilter = board.airportFilter;
+		conflictsOnly = board.conflictsOnly;
+		nextSequence = board.nextSequence;
+	}
+
+
+	// Changes --------------------------------------------------------------------------
+
+	/**
+	 * Adds a flight strip to the bottom of the board, or below the strips
+	 * at least as urgent if sorting by urgency.
+	 * @param flightStrip - the flight strip to add
+	 */
+	public void add(FlightStrip flightStrip) {
+		flightStrip.setBoard(this);
+		flightStrip.sequence = nextSequence++;
+
+		if (sortByUrgency) {
+			flightStrip.urgency = flightStrip.getUrgency();
+
+			int i = strips.size();
+			while (i > 0 && strips.get(i - 1).urgency < flightStrip.urgency) {
+				i--;
+			}
+			strips.add(i, flightStrip);
+		} else {
+			strips.add(flightStrip);
+		}
+
+		flightStrip.isFiltered = isFiltered(flightStrip);
+		invalidate();
+	}
+
+	/**
+	 * Removes a flight strip from the board.
+	 * @param flightStrip - the flight strip to remove
+	 * @return <code>true</code> if the flight strip was on the board
+	 */
+	public boolean remove(FlightStrip flightStrip) {
+		if (!strips.remove(flightStrip)) return false;
+
+		flightStrip.setBoard(null);
+		invalidate();
+		return true;
+	}
+
+	/**
+	 * Removes every flight strip from the board.
+	 */
+	public void clear() {
+		for (FlightStrip flightStrip : strips) {
+			flightStrip.setBoard(null);
+		}
+
+		strips.clear();
+		rows.clear();
+		shown.clear();
+		firstRow = 0;
+		isLaidOut = true;
+		isShownLaidOut = true;
+	}
+
+	/**
+	 * Updates the rows shown, laying them out again if anything has
+	 * changed since they were last laid out.
+	 * @param timeDifference - the time since the last update
+	 * @param xOffset - the horizontal offset at which the strips are drawn
+	 * @param yOffset - the vertical offset at which the strips are drawn
+	 * @param height - the height available for showing rows
+	 */
+	public void update(double timeDifference, double xOffset, double yOffset,
+			double height) {
+		if (height != this.height) {
+			this.height = height;
+			isShownLaidOut = false;
+		}
+
+		if (sortByUrgency || isFiltering()) {
+			updateOrder();
+		}
+
+		if (!isLaidOut) {
+			layout();
+		}
+
+		if (!isShownLaidOut) {
+			layoutShown();
+		}
+
+		for (int i = 0; i < shown.size(); i++) {
+			FlightStrip flightStrip = shown.get(i);
+			flightStrip.setOffset(xOffset, yOffset);
+			flightStrip.update(timeDifference);
+		}
+	}
+
+	/**
+	 * Sets whether the most urgent strips are shown first.
+	 * @param sortByUrgency - <code>true</code> to sort strips by urgency,
+	 * 			or <code>false</code> to show them in the order they were
+	 * 			added
+	 */
+	public void setSortByUrgency(boolean sortByUrgency) {
+		this.sortByUrgency = sortByUrgency;
+
+		if (sortByUrgency) {
+			for (FlightStrip flightStrip : strips) {
+				flightStrip.urgency = flightStrip.getUrgency();
+			}
+
+			Collections.sort(strips, BY_URGENCY);
+		} else {
+			Collections.sort(strips, BY_SEQUENCE);
+		}
+
+		invalidate();
+	}
+
+	/**
+	 * Only shows aircraft within a range of altitudes.
+	 * @param minAltitude - the lowest altitude to show, or NaN for no limit
+	 * @param maxAltitude - the highest altitude to show, or NaN for no limit
+	 */
+	public void setAltitudeFilter(double minAltitude, double maxAltitude) {
+		this.minAltitude = minAltitude;
+		this.maxAltitude = maxAltitude;
+		refilter();
+	}
+
+	/**
+	 * Only shows aircraft arriving at or departing from an airport.
+	 * @param airportName - the name of the airport, or <code>null</code>
+	 * 			to show aircraft for any airport
+	 */
+	public void setAirportFilter(String airportName) {
+		this.airportFilter = airportName;
+		refilter();
+	}
+
+	/**
+	 * Sets whether only aircraft in danger are shown.
+	 * @param conflictsOnly - <code>true</code> to only show aircraft too
+	 * 			close to another
+	 */
+	public void setConflictFilter(boolean conflictsOnly) {
+		this.conflictsOnly = conflictsOnly;
+		refilter();
+	}
+
+	/**
+	 * Scrolls the board.
+	 * @param rows - the number of rows to scroll down by, or up by if
+	 * 			negative
+	 */
+	public void scroll(int rows) {
+		scrollTo(firstRow + rows);
+	}
+
+	/**
+	 * Scrolls the board by the number of rows shown.
+	 * @param pages - the number of pages to scroll down by, or up by if
+	 * 			negative
+	 */
+	public void scrollPage(int pages) {
+		scroll(pages * Math.max(1, shown.size()));
+	}
+
+	/**
+	 * Scrolls the board so that a row is the first shown.
+	 * @param row - the index of the row, which is kept within the rows
+	 */
+	public void scrollTo(int row) {
+		row = Math.max(0, Math.min(row, rows.size() - 1));
+
+		if (row != firstRow) {
+			firstRow = row;
+			isShownLaidOut = false;
+		}
+	}
+
+	/**
+	 * Finds the row before or after the one for an aircraft, and scrolls
+	 * so that it is shown.
+	 * <p>
+	 * Used to move between strips with the keyboard. Moving past either
+	 * end wraps round to the other.
+	 * </p>
+	 * @param aircraft - the aircraft whose row to move from, or
+	 * 			<code>null</code> to start from either end
+	 * @param direction - 1 for the next row, or -1 for the previous row
+	 * @return the flight strip in that row, or <code>null</code> if there
+	 * 			are no rows
+	 */
+	public FlightStrip getAdjacent(Aircraft aircraft, int direction) {
+		if (!isLaidOut) layout();
+		if (rows.isEmpty()) return null;
+
+		int row = -1;
+		if (aircraft != null) {
+			for (int i = 0; i < rows.size(); i++) {
+				if (aircraft.equals(rows.get(i).getAircraft())) {
+					row = i;
+					break;
+				}
+			}
+		}
+
+		if (row == -1) {
+			row = (direction > 0) ? 0 : rows.size() - 1;
+		} else {
+			row = (row + direction + rows.size()) % rows.size();
+		}
+
+		showRow(row);
+		return rows.get(row);
+	}
+
+	/**
+	 * Handles mouse press events, passing them to the rows shown.
+	 * @param key - the mouse key which was pressed
+	 * @param x - the x position of the mouse
+	 * @param y - the y position of the mouse
+	 */
+	public void mousePressed(int key, int x, int y) {
+		for (int i = 0; i < shown.size(); i++) {
+			shown.get(i).mousePressed(key, x, y);
+		}
+	}
+
+	/**
+	 * Handles mouse release events, passing them to the rows shown.
+	 * @param key - the mouse key which was released
+	 * @param x - the x position of the mouse
+	 * @param y - the y position of the mouse
+	 */
+	public void mouseReleased(int key, int x, int y) {
+		for (int i = 0; i < shown.size(); i++) {
+			shown.get(i).mouseReleased(key, x, y);
+		}
+	}
+
+	/**
+	 * Replaces the rows shown with copies, so that they can be drawn
+	 * while the originals are updated.
+	 * <p>
+	 * Only used on a copy of a board; the other strips aren't drawn, so
+	 * aren't copied.
+	 * </p>
+	 */
+	public void copyShown() {
+		for (int i = 0; i < shown.size(); i++) {
+			shown.set(i, shown.get(i).clone());
+		}
+	}
+
+	/**
+	 * Marks the strips as needing to be laid out again.
+	 */
+	void invalidate() {
+		isLaidOut = false;
+	}
+
+
+	// Drawing --------------------------------------------------------------------------
+
+	/**
+	 * Draws the rows shown, and which rows they are out of how many.
+	 * @param xOffset - the horizontal offset from the window's left edge
+	 * @param yOffset - the vertical offset from the window's top edge
+	 */
+	public void draw(double xOffset, double yOffset) {
+		for (int i = 0; i < shown.size(); i++) {
+			shown.get(i).draw(xOffset, yOffset);
+		}
+
+		if (shown.size() < rows.size() || isFiltering()) {
+			graphics.setColour(255, 255, 255, 128);
+			graphics.print(getSummary(), xOffset, yOffset - 14);
+		}
+	}
+
+	/**
+	 * Gets a description of the rows shown and the filters in use.
+	 * @return a description of the rows shown, e.g. "3-8 OF 20 ALT+"
+	 */
+	public String getSummary() {
+		String summary = shown.isEmpty() ? ("0 OF " + rows.size())
+				: ((firstRow + 1) + "-" + (firstRow + shown.size())
+						+ " OF " + rows.size());
+
+		if (!Double.isNaN(minAltitude) || !Double.isNaN(maxAltitude)) {
+			summary += " ALT";
+		}
+
+		if (airportFilter != null) {
+			summary += " " + airportFilter.substring(0,
+					Math.min(3, airportFilter.length())).toUpperCase();
+		}
+
+		if (conflictsOnly) {
+			summary += " CONFLICT";
+		}
+
+		return summary;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the flight strips, in the order they are shown.
+	 * <p>
+	 * Strips should be added and removed through the board, rather than
+	 * through the list, so that they are laid out again.
+	 * </p>
+	 * @return the flight strips
+	 */
+	public ArrayList<FlightStrip> getStrips() {
+		return strips;
+	}
+
+	/**
+	 * Gets the flight strips which fit on the board, from the first
+	 * row shown.
+	 * @return the flight strips shown
+	 */
+	public ArrayList<FlightStrip> getShown() {
+		return shown;
+	}
+
+	/**
+	 * Gets the number of strips which are visible and pass the filters.
+	 * @return the number of rows
+	 */
+	public int getRowCount() {
+		return rows.size();
+	}
+
+	/**
+	 * Gets the index of the first row shown.
+	 * @return the index of the first row shown
+	 */
+	public int getFirstRow() {
+		return firstRow;
+	}
+
+	/**
+	 * Gets whether the most urgent strips are shown first.
+	 * @return <code>true</code> if the strips are sorted by urgency
+	 */
+	public boolean isSortedByUrgency() {
+		return sortByUrgency;
+	}
+
+	/**
+	 * Gets the lowest altitude of aircraft shown.
+	 * @return the lowest altitude shown, or NaN if there is no limit
+	 */
+	public double getMinAltitude() {
+		return minAltitude;
+	}
+
+	/**
+	 * Gets the highest altitude of aircraft shown.
+	 * @return the highest altitude shown, or NaN if there is no limit
+	 */
+	public double getMaxAltitude() {
+		return maxAltitude;
+	}
+
+	/**
+	 * Gets the name of the airport aircraft must be arriving at or
+	 * departing from to be shown.
+	 * @return the airport's name, or <code>null</code> if any is shown
+	 */
+	public String getAirportFilter() {
+		return airportFilter;
+	}
+
+	/**
+	 * Gets whether only aircraft in danger are shown.
+	 * @return <code>true</code> if only aircraft in danger are shown
+	 */
+	public boolean isConflictFilter() {
+		return conflictsOnly;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Gets whether any filter is in use.
+	 * @return <code>true</code> if any filter is in use
+	 */
+	private boolean isFiltering() {
+		return !Double.isNaN(minAltitude) || !Double.isNaN(maxAltitude)
+				|| airportFilter != null || conflictsOnly;
+	}
+
+	/**
+	 * Checks whether a strip's aircraft is hidden by the filters.
+	 * @param flightStrip - the strip to check
+	 * @return <code>true</code> if the strip shouldn't be shown
+	 */
+	private boolean isFiltered(FlightStrip flightStrip) {
+		if (!isFiltering()) return false;
+
+		Aircraft aircraft = flightStrip.getAircraft();
+		double altitude = aircraft.getPosition().getZ();
+
+		if (altitude < minAltitude || altitude > maxAltitude) return true;
+		if (conflictsOnly && !aircraft.isInDanger()) return true;
+
+		if (airportFilter != null) {
+			FlightPlan flightPlan = aircraft.getFlightPlan();
+			return !airportFilter.equals(flightPlan.getOriginName())
+					&& !airportFilter.equals(flightPlan.getDestinationName());
+		}
+
+		return false;
+	}
+
+	/**
+	 * Re-applies the filters to every strip.
+	 */
+	private void refilter() {
+		for (FlightStrip flightStrip : strips) {
+			flightStrip.isFiltered = isFiltered(flightStrip);
+		}
+
+		firstRow = 0;
+		invalidate();
+	}
+
+	/**
+	 * Re-sorts the strips if any strip's urgency has changed, and finds
+	 * any strips which have started or stopped passing the filters.
+	 * <p>
+	 * The sort is stable, and takes close to linear time as the strips
+	 * are already almost in order.
+	 * </p>
+	 */
+	private void updateOrder() {
+		boolean resort = false;
+
+		for (int i = 0; i < strips.size(); i++) {
+			FlightStrip flightStrip = strips.get(i);
+
+			if (sortByUrgency) {
+				int urgency = flightStrip.getUrgency();
+
+				if (urgency != flightStrip.urgency) {
+					flightStrip.urgency = urgency;
+					resort = true;
+				}
+			}
+
+			boolean isFiltered = isFiltered(flightStrip);
+
+			if (isFiltered != flightStrip.isFiltered) {
+				flightStrip.isFiltered = isFiltered;
+				invalidate();
+			}
+		}
+
+		if (resort) {
+			Collections.sort(strips, BY_URGENCY);
+			invalidate();
+		}
+	}
+
+	/**
+	 * Finds the rows, i.e. the strips which are visible and pass
+	 * the filters.
+	 */
+	private void layout() {
+		rows.clear();
+
+		for (int i = 0; i < strips.size(); i++) {
+			FlightStrip flightStrip = strips.get(i);
+
+			if (flightStrip.isVisible() && !flightStrip.isFiltered) {
+				rows.add(flightStrip);
+			}
+		}
+
+		firstRow = Math.max(0, Math.min(firstRow, rows.size() - 1));
+		isLaidOut = true;
+		isShownLaidOut = false;
+	}
+
+	/**
+	 * Positions each row which fits on the board below the one before it,
+	 * starting from the first row shown.
+	 */
+	private void layoutShown() {
+		shown.clear();
+		double nextSlot = 0;
+
+		for (int i = firstRow; i < rows.size(); i++) {
+			FlightStrip flightStrip = rows.get(i);
+
+			// Always show at least one row
+			if (nextSlot + flightStrip.getHeight() > height && !shown.isEmpty()) {
+				break;
+			}
+
+			flightStrip.positionY = nextSlot;
+			nextSlot += flightStrip.getHeight() + FlightStrip.SEPARATION;
+			shown.add(flightStrip);
+		}
+
+		isShownLaidOut = true;
+	}
+
+	/**
+	 * Reads a board which was serialised, attaching its strips to it.
+	 * <p>
+	 * Strips don't serialise the board they are on, so that a strip can
+	 * be sent without its board.
+	 * </p>
+	 * @param in - the stream to read the board from
+	 */
+	private void readObject(ObjectInputStream in)
+			throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+
+		for (FlightStrip flightStrip : strips) {
+			flightStrip.setBoard(this);
+		}
+	}
+
+	/**
+	 * Scrolls the board, if needed, so that a row is shown.
+	 * @param row - the index of the row
+	 */
+	private void showRow(int row) {
+		if (!isShownLaidOut) layoutShown();
+
+		if (row < firstRow) {
+			scrollTo(row);
+		} else if (row >= firstRow + shown.size()) {
+			scrollTo(row - Math.max(1, shown.size()) + 1);
+		}
+	}
+
+}
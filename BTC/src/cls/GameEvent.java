@@ -0,0 +1,247 @@
+package cls;
+
+/**
+ * <h1>Game Event</h1>
+ * <p>
+ * A change to the state of an aircraft, published on the game's event
+ * bus so that scoring, sounds, flight strips and networking can react to
+ * it without checking every aircraft each frame.
+ * </p>
+ * <p>
+ * Each kind of event is its own class, so listeners subscribe to just
+ * the events they need. Events are immutable, so they can be posted from
+ * one thread and handled on another.
+ * </p>
+ */
+public abstract class GameEvent {
+
+	/** The aircraft the event is about */
+	private final Aircraft aircraft;
+
+	/**
+	 * Constructor for an event.
+	 * @param aircraft - the aircraft the event is about
+	 */
+	protected GameEvent(Aircraft aircraft) {
+		this.aircraft = aircraft;
+	}
+
+	/**
+	 * Gets the aircraft the event is about.
+	 * @return the aircraft the event is about
+	 */
+	public Aircraft getAircraft() {
+		return aircraft;
+	}
+
+
+	/**
+	 * An aircraft has entered the airspace, or taken off.
+	 */
+	public static final class AircraftSpawned extends GameEvent {
+
+		/** The player controlling the aircraft */
+		private final Player player;
+
+		/**
+		 * Constructor for an aircraft spawned event.
+		 * @param aircraft - the aircraft which has entered the airspace
+		 * @param player - the player controlling the aircraft
+		 */
+		public AircraftSpawned(Aircraft aircraft, Player player) {
+			super(aircraft);
+			this.player = player;
+		}
+
+		/**
+		 * Gets the player controlling the aircraft.
+		 * @return the player controlling the aircraft
+		 */
+		public Player getPlayer() {
+			return player;
+		}
+
+	}
+
+	/**
+	 * An aircraft has landed at its destination airport.
+	 */
+	public static final class AircraftLanded extends GameEvent {
+
+		/**
+		 * Constructor for an aircraft landed event.
+		 * @param aircraft - the aircraft which has landed
+		 */
+		public AircraftLanded(Aircraft aircraft) {
+			super(aircraft);
+		}
+
+		/**
+		 * Gets the airport the aircraft landed at.
+		 * @return the aircraft's destination airport
+		 */
+		public Airport getAirport() {
+			return getAircraft().getFlightPlan().getDestinationAirport();
+		}
+
+	}
+
+	/**
+	 * An aircraft has left the airspace at its destination.
+	 */
+	public static final class AircraftCleared extends GameEvent {
+
+		/**
+		 * Constructor for an aircraft cleared event.
+		 * @param aircraft - the aircraft which has left the airspace
+		 */
+		public AircraftCleared(Aircraft aircraft) {
+			super(aircraft);
+		}
+
+	}
+
+	/**
+	 * An aircraft has come within the minimum separation of another,
+	 * having not been too close to any aircraft before.
+	 */
+	public static final class SeparationBreached extends GameEvent {
+
+		/** The aircraft which is too close */
+		private final Aircraft other;
+
+		/**
+		 * Constructor for a separation breached event.
+		 * @param aircraft - the aircraft which is now in danger
+		 * @param other - the aircraft it is too close to
+		 */
+		public SeparationBreached(Aircraft aircraft, Aircraft other) {
+			super(aircraft);
+			this.other = other;
+		}
+
+		/**
+		 * Gets the aircraft which is too close.
+		 * @return the other aircraft
+		 */
+		public Aircraft getOther() {
+			return other;
+		}
+
+	}
+
+	/**
+	 * An aircraft has crashed into another.
+	 * <p>
+	 * One event is sent for each of the aircraft in the crash.
+	 * </p>
+	 */
+	public static final class Crash extends GameEvent {
+
+		/** The aircraft it crashed into */
+		private final Aircraft other;
+
+		/**
+		 * Constructor for a crash event.
+		 * @param aircraft - the aircraft which has crashed
+		 * @param other - the aircraft it crashed into
+		 */
+		public Crash(Aircraft aircraft, Aircraft other) {
+			super(aircraft);
+			this.other = other;
+		}
+
+		/**
+		 * Gets the aircraft it crashed into.
+		 * @return the other aircraft
+		 */
+		public Aircraft getOther() {
+			return other;
+		}
+
+	}
+
+	/**
+	 * An aircraft has collected a powerup.
+	 */
+	public static final class PowerupCollected extends GameEvent {
+
+		/** The powerup collected */
+		private final Powerup powerup;
+
+		/** The waypoint the powerup was collected from */
+		private final Waypoint waypoint;
+
+		/**
+		 * Constructor for a powerup collected event.
+		 * @param aircraft - the aircraft which collected the powerup
+		 * @param powerup - the powerup collected
+		 * @param waypoint - the waypoint the powerup was collected from
+		 */
+		public PowerupCollected(Aircraft aircraft, Powerup powerup,
+				Waypoint waypoint) {
+			super(aircraft);
+			this.powerup = powerup;
+			this.waypoint = waypoint;
+		}
+
+		/**
+		 * Gets the powerup collected.
+		 * @return the powerup collected
+		 */
+		public Powerup getPowerup() {
+			return powerup;
+		}
+
+		/**
+		 * Gets the waypoint the powerup was collected from.
+		 * @return the waypoint the powerup was collected from
+		 */
+		public Waypoint getWaypoint() {
+			return waypoint;
+		}
+
+	}
+
+	/**
+	 * Control of an aircraft is being handed to another player.
+	 */
+	public static final class HandoffStarted extends GameEvent {
+
+		/** The player giving up the aircraft */
+		private final Player from;
+
+		/** The player taking the aircraft */
+		private final Player to;
+
+		/**
+		 * Constructor for a handoff started event.
+		 * @param aircraft - the aircraft being handed off
+		 * @param from - the player giving up the aircraft
+		 * @param to - the player taking the aircraft
+		 */
+		public HandoffStarted(Aircraft aircraft, Player from, Player to) {
+			super(aircraft);
+			this.from = from;
+			this.to = to;
+		}
+
+		/**
+		 * Gets the player giving up the aircraft.
+		 * @return the player giving up the aircraft
+		 */
+		public Player getFrom() {
+			return from;
+		}
+
+		/**
+		 * Gets the player taking the aircraft.
+		 * @return the player taking the aircraft
+		 */
+		public Player getTo() {
+			return to;
+		}
+
+	}
+
+}
@@ -0,0 +1,217 @@
+package cls;
+
+import java.io.Serializable;
+
+/**
+ * <h1>Hangar</h1>
+ * <p>
+ * The queue of aircraft waiting at an airport to take off, along with the
+ * time each entered the hangar.
+ * </p>
+ * <p>
+ * The queue is held in a ring buffer, so aircraft are added to the back
+ * and removed from the front without the others being moved.
+ * </p>
+ */
+public class Hangar implements Serializable {
+
+	/** Serialisation ID */
+	private static final long serialVersionUID = 4410739160846419624L;
+
+	/**
+	 * An aircraft in the hangar.
+	 */
+	private static class Entry implements Serializable {
+
+		/** Serialisation ID */
+		private static final long serialVersionUID = -3624911372045386716L;
+
+		/** The aircraft */
+		private final Aircraft aircraft;
+
+		/** The time the aircraft entered the hangar */
+		private final double timeEntered;
+
+		/**
+		 * Constructor for a hangar entry.
+		 * @param aircraft - the aircraft
+		 * @param timeEntered - the time the aircraft entered the hangar
+		 */
+		private Entry(Aircraft aircraft, double timeEntered) {
+			this.aircraft = aircraft;
+			this.timeEntered = timeEntered;
+		}
+
+	}
+
+
+	/** The aircraft in the hangar, starting from the front at head */
+	private Entry[] entries;
+
+	/** The index of the aircraft at the front of the hangar */
+	private int head;
+
+	/** The number of aircraft in the hangar */
+	private int size;
+
+
+	/**
+	 * Constructor for a hangar.
+	 * @param capacity - the maximum number of aircraft the hangar can hold
+	 */
+	public Hangar(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Negative hangar capacity: "
+					+ capacity);
+		}
+
+		entries = new Entry[capacity];
+	}
+
+	/**
+	 * Constructor for a hangar.
+	 * <p>
+	 * The entries are shared with the original hangar, as they are
+	 * never modified.
+	 * </p>
+	 * @param hangar - the hangar to copy
+	 */
+	public Hangar(Hangar hangar) {
+		entries = hangar.entries.clone();
+		head = hangar.head;
+		size = hangar.size;
+	}
+
+
+	// Changes --------------------------------------------------------------------------
+
+	/**
+	 * Adds an aircraft to the back of the hangar.
+	 * @param aircraft - the aircraft to add
+	 * @param timeEntered - the time the aircraft entered the hangar
+	 * @return <code>true</code> if the aircraft was added, or
+	 * 			<code>false</code> if the hangar is full
+	 */
+	public boolean add(Aircraft aircraft, double timeEntered) {
+		if (isFull()) return false;
+
+		entries[(head + size) % entries.length] =
+				new Entry(aircraft, timeEntered);
+		size++;
+		return true;
+	}
+
+	/**
+	 * Removes the aircraft at the front of the hangar.
+	 * @return the aircraft removed, or <code>null</code> if the hangar
+	 * 			is empty
+	 */
+	public Aircraft remove() {
+		if (isEmpty()) return null;
+
+		Aircraft aircraft = entries[head].aircraft;
+		entries[head] = null;
+		head = (head + 1) % entries.length;
+		size--;
+		return aircraft;
+	}
+
+	/**
+	 * Removes every aircraft from the hangar.
+	 */
+	public void clear() {
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = null;
+		}
+
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Sets the maximum number of aircraft the hangar can hold.
+	 * <p>
+	 * The hangar can't be made smaller than the number of aircraft in it.
+	 * </p>
+	 * @param capacity - the maximum number of aircraft
+	 */
+	public void setCapacity(int capacity) {
+		capacity = Math.max(capacity, size);
+
+		Entry[] resized = new Entry[capacity];
+		for (int i = 0; i < size; i++) {
+			resized[i] = entries[(head + i) % entries.length];
+		}
+
+		entries = resized;
+		head = 0;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets an aircraft in the hangar.
+	 * @param index - the position of the aircraft, where 0 is the front
+	 * @return the aircraft at that position
+	 */
+	public Aircraft get(int index) {
+		return getEntry(index).aircraft;
+	}
+
+	/**
+	 * Gets the time an aircraft entered the hangar.
+	 * @param index - the position of the aircraft, where 0 is the front
+	 * @return the time the aircraft at that position entered the hangar
+	 */
+	public double getTimeEntered(int index) {
+		return getEntry(index).timeEntered;
+	}
+
+	/**
+	 * Gets the entry for an aircraft in the hangar.
+	 * @param index - the position of the aircraft, where 0 is the front
+	 * @return the entry at that position
+	 */
+	private Entry getEntry(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index
+					+ ", Size: " + size);
+		}
+
+		return entries[(head + index) % entries.length];
+	}
+
+	/**
+	 * Gets the number of aircraft in the hangar.
+	 * @return the number of aircraft in the hangar
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets whether the hangar is empty.
+	 * @return <code>true</code> if there are no aircraft in the hangar
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets whether the hangar is full.
+	 * @return <code>true</code> if the hangar can't hold any more aircraft
+	 */
+	public boolean isFull() {
+		return size == entries.length;
+	}
+
+	/**
+	 * Gets the maximum number of aircraft the hangar can hold.
+	 * @return the hangar's capacity
+	 */
+	public int getCapacity() {
+		return entries.length;
+	}
+
+}
@@ -39,8 +39,8 @@ public class Player implements Serializable {
 	/** The aircraft under the player's control */
 	private ArrayList<Aircraft> aircraft;
 	
-	/** Array list of flight-strips and ting */
-	private ArrayList<FlightStrip> flightStrips;
+	/** The player's flight strips, and their layout */
+	private FlightStripBoard flightStripBoard;
 	
 	/** The waypoints under the player's control */
 	private Waypoint[] waypoints;
@@ -75,6 +75,9 @@ public class Player implements Serializable {
 	/** The powerups this player currently has */
 	private ArrayList<Powerup> powerups;
 	
+	/** The combined effects of the player's active powerups */
+	private PlayerEffects effects;
+	
 	/** The player's score */
 	private int score;
 	
@@ -129,8 +132,9 @@ public class Player implements Serializable {
 		this.lives = 3;
 		this.score = 0;
 		this.aircraft = new ArrayList<Aircraft>();
-		this.flightStrips = new ArrayList<FlightStrip>();
+		this.flightStripBoard = new FlightStripBoard();
 		this.powerups = new ArrayList<Powerup>();
+		this.effects = new PlayerEffects();
 		this.planesCollided = 0;
 		this.powerUpsCollected = 0;
 		this.planesLanded = 0;
@@ -169,10 +173,11 @@ public class Player implements Serializable {
 		this.score = player.score;
 		this.aircraft = (player.aircraft != null)
 				? (ArrayList<Aircraft>) player.aircraft.clone() : null;
-		this.flightStrips = (player.flightStrips != null)
-				? (ArrayList<FlightStrip>) player.flightStrips.clone() : null;
+		this.flightStripBoard = (player.flightStripBoard != null)
+				? new FlightStripBoard(player.flightStripBoard) : null;
 		this.powerups = (player.powerups != null)
 				? (ArrayList<Powerup>) player.powerups.clone() : null;
+		this.effects = new PlayerEffects(player.effects);
 		this.aircraftColour = player.aircraftColour.clone();
 		this.planesCollided = player.planesCollided;
 		this.powerUpsCollected = player.powerUpsCollected;
@@ -222,8 +227,25 @@ public class Player implements Serializable {
 		return aircraft;
 	}
 	
+	/**
+	 * Gets a list of the player's flight strips, in the order they
+	 * are shown.
+	 * <p>
+	 * Flight strips should be added and removed through the player's
+	 * flight strip board.
+	 * </p>
+	 * @return a list of the player's flight strips
+	 */
 	public ArrayList<FlightStrip> getFlightStrips() {
-		return flightStrips;
+		return (flightStripBoard != null) ? flightStripBoard.getStrips() : null;
+	}
+	
+	/**
+	 * Gets the board which holds and lays out the player's flight strips.
+	 * @return the player's flight strip board
+	 */
+	public FlightStripBoard getFlightStripBoard() {
+		return flightStripBoard;
 	}
 	
 	/**
@@ -341,6 +363,14 @@ public class Player implements Serializable {
 		return powerups;
 	}
 	
+	/**
+	 * Gets the combined effects of the player's active powerups.
+	 * @return the player's powerup effects
+	 */
+	public PlayerEffects getEffects() {
+		return effects;
+	}
+	
 	
 	/**
 	 * Sets the player's name.
@@ -414,6 +444,14 @@ public class Player implements Serializable {
 		this.turningState = state;
 	}
 	
+	/**
+	 * Sets the maximum number of aircraft allowed for this player.
+	 * @param maxAircraft - the maximum number of aircraft
+	 */
+	public void setMaxAircraft(int maxAircraft) {
+		this.maxAircraft = maxAircraft;
+	}
+	
 	/**
 	 * Sets the time since an aircraft was last generated for the player.
 	 * @param time - the time to set
@@ -453,6 +491,8 @@ public class Player implements Serializable {
 				powerups.remove(i);
 			}
 		}
+		
+		effects.remove(powerup);
 	}
 	
 	/**
@@ -460,6 +500,7 @@ public class Player implements Serializable {
 	 */
 	public void clearPowerups() {
 		powerups = new ArrayList<Powerup>();
+		effects.clear();
 	}
 	
 	/**
@@ -0,0 +1,146 @@
+package cls;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import cls.Powerup.PowerupEffect;
+
+/**
+ * <h1>Player Effects</h1>
+ * <p>
+ * The combined effect of the powerups active for a player.
+ * </p>
+ * <p>
+ * The modifiers are recalculated only when a powerup is activated or
+ * deactivated, so that reading them (e.g. once per aircraft per update)
+ * doesn't involve looking through the player's powerups.
+ * </p>
+ * <p>
+ * How repeated powerups of the same effect combine is set by each
+ * effect's stacking rule. Powerups are removed by the player when they
+ * expire, so the effects never need checking for expiry.
+ * </p>
+ */
+public class PlayerEffects implements Serializable {
+
+	/** Serialisation ID */
+	private static final long serialVersionUID = -2915632209464727180L;
+
+	/** The number of active powerups of each effect */
+	private final int[] stacks;
+
+	/** The active powerups */
+	private final ArrayList<Powerup> active;
+
+	/** The amount to scale the speed of the player's aircraft by */
+	private double speedScale;
+
+
+	/**
+	 * Constructor for player effects, with no powerups active.
+	 */
+	public PlayerEffects() {
+		stacks = new int[PowerupEffect.values().length];
+		active = new ArrayList<Powerup>();
+		speedScale = 1;
+	}
+
+	/**
+	 * Constructor for player effects.
+	 * @param effects - the effects to copy
+	 */
+	@SuppressWarnings("unchecked")
+	public PlayerEffects(PlayerEffects effects) {
+		stacks = effects.stacks.clone();
+		active = (ArrayList<Powerup>) effects.active.clone();
+		speedScale = effects.speedScale;
+	}
+
+
+	// Changes --------------------------------------------------------------------------
+
+	/**
+	 * Applies an activated powerup's effect.
+	 * @param powerup - the powerup which has been activated
+	 */
+	public void apply(Powerup powerup) {
+		if (active.contains(powerup)) return;
+
+		active.add(powerup);
+
+		stacks[powerup.getEffect().ordinal()]++;
+		recalculate();
+	}
+
+	/**
+	 * Removes a powerup's effect.
+	 * @param powerup - the powerup which has been deactivated
+	 */
+	public void remove(Powerup powerup) {
+		if (active.remove(powerup)) {
+			stacks[powerup.getEffect().ordinal()]--;
+			recalculate();
+		}
+	}
+
+	/**
+	 * Removes every powerup's effect.
+	 */
+	public void clear() {
+		active.clear();
+
+		for (int i = 0; i < stacks.length; i++) {
+			stacks[i] = 0;
+		}
+
+		recalculate();
+	}
+
+	/**
+	 * Recalculates the modifiers from the number of each effect active.
+	 */
+	private void recalculate() {
+		speedScale = 1;
+
+		for (PowerupEffect effect : PowerupEffect.values()) {
+			speedScale *= Math.pow(effect.getSpeedFactor(), getStrength(effect));
+		}
+	}
+
+	/**
+	 * Gets the number of times an effect is applied, according to its
+	 * stacking rule.
+	 * @param effect - the effect to check
+	 * @return the number of times the effect is applied
+	 */
+	private int getStrength(PowerupEffect effect) {
+		int count = stacks[effect.ordinal()];
+
+		switch (effect.getStacking()) {
+		case STACK:
+			return count;
+		default:
+			return Math.min(count, 1);
+		}
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the amount to scale the speed of the player's aircraft by.
+	 * @return the amount to scale aircraft speed by
+	 */
+	public double getSpeedScale() {
+		return speedScale;
+	}
+
+	/**
+	 * Gets whether the player's airports are covered by fog.
+	 * @return <code>true</code> if a fog powerup is active
+	 */
+	public boolean isFogged() {
+		return stacks[PowerupEffect.FOG.ordinal()] > 0;
+	}
+
+}
@@ -10,6 +10,7 @@ import org.newdawn.slick.Color;
 import scn.Game;
 import scn.MultiPlayerGame;
 import btc.Main;
+import lib.TimerWheel;
 import lib.jog.graphics;
 
 public class Powerup implements Serializable {
@@ -40,12 +41,50 @@ public class Powerup implements Serializable {
 	 * <li>TRANSFER - Causes an aircraft to transfer between players</li>
 	 * </ul>
 	 * </p>
+	 * <p>
+	 * Each effect has a factor by which it scales the speed of the affected
+	 * player's aircraft, and a rule for how it stacks with other active
+	 * powerups of the same effect.
+	 * </p>
 	 */
 	public enum PowerupEffect {
-		FOG,
-		SPEED_UP,
-		SLOW_DOWN,
-		TRANSFER;
+		FOG(Stacking.SINGLE, 1),
+		SPEED_UP(Stacking.STACK, 2),
+		SLOW_DOWN(Stacking.STACK, 0.5),
+		TRANSFER(Stacking.SINGLE, 1);
+		
+		/** How the effect combines with other active powerups of the same effect */
+		private final Stacking stacking;
+		
+		/** The amount the effect scales aircraft speed by */
+		private final double speedFactor;
+		
+		/**
+		 * Constructor for powerup effects.
+		 * @param stacking - how the effect combines with itself
+		 * @param speedFactor - the amount the effect scales aircraft speed by
+		 */
+		private PowerupEffect(Stacking stacking, double speedFactor) {
+			this.stacking = stacking;
+			this.speedFactor = speedFactor;
+		}
+		
+		/**
+		 * Gets how the effect combines with other active powerups of
+		 * the same effect.
+		 * @return the effect's stacking rule
+		 */
+		public Stacking getStacking() {
+			return stacking;
+		}
+		
+		/**
+		 * Gets the amount the effect scales aircraft speed by.
+		 * @return the amount the effect scales aircraft speed by
+		 */
+		public double getSpeedFactor() {
+			return speedFactor;
+		}
 
 		/** A list of the powerup effect names */
 		private static final PowerupEffect[] POWER_UP_NAMES = values();
@@ -62,15 +101,31 @@ public class Powerup implements Serializable {
 		 }
 	}
 	
+	/**
+	 * How multiple active powerups of the same effect combine.
+	 * <ul>
+	 * <li>STACK - each powerup applies the effect again</li>
+	 * <li>SINGLE - the effect is applied once, however many are active</li>
+	 * </ul>
+	 */
+	public enum Stacking {
+		STACK,
+		SINGLE
+	}
+	
 	/** The powerup's effect */
 	private PowerupEffect effect;
 	
 	/** The aircraft which retrieved the powerup */
 	private Aircraft aircraft;
 	
-	/** The time at which the powerup was activated */
+	/** The time on the game clock at which the powerup was activated,
+	 * in milliseconds */
 	private long timeActivated;
 	
+	/** The timer which ends the powerup's effect */
+	private transient TimerWheel.Timer expiry;
+	
 	
 	/**
 	 * Constructor for powerups.
@@ -149,7 +204,8 @@ public class Powerup implements Serializable {
 	
 	/**
 	 * Gets the time the powerup as activated at.
-	 * @return the time the powerup as activated at
+	 * @return the time on the game clock the powerup as activated at,
+	 * 			in milliseconds
 	 */
 	public long getTimeActivated() {
 		return timeActivated;
@@ -252,7 +308,24 @@ public class Powerup implements Serializable {
 	 */
 	public void activateEffect() {		
 		// Store the time at which the powerup was activated
-		timeActivated = System.currentTimeMillis();
+		timeActivated = (long) (Game.getInstance().getTime() * 1000);
+		
+		// Apply the powerup's modifiers to the player
+		Game.getInstance().getPlayer().getEffects().apply(this);
+		
+		// End the effect once its duration has passed
+		expiry = Game.getInstance().getTimers().schedule(
+				EFFECT_DURATIONS_MAP.get(effect) / 1000d, new Runnable() {
+					@Override
+					public void run() {
+						deactivateEffect();
+						
+						// Add to the player's powerup count
+						Player player = Game.getInstance().getPlayer();
+						player.setPowerUpsCollected(
+								player.getPowerUpsCollected() + 1);
+					}
+				});
 		
 		switch (effect) {
 		case FOG:
@@ -266,7 +339,16 @@ public class Powerup implements Serializable {
 		}
 	}
 	
+	/**
+	 * Ends the powerup's effect.
+	 */
 	public void deactivateEffect() {
+		// Cancel the expiry, in case the effect is being ended early
+		if (expiry != null) {
+			expiry.cancel();
+			expiry = null;
+		}
+		
 		// Remove the powerup
 		Game.getInstance().getPlayer().removePowerup(this);
 		
@@ -286,7 +368,7 @@ public class Powerup implements Serializable {
 		MultiPlayerGame gameInstance = ((MultiPlayerGame) Game.getInstance());
 		
 		for (Airport a : gameInstance.getPlayer().getAirports()) {
-			a.setActive();
+			a.setClosed(true);
 		}
 		
 	}
@@ -298,7 +380,7 @@ public class Powerup implements Serializable {
 		MultiPlayerGame gameInstance = ((MultiPlayerGame) Game.getInstance());
 		
 		for (Airport a : gameInstance.getPlayer().getAirports()) {
-			a.setInactive();
+			a.setClosed(false);
 		}
 		
 	}
@@ -341,17 +423,14 @@ public class Powerup implements Serializable {
 			// Add the aircraft to the list of aircraft under transfer
 			gameInstance.getAircraftUnderTransfer().add(aircraft);
 			
-			// Add the aircraft to the opposing player's list of aircraft
-			gameInstance.getOpposingPlayer().getAircraft().add(aircraft);
-			gameInstance.getOpposingPlayer().getFlightStrips()
-					.add(new FlightStrip(aircraft,
-							FlightStrip.BACKGROUND_COLOURS[
+			// Move the aircraft to the opposing player's control,
+			// replacing its flight strip
+			gameInstance.getAircraftRegistry().transfer(aircraft,
+					gameInstance.getOpposingPlayer());
+			gameInstance.getAircraftRegistry().addFlightStrip(
+					gameInstance.getOpposingPlayer(),
+					new FlightStrip(aircraft, FlightStrip.BACKGROUND_COLOURS[
 							gameInstance.getOpposingPlayer().getID()]));
-			
-			// Remove the aircraft from the current player's control
-			gameInstance.getPlayer().getAircraft().remove(aircraft);
-			gameInstance.getPlayer().getFlightStrips()
-					.remove(gameInstance.getFlightStripFromAircraft(aircraft));
 
 			// Send *both* players' data to the other player
 			NetworkManager.sendData(-1, new Player[] {
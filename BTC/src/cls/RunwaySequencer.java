@@ -0,0 +1,636 @@
+package cls;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * <h1>Runway Sequencer</h1>
+ * <p>
+ * Decides when the arrivals and departures cleared at an airport may use
+ * one of its runways.
+ * </p>
+ * <p>
+ * Each runway can be used by one operation at a time. An arrival holds
+ * its runway until it is released (i.e. the aircraft has landed), and a
+ * departure holds its runway for a fixed time. After an operation, the
+ * runway can't be used again until the separation for that pair of
+ * operations has passed.
+ * </p>
+ * <p>
+ * Arrivals and departures each wait in the order they were cleared. When
+ * both could go, the one which would let the other follow soonest goes
+ * first, so that operations are interleaved where mixed separations are
+ * shorter; otherwise whichever has waited longest goes first.
+ * </p>
+ * <p>
+ * The queue lengths and delays are recorded, so they can be shown to
+ * the player.
+ * </p>
+ * @param <T> - the type of the aircraft using the runways
+ */
+public class RunwaySequencer<T> implements Serializable {
+
+	/** Serialisation ID */
+	private static final long serialVersionUID = 3315816327417286209L;
+
+	/**
+	 * The operations which use a runway.
+	 */
+	public enum Operation {
+		/** An aircraft landing */
+		ARRIVAL,
+		/** An aircraft taking off */
+		DEPARTURE
+	}
+
+	/**
+	 * An operation cleared to use a runway.
+	 * @param <T> - the type of the aircraft using the runways
+	 */
+	public static class Clearance<T> implements Serializable {
+
+		/** Serialisation ID */
+		private static final long serialVersionUID = -5870326113862517049L;
+
+		/** The aircraft cleared */
+		private final T aircraft;
+
+		/** The operation the aircraft is cleared for */
+		private final Operation operation;
+
+		/** The time the operation was cleared */
+		private final double timeRequested;
+
+		/** The runway the operation was given, or -1 if it is waiting */
+		private int runway = -1;
+
+		/** The time the operation was given a runway */
+		private double timeStarted = Double.NaN;
+
+		/**
+		 * Constructor for a clearance.
+		 * @param aircraft - the aircraft cleared
+		 * @param operation - the operation the aircraft is cleared for
+		 * @param timeRequested - the time the operation was cleared
+		 */
+		private Clearance(T aircraft, Operation operation, double timeRequested) {
+			this.aircraft = aircraft;
+			this.operation = operation;
+			this.timeRequested = timeRequested;
+		}
+
+		/**
+		 * Gets the aircraft cleared.
+		 * @return the aircraft cleared
+		 */
+		public T getAircraft() {
+			return aircraft;
+		}
+
+		/**
+		 * Gets the operation the aircraft is cleared for.
+		 * @return the operation
+		 */
+		public Operation getOperation() {
+			return operation;
+		}
+
+		/**
+		 * Gets the runway the operation was given.
+		 * @return the index of the runway, or -1 if it is still waiting
+		 */
+		public int getRunway() {
+			return runway;
+		}
+
+		/**
+		 * Gets how long the operation waited for a runway.
+		 * @return the time between being cleared and given a runway
+		 */
+		public double getDelay() {
+			return timeStarted - timeRequested;
+		}
+
+	}
+
+	/**
+	 * The state of a runway.
+	 * @param <T> - the type of the aircraft using the runways
+	 */
+	private static class Runway<T> implements Serializable {
+
+		/** Serialisation ID */
+		private static final long serialVersionUID = 6061858633017826331L;
+
+		/** The arrival holding the runway until it is released */
+		private T occupant;
+
+		/** The last operation to use the runway */
+		private Operation lastOperation;
+
+		/** The time the last operation finished with the runway */
+		private double lastEnd = Double.NEGATIVE_INFINITY;
+
+		/**
+		 * Copies a runway's state.
+		 * @return a copy of the runway
+		 */
+		private Runway<T> copy() {
+			Runway<T> runway = new Runway<T>();
+			runway.occupant = occupant;
+			runway.lastOperation = lastOperation;
+			runway.lastEnd = lastEnd;
+			return runway;
+		}
+
+	}
+
+
+	/** The time an arrival is expected to hold a runway, used to judge
+	 * which operation should go first */
+	public static final double EXPECTED_ARRIVAL_OCCUPANCY = 11;
+
+	/** The runways */
+	private final ArrayList<Runway<T>> runways = new ArrayList<Runway<T>>();
+
+	/** The arrivals waiting for a runway, in the order they were cleared */
+	private final ArrayDeque<Clearance<T>> arrivals =
+			new ArrayDeque<Clearance<T>>();
+
+	/** The departures waiting for a runway, in the order they were cleared */
+	private final ArrayDeque<Clearance<T>> departures =
+			new ArrayDeque<Clearance<T>>();
+
+	/** The separation after each operation before each other operation,
+	 * indexed by the previous operation then the next */
+	private final double[][] separations =
+			new double[Operation.values().length][Operation.values().length];
+
+	/** The time a departure holds its runway */
+	private double departureOccupancy = 0;
+
+	/** The number of operations given a runway */
+	private int operations = 0;
+
+	/** The total time operations have waited for a runway */
+	private double totalDelay = 0;
+
+	/** The longest time an operation has waited for a runway */
+	private double maxDelay = 0;
+
+
+	/**
+	 * Constructor for a runway sequencer.
+	 * @param runways - the number of runways
+	 */
+	public RunwaySequencer(int runways) {
+		setRunways(runways);
+	}
+
+	/**
+	 * Constructor for a runway sequencer.
+	 * @param sequencer - the sequencer to copy
+	 */
+	public RunwaySequencer(RunwaySequencer<T> sequencer) {
+		for (Runway<T> runway : sequencer.runways) {
+			runways.add(runway.copy());
+		}
+
+		arrivals.addAll(sequencer.arrivals);
+		departures.addAll(sequencer.departures);
+
+		for (int i = 0; i < separations.length; i++) {
+			separations[i] = sequencer.separations[i].clone();
+		}
+
+		departureOccupancy = sequencer.departureOccupancy;
+		operations = sequencer.operations;
+		totalDelay = sequencer.totalDelay;
+		maxDelay = sequencer.maxDelay;
+	}
+
+
+	// Changes --------------------------------------------------------------------------
+
+	/**
+	 * Clears an aircraft to use a runway once one is available.
+	 * @param operation - the operation the aircraft is cleared for
+	 * @param aircraft - the aircraft to clear
+	 * @param time - the current time
+	 * @return <code>true</code> if the aircraft was cleared, or
+	 * 			<code>false</code> if it was already cleared
+	 */
+	public boolean request(Operation operation, T aircraft, double time) {
+		if (isCleared(aircraft)) return false;
+
+		getQueue(operation).add(new Clearance<T>(aircraft, operation, time));
+		return true;
+	}
+
+	/**
+	 * Gives a runway to the next waiting operation which can go.
+	 * <p>
+	 * Should be called repeatedly until it returns <code>null</code>, as
+	 * several operations may be able to go at once.
+	 * </p>
+	 * @param time - the current time
+	 * @return the operation given a runway, or <code>null</code> if none
+	 * 			can go yet
+	 */
+	public Clearance<T> next(double time) {
+		Clearance<T> arrival = arrivals.peek();
+		Clearance<T> departure = departures.peek();
+
+		int arrivalRunway = (arrival != null)
+				? getAvailableRunway(Operation.ARRIVAL, time) : -1;
+		int departureRunway = (departure != null)
+				? getAvailableRunway(Operation.DEPARTURE, time) : -1;
+
+		Clearance<T> clearance;
+		int runway;
+
+		if (arrivalRunway == -1 && departureRunway == -1) {
+			return null;
+		} else if (departureRunway == -1) {
+			clearance = arrival;
+			runway = arrivalRunway;
+		} else if (arrivalRunway == -1) {
+			clearance = departure;
+			runway = departureRunway;
+		} else {
+			// Both can go, so go with whichever lets the other follow sooner
+			double afterArrival = getFollowingStart(arrivalRunway,
+					Operation.ARRIVAL, Operation.DEPARTURE, time);
+			double afterDeparture = getFollowingStart(departureRunway,
+					Operation.DEPARTURE, Operation.ARRIVAL, time);
+
+			boolean arrivalFirst = (afterArrival == afterDeparture)
+					? arrival.timeRequested <= departure.timeRequested
+					: afterArrival < afterDeparture;
+
+			clearance = arrivalFirst ? arrival : departure;
+			runway = arrivalFirst ? arrivalRunway : departureRunway;
+		}
+
+		getQueue(clearance.operation).poll();
+		start(clearance, runway, time);
+		return clearance;
+	}
+
+	/**
+	 * Releases the runway held by an arrival, such as once it has landed.
+	 * @param aircraft - the aircraft which has finished with its runway
+	 * @param time - the current time
+	 * @return <code>true</code> if the aircraft was holding a runway
+	 */
+	public boolean release(T aircraft, double time) {
+		for (Runway<T> runway : runways) {
+			if (runway.occupant != null && runway.occupant.equals(aircraft)) {
+				runway.occupant = null;
+				runway.lastEnd = time;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Withdraws an aircraft's clearance, or releases its runway if it has
+	 * already been given one.
+	 * @param aircraft - the aircraft to withdraw
+	 * @param time - the current time
+	 */
+	public void cancel(T aircraft, double time) {
+		if (!remove(arrivals, aircraft) && !remove(departures, aircraft)) {
+			release(aircraft, time);
+		}
+	}
+
+	/**
+	 * Withdraws every clearance and frees every runway, and resets the
+	 * recorded delays.
+	 */
+	public void clear() {
+		arrivals.clear();
+		departures.clear();
+
+		for (int i = 0; i < runways.size(); i++) {
+			runways.set(i, new Runway<T>());
+		}
+
+		operations = 0;
+		totalDelay = 0;
+		maxDelay = 0;
+	}
+
+	/**
+	 * Sets the number of runways.
+	 * <p>
+	 * Runways which are removed are dropped along with any aircraft
+	 * holding them.
+	 * </p>
+	 * @param count - the number of runways
+	 */
+	public void setRunways(int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException("An airport needs a runway: "
+					+ count);
+		}
+
+		while (runways.size() > count) {
+			runways.remove(runways.size() - 1);
+		}
+
+		while (runways.size() < count) {
+			runways.add(new Runway<T>());
+		}
+	}
+
+	/**
+	 * Sets the time which must pass after one operation before a runway
+	 * can be used for another.
+	 * @param previous - the operation which used the runway
+	 * @param next - the operation which is to use the runway
+	 * @param separation - the time between the operations
+	 */
+	public void setSeparation(Operation previous, Operation next,
+			double separation) {
+		separations[previous.ordinal()][next.ordinal()] = separation;
+	}
+
+	/**
+	 * Sets the time a departure holds its runway.
+	 * @param occupancy - the time a departure holds its runway
+	 */
+	public void setDepartureOccupancy(double occupancy) {
+		departureOccupancy = occupancy;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the time which must pass after one operation before a runway
+	 * can be used for another.
+	 * @param previous - the operation which used the runway
+	 * @param next - the operation which is to use the runway
+	 * @return the time between the operations
+	 */
+	public double getSeparation(Operation previous, Operation next) {
+		return separations[previous.ordinal()][next.ordinal()];
+	}
+
+	/**
+	 * Gets the number of runways.
+	 * @return the number of runways
+	 */
+	public int getRunways() {
+		return runways.size();
+	}
+
+	/**
+	 * Gets the number of runways being held by an operation.
+	 * @param time - the current time
+	 * @return the number of runways in use
+	 */
+	public int getRunwaysInUse(double time) {
+		int inUse = 0;
+
+		for (Runway<T> runway : runways) {
+			if (runway.occupant != null || runway.lastEnd > time) {
+				inUse++;
+			}
+		}
+
+		return inUse;
+	}
+
+	/**
+	 * Gets whether an aircraft is waiting for or holding a runway.
+	 * @param aircraft - the aircraft to check
+	 * @return <code>true</code> if the aircraft has been cleared and
+	 * 			hasn't yet finished with its runway
+	 */
+	public boolean isCleared(T aircraft) {
+		if (getPosition(aircraft) > 0) return true;
+
+		for (Runway<T> runway : runways) {
+			if (runway.occupant != null && runway.occupant.equals(aircraft)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets an aircraft's position in the queue for a runway.
+	 * @param aircraft - the aircraft to check
+	 * @return the aircraft's position, where 1 is the next to go, or 0
+	 * 			if it isn't waiting
+	 */
+	public int getPosition(T aircraft) {
+		int position = getPosition(arrivals, aircraft);
+		return (position > 0) ? position : getPosition(departures, aircraft);
+	}
+
+	/**
+	 * Gets the number of operations waiting for a runway.
+	 * @param operation - the operation to count
+	 * @return the number of that operation waiting
+	 */
+	public int getQueueLength(Operation operation) {
+		return getQueue(operation).size();
+	}
+
+	/**
+	 * Gets the longest time any waiting operation has waited so far.
+	 * @param time - the current time
+	 * @return the longest current wait, or 0 if nothing is waiting
+	 */
+	public double getLongestWait(double time) {
+		double earliest = time;
+
+		if (!arrivals.isEmpty()) {
+			earliest = Math.min(earliest, arrivals.peek().timeRequested);
+		}
+
+		if (!departures.isEmpty()) {
+			earliest = Math.min(earliest, departures.peek().timeRequested);
+		}
+
+		return time - earliest;
+	}
+
+	/**
+	 * Gets the number of operations which have been given a runway.
+	 * @return the number of operations
+	 */
+	public int getOperations() {
+		return operations;
+	}
+
+	/**
+	 * Gets the average time operations waited for a runway.
+	 * @return the average delay, or 0 if there haven't been any operations
+	 */
+	public double getAverageDelay() {
+		return (operations == 0) ? 0 : totalDelay / operations;
+	}
+
+	/**
+	 * Gets the longest time an operation waited for a runway.
+	 * @return the longest delay
+	 */
+	public double getMaxDelay() {
+		return maxDelay;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Gets the queue of an operation.
+	 * @param operation - the operation
+	 * @return the operations of that type waiting for a runway
+	 */
+	private ArrayDeque<Clearance<T>> getQueue(Operation operation) {
+		return (operation == Operation.ARRIVAL) ? arrivals : departures;
+	}
+
+	/**
+	 * Gets the time at which a runway could next be used for an operation.
+	 * @param runway - the runway
+	 * @param operation - the operation
+	 * @return the earliest time the runway could be used, or infinity if
+	 * 			it is being held
+	 */
+	private double getAvailableTime(Runway<T> runway, Operation operation) {
+		if (runway.occupant != null) return Double.POSITIVE_INFINITY;
+		if (runway.lastOperation == null) return Double.NEGATIVE_INFINITY;
+
+		return runway.lastEnd
+				+ separations[runway.lastOperation.ordinal()][operation.ordinal()];
+	}
+
+	/**
+	 * Finds a runway which can be used for an operation now.
+	 * <p>
+	 * The runway which became available most recently is chosen, so that
+	 * runways which have been available longer are kept for operations
+	 * needing longer separations.
+	 * </p>
+	 * @param operation - the operation
+	 * @param time - the current time
+	 * @return the index of the runway, or -1 if none can be used
+	 */
+	private int getAvailableRunway(Operation operation, double time) {
+		int best = -1;
+		double bestTime = Double.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < runways.size(); i++) {
+			double available = getAvailableTime(runways.get(i), operation);
+
+			if (available <= time && (best == -1 || available > bestTime)) {
+				best = i;
+				bestTime = available;
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Estimates when another operation could start if an operation were
+	 * given a runway now.
+	 * @param runway - the runway the operation would use
+	 * @param operation - the operation which would go now
+	 * @param following - the operation which would follow
+	 * @param time - the current time
+	 * @return the earliest time the following operation could start
+	 */
+	private double getFollowingStart(int runway, Operation operation,
+			Operation following, double time) {
+		Runway<T> used = new Runway<T>();
+		used.lastOperation = operation;
+		used.lastEnd = time + ((operation == Operation.ARRIVAL)
+				? EXPECTED_ARRIVAL_OCCUPANCY : departureOccupancy);
+
+		double earliest = getAvailableTime(used, following);
+
+		for (int i = 0; i < runways.size(); i++) {
+			if (i != runway) {
+				earliest = Math.min(earliest,
+						getAvailableTime(runways.get(i), following));
+			}
+		}
+
+		return Math.max(earliest, time);
+	}
+
+	/**
+	 * Gives an operation a runway.
+	 * @param clearance - the operation
+	 * @param index - the index of the runway
+	 * @param time - the current time
+	 */
+	private void start(Clearance<T> clearance, int index, double time) {
+		Runway<T> runway = runways.get(index);
+		runway.lastOperation = clearance.operation;
+
+		if (clearance.operation == Operation.ARRIVAL) {
+			runway.occupant = clearance.aircraft;
+			runway.lastEnd = time;
+		} else {
+			runway.lastEnd = time + departureOccupancy;
+		}
+
+		clearance.runway = index;
+		clearance.timeStarted = time;
+
+		operations++;
+		totalDelay += clearance.getDelay();
+		maxDelay = Math.max(maxDelay, clearance.getDelay());
+	}
+
+	/**
+	 * Removes an aircraft from a queue.
+	 * @param queue - the queue to remove the aircraft from
+	 * @param aircraft - the aircraft to remove
+	 * @return <code>true</code> if the aircraft was in the queue
+	 */
+	private boolean remove(ArrayDeque<Clearance<T>> queue, T aircraft) {
+		Iterator<Clearance<T>> iterator = queue.iterator();
+
+		while (iterator.hasNext()) {
+			if (iterator.next().aircraft.equals(aircraft)) {
+				iterator.remove();
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets an aircraft's position in a queue.
+	 * @param queue - the queue to search
+	 * @param aircraft - the aircraft to find
+	 * @return the aircraft's position, where 1 is the front, or 0 if it
+	 * 			isn't in the queue
+	 */
+	private int getPosition(ArrayDeque<Clearance<T>> queue, T aircraft) {
+		int position = 1;
+
+		for (Clearance<T> clearance : queue) {
+			if (clearance.aircraft.equals(aircraft)) return position;
+			position++;
+		}
+
+		return 0;
+	}
+
+}
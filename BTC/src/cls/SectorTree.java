@@ -0,0 +1,385 @@
+package cls;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>Sector Tree</h1>
+ * <p>
+ * Divides the airspace into sectors by the aircraft in it, so that the
+ * aircraft near a position, or in the part of the airspace in view, can
+ * be found without looking at every aircraft.
+ * </p>
+ * <p>
+ * The airspace is one sector to begin with. Whenever a sector holds more
+ * aircraft than its capacity, it is split into four quarters, and those
+ * in turn are split when they fill up, so busy regions are divided into
+ * many small sectors while empty ones stay whole. Aircraft outside the
+ * airspace are held in the sectors at its edge.
+ * </p>
+ * <p>
+ * The tree is rebuilt from every aircraft once per update, and aircraft
+ * are always returned in the order they were listed in, so using the
+ * tree never changes how the game plays out. Sectors are reused between
+ * rebuilds. The tree must only be used on the simulation thread.
+ * </p>
+ */
+public class SectorTree {
+
+	/** The most aircraft a sector holds before it is split, by default */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	/** The most times the airspace can be divided, by default */
+	public static final int DEFAULT_MAX_DEPTH = 8;
+
+	/**
+	 * A rectangular region of the airspace.
+	 */
+	private static class Sector {
+
+		/** The position of the sector's top left corner */
+		private double x, y;
+
+		/** The size of the sector */
+		private double width, height;
+
+		/** The number of times the airspace was divided to make the sector */
+		private int depth;
+
+		/** The sector's quarters, or <code>null</code> if it is undivided */
+		private Sector[] quarters;
+
+		/** The indices of the aircraft in the sector, if undivided */
+		private int[] aircraft = new int[DEFAULT_CAPACITY];
+
+		/** The number of aircraft in the sector, if undivided */
+		private int count;
+
+		/** Whether the sector is in view */
+		private boolean isVisible;
+
+		/**
+		 * Checks whether the sector overlaps a rectangle.
+		 * @param left - the rectangle's left edge
+		 * @param top - the rectangle's top edge
+		 * @param right - the rectangle's right edge
+		 * @param bottom - the rectangle's bottom edge
+		 * @return <code>true</code> if the sector and rectangle overlap,
+		 * 			including only touching
+		 */
+		private boolean overlaps(double left, double top, double right,
+				double bottom) {
+			return left <= x + width && right >= x
+					&& top <= y + height && bottom >= y;
+		}
+
+	}
+
+
+	/** The most aircraft a sector holds before it is split */
+	private final int capacity;
+
+	/** The most times the airspace can be divided */
+	private final int maxDepth;
+
+	/** The sector covering the whole airspace */
+	private Sector root;
+
+	/** Every sector created, in use or not, for reuse */
+	private final ArrayList<Sector> sectors = new ArrayList<Sector>();
+
+	/** The number of sectors in use */
+	private int sectorsUsed;
+
+	/** The aircraft the tree was built from */
+	private List<Aircraft> aircraft = new ArrayList<Aircraft>();
+
+	/** The horizontal position of each aircraft */
+	private double[] positionsX = new double[0], positionsY = new double[0];
+
+	/** The indices of the aircraft found by the last search */
+	private int[] found = new int[DEFAULT_CAPACITY];
+
+	/** The number of aircraft found by the last search */
+	private int foundCount;
+
+
+	/**
+	 * Constructor for a sector tree with the default capacity and depth.
+	 */
+	public SectorTree() {
+		this(DEFAULT_CAPACITY, DEFAULT_MAX_DEPTH);
+	}
+
+	/**
+	 * Constructor for a sector tree.
+	 * @param capacity - the most aircraft a sector holds before it is split
+	 * @param maxDepth - the most times the airspace can be divided; the
+	 * 			smallest sectors may hold more than their capacity
+	 */
+	public SectorTree(int capacity, int maxDepth) {
+		this.capacity = Math.max(1, capacity);
+		this.maxDepth = Math.max(0, maxDepth);
+		rebuild(aircraft, 0, 0);
+	}
+
+
+	// Changes --------------------------------------------------------------------------
+
+	/**
+	 * Rebuilds the tree from every aircraft in the airspace.
+	 * @param aircraft - every aircraft in the airspace
+	 * @param width - the width of the airspace
+	 * @param height - the height of the airspace
+	 */
+	public void rebuild(List<Aircraft> aircraft, double width, double height) {
+		this.aircraft = aircraft;
+		sectorsUsed = 0;
+		root = obtainSector(0, 0, width, height, 0);
+
+		if (positionsX.length < aircraft.size()) {
+			positionsX = new double[aircraft.size()];
+			positionsY = new double[aircraft.size()];
+		}
+
+		for (int i = 0; i < aircraft.size(); i++) {
+			Vector position = aircraft.get(i).getPosition();
+
+			positionsX[i] = position.getX();
+			positionsY[i] = position.getY();
+
+			insert(root, i);
+		}
+	}
+
+	/**
+	 * Marks the sectors overlapping a region as in view, and the rest as
+	 * out of view.
+	 * @param x - the position of the region's left edge
+	 * @param y - the position of the region's top edge
+	 * @param width - the width of the region
+	 * @param height - the height of the region
+	 */
+	public void setVisibleArea(double x, double y, double width,
+			double height) {
+		for (int i = 0; i < sectorsUsed; i++) {
+			Sector sector = sectors.get(i);
+			sector.isVisible = sector.overlaps(x, y, x + width, y + height);
+		}
+	}
+
+
+	// Queries --------------------------------------------------------------------------
+
+	/**
+	 * Finds the aircraft near a position.
+	 * <p>
+	 * Every aircraft within the distance of the position horizontally is
+	 * found, in the order they were listed in when the tree was built.
+	 * </p>
+	 * @param x - the x position to search around
+	 * @param y - the y position to search around
+	 * @param distance - the distance to search within
+	 * @param near - the list to add the aircraft found to
+	 */
+	public void findNear(double x, double y, double distance,
+			List<Aircraft> near) {
+		double width = root.width;
+		double height = root.height;
+
+		foundCount = 0;
+		collect(root,
+				Math.max(0, Math.min(width, x - distance)),
+				Math.max(0, Math.min(height, y - distance)),
+				Math.max(0, Math.min(width, x + distance)),
+				Math.max(0, Math.min(height, y + distance)));
+
+		// Put the aircraft back in the order they were listed in
+		Arrays.sort(found, 0, foundCount);
+
+		for (int i = 0; i < foundCount; i++) {
+			double dx = positionsX[found[i]] - x;
+			double dy = positionsY[found[i]] - y;
+
+			if (dx * dx + dy * dy <= distance * distance) {
+				near.add(aircraft.get(found[i]));
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a position is in a sector which is in view.
+	 * @param x - the x position to check
+	 * @param y - the y position to check
+	 * @return <code>true</code> if the sector holding the position is in
+	 * 			view, otherwise <code>false</code>
+	 */
+	public boolean isInVisibleSector(double x, double y) {
+		x = Math.max(0, Math.min(root.width, x));
+		y = Math.max(0, Math.min(root.height, y));
+
+		Sector sector = root;
+		while (sector.quarters != null) {
+			sector = sector.quarters[getQuarter(sector, x, y)];
+		}
+
+		return sector.isVisible;
+	}
+
+	/**
+	 * Gets the number of sectors the airspace is divided into.
+	 * @return the number of sectors the airspace is divided into,
+	 * 			including those which have been divided further
+	 */
+	public int getSectorCount() {
+		return sectorsUsed;
+	}
+
+	/**
+	 * Gets the most times any part of the airspace has been divided.
+	 * @return the most times any part of the airspace has been divided
+	 */
+	public int getDepth() {
+		int depth = 0;
+
+		for (int i = 0; i < sectorsUsed; i++) {
+			depth = Math.max(depth, sectors.get(i).depth);
+		}
+
+		return depth;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Adds an aircraft to the undivided sector holding its position,
+	 * splitting the sector if it becomes too full.
+	 * @param sector - the sector to add the aircraft below
+	 * @param index - the index of the aircraft
+	 */
+	private void insert(Sector sector, int index) {
+		// Aircraft outside the airspace are held at its edge
+		double x = Math.max(0, Math.min(root.width, positionsX[index]));
+		double y = Math.max(0, Math.min(root.height, positionsY[index]));
+
+		while (sector.quarters != null) {
+			sector = sector.quarters[getQuarter(sector, x, y)];
+		}
+
+		if (sector.count == sector.aircraft.length) {
+			sector.aircraft = Arrays.copyOf(sector.aircraft,
+					sector.aircraft.length * 2);
+		}
+		sector.aircraft[sector.count++] = index;
+
+		if (sector.count > capacity && sector.depth < maxDepth) {
+			split(sector);
+		}
+	}
+
+	/**
+	 * Divides a sector into quarters, moving its aircraft into them.
+	 * @param sector - the sector to divide
+	 */
+	private void split(Sector sector) {
+		double halfWidth = sector.width / 2;
+		double halfHeight = sector.height / 2;
+
+		sector.quarters = new Sector[] {
+				obtainSector(sector.x, sector.y, halfWidth, halfHeight,
+						sector.depth + 1),
+				obtainSector(sector.x + halfWidth, sector.y, halfWidth,
+						halfHeight, sector.depth + 1),
+				obtainSector(sector.x, sector.y + halfHeight, halfWidth,
+						halfHeight, sector.depth + 1),
+				obtainSector(sector.x + halfWidth, sector.y + halfHeight,
+						halfWidth, halfHeight, sector.depth + 1)
+		};
+
+		// The aircraft are moved in the order they were added, so every
+		// sector holds its aircraft in the order they were listed in
+		int count = sector.count;
+		sector.count = 0;
+
+		for (int i = 0; i < count; i++) {
+			insert(sector, sector.aircraft[i]);
+		}
+	}
+
+	/**
+	 * Gets which quarter of a divided sector holds a position.
+	 * @param sector - the divided sector
+	 * @param x - the x position
+	 * @param y - the y position
+	 * @return the index of the quarter holding the position
+	 */
+	private static int getQuarter(Sector sector, double x, double y) {
+		int quarter = 0;
+
+		if (x >= sector.x + (sector.width / 2)) quarter += 1;
+		if (y >= sector.y + (sector.height / 2)) quarter += 2;
+
+		return quarter;
+	}
+
+	/**
+	 * Adds the aircraft in every undivided sector overlapping a rectangle
+	 * to those found.
+	 * @param sector - the sector to search
+	 * @param left - the rectangle's left edge
+	 * @param top - the rectangle's top edge
+	 * @param right - the rectangle's right edge
+	 * @param bottom - the rectangle's bottom edge
+	 */
+	private void collect(Sector sector, double left, double top, double right,
+			double bottom) {
+		if (!sector.overlaps(left, top, right, bottom)) return;
+
+		if (sector.quarters != null) {
+			for (Sector quarter : sector.quarters) {
+				collect(quarter, left, top, right, bottom);
+			}
+			return;
+		}
+
+		if (foundCount + sector.count > found.length) {
+			found = Arrays.copyOf(found,
+					Math.max(found.length * 2, foundCount + sector.count));
+		}
+
+		System.arraycopy(sector.aircraft, 0, found, foundCount, sector.count);
+		foundCount += sector.count;
+	}
+
+	/**
+	 * Gets an unused sector, creating one if every sector is in use.
+	 * @param x - the position of the sector's left edge
+	 * @param y - the position of the sector's top edge
+	 * @param width - the width of the sector
+	 * @param height - the height of the sector
+	 * @param depth - the number of times the airspace was divided to
+	 * 			make the sector
+	 * @return the sector, holding no aircraft
+	 */
+	private Sector obtainSector(double x, double y, double width,
+			double height, int depth) {
+		if (sectorsUsed == sectors.size()) {
+			sectors.add(new Sector());
+		}
+
+		Sector sector = sectors.get(sectorsUsed++);
+		sector.x = x;
+		sector.y = y;
+		sector.width = width;
+		sector.height = height;
+		sector.depth = depth;
+		sector.quarters = null;
+		sector.count = 0;
+		sector.isVisible = true;
+
+		return sector;
+	}
+
+}
@@ -2,7 +2,6 @@ package cls;
 
 import java.io.Serializable;
 
-import lib.jog.window;
 import scn.Game;
 
 /**
@@ -30,8 +29,8 @@ public class Vector implements Serializable {
 	 * @param z - the vector's z position
 	 */
 	public Vector(double x, double y, double z) {
-		this.x = x / (window.width() - (2 * Game.getXOffset()));
-		this.y = y / (window.height() - (2 * Game.getYOffset()));
+		this.x = x / Game.getAirspaceWidth();
+		this.y = y / Game.getAirspaceHeight();
 		this.z = z;
 	}
 	
@@ -64,7 +63,7 @@ public class Vector implements Serializable {
 	 * @return the x position of the vector
 	 */
 	public double getX() {
-		return x * (window.width() - (2 * Game.getXOffset()));
+		return x * Game.getAirspaceWidth();
 	}
 
 	/**
@@ -72,7 +71,7 @@ public class Vector implements Serializable {
 	 * @return the y position of the vector
 	 */
 	public double getY() {
-		return y * (window.height() - (2 * Game.getYOffset()));
+		return y * Game.getAirspaceHeight();
 	}
 	
 	/**
@@ -0,0 +1,140 @@
+package lib;
+
+import java.util.ArrayList;
+
+import lib.jog.graphics;
+
+/**
+ * <h1>Animation Pool</h1>
+ * <p>
+ * Plays sprite animations, reusing the animations which have finished
+ * rather than creating new ones, so that starting an animation doesn't
+ * allocate once the pool has grown to the number needed at once.
+ * </p>
+ * <p>
+ * Animations are timed by the clock passed to the pool, which should be
+ * the game's simulation clock so that animations play identically when
+ * a game is replayed.
+ * </p>
+ */
+public class AnimationPool {
+
+	/** The animations being played */
+	private final ArrayList<SpriteAnimation> active;
+
+	/** The finished animations, waiting to be reused */
+	private final ArrayList<SpriteAnimation> free;
+
+
+	/**
+	 * Constructor for an animation pool.
+	 * @param capacity - the number of animations to make room for
+	 */
+	public AnimationPool(int capacity) {
+		active = new ArrayList<SpriteAnimation>(capacity);
+		free = new ArrayList<SpriteAnimation>(capacity);
+	}
+
+	/**
+	 * Starts playing an animation.
+	 * @param sheet - the sprite sheet from which the frames are taken
+	 * @param x - the x position to draw the animation
+	 * @param y - the y position to draw the animation
+	 * @param time - the time on the clock at which the animation starts
+	 * @return the animation started
+	 */
+	public SpriteAnimation play(SpriteSheet sheet, int x, int y, double time) {
+		SpriteAnimation animation;
+
+		if (free.isEmpty()) {
+			animation = new SpriteAnimation(sheet, x, y, time);
+		} else {
+			animation = free.remove(free.size() - 1);
+			animation.reset(sheet, x, y, time);
+		}
+
+		active.add(animation);
+		return animation;
+	}
+
+	/**
+	 * Returns any animations which have finished to the pool.
+	 * <p>
+	 * The order of the remaining animations isn't preserved, as a finished
+	 * animation is replaced by the last one rather than the rest being
+	 * shifted down.
+	 * </p>
+	 * @param time - the current time on the clock
+	 */
+	public void update(double time) {
+		for (int i = active.size() - 1; i >= 0; i--) {
+			if (active.get(i).hasFinished(time)) {
+				int last = active.size() - 1;
+				free.add(active.get(i));
+				active.set(i, active.get(last));
+				active.remove(last);
+			}
+		}
+	}
+
+	/**
+	 * Stops every animation, returning them all to the pool.
+	 */
+	public void clear() {
+		free.addAll(active);
+		active.clear();
+	}
+
+	/**
+	 * Gets the number of animations being played.
+	 * @return the number of animations being played
+	 */
+	public int size() {
+		return active.size();
+	}
+
+	/**
+	 * Copies the animations being played, so that they can be drawn while
+	 * the pool is updated.
+	 * @return copies of the animations being played
+	 */
+	public SpriteAnimation[] copyActive() {
+		SpriteAnimation[] copies = new SpriteAnimation[active.size()];
+
+		for (int i = 0; i < copies.length; i++) {
+			copies[i] = active.get(i).clone();
+		}
+
+		return copies;
+	}
+
+	/**
+	 * Draws a set of animations.
+	 * <p>
+	 * Consecutive animations which share a sprite sheet are drawn as a
+	 * single batch, so the sheet's texture is only bound once for them.
+	 * </p>
+	 * @param animations - the animations to draw
+	 * @param time - the time on the clock the animations were started with
+	 */
+	public static void draw(SpriteAnimation[] animations, double time) {
+		SpriteSheet batchSheet = null;
+
+		for (SpriteAnimation animation : animations) {
+			int frame = animation.getFrame(time);
+			if (frame < 0) continue;
+
+			if (animation.getSheet() != batchSheet) {
+				if (batchSheet != null) graphics.endBatch();
+				batchSheet = animation.getSheet();
+				graphics.beginBatch(batchSheet.getImage());
+			}
+
+			graphics.batchq(batchSheet.getQuad(frame),
+					animation.getX(), animation.getY());
+		}
+
+		if (batchSheet != null) graphics.endBatch();
+	}
+
+}
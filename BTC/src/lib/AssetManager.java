@@ -0,0 +1,534 @@
+package lib;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.newdawn.slick.opengl.ImageData;
+import org.newdawn.slick.util.ResourceLoader;
+
+import lib.jog.audio;
+import lib.jog.graphics;
+import lib.jog.audio.Music;
+import lib.jog.audio.Sound;
+import lib.jog.graphics.Image;
+
+/**
+ * <h1>Asset Manager</h1>
+ * <p>
+ * Loads and caches images, sounds and music, so that each file is only
+ * loaded once however many times it is used.
+ * </p>
+ * <p>
+ * Assets are accessed through typed handles, which are reference counted.
+ * An asset stays in the cache while any handle to it is held, and is
+ * unloaded by purge() once every handle has been released.
+ * </p>
+ * <p>
+ * Assets can be preloaded before they are needed. Sounds, music and fonts
+ * are loaded in the background. Images are decoded in parallel on a pool of
+ * worker threads, and the decoded data is then uploaded to textures on the
+ * render thread a few at a time in update(), as textures can only be
+ * created there.
+ * </p>
+ */
+public abstract class AssetManager {
+
+	/**
+	 * A type of asset, which knows how to load and unload assets of that type.
+	 * @param <T> the class of asset loaded
+	 */
+	public static abstract class Type<T> {
+
+		/** The name of the type, used to distinguish cache entries */
+		private final String name;
+
+		/**
+		 * Constructor for an asset type.
+		 * @param name - the name of the type
+		 */
+		protected Type(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Loads an asset.
+		 * @param filepath - the path of the file to load
+		 * @return the loaded asset
+		 */
+		protected abstract T load(String filepath);
+
+		/**
+		 * Decodes an asset's file into memory, ready to be loaded.
+		 * <p>
+		 * Called on a worker thread before assets which must be loaded on
+		 * the render thread are loaded, so that only the final step of
+		 * loading is done there.
+		 * </p>
+		 * @param filepath - the path of the file to decode
+		 * @return the decoded data, or null if the type doesn't decode
+		 * 			assets ahead of loading them
+		 */
+		protected Object decode(String filepath) {
+			return null;
+		}
+
+		/**
+		 * Loads an asset from data returned by decode().
+		 * @param filepath - the path of the file which was decoded
+		 * @param decoded - the decoded data
+		 * @return the loaded asset
+		 */
+		protected T load(String filepath, Object decoded) {
+			return load(filepath);
+		}
+
+		/**
+		 * Unloads an asset, releasing any resources it holds.
+		 * @param asset - the asset to unload
+		 */
+		protected void unload(T asset) {}
+
+		/**
+		 * Gets whether assets of this type must be loaded on the render thread.
+		 * @return <code>true</code> if assets must be loaded on the render thread
+		 */
+		protected boolean requiresRenderThread() {
+			return false;
+		}
+
+	}
+
+	/** Images, which are loaded into textures */
+	public static final Type<Image> IMAGE = new Type<Image>("image") {
+		@Override
+		protected Image load(String filepath) {
+			return graphics.newImage(filepath);
+		}
+
+		@Override
+		protected Object decode(String filepath) {
+			return graphics.decodeImage(filepath);
+		}
+
+		@Override
+		protected Image load(String filepath, Object decoded) {
+			return graphics.newImage((ImageData) decoded);
+		}
+
+		@Override
+		protected void unload(Image asset) {
+			asset.release();
+		}
+
+		@Override
+		protected boolean requiresRenderThread() {
+			return true;
+		}
+	};
+
+	/** Sound effects, which are decoded fully when loaded */
+	public static final Type<Sound> SOUND = new Type<Sound>("sound") {
+		@Override
+		protected Sound load(String filepath) {
+			return audio.newSoundEffect(filepath);
+		}
+
+		@Override
+		protected void unload(Sound asset) {
+			asset.stop();
+		}
+	};
+
+	/** Music, which is streamed and looped */
+	public static final Type<Music> MUSIC = new Type<Music>("music") {
+		@Override
+		protected Music load(String filepath) {
+			return audio.newMusic(filepath);
+		}
+
+		@Override
+		protected void unload(Music asset) {
+			asset.stop();
+		}
+	};
+
+	/** TrueType fonts, which are parsed once and then resized as needed */
+	public static final Type<Font> FONT = new Type<Font>("font") {
+		@Override
+		protected Font load(String filepath) {
+			try (InputStream in = ResourceLoader.getResourceAsStream(filepath)) {
+				return Font.createFont(Font.TRUETYPE_FONT, in);
+			} catch (FontFormatException | IOException e) {
+				e.printStackTrace();
+				return null;
+			}
+		}
+	};
+
+	/**
+	 * A reference to a cached asset.
+	 * @param <T> the class of asset referred to
+	 */
+	public static class Handle<T> {
+
+		/** The type of the asset */
+		private final Type<T> type;
+
+		/** The path of the asset's file */
+		private final String filepath;
+
+		/** The loaded asset, or null if it hasn't been loaded */
+		private volatile T asset;
+
+		/** The asset's decoded data, or null if it hasn't been decoded */
+		private Object decoded;
+
+		/** The number of times the handle has been acquired and not released */
+		private int references = 0;
+
+		/**
+		 * Constructor for a handle.
+		 * @param type - the type of the asset
+		 * @param filepath - the path of the asset's file
+		 */
+		private Handle(Type<T> type, String filepath) {
+			this.type = type;
+			this.filepath = filepath;
+		}
+
+		/**
+		 * Gets the asset, loading it if it hasn't been loaded already.
+		 * <p>
+		 * Images which haven't been loaded may only be got on the render
+		 * thread; preloading them avoids this.
+		 * </p>
+		 * @return the asset
+		 */
+		public T get() {
+			if (asset == null) load();
+			return asset;
+		}
+
+		/**
+		 * Gets whether the asset has been loaded.
+		 * @return <code>true</code> if the asset has been loaded
+		 */
+		public boolean isLoaded() {
+			return asset != null;
+		}
+
+		/**
+		 * Gets the path of the asset's file.
+		 * @return the path of the asset's file
+		 */
+		public String getFilepath() {
+			return filepath;
+		}
+
+		/**
+		 * Loads the asset, unless it has already been loaded.
+		 */
+		private synchronized void load() {
+			if (asset == null) {
+				if (decoded != null) {
+					asset = type.load(filepath, decoded);
+				} else {
+					asset = type.load(filepath);
+				}
+
+				decoded = null;
+			}
+		}
+
+		/**
+		 * Decodes the asset, unless it has already been decoded or loaded.
+		 */
+		private synchronized void decode() {
+			if (asset == null && decoded == null) {
+				decoded = type.decode(filepath);
+			}
+		}
+
+		/**
+		 * Unloads the asset, if it has been loaded.
+		 */
+		private synchronized void unload() {
+			if (asset != null) {
+				type.unload(asset);
+				asset = null;
+			}
+		}
+
+	}
+
+	/**
+	 * Receives the progress of a preload.
+	 */
+	public interface ProgressListener {
+
+		/**
+		 * Called on the render thread each time an asset being preloaded
+		 * finishes loading.
+		 * @param loaded - the number of assets which have been loaded
+		 * @param total - the total number of assets being preloaded
+		 */
+		public void progress(int loaded, int total);
+
+	}
+
+	/**
+	 * A set of assets being preloaded.
+	 */
+	public static class Preload {
+
+		/** The handles of the assets being loaded */
+		private final Handle<?>[] handles;
+
+		/** The listener to inform of progress, or null */
+		private final ProgressListener listener;
+
+		/** The number of assets known to have loaded */
+		private int loaded = 0;
+
+		/**
+		 * Constructor for a preload.
+		 * @param handles - the handles of the assets to load
+		 * @param listener - the listener to inform of progress, or null
+		 */
+		private Preload(Handle<?>[] handles, ProgressListener listener) {
+			this.handles = handles;
+			this.listener = listener;
+		}
+
+		/**
+		 * Gets whether every asset has been loaded.
+		 * @return <code>true</code> if every asset has been loaded
+		 */
+		public boolean isFinished() {
+			return loaded == handles.length;
+		}
+
+		/**
+		 * Gets the proportion of assets which have been loaded.
+		 * @return the proportion of assets loaded, between 0 and 1
+		 */
+		public double getProgress() {
+			return (handles.length == 0) ? 1 : (double) loaded / handles.length;
+		}
+
+		/**
+		 * Counts the assets which have been loaded, informing the listener
+		 * if any more have been.
+		 */
+		private void checkProgress() {
+			int count = 0;
+			for (Handle<?> handle : handles) {
+				if (handle.isLoaded()) count++;
+			}
+
+			if (count != loaded) {
+				loaded = count;
+				if (listener != null) listener.progress(loaded, handles.length);
+			}
+		}
+
+	}
+
+
+	/** The cached handles, keyed by type and file path */
+	private static final HashMap<String, Handle<?>> cache =
+			new HashMap<String, Handle<?>>();
+
+	/** The preloads in progress */
+	private static final ArrayList<Preload> preloads = new ArrayList<Preload>();
+
+	/** The decoded images waiting to be loaded on the render thread */
+	private static final ConcurrentLinkedQueue<Handle<?>> renderQueue =
+			new ConcurrentLinkedQueue<Handle<?>>();
+
+	/**
+	 * Loads assets which don't need the render thread in the background.
+	 * <p>
+	 * A single thread is used, as Slick's sound store isn't thread safe.
+	 * </p>
+	 */
+	private static final ExecutorService backgroundLoader =
+			Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "Asset Loader");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	/** Decodes images in parallel, ready to be loaded on the render thread */
+	private static final ExecutorService decoders = Executors.newFixedThreadPool(
+			Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+			new ThreadFactory() {
+				private int count = 0;
+
+				@Override
+				public synchronized Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "Asset Decoder " + count++);
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+
+	/**
+	 * Acquires a handle to an asset.
+	 * <p>
+	 * The asset isn't loaded until the handle is preloaded or got.
+	 * Every call must be matched by a call to release().
+	 * </p>
+	 * @param type - the type of the asset
+	 * @param filepath - the path of the asset's file
+	 * @return a handle to the asset
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Handle<T> acquire(Type<T> type, String filepath) {
+		synchronized (cache) {
+			String key = type.name + ":" + filepath;
+			Handle<T> handle = (Handle<T>) cache.get(key);
+
+			if (handle == null) {
+				handle = new Handle<T>(type, filepath);
+				cache.put(key, handle);
+			}
+
+			handle.references++;
+			return handle;
+		}
+	}
+
+	/**
+	 * Releases a handle to an asset.
+	 * <p>
+	 * The asset remains cached until purge() is called, so that it can be
+	 * reused without reloading if it is acquired again before then.
+	 * </p>
+	 * @param handle - the handle to release
+	 */
+	public static void release(Handle<?> handle) {
+		synchronized (cache) {
+			if (handle.references > 0) {
+				handle.references--;
+			} else {
+				Exception e = new Exception("Releasing an asset which "
+						+ "hasn't been acquired: " + handle.filepath);
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Gets whether any handles are held to an asset.
+	 * @param handle - the handle to the asset
+	 * @return <code>true</code> if the handle has been acquired and not released
+	 */
+	private static boolean isReferenced(Handle<?> handle) {
+		synchronized (cache) {
+			return handle.references > 0;
+		}
+	}
+
+	/**
+	 * Unloads every asset which no longer has any handles held to it.
+	 * <p>
+	 * Must be called on the render thread.
+	 * </p>
+	 */
+	public static void purge() {
+		synchronized (cache) {
+			Iterator<Handle<?>> iterator = cache.values().iterator();
+
+			while (iterator.hasNext()) {
+				Handle<?> handle = iterator.next();
+
+				if (handle.references == 0) {
+					handle.unload();
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Begins preloading a set of assets.
+	 * <p>
+	 * Assets which don't need the render thread begin loading in the
+	 * background straight away. The rest begin decoding on the worker
+	 * threads, and are loaded by update() once decoded.
+	 * </p>
+	 * @param handles - the handles of the assets to load
+	 * @param listener - the listener to inform of progress, or null
+	 * @return the preload, which can be checked for completion
+	 */
+	public static Preload preload(Handle<?>[] handles, ProgressListener listener) {
+		Preload preload = new Preload(handles, listener);
+
+		for (final Handle<?> handle : handles) {
+			if (handle.isLoaded()) continue;
+
+			if (handle.type.requiresRenderThread()) {
+				decoders.execute(new Runnable() {
+					@Override
+					public void run() {
+						handle.decode();
+						renderQueue.add(handle);
+					}
+				});
+			} else {
+				backgroundLoader.execute(new Runnable() {
+					@Override
+					public void run() {
+						handle.load();
+					}
+				});
+			}
+		}
+
+		preload.checkProgress();
+		if (!preload.isFinished()) preloads.add(preload);
+
+		return preload;
+	}
+
+	/**
+	 * Loads images which have been decoded, and reports the progress of
+	 * any preloads in progress.
+	 * <p>
+	 * Must be called on the render thread. Images are loaded until the time
+	 * allowed has been used, so that a long preload doesn't stop the window
+	 * from updating.
+	 * </p>
+	 * @param timeAllowed - the time which may be spent loading, in nanoseconds
+	 */
+	public static void update(long timeAllowed) {
+		long endTime = System.nanoTime() + timeAllowed;
+
+		Handle<?> handle;
+		while (System.nanoTime() < endTime && (handle = renderQueue.poll()) != null) {
+			// Images released while being decoded may have been purged,
+			// and would never be unloaded if they were loaded now
+			if (isReferenced(handle)) handle.get();
+		}
+
+		for (int i = preloads.size() - 1; i >= 0; i--) {
+			preloads.get(i).checkProgress();
+			if (preloads.get(i).isFinished()) preloads.remove(i);
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+package lib;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <h1>Event Bus</h1>
+ * <p>
+ * Delivers events to the listeners subscribed to their type, so that
+ * the parts of the game interested in a change are told about it when
+ * it happens, rather than checking for it every frame.
+ * </p>
+ * <p>
+ * Events are delivered to the listeners subscribed to the event's exact
+ * class, in the order they subscribed. Events published with publish()
+ * are delivered straight away; events posted with post() are queued, and
+ * delivered the next time the owner calls dispatch().
+ * </p>
+ * <p>
+ * Listeners are subscribed and events published on the thread which
+ * dispatches events, normally the simulation thread. Any thread may post
+ * events, which lets other threads (such as the network thread) hand
+ * events safely to the game loop.
+ * </p>
+ * <p>
+ * Events with no listeners are dropped without being queued.
+ * </p>
+ */
+public class EventBus {
+
+	/**
+	 * Listener for events of a type.
+	 * @param <E> - the type of event listened for
+	 */
+	public interface Listener<E> {
+
+		/**
+		 * Handles an event.
+		 * @param event - the event
+		 */
+		public void handle(E event);
+
+	}
+
+	/** An empty list of listeners */
+	private static final Listener<?>[] NONE = new Listener<?>[0];
+
+	/** The listeners for each type of event.
+	 * <p>
+	 * Each list is replaced rather than changed, so that listeners can
+	 * subscribe and unsubscribe while an event is being delivered, and
+	 * delivering an event doesn't need to copy the list.
+	 * </p> */
+	private volatile HashMap<Class<?>, Listener<?>[]> listeners =
+			new HashMap<Class<?>, Listener<?>[]>();
+
+	/** The events posted and not yet dispatched */
+	private final ConcurrentLinkedQueue<Object> queue =
+			new ConcurrentLinkedQueue<Object>();
+
+
+	// Changes --------------------------------------------------------------------------
+
+	/**
+	 * Subscribes a listener to a type of event.
+	 * @param type - the class of event to listen for
+	 * @param listener - the listener to subscribe
+	 */
+	public synchronized <E> void subscribe(Class<E> type,
+			Listener<? super E> listener) {
+		Listener<?>[] current = getListeners(type);
+		Listener<?>[] updated = new Listener<?>[current.length + 1];
+		System.arraycopy(current, 0, updated, 0, current.length);
+		updated[current.length] = listener;
+
+		HashMap<Class<?>, Listener<?>[]> copy =
+				new HashMap<Class<?>, Listener<?>[]>(listeners);
+		copy.put(type, updated);
+		listeners = copy;
+	}
+
+	/**
+	 * Unsubscribes a listener from a type of event.
+	 * @param type - the class of event the listener listens for
+	 * @param listener - the listener to unsubscribe
+	 * @return <code>true</code> if the listener was subscribed
+	 */
+	public synchronized <E> boolean unsubscribe(Class<E> type,
+			Listener<? super E> listener) {
+		Listener<?>[] current = getListeners(type);
+
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] == listener) {
+				Listener<?>[] updated = new Listener<?>[current.length - 1];
+				System.arraycopy(current, 0, updated, 0, i);
+				System.arraycopy(current, i + 1, updated, i,
+						current.length - i - 1);
+
+				HashMap<Class<?>, Listener<?>[]> copy =
+						new HashMap<Class<?>, Listener<?>[]>(listeners);
+				if (updated.length == 0) {
+					copy.remove(type);
+				} else {
+					copy.put(type, updated);
+				}
+				listeners = copy;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Unsubscribes every listener, and drops any events not yet
+	 * dispatched.
+	 */
+	public synchronized void clear() {
+		listeners = new HashMap<Class<?>, Listener<?>[]>();
+		queue.clear();
+	}
+
+	/**
+	 * Delivers an event to its listeners straight away.
+	 * <p>
+	 * Must be called on the thread which dispatches events.
+	 * </p>
+	 * @param event - the event to deliver
+	 */
+	public void publish(Object event) {
+		deliver(event, getListeners(event.getClass()));
+	}
+
+	/**
+	 * Queues an event to be delivered at the next dispatch.
+	 * <p>
+	 * May be called from any thread.
+	 * </p>
+	 * @param event - the event to queue
+	 */
+	public void post(Object event) {
+		if (hasListeners(event.getClass())) {
+			queue.offer(event);
+		}
+	}
+
+	/**
+	 * Delivers the events queued, in the order they were posted.
+	 * <p>
+	 * Events posted by the listeners are delivered before this returns.
+	 * </p>
+	 * @return the number of events delivered
+	 */
+	public int dispatch() {
+		int count = 0;
+		Object event;
+
+		while ((event = queue.poll()) != null) {
+			deliver(event, getListeners(event.getClass()));
+			count++;
+		}
+
+		return count;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets whether any listeners are subscribed to a type of event.
+	 * <p>
+	 * Lets a caller avoid creating an event no one will receive.
+	 * </p>
+	 * @param type - the class of event
+	 * @return <code>true</code> if there are listeners for the event
+	 */
+	public boolean hasListeners(Class<?> type) {
+		return listeners.containsKey(type);
+	}
+
+	/**
+	 * Gets the number of events posted and not yet dispatched.
+	 * @return the number of events queued
+	 */
+	public int getQueued() {
+		return queue.size();
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Gets the listeners for a type of event.
+	 * @param type - the class of event
+	 * @return the listeners, which mustn't be changed
+	 */
+	private Listener<?>[] getListeners(Class<?> type) {
+		Listener<?>[] found = listeners.get(type);
+		return (found == null) ? NONE : found;
+	}
+
+	/**
+	 * Delivers an event to a list of listeners.
+	 * @param event - the event to deliver
+	 * @param listeners - the listeners subscribed to the event's class
+	 */
+	@SuppressWarnings("unchecked")
+	private static void deliver(Object event, Listener<?>[] listeners) {
+		for (int i = 0; i < listeners.length; i++) {
+			((Listener<Object>) listeners[i]).handle(event);
+		}
+	}
+
+}
@@ -0,0 +1,370 @@
+package lib;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+import lib.jog.graphics;
+import lib.jog.window;
+
+/**
+ * <h1>Profiler</h1>
+ * <p>
+ * Lightweight frame-time instrumentation.
+ * </p>
+ * <p>
+ * Code to be measured is wrapped in a named scope:
+ * <pre>
+ * long start = SCOPE.begin();
+ * ...
+ * SCOPE.end(start);
+ * </pre>
+ * Each scope keeps its most recent durations in a ring buffer, from which
+ * percentiles are calculated when they are displayed or exported, so
+ * recording a sample never allocates.
+ * </p>
+ */
+public abstract class Profiler {
+
+	/** The number of samples kept for each scope */
+	public static final int SAMPLE_COUNT = 240;
+
+	/** The time available to draw a frame at 60 FPS, in nanoseconds */
+	public static final long FRAME_BUDGET = 1000000000L / 60;
+
+	/** The name of the scope which the overlay graph is drawn for */
+	public static final String FRAME_SCOPE = "frame";
+
+	/** The width of the overlay */
+	private static final int OVERLAY_WIDTH = 360;
+
+	/** The height of the overlay graph */
+	private static final int GRAPH_HEIGHT = 80;
+
+	/** The height of each line of text in the overlay */
+	private static final int LINE_HEIGHT = 14;
+
+	/** All of the scopes created, in the order they were created */
+	private static final ArrayList<Scope> scopes = new ArrayList<Scope>();
+
+	/** Whether the overlay is being drawn */
+	private static volatile boolean overlayVisible = false;
+
+	/** The result of the last export, shown in the overlay */
+	private static volatile String exportStatus = null;
+
+
+	/**
+	 * A named section of code which is timed.
+	 * <p>
+	 * A scope may be timed from any thread; begin() returns the start time
+	 * rather than storing it, so overlapping measurements don't interfere.
+	 * </p>
+	 */
+	public static class Scope {
+
+		/** The name of the scope */
+		private final String name;
+
+		/** The times at which each sample began */
+		private final long[] startTimes = new long[SAMPLE_COUNT];
+
+		/** The duration of each sample */
+		private final long[] durations = new long[SAMPLE_COUNT];
+
+		/** The index at which the next sample will be recorded */
+		private int next = 0;
+
+		/** The number of samples recorded, up to the size of the buffer */
+		private int count = 0;
+
+		/**
+		 * Constructor for a scope.
+		 * @param name - the name of the scope
+		 */
+		private Scope(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Begins timing the scope.
+		 * @return the start time, to be passed to end()
+		 */
+		public long begin() {
+			return System.nanoTime();
+		}
+
+		/**
+		 * Finishes timing the scope, recording a sample.
+		 * @param startTime - the time returned by begin()
+		 */
+		public void end(long startTime) {
+			record(startTime, System.nanoTime() - startTime);
+		}
+
+		/**
+		 * Records a sample.
+		 * @param startTime - the time the sample began, in nanoseconds
+		 * @param duration - the duration of the sample, in nanoseconds
+		 */
+		public synchronized void record(long startTime, long duration) {
+			startTimes[next] = startTime;
+			durations[next] = duration;
+			next = (next + 1) % SAMPLE_COUNT;
+			if (count < SAMPLE_COUNT) count++;
+		}
+
+		/**
+		 * Gets the name of the scope.
+		 * @return the name of the scope
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the recorded durations, oldest first.
+		 * @return the recorded durations, in nanoseconds
+		 */
+		public synchronized long[] getDurations() {
+			return copyInOrder(durations);
+		}
+
+		/**
+		 * Gets the recorded start times, oldest first.
+		 * @return the recorded start times, in nanoseconds
+		 */
+		public synchronized long[] getStartTimes() {
+			return copyInOrder(startTimes);
+		}
+
+		/**
+		 * Gets a percentile of the recorded durations.
+		 * @param percentile - the percentile to get, between 0 and 100
+		 * @return the duration at the percentile, in nanoseconds,
+		 * 			or 0 if nothing has been recorded
+		 */
+		public long getPercentile(double percentile) {
+			return percentile(getDurations(), percentile);
+		}
+
+		/**
+		 * Copies a ring buffer so that the oldest sample is first.
+		 * @param buffer - the ring buffer to copy
+		 * @return the samples in the buffer, oldest first
+		 */
+		private long[] copyInOrder(long[] buffer) {
+			long[] copy = new long[count];
+			int oldest = (count < SAMPLE_COUNT) ? 0 : next;
+
+			for (int i = 0; i < count; i++) {
+				copy[i] = buffer[(oldest + i) % SAMPLE_COUNT];
+			}
+
+			return copy;
+		}
+
+	}
+
+
+	/**
+	 * Gets the scope with the specified name, creating it if necessary.
+	 * <p>
+	 * Scopes should be looked up once and kept, rather than looked up
+	 * each time they are timed.
+	 * </p>
+	 * @param name - the name of the scope
+	 * @return the scope with the specified name
+	 */
+	public static Scope scope(String name) {
+		synchronized (scopes) {
+			for (Scope scope : scopes) {
+				if (scope.name.equals(name)) return scope;
+			}
+
+			Scope scope = new Scope(name);
+			scopes.add(scope);
+			return scope;
+		}
+	}
+
+	/**
+	 * Gets all of the scopes which have been created.
+	 * @return the scopes, in the order they were created
+	 */
+	public static Scope[] getScopes() {
+		synchronized (scopes) {
+			return scopes.toArray(new Scope[scopes.size()]);
+		}
+	}
+
+	/**
+	 * Calculates a percentile of a set of samples.
+	 * <p>
+	 * Uses the nearest-rank method.
+	 * </p>
+	 * @param samples - the samples; these are sorted in place
+	 * @param percentile - the percentile to get, between 0 and 100
+	 * @return the sample at the percentile, or 0 if there are no samples
+	 */
+	public static long percentile(long[] samples, double percentile) {
+		if (samples.length == 0) return 0;
+
+		Arrays.sort(samples);
+		int rank = (int) Math.ceil((percentile / 100) * samples.length);
+
+		return samples[Math.max(0, Math.min(samples.length - 1, rank - 1))];
+	}
+
+	/**
+	 * Shows the overlay if it is hidden, or hides it if it is shown.
+	 */
+	public static void toggleOverlay() {
+		overlayVisible = !overlayVisible;
+	}
+
+	/**
+	 * Gets whether the overlay is being drawn.
+	 * @return <code>true</code> if the overlay is being drawn
+	 */
+	public static boolean isOverlayVisible() {
+		return overlayVisible;
+	}
+
+	/**
+	 * Draws the overlay, if it is visible.
+	 * <p>
+	 * The overlay shows a graph of recent frame times against the frame
+	 * budget, and the 50th, 95th and 99th percentiles for each scope.
+	 * </p>
+	 */
+	public static void drawOverlay() {
+		if (!overlayVisible) return;
+
+		Scope[] allScopes = getScopes();
+		int x = window.width() - OVERLAY_WIDTH - 8;
+		int y = 8;
+		String status = exportStatus;
+		int lines = allScopes.length + ((status != null) ? 3 : 2);
+		int height = GRAPH_HEIGHT + (lines * LINE_HEIGHT) + 8;
+
+		// Background
+		graphics.setColour(0, 0, 0, 192);
+		graphics.rectangle(true, x, y, OVERLAY_WIDTH, height);
+
+		// Frame time graph, scaled so the budget is half way up
+		Scope frame = scope(FRAME_SCOPE);
+		long[] frameTimes = frame.getDurations();
+		double barWidth = (double) OVERLAY_WIDTH / SAMPLE_COUNT;
+		double scale = (GRAPH_HEIGHT / 2d) / FRAME_BUDGET;
+
+		for (int i = 0; i < frameTimes.length; i++) {
+			double barHeight = Math.min(GRAPH_HEIGHT, frameTimes[i] * scale);
+
+			if (frameTimes[i] > FRAME_BUDGET) {
+				graphics.setColour(graphics.red);
+			} else {
+				graphics.setColour(graphics.green);
+			}
+
+			graphics.rectangle(true, x + (i * barWidth),
+					y + GRAPH_HEIGHT - barHeight, barWidth, barHeight);
+		}
+
+		// Budget line
+		graphics.setColour(255, 255, 255, 128);
+		graphics.line(x, y + (GRAPH_HEIGHT / 2), x + OVERLAY_WIDTH,
+				y + (GRAPH_HEIGHT / 2));
+
+		// Percentiles
+		int textY = y + GRAPH_HEIGHT + 4;
+		graphics.setColour(graphics.white);
+		graphics.print(String.format("%-16s %8s %8s %8s",
+				"SCOPE (ms)", "P50", "P95", "P99"), x + 4, textY);
+
+		for (Scope scope : allScopes) {
+			textY += LINE_HEIGHT;
+			long[] durations = scope.getDurations();
+			graphics.print(String.format("%-16s %8.2f %8.2f %8.2f",
+					scope.name,
+					toMillis(percentile(durations, 50)),
+					toMillis(percentile(durations, 95)),
+					toMillis(percentile(durations, 99))), x + 4, textY);
+		}
+
+		if (status != null) {
+			textY += LINE_HEIGHT;
+			graphics.print(status, x + 4, textY);
+		}
+
+		textY += LINE_HEIGHT;
+		graphics.print("F11 - HIDE    F12 - EXPORT CSV", x + 4, textY);
+	}
+
+	/**
+	 * Exports the recorded samples of every scope as a CSV trace.
+	 * <p>
+	 * Each row holds the scope name, the time the sample began and its
+	 * duration, both in milliseconds. Start times are relative to the
+	 * earliest sample in the trace. Whether the trace was written is shown
+	 * in the overlay.
+	 * </p>
+	 * @param filename - the file to write the trace to
+	 * @return <code>true</code> if the trace was written, otherwise <code>false</code>
+	 */
+	public static boolean exportCSV(String filename) {
+		Scope[] allScopes = getScopes();
+		long[][] startTimes = new long[allScopes.length][];
+		long[][] durations = new long[allScopes.length][];
+		long origin = Long.MAX_VALUE;
+
+		for (int i = 0; i < allScopes.length; i++) {
+			synchronized (allScopes[i]) {
+				startTimes[i] = allScopes[i].getStartTimes();
+				durations[i] = allScopes[i].getDurations();
+			}
+
+			if (startTimes[i].length > 0) {
+				origin = Math.min(origin, startTimes[i][0]);
+			}
+		}
+
+		try (PrintWriter out = new PrintWriter(new FileWriter(filename))) {
+			out.println("scope,start_ms,duration_ms");
+
+			for (int i = 0; i < allScopes.length; i++) {
+				for (int j = 0; j < startTimes[i].length; j++) {
+					out.println(String.format(Locale.ROOT, "%s,%.4f,%.4f",
+							allScopes[i].name,
+							toMillis(startTimes[i][j] - origin),
+							toMillis(durations[i][j])));
+				}
+			}
+
+			if (out.checkError()) {
+				exportStatus = "TRACE NOT WRITTEN";
+				return false;
+			}
+
+			exportStatus = "TRACE WRITTEN TO " + filename;
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			exportStatus = "TRACE NOT WRITTEN";
+			return false;
+		}
+	}
+
+	/**
+	 * Converts a time in nanoseconds to milliseconds.
+	 * @param nanoseconds - the time to convert
+	 * @return the time in milliseconds
+	 */
+	private static double toMillis(long nanoseconds) {
+		return nanoseconds / 1000000d;
+	}
+
+}
@@ -2,30 +2,43 @@ package lib;
 
 import lib.jog.graphics;
 import lib.jog.graphics.Image;
-import lib.jog.graphics.Quad;
 
+/**
+ * <h1>Sprite Animation</h1>
+ * <p>
+ * An animation playing at a position, with its frames taken from a
+ * shared sprite sheet.
+ * </p>
+ * <p>
+ * The frame shown is calculated from the time the animation was started,
+ * rather than counted up each update, so an animation looks the same
+ * however often it is updated. Animations are usually started and
+ * recycled by an AnimationPool, using the time on the game's clock.
+ * </p>
+ */
 public class SpriteAnimation {
 
-	private Image image;		 // the animation sequence
-	private Quad[] quads;	     // the rectangle to be drawn from the animation bitmap
-	private int frameCount;		 // number of frames in animation
-	private int currentFrame;	 // the current frame
-	private double framePeriod;	 // milliseconds between each frame (1000/fps)
-
-	private double spriteWidth;	 // the width of the sprite to calculate the cut out rectangle
-	private double spriteHeight; // the height of the sprite
-	
-	private boolean hasFinished; // Flag which is set to mark when all frames have been drawn
-
+	private SpriteSheet sheet;	 // the frames of the animation
 	private int x;				 // the X coordinate of the object (top left of the image)
 	private int y;				 // the Y coordinate of the object (top left of the image)
-	private double gameTime;	 // tracks how long a frame has been shown for. Updated by the parent scene update(dt)
-	private double imageWidth, imageHeight;
-	private boolean isLooping;
-	
+	private double startTime;	 // the time on the clock at which the animation started
+	private double time;		 // the time on the animation's own clock, advanced by update(dt)
+
 	/**
 	 * <h1>Sprite Animation</h1>
 	 * <p>Creates an animation class</p>
+	 * @param sheet the sprite sheet from which the frames are taken.
+	 * @param x the x position to draw the animation.
+	 * @param y the y position to draw the animation.
+	 * @param startTime the time on the clock at which the animation starts.
+	 */
+	public SpriteAnimation(SpriteSheet sheet, int x, int y, double startTime) {
+		reset(sheet, x, y, startTime);
+	}
+
+	/**
+	 * <h1>Sprite Animation</h1>
+	 * <p>Creates an animation class, with a sprite sheet of its own</p>
 	 * @param image image from which the quads are taken.
 	 * @param x the x position to draw the animation.
 	 * @param y the y position to draw the animation.
@@ -36,31 +49,13 @@ public class SpriteAnimation {
 	 * @param looping whether to loop the animation
 	 */
 	public SpriteAnimation(Image image, int x, int y, int fps, int frameCount, int framesWide, int framesHigh, boolean looping) {
-		this.image = image;
-		imageWidth = image.width();
-		imageHeight = image.height();
-		this.x = x;
-		this.y = y;
-		this.frameCount = frameCount;
-		currentFrame = 0;
-		spriteWidth = imageWidth / framesWide;
-		spriteHeight = imageHeight / framesHigh;
-		framePeriod = 1.0/fps;
-		gameTime = 0;
-		quads = new Quad[frameCount];
-		for (int n = 0; n < frameCount; n ++) {
-			int i = n % framesWide;
-			int j = n / framesWide;
-			quads[n] = graphics.newQuad(i * spriteWidth, j * spriteHeight, spriteWidth, spriteHeight, imageWidth, imageHeight);
-		}
-		isLooping = looping;
-		hasFinished = false;
+		this(new SpriteSheet(image, fps, frameCount, framesWide, framesHigh, looping), x, y, 0);
 	}
-	
+
 	/**
 	 * <h1>Sprite Animation</h1>
-	 * <p>Creates an animation class</p>
-	 * @param imageFilepath the filepath at which the image is.  
+	 * <p>Creates an animation class, with a sprite sheet of its own</p>
+	 * @param imageFilepath the filepath at which the image is.
 	 * @param x the x position to draw the animation.
 	 * @param y the y position to draw the animation.
 	 * @param fps how many animation frames to draw per second.
@@ -70,44 +65,119 @@ public class SpriteAnimation {
 	 * @param looping whether to loop the animation
 	 */
 	public SpriteAnimation(String imageFilepath, int x, int y, int fps, int frameCount, int framesWide, int framesHigh, boolean looping) {
-		new SpriteAnimation(graphics.newImage(imageFilepath), x, y, fps, frameCount, framesWide, framesHigh, looping);
+		this(graphics.newImage(imageFilepath), x, y, fps, frameCount, framesWide, framesHigh, looping);
+	}
+
+	/**
+	 * Constructor for a sprite animation.
+	 * <p>
+	 * The sprite sheet is shared with the original animation,
+	 * as it is never modified once created.
+	 * </p>
+	 * @param animation - the animation to copy
+	 */
+	private SpriteAnimation(SpriteAnimation animation) {
+		reset(animation.sheet, animation.x, animation.y, animation.startTime);
+		time = animation.time;
 	}
-	
+
 	/**
-	 * Updates the timer and changes the frame if necessary
+	 * Restarts the animation, so that it can be reused.
+	 * @param sheet the sprite sheet from which the frames are taken.
+	 * @param x the x position to draw the animation.
+	 * @param y the y position to draw the animation.
+	 * @param startTime the time on the clock at which the animation starts.
+	 */
+	void reset(SpriteSheet sheet, int x, int y, double startTime) {
+		this.sheet = sheet;
+		this.x = x;
+		this.y = y;
+		this.startTime = startTime;
+		this.time = startTime;
+	}
+
+	/**
+	 * Advances the animation's own clock.
+	 * <p>
+	 * Only needed by animations which aren't given the time when drawn.
+	 * </p>
 	 * @param time_difference time in seconds since last update
 	 */
 	public void update(double time_difference) {
-		if (hasFinished) return;
-		
-		gameTime += time_difference;
-		if (gameTime > framePeriod) { // frame period exceeded
-			gameTime = 0; //reset timer
-			currentFrame++; //increment frame
-			if (currentFrame >= frameCount) {
-				if (!isLooping) {
-					hasFinished = true;
-				} else {
-					currentFrame = 0;
-				}
-			}
-		}
+		time += time_difference;
 	}
-	
+
 	/**
-	 * Draws the animation
+	 * Draws the animation, at the time on its own clock
 	 */
 	public void draw() {
-		if (hasFinished) return;
-		graphics.drawq(image, quads[currentFrame], x, y);
+		draw(time);
 	}
-	
+
 	/**
-	 * 
-	 * @return whether the animation has finished
+	 * Draws the animation
+	 * @param time the time on the clock the animation was started with
+	 */
+	public void draw(double time) {
+		int frame = getFrame(time);
+		if (frame < 0) return;
+		graphics.drawq(sheet.getImage(), sheet.getQuad(frame), x, y);
+	}
+
+	/**
+	 * Gets the frame to show at a time.
+	 * @param time the time on the clock the animation was started with
+	 * @return the index of the frame, or -1 if the animation has finished
+	 */
+	public int getFrame(double time) {
+		return sheet.getFrameAt(time - startTime);
+	}
+
+	/**
+	 *
+	 * @return whether the animation has finished, by its own clock
 	 */
 	public boolean hasFinished() {
-		return hasFinished;
+		return hasFinished(time);
+	}
+
+	/**
+	 * @param time the time on the clock the animation was started with
+	 * @return whether the animation has finished at that time
+	 */
+	public boolean hasFinished(double time) {
+		return getFrame(time) < 0;
+	}
+
+	/**
+	 * Gets the sprite sheet from which the frames are taken.
+	 * @return the sprite sheet from which the frames are taken
+	 */
+	public SpriteSheet getSheet() {
+		return sheet;
+	}
+
+	/**
+	 * Gets the x position the animation is drawn at.
+	 * @return the x position the animation is drawn at
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * Gets the y position the animation is drawn at.
+	 * @return the y position the animation is drawn at
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * Clones the animation.
+	 */
+	public SpriteAnimation clone() {
+		return new SpriteAnimation(this);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+package lib;
+
+import lib.jog.graphics;
+import lib.jog.graphics.Image;
+import lib.jog.graphics.Quad;
+
+/**
+ * <h1>Sprite Sheet</h1>
+ * <p>
+ * The definition of an animation: the image its frames are taken from,
+ * the quad for each frame, and how quickly the frames are shown.
+ * </p>
+ * <p>
+ * A sheet is created once and shared by every animation which uses it,
+ * so that starting an animation doesn't create any quads.
+ * </p>
+ */
+public class SpriteSheet {
+
+	/** The image from which the frames are taken */
+	private final Image image;
+
+	/** The rectangle of the image to draw for each frame */
+	private final Quad[] quads;
+
+	/** The time each frame is shown for, in seconds */
+	private final double framePeriod;
+
+	/** Whether the animation restarts once its last frame has been shown */
+	private final boolean looping;
+
+	/** The width of each frame */
+	private final double frameWidth;
+
+	/** The height of each frame */
+	private final double frameHeight;
+
+
+	/**
+	 * Constructor for a sprite sheet.
+	 * @param image - the image from which the frames are taken
+	 * @param fps - how many frames to show per second
+	 * @param frameCount - how many frames the animation comprises
+	 * @param framesWide - how many frames wide the image is
+	 * @param framesHigh - how many frames high the image is
+	 * @param looping - whether to loop the animation
+	 */
+	public SpriteSheet(Image image, int fps, int frameCount, int framesWide,
+			int framesHigh, boolean looping) {
+		this(image, image.width(), image.height(), fps, frameCount,
+				framesWide, framesHigh, looping);
+	}
+
+	/**
+	 * Constructor for a sprite sheet of a given size.
+	 * <p>
+	 * The image isn't used until the animation is drawn, so it may be
+	 * <code>null</code> for a sheet which is only timed.
+	 * </p>
+	 * @param image - the image from which the frames are taken
+	 * @param imageWidth - the width of the image
+	 * @param imageHeight - the height of the image
+	 * @param fps - how many frames to show per second
+	 * @param frameCount - how many frames the animation comprises
+	 * @param framesWide - how many frames wide the image is
+	 * @param framesHigh - how many frames high the image is
+	 * @param looping - whether to loop the animation
+	 */
+	public SpriteSheet(Image image, double imageWidth, double imageHeight,
+			int fps, int frameCount, int framesWide, int framesHigh,
+			boolean looping) {
+		this.image = image;
+		this.framePeriod = 1.0 / fps;
+		this.looping = looping;
+
+		frameWidth = imageWidth / framesWide;
+		frameHeight = imageHeight / framesHigh;
+
+		quads = new Quad[frameCount];
+		for (int n = 0; n < frameCount; n++) {
+			int i = n % framesWide;
+			int j = n / framesWide;
+			quads[n] = graphics.newQuad(i * frameWidth, j * frameHeight,
+					frameWidth, frameHeight, imageWidth, imageHeight);
+		}
+	}
+
+	/**
+	 * Gets the frame to show once the animation has been running for
+	 * a length of time.
+	 * @param elapsed - the time the animation has been running for, in seconds
+	 * @return the index of the frame to show, or -1 if the animation
+	 * 			has finished
+	 */
+	public int getFrameAt(double elapsed) {
+		int frame = (int) (Math.max(0, elapsed) / framePeriod);
+
+		if (frame < quads.length) {
+			return frame;
+		} else if (looping) {
+			return frame % quads.length;
+		} else {
+			return -1;
+		}
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the image from which the frames are taken.
+	 * @return the image from which the frames are taken
+	 */
+	public Image getImage() {
+		return image;
+	}
+
+	/**
+	 * Gets the quad for a frame.
+	 * @param frame - the index of the frame
+	 * @return the rectangle of the image to draw for the frame
+	 */
+	public Quad getQuad(int frame) {
+		return quads[frame];
+	}
+
+	/**
+	 * Gets the number of frames in the animation.
+	 * @return the number of frames in the animation
+	 */
+	public int getFrameCount() {
+		return quads.length;
+	}
+
+	/**
+	 * Gets the width of each frame.
+	 * @return the width of each frame
+	 */
+	public double getFrameWidth() {
+		return frameWidth;
+	}
+
+	/**
+	 * Gets the height of each frame.
+	 * @return the height of each frame
+	 */
+	public double getFrameHeight() {
+		return frameHeight;
+	}
+
+}
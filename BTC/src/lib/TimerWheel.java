@@ -0,0 +1,346 @@
+package lib;
+
+/**
+ * <h1>Timer Wheel</h1>
+ * <p>
+ * Schedules tasks to run at times on a clock which is advanced by the
+ * owner, such as the game's simulation clock.
+ * </p>
+ * <p>
+ * Timers are kept in a hierarchy of wheels of slots, each wheel covering
+ * a range of ticks 64 times longer than the one below. Scheduling and
+ * cancelling a timer take constant time, and advancing the clock only
+ * looks at the slots for the ticks passed, rather than every timer.
+ * A timer in an outer wheel is moved inwards as its tick approaches.
+ * </p>
+ * <p>
+ * As tasks only run when the clock is advanced, they run at the same
+ * point in the simulation however quickly it is being updated. Tasks due
+ * on the same tick run in the order they were scheduled, including those
+ * moved inwards from an outer wheel.
+ * </p>
+ * <p>
+ * Not thread-safe: timers must be scheduled, cancelled and run on the
+ * thread which advances the clock.
+ * </p>
+ */
+public class TimerWheel {
+
+	/** The number of bits of a tick used to select a slot in each wheel */
+	private static final int SLOT_BITS = 6;
+
+	/** The number of slots in each wheel */
+	private static final int SLOTS = 1 << SLOT_BITS;
+
+	/** Mask used to recover a slot index from a tick */
+	private static final int SLOT_MASK = SLOTS - 1;
+
+	/** The number of wheels */
+	private static final int LEVELS = 4;
+
+	/** The number of ticks ahead covered by every wheel together */
+	private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+	/** Allowance for rounding when converting times to ticks */
+	private static final double EPSILON = 1e-9;
+
+	/**
+	 * A scheduled task, which can be cancelled until it has run.
+	 */
+	public final class Timer {
+
+		/** The task to run, or <code>null</code> if the timer only marks time */
+		private final Runnable task;
+
+		/** The time on the clock at which the timer is due */
+		private final double dueTime;
+
+		/** The tick on which the timer is due */
+		private final long dueTick;
+
+		/** The order in which the timer was scheduled */
+		private final long sequence;
+
+		/** The previous timer in the timer's slot */
+		private Timer previous;
+
+		/** The next timer in the timer's slot, or <code>null</code> if
+		 * the timer isn't pending */
+		private Timer next;
+
+		/**
+		 * Constructor for a timer.
+		 * @param task - the task to run
+		 * @param dueTime - the time at which the timer is due
+		 * @param dueTick - the tick on which the timer is due
+		 * @param sequence - the order in which the timer was scheduled
+		 */
+		private Timer(Runnable task, double dueTime, long dueTick,
+				long sequence) {
+			this.task = task;
+			this.dueTime = dueTime;
+			this.dueTick = dueTick;
+			this.sequence = sequence;
+		}
+
+		/**
+		 * Cancels the timer, so that its task isn't run.
+		 * @return <code>true</code> if the timer was pending, or
+		 * 			<code>false</code> if it had already run or been cancelled
+		 */
+		public boolean cancel() {
+			if (next == null) return false;
+
+			unlink(this);
+			size--;
+			return true;
+		}
+
+		/**
+		 * Gets whether the timer is still waiting to run.
+		 * @return <code>true</code> if the timer hasn't yet run or been cancelled
+		 */
+		public boolean isPending() {
+			return next != null;
+		}
+
+		/**
+		 * Gets the time at which the timer is due.
+		 * @return the time on the clock at which the timer is due
+		 */
+		public double getDueTime() {
+			return dueTime;
+		}
+
+	}
+
+
+	/** The length of each tick, in the clock's units */
+	private final double tickLength;
+
+	/** The head of the list of timers in each slot of each wheel */
+	private final Timer[][] slots;
+
+	/** The most recent tick to have been run */
+	private long currentTick;
+
+	/** The time the clock was last advanced to */
+	private double time;
+
+	/** The number of pending timers */
+	private int size;
+
+	/** The order given to the next timer scheduled */
+	private long nextSequence;
+
+
+	/**
+	 * Constructor for a timer wheel, with its clock at 0.
+	 * @param tickLength - the length of each tick, which is the resolution
+	 * 			timers are run at
+	 */
+	public TimerWheel(double tickLength) {
+		this.tickLength = tickLength;
+		this.slots = new Timer[LEVELS][SLOTS];
+
+		for (int level = 0; level < LEVELS; level++) {
+			for (int slot = 0; slot < SLOTS; slot++) {
+				Timer head = new Timer(null, 0, 0, 0);
+				head.previous = head;
+				head.next = head;
+				slots[level][slot] = head;
+			}
+		}
+	}
+
+
+	// Scheduling -----------------------------------------------------------------------
+
+	/**
+	 * Schedules a task to run after a delay.
+	 * @param delay - the time from now at which to run the task
+	 * @param task - the task to run, or <code>null</code> for a timer
+	 * 			which only marks when the delay has passed
+	 * @return the timer, which may be used to cancel the task
+	 */
+	public Timer schedule(double delay, Runnable task) {
+		return scheduleAt(time + delay, task);
+	}
+
+	/**
+	 * Schedules a task to run at a time.
+	 * <p>
+	 * A task due at or before the current time runs on the next tick.
+	 * </p>
+	 * @param dueTime - the time on the clock at which to run the task
+	 * @param task - the task to run, or <code>null</code> for a timer
+	 * 			which only marks when the time has been reached
+	 * @return the timer, which may be used to cancel the task
+	 */
+	public Timer scheduleAt(double dueTime, Runnable task) {
+		long dueTick = (long) Math.ceil(dueTime / tickLength - EPSILON);
+
+		Timer timer = new Timer(task, dueTime,
+				Math.max(dueTick, currentTick + 1), nextSequence++);
+		insert(timer);
+		size++;
+
+		return timer;
+	}
+
+	/**
+	 * Advances the clock, running every timer due by the new time.
+	 * @param newTime - the time to advance the clock to
+	 */
+	public void advance(double newTime) {
+		long targetTick = (long) Math.floor(newTime / tickLength + EPSILON);
+
+		while (currentTick < targetTick) {
+			if (size == 0) {
+				// Nothing to run, so skip straight to the new time
+				currentTick = targetTick;
+				break;
+			}
+
+			currentTick++;
+			cascade();
+			run(slots[0][(int) (currentTick & SLOT_MASK)]);
+		}
+
+		time = Math.max(time, newTime);
+	}
+
+	/**
+	 * Cancels every timer, and sets the clock back to 0.
+	 */
+	public void reset() {
+		for (Timer[] wheel : slots) {
+			for (Timer head : wheel) {
+				while (head.next != head) {
+					Timer timer = head.next;
+					unlink(timer);
+				}
+			}
+		}
+
+		size = 0;
+		currentTick = 0;
+		time = 0;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the time the clock was last advanced to.
+	 * @return the current time on the clock
+	 */
+	public double getTime() {
+		return time;
+	}
+
+	/**
+	 * Gets the number of timers waiting to run.
+	 * @return the number of pending timers
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Adds a timer to the slot for its tick, keeping the slot's timers in
+	 * the order they were scheduled.
+	 * <p>
+	 * A newly scheduled timer always goes at the end of its slot. Only a
+	 * timer moved inwards from an outer wheel may go before others, if
+	 * they were scheduled after it.
+	 * </p>
+	 * <p>
+	 * Timers too far ahead for any wheel are put in the furthest slot of
+	 * the outermost wheel, and placed again when that slot is reached.
+	 * </p>
+	 * @param timer - the timer to add
+	 */
+	private void insert(Timer timer) {
+		long delta = timer.dueTick - currentTick;
+		long tick = (delta < SPAN) ? timer.dueTick : (currentTick + SPAN - 1);
+
+		int level = 0;
+		while (level < LEVELS - 1
+				&& (tick - currentTick) >= (1L << (SLOT_BITS * (level + 1)))) {
+			level++;
+		}
+
+		int slot = (int) ((tick >> (SLOT_BITS * level)) & SLOT_MASK);
+		Timer head = slots[level][slot];
+
+		Timer before = head.previous;
+		while (before != head && before.sequence > timer.sequence) {
+			before = before.previous;
+		}
+
+		timer.previous = before;
+		timer.next = before.next;
+		before.next.previous = timer;
+		before.next = timer;
+	}
+
+	/**
+	 * Removes a timer from its slot.
+	 * @param timer - the timer to remove
+	 */
+	private void unlink(Timer timer) {
+		timer.previous.next = timer.next;
+		timer.next.previous = timer.previous;
+		timer.previous = null;
+		timer.next = null;
+	}
+
+	/**
+	 * Moves the timers in the outer wheels' slots for the current tick
+	 * inwards, once the inner wheels have turned all the way round.
+	 */
+	private void cascade() {
+		for (int level = 1; level < LEVELS; level++) {
+			long shifted = currentTick >> (SLOT_BITS * level);
+
+			// Only reached once every slot of the wheel below has been passed
+			if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) break;
+
+			Timer head = slots[level][(int) (shifted & SLOT_MASK)];
+			Timer timer = head.next;
+			head.previous = head;
+			head.next = head;
+
+			while (timer != head) {
+				Timer next = timer.next;
+				insert(timer);
+				timer = next;
+			}
+		}
+	}
+
+	/**
+	 * Runs the timers in a slot of the innermost wheel.
+	 * <p>
+	 * Tasks may schedule or cancel other timers while running; any they
+	 * schedule are due on a later tick, so are never added to this slot.
+	 * </p>
+	 * @param head - the head of the slot's list of timers
+	 */
+	private void run(Timer head) {
+		while (head.next != head) {
+			Timer timer = head.next;
+			unlink(timer);
+			size--;
+
+			if (timer.task != null) {
+				timer.task.run();
+			}
+		}
+	}
+
+}
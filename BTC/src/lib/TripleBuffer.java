@@ -0,0 +1,79 @@
+package lib;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>Triple Buffer</h1>
+ * <p>
+ * A lock-free, single-producer single-consumer triple buffer.
+ * </p>
+ * <p>
+ * The producer writes into a back slot and publishes it; the consumer
+ * always acquires the most recently published slot. Neither side ever
+ * waits on the other: if the producer publishes several times before the
+ * consumer acquires, the older values are simply overwritten.
+ * </p>
+ * @param <T> the type of value held in each slot
+ */
+public class TripleBuffer<T> {
+
+	/** Flag set in the shared state when the middle slot holds an unread value */
+	private static final int DIRTY = 4;
+
+	/** Mask used to recover a slot index from the shared state */
+	private static final int INDEX_MASK = 3;
+
+	/** The three slots */
+	private final Object[] slots = new Object[3];
+
+	/** The index of the middle slot, combined with the dirty flag */
+	private final AtomicInteger middle = new AtomicInteger(1);
+
+	/** The index of the slot owned by the producer */
+	private int back = 0;
+
+	/** The index of the slot owned by the consumer */
+	private int front = 2;
+
+
+	/**
+	 * Publishes a value, making it available to the consumer.
+	 * <p>
+	 * Must only be called by the producing thread.
+	 * </p>
+	 * @param value - the value to publish
+	 */
+	public void publish(T value) {
+		slots[back] = value;
+		back = middle.getAndSet(back | DIRTY) & INDEX_MASK;
+	}
+
+	/**
+	 * Gets the most recently published value.
+	 * <p>
+	 * Must only be called by the consuming thread. If nothing new has
+	 * been published since the last call, the previous value is returned
+	 * again.
+	 * </p>
+	 * @return the most recently published value, or <code>null</code>
+	 * 			if nothing has been published yet
+	 */
+	@SuppressWarnings("unchecked")
+	public T acquire() {
+		if ((middle.get() & DIRTY) != 0) {
+			front = middle.getAndSet(front) & INDEX_MASK;
+		}
+
+		return (T) slots[front];
+	}
+
+	/**
+	 * Checks whether a value has been published which has not yet been acquired.
+	 * @return <code>true</code> if a newer value is waiting,
+	 * 			otherwise <code>false</code>
+	 */
+	public boolean hasNewValue() {
+		return (middle.get() & DIRTY) != 0;
+	}
+
+}
@@ -1,5 +1,6 @@
 package lib.jog;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -8,6 +9,10 @@ import static org.lwjgl.opengl.GL11.*;
 import org.lwjgl.opengl.GL11;
 import org.newdawn.slick.Color;
 import org.newdawn.slick.TrueTypeFont;
+import org.newdawn.slick.opengl.ImageData;
+import org.newdawn.slick.opengl.ImageDataFactory;
+import org.newdawn.slick.opengl.InternalTextureLoader;
+import org.newdawn.slick.opengl.LoadableImageData;
 import org.newdawn.slick.opengl.Texture;
 import org.newdawn.slick.opengl.TextureLoader;
 import org.newdawn.slick.util.ResourceLoader;
@@ -308,6 +313,18 @@ public abstract class graphics {
 			}
 		}
 		
+		/**
+		 * Constructor for an image from decoded image data.
+		 * @param data the decoded image data to upload.
+		 */
+		private Image(ImageData data) {
+			try {
+				texture = InternalTextureLoader.get().getTexture(data, GL11.GL_LINEAR);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
 		/**
 		 * Allows access to the x-coordinate of the image
 		 * @return the x-coordinate
@@ -375,6 +392,14 @@ public abstract class graphics {
 			return new Color(r, g, b, a);
 		}
 		
+		/**
+		 * Releases the texture used by the image.
+		 * <p>The image must not be drawn after it has been released.</p>
+		 */
+		public void release() {
+			if (texture != null) texture.release();
+		}
+		
 	}
 	
 	/**
@@ -540,6 +565,35 @@ public abstract class graphics {
 		return new Image(filepath);
 	}
 	
+	/**
+	 * Creates and returns a new Image from decoded image data.
+	 * <p>Only uploads the data to a texture, so is much quicker than loading
+	 * the image from its file.</p>
+	 * @param data the image data, as returned by decodeImage().
+	 * @return the created image.
+	 */
+	static public Image newImage(ImageData data) {
+		return new Image(data);
+	}
+	
+	/**
+	 * Decodes an image file into memory, without creating a texture.
+	 * <p>Unlike newImage(), this may be called from any thread.</p>
+	 * @param filepath the path to the image file.
+	 * @return the decoded image data, or null if the file couldn't be read.
+	 */
+	static public ImageData decodeImage(String filepath) {
+		LoadableImageData data = ImageDataFactory.getImageDataFor(filepath);
+		
+		try (InputStream in = ResourceLoader.getResourceAsStream(filepath)) {
+			data.loadImage(new BufferedInputStream(in), false, null);
+			return data;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
 	/**
 	 * Creates and returns a new image that has been scaled
 	 * @param filepath - The pathname of the image
@@ -707,6 +761,48 @@ public abstract class graphics {
 		glDisable(GL_TEXTURE_2D);
 	}
 	
+	/**
+	 * Begins drawing a batch of quads from an image.
+	 * <p>The image's texture is bound once for the whole batch. Quads are
+	 * added with batchq(), and the batch is drawn by endBatch(); nothing
+	 * else may be drawn in between.</p>
+	 * @param drawable the image the quads are taken from.
+	 */
+	static public void beginBatch(Image drawable) {
+		glEnable(GL_TEXTURE_2D);
+		drawable.texture.bind();
+		glBegin(GL_QUADS);
+	}
+	
+	/**
+	 * Adds a quad to the batch begun by beginBatch().
+	 * @param quad the quad of the batch's image to draw.
+	 * @param x the horizontal pixel to draw at.
+	 * @param y the vertical pixel to draw at.
+	 */
+	static public void batchq(Quad quad, double x, double y) {
+		y = window.height() - y;
+		double w = quad.quadWidth;
+		double h = -quad.quadHeight;
+		
+		glTexCoord2d(quad.x, quad.y);
+		glVertex2d(x, y);
+		glTexCoord2d(quad.x + quad.width, quad.y);
+		glVertex2d(x + w, y);
+		glTexCoord2d(quad.x + quad.width, quad.y + quad.height);
+		glVertex2d(x + w, y + h);
+		glTexCoord2d(quad.x, quad.y + quad.height);
+		glVertex2d(x, y + h);
+	}
+	
+	/**
+	 * Draws the batch begun by beginBatch().
+	 */
+	static public void endBatch() {
+		glEnd();
+		glDisable(GL_TEXTURE_2D);
+	}
+	
 	/**
 	 * Draws a line from one point to another.
 	 * @param x1 the x coordinate of the first point.
@@ -1017,6 +1113,10 @@ public abstract class graphics {
 	public static void translate(double x, double y) {
 		glTranslated(x, y, 0);
 	}
+
+	public static void scale(double scale) {
+		glScaled(scale, scale, 1);
+	}
 	
 	public static void pop() {
 		glPopMatrix();
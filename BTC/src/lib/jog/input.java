@@ -45,6 +45,103 @@ public abstract class input {
 
 	}
 
+	/**
+	 * Interface for a source of the current state of the keyboard and mouse.
+	 * <p>
+	 * By default the state is read from the devices, but another source can
+	 * be set, e.g. to play back the state recorded in an earlier session.
+	 * </p>
+	 */
+	public interface State {
+
+		/**
+		 * Gets whether a keyboard key is held down.
+		 * @param key the key to check.
+		 * @return whether the key is currently depressed.
+		 */
+		public boolean isKeyDown(int key);
+
+		/**
+		 * Gets whether a mouse button is held down.
+		 * @param button the button to check.
+		 * @return whether the button is currently depressed.
+		 */
+		public boolean isMouseDown(int button);
+
+		/**
+		 * Gets the horizontal position of the mouse.
+		 * @return the x coordinate of the mouse, from the left of the window.
+		 */
+		public int mouseX();
+
+		/**
+		 * Gets the vertical position of the mouse.
+		 * @return the y coordinate of the mouse, from the top of the window.
+		 */
+		public int mouseY();
+
+	}
+
+	/** The state of the keyboard and mouse devices themselves */
+	public final static State DEVICE_STATE = new State() {
+		@Override
+		public boolean isKeyDown(int key) {
+			return Keyboard.isKeyDown(key);
+		}
+
+		@Override
+		public boolean isMouseDown(int button) {
+			return Mouse.isButtonDown(button);
+		}
+
+		@Override
+		public int mouseX() {
+			return Mouse.getX();
+		}
+
+		@Override
+		public int mouseY() {
+			return window.height() - Mouse.getY();
+		}
+	};
+
+	/** The state of a keyboard and mouse which aren't being used */
+	public final static State IDLE_STATE = new State() {
+		@Override
+		public boolean isKeyDown(int key) {
+			return false;
+		}
+
+		@Override
+		public boolean isMouseDown(int button) {
+			return false;
+		}
+
+		@Override
+		public int mouseX() {
+			return 0;
+		}
+
+		@Override
+		public int mouseY() {
+			return 0;
+		}
+	};
+
+	/** The source the state of the keyboard and mouse is read from */
+	private static volatile State state = DEVICE_STATE;
+
+	/**
+	 * Sets the source the state of the keyboard and mouse is read from.
+	 * <p>
+	 * Events are always read from the devices, by update().
+	 * </p>
+	 * @param newState the source to read from, or null to read from the devices.
+	 */
+	public static void setState(State newState) {
+		state = (newState == null) ? DEVICE_STATE : newState;
+	}
+
 	/**
 	 * Updates the input buffer, collecting keyboard and mouse events.
 	 * @param handler The handler which encapsulates input events.
@@ -53,11 +150,13 @@ public abstract class input {
 		while (Mouse.next()) {
 			if (Mouse.getEventButtonState()) {
 				if (Mouse.getEventButton() >= 0) {
-					handler.mousePressed(Mouse.getEventButton(), mouseX(), mouseY());
+					handler.mousePressed(Mouse.getEventButton(),
+							DEVICE_STATE.mouseX(), DEVICE_STATE.mouseY());
 				}
 			} else {
 				if (Mouse.getEventButton() >= 0) {
-					handler.mouseReleased(Mouse.getEventButton(), mouseX(), mouseY());
+					handler.mouseReleased(Mouse.getEventButton(),
+							DEVICE_STATE.mouseX(), DEVICE_STATE.mouseY());
 				}
 			}
 		}
@@ -70,9 +169,11 @@ public abstract class input {
 		}
 		int mouseScroll = Mouse.getDWheel();
 		if (mouseScroll < 0) {
-			handler.mouseReleased(MOUSE_WHEEL_DOWN, mouseX(), mouseY());
+			handler.mouseReleased(MOUSE_WHEEL_DOWN,
+					DEVICE_STATE.mouseX(), DEVICE_STATE.mouseY());
 		} else if (mouseScroll > 0) {
-			handler.mouseReleased(MOUSE_WHEEL_UP, mouseX(), mouseY());
+			handler.mouseReleased(MOUSE_WHEEL_UP,
+					DEVICE_STATE.mouseX(), DEVICE_STATE.mouseY());
 		}
 	}
 	
@@ -82,7 +183,7 @@ public abstract class input {
 	 * @return whether the key is currently depressed.
 	 */
 	public static boolean isKeyDown(int key) {
-		return Keyboard.isKeyDown(key);
+		return state.isKeyDown(key);
 	}
 	
 	/**
@@ -91,7 +192,7 @@ public abstract class input {
 	 * @return whether the button is currently depressed.
 	 */
 	public static boolean isMouseDown(int button) {
-		return Mouse.isButtonDown(button);
+		return state.isMouseDown(button);
 	}
 	
 	/**
@@ -113,7 +214,7 @@ public abstract class input {
 	 * @return the current x coordinate of the mouse
 	 */
 	public static int mouseX() {
-		return Mouse.getX();
+		return state.mouseX();
 	}
 	
 	/**
@@ -121,7 +222,7 @@ public abstract class input {
 	 * @return the current y coordinate of the mouse
 	 */
 	public static int mouseY() {
-		return window.height() - Mouse.getY();
+		return state.mouseY();
 	}
 	
 	/**
@@ -230,4 +331,12 @@ public abstract class input {
 	public final static int KEY_LEFT = Keyboard.KEY_LEFT;
 	public final static int KEY_RIGHT = Keyboard.KEY_RIGHT;
 	
+	public final static int KEY_PAGE_UP = Keyboard.KEY_PRIOR;
+	public final static int KEY_PAGE_DOWN = Keyboard.KEY_NEXT;
+	public final static int KEY_HOME = Keyboard.KEY_HOME;
+	public final static int KEY_END = Keyboard.KEY_END;
+
+	/** The number of keys on the keyboard */
+	public final static int KEY_COUNT = Keyboard.KEYBOARD_SIZE;
+	
 }
@@ -69,6 +69,18 @@ public abstract class window {
 		}
 	}
 	
+	/**
+	 * Sets the size of the window without creating a display.
+	 * <p>Used when running the game headlessly, e.g. to replay a session,
+	 * so that positions relative to the window match the original's.</p>
+	 * @param width the width of the window being simulated.
+	 * @param height the height of the window being simulated.
+	 */
+	public static void setVirtualSize(int width, int height) {
+		window.width = width;
+		window.height = height;
+	}
+	
 	/** 
 	 * Sets the window to be full-screen.
 	 */
@@ -0,0 +1,200 @@
+package net;
+
+import java.util.ArrayList;
+
+/**
+ * <h1>Connection Scope</h1>
+ * <p>
+ * Runs the loops serving a connection, such as its send and receive loops,
+ * each on its own connection thread, as one unit.
+ * </p>
+ * <p>
+ * A connection is over as soon as any of its loops ends, so when one
+ * finishes or fails the others are cancelled, by interrupting them. The
+ * thread which opened the scope waits for every loop with join(), and
+ * must close() the scope before going on, so no loop outlives the scope
+ * it was started in.
+ * </p>
+ * <p>
+ * Loops should end promptly when interrupted. Blocking socket reads which
+ * can't be interrupted should be ended by closing the socket.
+ * </p>
+ */
+public class ConnectionScope {
+
+	/** The scope's name, which its threads are named after */
+	private final String name;
+
+	/** The threads the scope's loops are running on */
+	private final ArrayList<Thread> threads = new ArrayList<Thread>();
+
+	/** The number of loops which are still running */
+	private int running;
+
+	/** Whether the scope's loops have been cancelled */
+	private boolean isCancelled;
+
+	/** The first error a loop failed with, if any */
+	private Throwable failure;
+
+
+	/**
+	 * Constructor for a connection scope.
+	 * @param name - the scope's name, which its threads are named after
+	 */
+	public ConnectionScope(String name) {
+		this.name = name;
+	}
+
+
+	/**
+	 * Starts a loop on a new connection thread.
+	 * @param loop - the name of the loop, e.g. "Send"
+	 * @param task - the loop to run
+	 * @throws IllegalStateException if the scope has been cancelled
+	 */
+	public synchronized void fork(String loop, final Runnable task) {
+		if (isCancelled) {
+			throw new IllegalStateException("Connection scope " + name
+					+ " has been cancelled");
+		}
+
+		Thread thread = ConnectionThreads.create(name + " " + loop, new Runnable() {
+			@Override
+			public void run() {
+				Throwable error = null;
+
+				try {
+					task.run();
+				} catch (RuntimeException e) {
+					error = e;
+				} catch (Error e) {
+					error = e;
+				} finally {
+					finished(error);
+				}
+			}
+		});
+
+		threads.add(thread);
+		running++;
+		thread.start();
+	}
+
+	/**
+	 * Waits for every loop to end.
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	public synchronized void join() throws InterruptedException {
+		while (running > 0) {
+			wait();
+		}
+	}
+
+	/**
+	 * Cancels every loop which is still running, without waiting for
+	 * them to end.
+	 */
+	public synchronized void cancel() {
+		isCancelled = true;
+
+		for (Thread thread : threads) {
+			if (thread != Thread.currentThread()) {
+				thread.interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Cancels every loop which is still running, and waits for them to end.
+	 * <p>
+	 * If the closing thread is interrupted, it still waits, and is left
+	 * interrupted afterwards.
+	 * </p>
+	 */
+	public void close() {
+		boolean isInterrupted = false;
+
+		cancel();
+
+		synchronized (this) {
+			while (running > 0) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					isInterrupted = true;
+				}
+			}
+		}
+
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the scope's name.
+	 * @return the scope's name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets whether a thread is one of the scope's loops.
+	 * @param thread - the thread to check
+	 * @return <code>true</code> if one of the scope's loops is running on
+	 * 			the thread, otherwise <code>false</code>
+	 */
+	public synchronized boolean contains(Thread thread) {
+		return threads.contains(thread);
+	}
+
+	/**
+	 * Gets the number of loops which are still running.
+	 * @return the number of loops which are still running
+	 */
+	public synchronized int getRunning() {
+		return running;
+	}
+
+	/**
+	 * Checks whether the scope's loops have been cancelled.
+	 * @return <code>true</code> if the scope's loops have been cancelled,
+	 * 			otherwise <code>false</code>
+	 */
+	public synchronized boolean isCancelled() {
+		return isCancelled;
+	}
+
+	/**
+	 * Gets the first error a loop failed with.
+	 * @return the first error a loop failed with, or <code>null</code> if
+	 * 			none has failed
+	 */
+	public synchronized Throwable getFailure() {
+		return failure;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Records that a loop has ended, cancelling the others.
+	 * @param error - the error the loop failed with, or <code>null</code>
+	 * 			if it ended normally
+	 */
+	private synchronized void finished(Throwable error) {
+		if (error != null && failure == null) {
+			failure = error;
+		}
+
+		running--;
+		cancel();
+		notifyAll();
+	}
+
+}
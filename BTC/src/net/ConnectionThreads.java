@@ -0,0 +1,91 @@
+package net;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads which connections are served on.
+ * <p>
+ * Connection threads spend nearly all their time blocked on I/O, so where
+ * the runtime has virtual threads (Java 21 onwards), they are used: a
+ * virtual thread blocked on a connection holds no platform thread, so
+ * tens of thousands of idle connections cost little more than their
+ * buffers. Otherwise, daemon platform threads with small stacks are used.
+ * </p>
+ * <p>
+ * Either way, the code run on the threads is ordinary blocking code.
+ * </p>
+ */
+public abstract class ConnectionThreads {
+
+	/** The stack size of platform connection threads, in bytes */
+	private static final long STACK_SIZE = 256 * 1024;
+
+	/** The factory of virtual threads, if the runtime has them */
+	private static final ThreadFactory VIRTUAL_THREADS = createVirtualThreads();
+
+
+	/**
+	 * Creates a connection thread, without starting it.
+	 * @param name - the thread's name
+	 * @param task - the task to run on the thread
+	 * @return the thread
+	 */
+	public static Thread create(String name, Runnable task) {
+		Thread thread;
+
+		if (VIRTUAL_THREADS != null) {
+			thread = VIRTUAL_THREADS.newThread(task);
+			thread.setName(name);
+		} else {
+			thread = new Thread(null, task, name, STACK_SIZE);
+			thread.setDaemon(true);
+		}
+
+		return thread;
+	}
+
+	/**
+	 * Creates a connection thread, and starts it.
+	 * @param name - the thread's name
+	 * @param task - the task to run on the thread
+	 * @return the thread
+	 */
+	public static Thread start(String name, Runnable task) {
+		Thread thread = create(name, task);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Checks whether connection threads are virtual threads.
+	 * @return <code>true</code> if connection threads are virtual threads,
+	 * 			otherwise <code>false</code>
+	 */
+	public static boolean isVirtual() {
+		return VIRTUAL_THREADS != null;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Gets a factory of virtual threads, if the runtime has them.
+	 * <p>
+	 * The factory is found reflectively, so the game still builds and runs
+	 * on runtimes without virtual threads.
+	 * </p>
+	 * @return the factory, or <code>null</code> if the runtime doesn't have
+	 * 			virtual threads
+	 */
+	private static ThreadFactory createVirtualThreads() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			return (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+					.getMethod("factory").invoke(builder);
+		} catch (Exception e) {
+			// Virtual threads aren't available
+			return null;
+		}
+	}
+
+}
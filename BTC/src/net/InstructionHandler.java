@@ -135,7 +135,7 @@ public abstract class InstructionHandler {
 	 * @param parameters - the parameters accompanying the instruction
 	 */
 	private static void handleStartGame(String parameters) {
-		if (Thread.currentThread().getId() != NetworkManager.getNetworkThreadID()) {
+		if (!NetworkManager.isNetworkThread()) {
 			// Get the position to set from the response
 			int playerPosition = -1;
 			try {
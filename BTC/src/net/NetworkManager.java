@@ -45,8 +45,9 @@ public abstract class NetworkManager {
 	/** The task which sends and receives */
 	private static NetworkWorker networkWorker = new NetworkWorker();
 	
-	/** The thread to send and receive data on */
-	private static Thread networkThread = new Thread(networkWorker);
+	/** The connection thread the network worker runs on */
+	private static Thread networkThread =
+			ConnectionThreads.create("Network Connection", networkWorker);
 	
 	/** A map for temporarily storing data in order to make use of entries */
 	private static TreeMap<Long, byte[]> transientDataBuffer =
@@ -63,8 +64,8 @@ public abstract class NetworkManager {
 		// Obtain a lock on the network thread
 		synchronized (networkThread) {
 			networkWorker = new NetworkWorker();
-			networkThread = new Thread(networkWorker);
-			networkThread.start();
+			networkThread = ConnectionThreads.start("Network Connection",
+					networkWorker);
 		}
 	}
 	
@@ -331,7 +332,7 @@ public abstract class NetworkManager {
 	 * @param data - the data to serialise
 	 * @return the data in a serialised form
 	 */
-	protected static byte[] serialiseData(Serializable data) {
+	public static byte[] serialiseData(Serializable data) {
 		ByteArrayOutputStream byteArrayOutputStream = null;
 		ObjectOutputStream serializeOutputStream = null;
 		
@@ -356,7 +357,7 @@ public abstract class NetworkManager {
 	 * @param data - the byte array to deserialise
 	 * @return the deserialised data entry
 	 */
-	protected static Serializable deserialiseData(byte[] data) {
+	public static Serializable deserialiseData(byte[] data) {
 		ByteArrayInputStream byteArrayInputStream = null;
 		ObjectInputStream deserializeInputStream = null;
 		
@@ -378,13 +379,15 @@ public abstract class NetworkManager {
 	
 	
 	/**
-	 * Gets the network thread's ID.
-	 * @return the network thread's ID
+	 * Gets whether the calling thread is sending or receiving for the
+	 * network worker.
+	 * @return <code>true</code> if the calling thread is one of the network
+	 * 			worker's loops, otherwise <code>false</code>
 	 */
-	public static long getNetworkThreadID() {
+	public static boolean isNetworkThread() {
 		// Obtain a lock on the network thread
 		synchronized (networkThread) {
-			return networkThread.getId();
+			return networkWorker.isWorkerThread(Thread.currentThread());
 		}
 	}
 	
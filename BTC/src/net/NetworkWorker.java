@@ -4,6 +4,7 @@ import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Worker used to transfer data in parallel with the game.
@@ -19,6 +20,12 @@ import java.util.TreeMap;
  * <p>
  * A priority buffer is provided to ensure that specific data will be sent.
  * </p>
+ * <p>
+ * The worker serves its connection with two loops in a connection scope:
+ * the send loop posts data to the server, and passes the responses to the
+ * receive loop, which reads them into the response buffers. Either loop
+ * ending ends the other.
+ * </p>
  */
 public class NetworkWorker implements Runnable {
 
@@ -34,6 +41,12 @@ public class NetworkWorker implements Runnable {
 	/** The priority data still to be read */
 	private LinkedList<Serializable> priorityResponseBuffer;
 	
+	/** The responses received, waiting for the receive loop */
+	private LinkedBlockingQueue<Entry<Long, byte[]>> receiveQueue;
+	
+	/** The scope the worker's loops are running in */
+	private ConnectionScope scope;
+	
 	/** The most recent data received so far */
 	private long mostRecent;
 	
@@ -52,6 +65,7 @@ public class NetworkWorker implements Runnable {
 		this.priorityDataBuffer = new LinkedList<Serializable>();
 		this.responseBuffer = new TreeMap<Long, Serializable>();
 		this.priorityResponseBuffer = new LinkedList<Serializable>();
+		this.receiveQueue = new LinkedBlockingQueue<Entry<Long, byte[]>>();
 		this.mostRecent = 0;
 		this.status = true;
 		this.statusMutex = new Object();
@@ -59,13 +73,53 @@ public class NetworkWorker implements Runnable {
 	
 	
 	/**
-	 * Sends data and messages.
+	 * Sends data and messages, and receives responses, until the worker
+	 * is stopped.
 	 */
 	@Override
 	public void run() {
-		// Repeat while the worker is running
-		while (getStatus()) {
-			sendNextData();
+		ConnectionScope connectionScope = new ConnectionScope("Network");
+		
+		// Obtain a lock on the status attribute
+		synchronized (statusMutex) {
+			scope = connectionScope;
+		}
+		
+		try {
+			connectionScope.fork("Send", new Runnable() {
+				@Override
+				public void run() {
+					// Repeat while the worker is running
+					while (getStatus()) {
+						sendNextData();
+					}
+				}
+			});
+			
+			connectionScope.fork("Receive", new Runnable() {
+				@Override
+				public void run() {
+					try {
+						// Repeat until the send loop ends
+						while (true) {
+							receiveNextData();
+						}
+					} catch (InterruptedException e) {
+						// The connection has been closed
+					}
+				}
+			});
+			
+			connectionScope.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			connectionScope.close();
+		}
+		
+		if (connectionScope.getFailure() != null) {
+			NetworkManager.print(new Exception("Network connection failed",
+					connectionScope.getFailure()));
 		}
 	}
 	
@@ -106,8 +160,21 @@ public class NetworkWorker implements Runnable {
 		}
 
 		// Send the post request to the server and read the response
-		Entry<Long, byte[]> receivedData =
-				NetworkManager.postObject(dataEntry);
+		Entry<Long, byte[]> response = NetworkManager.postObject(dataEntry);
+
+		// Pass the response to the receive loop
+		if (response != null) {
+			receiveQueue.add(response);
+		}
+	}
+	
+	/**
+	 * Reads the next response received into the response buffers, waiting
+	 * for one if there are none.
+	 * @throws InterruptedException if the receive loop is cancelled
+	 */
+	private void receiveNextData() throws InterruptedException {
+		Entry<Long, byte[]> receivedData = receiveQueue.take();
 
 		// If the entry's key equals -1, add it to the priority response
 		// buffer
@@ -221,6 +288,19 @@ public class NetworkWorker implements Runnable {
 		}
 	}
 	
+	/**
+	 * Gets whether a thread is one of the worker's loops.
+	 * @param thread - the thread to check
+	 * @return <code>true</code> if the thread is sending or receiving for
+	 * 			the worker, otherwise <code>false</code>
+	 */
+	public boolean isWorkerThread(Thread thread) {
+		// Obtain a lock on the status attribute
+		synchronized (statusMutex) {
+			return scope != null && scope.contains(thread);
+		}
+	}
+	
 	/**
 	 * Stops the worker.
 	 */
@@ -0,0 +1,171 @@
+package rpl;
+
+import java.nio.ByteBuffer;
+
+import scn.Game;
+import cls.Aircraft;
+import cls.Player;
+
+/**
+ * <h1>Session Log</h1>
+ * <p>
+ * The format in which sessions are recorded.
+ * </p>
+ * <p>
+ * A log starts with a header holding the seed of the game's random
+ * numbers, the difficulty and the size of the window, followed by a
+ * stream of records, each starting with a one byte tag:
+ * </p>
+ * <ul>
+ * <li>TICK_NANOS and TICK begin an update of the game, holding the time
+ * step it was given;</li>
+ * <li>MOUSE_MOVE, KEY_DOWN, KEY_UP, BUTTON_DOWN and BUTTON_UP follow a
+ * tick, and change the keyboard and mouse state which the game reads
+ * during that update;</li>
+ * <li>MOUSE_PRESSED, MOUSE_RELEASED, KEY_PRESSED and KEY_RELEASED are
+ * input events, handled between updates;</li>
+ * <li>END closes a session which finished normally, holding a fingerprint
+ * of the final state to check replays against.</li>
+ * </ul>
+ * <p>
+ * Events are timestamped by the ticks before them, so the time of any
+ * record is the sum of the preceding time steps. Integers are written as
+ * variable length quantities, and coordinates as zig-zag encoded
+ * differences, so most records take two to five bytes.
+ * </p>
+ */
+public final class SessionLog {
+
+	/** Identifies a file as a recorded session ("BTCR") */
+	static final int MAGIC = 0x42544352;
+
+	/** The version of the format */
+	static final int VERSION = 1;
+
+	/** The extension given to recorded sessions */
+	public static final String EXTENSION = ".btcr";
+
+	/** The number of mouse buttons whose state is recorded */
+	static final int BUTTON_COUNT = 3;
+
+	// Record tags
+	static final byte TICK_NANOS = 1;
+	static final byte TICK = 2;
+	static final byte MOUSE_MOVE = 3;
+	static final byte KEY_DOWN = 4;
+	static final byte KEY_UP = 5;
+	static final byte BUTTON_DOWN = 6;
+	static final byte BUTTON_UP = 7;
+	static final byte MOUSE_PRESSED = 8;
+	static final byte MOUSE_RELEASED = 9;
+	static final byte KEY_PRESSED = 10;
+	static final byte KEY_RELEASED = 11;
+	static final byte END = 12;
+
+	/** The largest number of bytes any record takes */
+	static final int MAX_RECORD_SIZE = 32;
+
+
+	/**
+	 * Prevents the log from being instantiated.
+	 */
+	private SessionLog() {}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets whether a tag is of a record which changes the keyboard and
+	 * mouse state.
+	 * @param tag - the record's tag
+	 * @return <code>true</code> if the record changes the input state
+	 */
+	static boolean isStateChange(byte tag) {
+		return tag >= MOUSE_MOVE && tag <= BUTTON_UP;
+	}
+
+	/**
+	 * Calculates a fingerprint of a game's state.
+	 * <p>
+	 * Replays which reproduce a session exactly finish with the same
+	 * fingerprint as the session did.
+	 * </p>
+	 * @param game - the game whose state is fingerprinted
+	 * @return the fingerprint
+	 */
+	public static long fingerprint(Game game) {
+		Player player = game.getPlayer();
+		long hash = Double.doubleToLongBits(game.getTime());
+
+		hash = hash * 31 + player.getScore();
+		hash = hash * 31 + player.getLives();
+		hash = hash * 31 + player.getPlanesLanded();
+		hash = hash * 31 + player.getPlanesCleared();
+		hash = hash * 31 + player.getPlanesCollided();
+
+		for (Aircraft aircraft : game.getAllAircraft()) {
+			hash = hash * 31 + aircraft.getName().hashCode();
+			hash = hash * 31 + Double.doubleToLongBits(aircraft.getPosition().getX());
+			hash = hash * 31 + Double.doubleToLongBits(aircraft.getPosition().getY());
+			hash = hash * 31 + Double.doubleToLongBits(aircraft.getPosition().getZ());
+		}
+
+		return hash;
+	}
+
+
+	// Encoding -------------------------------------------------------------------------
+
+	/**
+	 * Writes a non-negative integer as a variable length quantity.
+	 * @param buffer - the buffer to write to
+	 * @param value - the value to write
+	 */
+	static void putVarLong(ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads a non-negative integer written as a variable length quantity.
+	 * @param buffer - the buffer to read from
+	 * @return the value read
+	 */
+	static long getVarLong(ByteBuffer buffer) {
+		long value = 0;
+		int shift = 0;
+		byte b;
+
+		do {
+			b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		return value;
+	}
+
+	/**
+	 * Writes a signed integer, zig-zag encoded so that small negative
+	 * values are short too.
+	 * @param buffer - the buffer to write to
+	 * @param value - the value to write
+	 */
+	static void putVarInt(ByteBuffer buffer, int value) {
+		putVarLong(buffer, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Reads a signed integer written by putVarInt.
+	 * @param buffer - the buffer to read from
+	 * @return the value read
+	 */
+	static int getVarInt(ByteBuffer buffer) {
+		int value = (int) getVarLong(buffer);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+}
@@ -0,0 +1,387 @@
+package rpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import btc.Main;
+import scn.Game;
+import scn.Game.DifficultySetting;
+import lib.jog.input;
+import lib.jog.window;
+
+/**
+ * <h1>Session Recorder</h1>
+ * <p>
+ * Records a game session, so that it can be replayed exactly.
+ * </p>
+ * <p>
+ * All of the game's randomness comes from Main.getRandom(), so a session
+ * is reproduced by seeding it as the recorder did, then giving the game
+ * the same input events and time steps. The keyboard and mouse state the
+ * game reads while updating is recorded too: the recorder samples it at
+ * the start of each update, and acts as the source of input state, so
+ * that the game sees the sampled state for the whole update.
+ * </p>
+ * <p>
+ * Records are written to a buffer, which is only written to the file once
+ * it is full, or the session ends. If the game exits without ending the
+ * session, e.g. after an error, the buffer is written as the process
+ * exits, so that the session up to that point can still be replayed.
+ * </p>
+ */
+public class SessionRecorder implements input.EventHandler, input.State {
+
+	/** The size of the buffer records are written to */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** The directory sessions are recorded in, or "off" to not record */
+	private static String directory = System.getProperty("btc.record", "replays");
+
+	/** The file being recorded to */
+	private final FileChannel channel;
+
+	/** The records which haven't yet been written to the file */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/** The source the keyboard and mouse state is sampled from */
+	private final input.State source;
+
+	/** The keys held down when the state was last sampled */
+	private final boolean[] keys = new boolean[input.KEY_COUNT];
+
+	/** The mouse buttons held down when the state was last sampled */
+	private final boolean[] buttons = new boolean[SessionLog.BUTTON_COUNT];
+
+	/** The position of the mouse when the state was last sampled */
+	private volatile int mouseX, mouseY;
+
+	/** The number of updates recorded */
+	private long ticks;
+
+	/** Writes out the records if the process exits during the session */
+	private final Thread shutdownHook;
+
+	/** Whether the session has ended */
+	private boolean isClosed;
+
+
+	/**
+	 * Starts recording a new game.
+	 * <p>
+	 * The game's random numbers are given a new seed, which is recorded.
+	 * Sessions aren't recorded while testing, or if the btc.record
+	 * property is "off". Each session is written to its own file in the
+	 * directory, named by the time it started.
+	 * </p>
+	 * @param difficulty - the game's difficulty
+	 * @return the recorder, or <code>null</code> if the session isn't
+	 * 			being recorded
+	 */
+	public static SessionRecorder start(DifficultySetting difficulty) {
+		if (Main.testing || directory.equals("off")) return null;
+
+		int seed = new Random().nextInt();
+		Main.setRandomSeed(seed);
+
+		File file = new File(directory, "session-" + System.currentTimeMillis()
+				+ SessionLog.EXTENSION);
+		file.getParentFile().mkdirs();
+
+		try {
+			return new SessionRecorder(file.getPath(), seed, difficulty,
+					window.width(), window.height(), input.DEVICE_STATE);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Constructor for a session recorder.
+	 * <p>
+	 * The game's random numbers should already have been seeded with
+	 * the given seed.
+	 * </p>
+	 * @param path - the file to record to
+	 * @param seed - the seed of the game's random numbers
+	 * @param difficulty - the game's difficulty
+	 * @param width - the width of the window
+	 * @param height - the height of the window
+	 * @param source - the source to sample the keyboard and mouse state from
+	 * @throws IOException if the file can't be created
+	 */
+	public SessionRecorder(String path, int seed, DifficultySetting difficulty,
+			int width, int height, input.State source) throws IOException {
+		this.source = source;
+		this.channel = FileChannel.open(new File(path).toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+
+		byte[] version = Main.VERSION.getBytes(StandardCharsets.UTF_8);
+
+		buffer.putInt(SessionLog.MAGIC);
+		buffer.putInt(SessionLog.VERSION);
+		buffer.putShort((short) version.length);
+		buffer.put(version);
+		buffer.putLong(System.currentTimeMillis());
+		buffer.putInt(seed);
+		buffer.put((byte) difficulty.ordinal());
+		buffer.putInt(width);
+		buffer.putInt(height);
+
+		shutdownHook = new Thread("Session recorder") {
+			@Override
+			public void run() {
+				close();
+			}
+		};
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
+
+
+	// Recording ------------------------------------------------------------------------
+
+	/**
+	 * Records the start of an update, sampling the keyboard and mouse.
+	 * @param timeDifference - the time step the game is being updated by
+	 */
+	public synchronized void recordTick(double timeDifference) {
+		ticks++;
+
+		if (reserve()) {
+			// Time steps are usually a whole number of nanoseconds, which can
+			// be written in fewer bytes than the time itself
+			long nanos = Math.round(timeDifference * 1e9);
+
+			if (nanos >= 0 && nanos / 1e9d == timeDifference) {
+				buffer.put(SessionLog.TICK_NANOS);
+				SessionLog.putVarLong(buffer, nanos);
+			} else {
+				buffer.put(SessionLog.TICK);
+				buffer.putDouble(timeDifference);
+			}
+		}
+
+		// The state is sampled even if recording has stopped, as the game
+		// still reads it
+		int x = source.mouseX();
+		int y = source.mouseY();
+		if (x != mouseX || y != mouseY) {
+			if (reserve()) {
+				buffer.put(SessionLog.MOUSE_MOVE);
+				SessionLog.putVarInt(buffer, x - mouseX);
+				SessionLog.putVarInt(buffer, y - mouseY);
+			}
+			mouseX = x;
+			mouseY = y;
+		}
+
+		for (int i = 0; i < buttons.length; i++) {
+			boolean isDown = source.isMouseDown(i);
+			if (isDown != buttons[i]) {
+				if (reserve()) {
+					buffer.put(isDown ? SessionLog.BUTTON_DOWN : SessionLog.BUTTON_UP);
+					SessionLog.putVarLong(buffer, i);
+				}
+				buttons[i] = isDown;
+			}
+		}
+
+		for (int i = 0; i < keys.length; i++) {
+			boolean isDown = source.isKeyDown(i);
+			if (isDown != keys[i]) {
+				if (reserve()) {
+					buffer.put(isDown ? SessionLog.KEY_DOWN : SessionLog.KEY_UP);
+					SessionLog.putVarLong(buffer, i);
+				}
+				keys[i] = isDown;
+			}
+		}
+	}
+
+	/**
+	 * Records a mouse button being pressed.
+	 * @param key - the button being pressed
+	 * @param x - the horizontal position of the mouse
+	 * @param y - the vertical position of the mouse
+	 */
+	@Override
+	public synchronized void mousePressed(int key, int x, int y) {
+		recordEvent(SessionLog.MOUSE_PRESSED, key, x, y);
+	}
+
+	/**
+	 * Records a mouse button being released.
+	 * @param key - the button being released
+	 * @param x - the horizontal position of the mouse
+	 * @param y - the vertical position of the mouse
+	 */
+	@Override
+	public synchronized void mouseReleased(int key, int x, int y) {
+		recordEvent(SessionLog.MOUSE_RELEASED, key, x, y);
+	}
+
+	/**
+	 * Records a key being pressed.
+	 * @param key - the key being pressed
+	 */
+	@Override
+	public synchronized void keyPressed(int key) {
+		recordEvent(SessionLog.KEY_PRESSED, key, 0, 0);
+	}
+
+	/**
+	 * Records a key being released.
+	 * @param key - the key being released
+	 */
+	@Override
+	public synchronized void keyReleased(int key) {
+		recordEvent(SessionLog.KEY_RELEASED, key, 0, 0);
+	}
+
+	/**
+	 * Ends the session, recording the final state of the game so that
+	 * replays can be checked against it.
+	 * @param game - the game which has ended
+	 */
+	public synchronized void end(Game game) {
+		if (reserve()) {
+			buffer.put(SessionLog.END);
+			SessionLog.putVarLong(buffer, ticks);
+			SessionLog.putVarInt(buffer, game.getPlayer().getScore());
+			buffer.putLong(SessionLog.fingerprint(game));
+		}
+
+		close();
+	}
+
+	/**
+	 * Writes out any buffered records and closes the file.
+	 * <p>
+	 * Sessions which are closed without being ended can still be replayed,
+	 * but can't be checked against the final state.
+	 * </p>
+	 */
+	public synchronized void close() {
+		if (isClosed) return;
+		isClosed = true;
+
+		try {
+			flush();
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
+		} catch (IllegalStateException e) {
+			// Closed by the hook itself, as the process exits
+		}
+	}
+
+
+	// Input state ----------------------------------------------------------------------
+
+	/**
+	 * Gets whether a key was held down at the start of the current update.
+	 * @param key - the key to check
+	 * @return whether the key was held down
+	 */
+	@Override
+	public boolean isKeyDown(int key) {
+		return key >= 0 && key < keys.length && keys[key];
+	}
+
+	/**
+	 * Gets whether a mouse button was held down at the start of the
+	 * current update.
+	 * @param button - the button to check
+	 * @return whether the button was held down
+	 */
+	@Override
+	public boolean isMouseDown(int button) {
+		return button >= 0 && button < buttons.length && buttons[button];
+	}
+
+	/**
+	 * Gets the horizontal position of the mouse at the start of the
+	 * current update.
+	 * @return the x coordinate of the mouse
+	 */
+	@Override
+	public int mouseX() {
+		return mouseX;
+	}
+
+	/**
+	 * Gets the vertical position of the mouse at the start of the
+	 * current update.
+	 * @return the y coordinate of the mouse
+	 */
+	@Override
+	public int mouseY() {
+		return mouseY;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Records an input event.
+	 * @param tag - the kind of event
+	 * @param key - the key or button of the event
+	 * @param x - the horizontal position of the mouse, for mouse events
+	 * @param y - the vertical position of the mouse, for mouse events
+	 */
+	private void recordEvent(byte tag, int key, int x, int y) {
+		if (!reserve()) return;
+
+		buffer.put(tag);
+		SessionLog.putVarInt(buffer, key);
+
+		if (tag == SessionLog.MOUSE_PRESSED || tag == SessionLog.MOUSE_RELEASED) {
+			SessionLog.putVarInt(buffer, x);
+			SessionLog.putVarInt(buffer, y);
+		}
+	}
+
+	/**
+	 * Makes sure there is space in the buffer for another record, writing
+	 * out the buffer if there isn't.
+	 * @return <code>true</code> if the record can be written, or
+	 * 			<code>false</code> if recording has stopped
+	 */
+	private boolean reserve() {
+		if (isClosed) return false;
+		if (buffer.remaining() >= SessionLog.MAX_RECORD_SIZE) return true;
+
+		try {
+			flush();
+			return true;
+		} catch (IOException e) {
+			// Stop recording, rather than stopping the game
+			e.printStackTrace();
+			close();
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the buffered records to the file.
+	 * @throws IOException if the records can't be written
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
@@ -0,0 +1,459 @@
+package rpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import btc.Main;
+import scn.Game;
+import scn.SinglePlayerGame;
+import scn.Game.DifficultySetting;
+import lib.jog.input;
+import lib.jog.window;
+
+/**
+ * <h1>Session Replayer</h1>
+ * <p>
+ * Replays a recorded session, driving a new game with the recorded seed,
+ * time steps and input, so that it plays out exactly as the original did.
+ * </p>
+ * <p>
+ * Replays run headlessly: no window is opened, and the game's assets
+ * aren't loaded, so Main.testing must be set (as it is, unless the game
+ * was started by Main.main()). They may be run in real time, at any
+ * multiple of it, or as fast as possible, e.g. to check a corpus of
+ * recorded sessions still plays out as it did.
+ * </p>
+ * <p>
+ * The game's btc.* properties, which set up its traffic, are not
+ * recorded, so must be the same as when the session was recorded.
+ * </p>
+ * <p>
+ * Usage: <code>java rpl.SessionReplayer session.btcr [speed]</code>
+ * </p>
+ */
+public class SessionReplayer implements input.State {
+
+	/**
+	 * The outcome of replaying a session.
+	 */
+	public static class Result {
+
+		/** The number of updates replayed */
+		private final long ticks;
+
+		/** The time the game ran for */
+		private final double time;
+
+		/** The player's final score */
+		private final int score;
+
+		/** The fingerprint of the game's final state */
+		private final long fingerprint;
+
+		/** Whether the session was ended normally when recorded */
+		private final boolean isComplete;
+
+		/** The number of updates in the recorded session */
+		private final long expectedTicks;
+
+		/** The player's score at the end of the recorded session */
+		private final int expectedScore;
+
+		/** The fingerprint of the recorded session's final state */
+		private final long expectedFingerprint;
+
+		/**
+		 * Constructor for a result.
+		 * @param ticks - the number of updates replayed
+		 * @param game - the game which was replayed
+		 * @param log - the log of the recorded session, positioned after
+		 * 			its end record, or <code>null</code> if it has none
+		 */
+		private Result(long ticks, Game game, ByteBuffer log) {
+			this.ticks = ticks;
+			this.time = game.getTime();
+			this.score = game.getPlayer().getScore();
+			this.fingerprint = SessionLog.fingerprint(game);
+			this.isComplete = (log != null);
+
+			if (isComplete) {
+				expectedTicks = SessionLog.getVarLong(log);
+				expectedScore = SessionLog.getVarInt(log);
+				expectedFingerprint = log.getLong();
+			} else {
+				expectedTicks = 0;
+				expectedScore = 0;
+				expectedFingerprint = 0;
+			}
+		}
+
+		/**
+		 * Gets the number of updates replayed.
+		 * @return the number of updates replayed
+		 */
+		public long getTicks() {
+			return ticks;
+		}
+
+		/**
+		 * Gets the time the replayed game ran for.
+		 * @return the game's time, in seconds
+		 */
+		public double getTime() {
+			return time;
+		}
+
+		/**
+		 * Gets the player's final score in the replay.
+		 * @return the player's score
+		 */
+		public int getScore() {
+			return score;
+		}
+
+		/**
+		 * Gets the fingerprint of the replayed game's final state.
+		 * @return the fingerprint
+		 */
+		public long getFingerprint() {
+			return fingerprint;
+		}
+
+		/**
+		 * Gets whether the recorded session was ended normally, so the
+		 * replay can be checked against it.
+		 * @return <code>true</code> if the session was ended normally, or
+		 * 			<code>false</code> if the game exited part way through
+		 */
+		public boolean isComplete() {
+			return isComplete;
+		}
+
+		/**
+		 * Gets whether the replay finished in the same state as the
+		 * recorded session.
+		 * @return <code>true</code> if the session was reproduced, or
+		 * 			<code>false</code> if it differed, or can't be checked
+		 */
+		public boolean isReproduced() {
+			return isComplete && ticks == expectedTicks && score == expectedScore
+					&& fingerprint == expectedFingerprint;
+		}
+
+		@Override
+		public String toString() {
+			String outcome = !isComplete ? "UNCHECKED (session wasn't ended)"
+					: isReproduced() ? "REPRODUCED"
+					: "DIFFERED (expected " + expectedTicks + " ticks, score "
+							+ expectedScore + ", fingerprint "
+							+ Long.toHexString(expectedFingerprint) + ")";
+
+			return ticks + " ticks, " + String.format("%.1f", time) + "s, score "
+					+ score + ", fingerprint " + Long.toHexString(fingerprint)
+					+ ": " + outcome;
+		}
+
+	}
+
+	/** The recorded session, positioned at its first record */
+	private final ByteBuffer log;
+
+	/** The version of the game the session was recorded with */
+	private final String gameVersion;
+
+	/** The time the session was recorded, in milliseconds since the epoch */
+	private final long recordedAt;
+
+	/** The seed of the game's random numbers */
+	private final int seed;
+
+	/** The game's difficulty */
+	private final DifficultySetting difficulty;
+
+	/** The size of the window the session was recorded in */
+	private final int width, height;
+
+	/** The keys held down at the start of the current update */
+	private final boolean[] keys = new boolean[input.KEY_COUNT];
+
+	/** The mouse buttons held down at the start of the current update */
+	private final boolean[] buttons = new boolean[SessionLog.BUTTON_COUNT];
+
+	/** The position of the mouse at the start of the current update */
+	private int mouseX, mouseY;
+
+
+	/**
+	 * Replays a recorded session as fast as possible, or at a multiple of
+	 * real time, printing the outcome.
+	 * @param args - the session to replay, and optionally the speed to
+	 * 			replay it at
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: SessionReplayer session"
+					+ SessionLog.EXTENSION + " [speed]");
+			return;
+		}
+
+		double speed = (args.length > 1) ? Double.parseDouble(args[1]) : 0;
+		SessionReplayer replayer = new SessionReplayer(args[0]);
+
+		System.out.println("Replaying " + args[0] + ", recorded with "
+				+ replayer.getGameVersion() + " (seed " + replayer.getSeed()
+				+ ", " + replayer.getDifficulty() + ")");
+
+		Result result = replayer.replay(speed);
+		System.out.println(result);
+
+		if (result.isComplete() && !result.isReproduced()) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Constructor for a session replayer, reading the recorded session.
+	 * @param path - the file the session was recorded to
+	 * @throws IOException if the file can't be read, or isn't a
+	 * 			recorded session
+	 */
+	public SessionReplayer(String path) throws IOException {
+		FileChannel channel = FileChannel.open(new File(path).toPath(),
+				StandardOpenOption.READ);
+
+		try {
+			log = ByteBuffer.allocate((int) channel.size());
+			while (log.hasRemaining() && channel.read(log) >= 0);
+			log.flip();
+		} finally {
+			channel.close();
+		}
+
+		if (log.remaining() < 8 || log.getInt() != SessionLog.MAGIC) {
+			throw new IOException(path + " isn't a recorded session");
+		}
+
+		int version = log.getInt();
+		if (version != SessionLog.VERSION) {
+			throw new IOException(path + " was recorded in version " + version
+					+ " of the format, but only version " + SessionLog.VERSION
+					+ " can be replayed");
+		}
+
+		byte[] gameVersion = new byte[log.getShort()];
+		log.get(gameVersion);
+		this.gameVersion = new String(gameVersion, StandardCharsets.UTF_8);
+
+		recordedAt = log.getLong();
+		seed = log.getInt();
+		difficulty = DifficultySetting.values()[log.get()];
+		width = log.getInt();
+		height = log.getInt();
+	}
+
+
+	// Replaying ------------------------------------------------------------------------
+
+	/**
+	 * Replays the session.
+	 * <p>
+	 * The replay stops at the end of the recorded session, or once the
+	 * game has ended. Errors thrown by the game are not caught, so that
+	 * sessions which ended in an error reproduce it.
+	 * </p>
+	 * @param speed - the multiple of real time to replay at, or 0 to
+	 * 			replay as fast as possible
+	 * @return the outcome of the replay
+	 * @throws IOException if the log is corrupt
+	 * @throws IllegalStateException if a game is already running
+	 */
+	public Result replay(double speed) throws IOException {
+		if (Game.getInstance() != null) {
+			throw new IllegalStateException("Sessions can't be replayed "
+					+ "while a game is running");
+		}
+
+		window.setVirtualSize(width, height);
+		Main.setRandomSeed(seed);
+
+		Arrays.fill(keys, false);
+		Arrays.fill(buttons, false);
+		mouseX = 0;
+		mouseY = 0;
+
+		ByteBuffer log = this.log.duplicate();
+		SinglePlayerGame game = SinglePlayerGame.createSinglePlayerGame(difficulty);
+		input.setState(this);
+
+		long ticks = 0;
+		double time = 0;
+		long startTime = System.nanoTime();
+		ByteBuffer end = null;
+
+		try {
+			game.start();
+
+			while (log.hasRemaining() && end == null && !game.isOver()) {
+				byte tag = log.get();
+
+				switch (tag) {
+				case SessionLog.TICK_NANOS:
+				case SessionLog.TICK:
+					double timeDifference = (tag == SessionLog.TICK)
+							? log.getDouble() : SessionLog.getVarLong(log) / 1e9d;
+
+					// The input state read during the update follows the tick
+					while (log.hasRemaining()
+							&& SessionLog.isStateChange(log.get(log.position()))) {
+						applyStateChange(log);
+					}
+
+					time += timeDifference;
+					if (speed > 0) waitUntil(startTime + (long) (time / speed * 1e9));
+
+					game.update(timeDifference);
+					ticks++;
+					break;
+				case SessionLog.MOUSE_PRESSED:
+					game.mousePressed(SessionLog.getVarInt(log),
+							SessionLog.getVarInt(log), SessionLog.getVarInt(log));
+					break;
+				case SessionLog.MOUSE_RELEASED:
+					game.mouseReleased(SessionLog.getVarInt(log),
+							SessionLog.getVarInt(log), SessionLog.getVarInt(log));
+					break;
+				case SessionLog.KEY_PRESSED:
+					game.keyPressed(SessionLog.getVarInt(log));
+					break;
+				case SessionLog.KEY_RELEASED:
+					game.keyReleased(SessionLog.getVarInt(log));
+					break;
+				case SessionLog.END:
+					end = log;
+					break;
+				default:
+					throw new IOException("Unexpected record " + tag
+							+ " at byte " + (log.position() - 1));
+				}
+			}
+
+			// A game which ended may still have its end record to check
+			if (end == null && log.hasRemaining()
+					&& log.get(log.position()) == SessionLog.END) {
+				log.get();
+				end = log;
+			}
+
+			return new Result(ticks, game, end);
+		} finally {
+			game.close();
+			input.setState(null);
+		}
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the version of the game the session was recorded with.
+	 * @return the game's version
+	 */
+	public String getGameVersion() {
+		return gameVersion;
+	}
+
+	/**
+	 * Gets when the session was recorded.
+	 * @return the time it was recorded, in milliseconds since the epoch
+	 */
+	public long getRecordedAt() {
+		return recordedAt;
+	}
+
+	/**
+	 * Gets the seed of the recorded game's random numbers.
+	 * @return the seed
+	 */
+	public int getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the recorded game's difficulty.
+	 * @return the difficulty
+	 */
+	public DifficultySetting getDifficulty() {
+		return difficulty;
+	}
+
+
+	// Input state ----------------------------------------------------------------------
+
+	@Override
+	public boolean isKeyDown(int key) {
+		return key >= 0 && key < keys.length && keys[key];
+	}
+
+	@Override
+	public boolean isMouseDown(int button) {
+		return button >= 0 && button < buttons.length && buttons[button];
+	}
+
+	@Override
+	public int mouseX() {
+		return mouseX;
+	}
+
+	@Override
+	public int mouseY() {
+		return mouseY;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Reads a change to the keyboard and mouse state from the log.
+	 * @param log - the log to read from
+	 */
+	private void applyStateChange(ByteBuffer log) {
+		byte tag = log.get();
+
+		switch (tag) {
+		case SessionLog.MOUSE_MOVE:
+			mouseX += SessionLog.getVarInt(log);
+			mouseY += SessionLog.getVarInt(log);
+			break;
+		case SessionLog.KEY_DOWN:
+		case SessionLog.KEY_UP:
+			keys[(int) SessionLog.getVarLong(log)] = (tag == SessionLog.KEY_DOWN);
+			break;
+		case SessionLog.BUTTON_DOWN:
+		case SessionLog.BUTTON_UP:
+			buttons[(int) SessionLog.getVarLong(log)] = (tag == SessionLog.BUTTON_DOWN);
+			break;
+		}
+	}
+
+	/**
+	 * Waits until a time, to replay at the requested speed.
+	 * @param time - the time to wait until, as given by System.nanoTime()
+	 */
+	private static void waitUntil(long time) {
+		long sleepTime = time - System.nanoTime();
+
+		if (sleepTime > 0) {
+			try {
+				Thread.sleep(sleepTime / 1000000, (int) (sleepTime % 1000000));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+}
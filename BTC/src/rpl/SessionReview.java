@@ -0,0 +1,285 @@
+package rpl;
+
+import java.io.IOException;
+
+import org.newdawn.slick.Color;
+
+import btc.Main;
+import lib.jog.graphics;
+import lib.jog.input;
+
+/**
+ * <h1>Session Review</h1>
+ * <p>
+ * A panel which shows the airspace at any point in a finished session,
+ * read from the session's telemetry.
+ * </p>
+ * <p>
+ * The point shown is chosen by clicking or dragging along the timeline at
+ * the bottom of the panel, or with the arrow keys, Home and End. As the
+ * telemetry is memory mapped and indexed, any point in the session can be
+ * shown without reading the rest of it.
+ * </p>
+ */
+public class SessionReview {
+
+	/** The height of the timeline */
+	private static final int TIMELINE_HEIGHT = 16;
+
+	/** The height of the header */
+	private static final int HEADER_HEIGHT = 16;
+
+	/** The time stepped by the arrow keys, in seconds */
+	private static final double STEP = 1;
+
+	/** The size of the dots drawn for aircraft */
+	private static final double AIRCRAFT_RADIUS = 3;
+
+	/** The telemetry being reviewed */
+	private final TelemetryReader reader;
+
+	/** The horizontal position of the panel */
+	private final int x;
+
+	/** The vertical position of the panel */
+	private final int y;
+
+	/** The width of the panel */
+	private final int width;
+
+	/** The height of the panel */
+	private final int height;
+
+	/** The frame being shown */
+	private TelemetryReader.Frame frame;
+
+	/** Whether the timeline is being dragged */
+	private boolean isDragging;
+
+
+	/**
+	 * Opens a session's telemetry for review.
+	 * @param path - the telemetry file, or <code>null</code> if there is none
+	 * @param x - the horizontal position of the panel
+	 * @param y - the vertical position of the panel
+	 * @param width - the width of the panel
+	 * @param height - the height of the panel
+	 * @return the review panel, or <code>null</code> if the telemetry
+	 * 			can't be read
+	 */
+	public static SessionReview open(String path, int x, int y, int width,
+			int height) {
+		if (path == null) return null;
+
+		try {
+			return new SessionReview(new TelemetryReader(path), x, y, width, height);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Constructor for a review panel.
+	 * <p>
+	 * The panel starts by showing the end of the session.
+	 * </p>
+	 * @param reader - the telemetry to review
+	 * @param x - the horizontal position of the panel
+	 * @param y - the vertical position of the panel
+	 * @param width - the width of the panel
+	 * @param height - the height of the panel
+	 */
+	public SessionReview(TelemetryReader reader, int x, int y, int width,
+			int height) {
+		this.reader = reader;
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+
+		frame = reader.seek(reader.getEndTime());
+	}
+
+
+	// Input ----------------------------------------------------------------------------
+
+	/**
+	 * Follows the mouse while the timeline is being dragged.
+	 */
+	public void update() {
+		if (isDragging) {
+			if (input.isMouseDown(input.MOUSE_LEFT)) {
+				seekTo(input.mouseX());
+			} else {
+				isDragging = false;
+			}
+		}
+	}
+
+	/**
+	 * Starts dragging the timeline if it is clicked.
+	 * @param key - the mouse button pressed
+	 * @param x - the horizontal position of the mouse
+	 * @param y - the vertical position of the mouse
+	 * @return <code>true</code> if the press was handled by the panel
+	 */
+	public boolean mousePressed(int key, int x, int y) {
+		if (key != input.MOUSE_LEFT || !isOverTimeline(x, y)) return false;
+
+		isDragging = true;
+		seekTo(x);
+		return true;
+	}
+
+	/**
+	 * Stops dragging the timeline.
+	 * @param key - the mouse button released
+	 * @param x - the horizontal position of the mouse
+	 * @param y - the vertical position of the mouse
+	 * @return <code>true</code> if the release was handled by the panel
+	 */
+	public boolean mouseReleased(int key, int x, int y) {
+		if (key != input.MOUSE_LEFT || !isDragging) return false;
+
+		isDragging = false;
+		return true;
+	}
+
+	/**
+	 * Steps through the session with the arrow keys, Home and End.
+	 * @param key - the key pressed
+	 * @return <code>true</code> if the key was handled by the panel
+	 */
+	public boolean keyPressed(int key) {
+		if (frame == null) return false;
+
+		if (key == input.KEY_LEFT) {
+			frame = reader.seek(frame.getTime() - STEP);
+		} else if (key == input.KEY_RIGHT) {
+			frame = reader.seek(frame.getTime() + STEP);
+		} else if (key == input.KEY_HOME) {
+			frame = reader.seek(reader.getStartTime());
+		} else if (key == input.KEY_END) {
+			frame = reader.seek(reader.getEndTime());
+		} else {
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets whether a key is one the panel handles.
+	 * @param key - the key to check
+	 * @return <code>true</code> if the key steps through the session
+	 */
+	public static boolean isReviewKey(int key) {
+		return key == input.KEY_LEFT || key == input.KEY_RIGHT
+				|| key == input.KEY_HOME || key == input.KEY_END;
+	}
+
+
+	// Drawing --------------------------------------------------------------------------
+
+	/**
+	 * Draws the airspace as it was in the frame being shown, with the
+	 * time and each player's score above it and the timeline below it.
+	 */
+	public void draw() {
+		if (frame == null) return;
+
+		int mapY = y + HEADER_HEIGHT;
+		int mapHeight = height - HEADER_HEIGHT - TIMELINE_HEIGHT - 4;
+
+		// Header
+		graphics.setFont(Main.flightstripFontMid);
+		graphics.setColour(graphics.safetyOrange);
+		graphics.print(formatTime(frame.getTime()) + " / "
+				+ formatTime(reader.getEndTime()), x, y);
+
+		StringBuilder scores = new StringBuilder();
+		for (TelemetryReader.PlayerState player : frame.getPlayers()) {
+			scores.append("   Score: ").append(player.getScore())
+					.append("  Lives: ").append(player.getLives());
+		}
+		graphics.printRight(scores.toString(), x, y, 0, width);
+
+		// Airspace
+		graphics.rectangle(false, x, mapY, width, mapHeight);
+
+		double scale = Math.min((double) width / reader.getWidth(),
+				(double) mapHeight / reader.getHeight());
+
+		for (TelemetryReader.AircraftState aircraft : frame.getAircraft()) {
+			if (aircraft.isInDanger()) {
+				graphics.setColour(graphics.red);
+			} else if (aircraft.isManuallyControlled()) {
+				graphics.setColour(graphics.safetyOrange);
+			} else {
+				graphics.setColour(Color.white);
+			}
+
+			double aircraftX = x + aircraft.getX() * scale;
+			double aircraftY = mapY + aircraft.getY() * scale;
+
+			graphics.circle(true, aircraftX, aircraftY, AIRCRAFT_RADIUS);
+			graphics.line(aircraftX, aircraftY,
+					aircraftX + Math.cos(aircraft.getBearing()) * AIRCRAFT_RADIUS * 3,
+					aircraftY + Math.sin(aircraft.getBearing()) * AIRCRAFT_RADIUS * 3);
+		}
+
+		// Timeline
+		int timelineY = y + height - TIMELINE_HEIGHT;
+		graphics.setColour(graphics.safetyOrange);
+		graphics.rectangle(false, x, timelineY, width, TIMELINE_HEIGHT);
+		graphics.rectangle(true, x, timelineY,
+				width * getProgress(frame.getTime()), TIMELINE_HEIGHT);
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Shows the frame at the time under a point on the timeline.
+	 * @param mouseX - the horizontal position on the timeline
+	 */
+	private void seekTo(int mouseX) {
+		double fraction = Math.max(0, Math.min(1, (double) (mouseX - x) / width));
+
+		frame = reader.seek(reader.getStartTime()
+				+ fraction * (reader.getEndTime() - reader.getStartTime()));
+	}
+
+	/**
+	 * Gets whether a point is over the timeline.
+	 * @param mouseX - the horizontal position of the point
+	 * @param mouseY - the vertical position of the point
+	 * @return <code>true</code> if the point is over the timeline
+	 */
+	private boolean isOverTimeline(int mouseX, int mouseY) {
+		return mouseX >= x && mouseX <= x + width
+				&& mouseY >= y + height - TIMELINE_HEIGHT && mouseY <= y + height;
+	}
+
+	/**
+	 * Gets how far through the session a time is.
+	 * @param time - the time
+	 * @return the fraction of the session before the time
+	 */
+	private double getProgress(double time) {
+		double length = reader.getEndTime() - reader.getStartTime();
+		return (length <= 0) ? 1 : (time - reader.getStartTime()) / length;
+	}
+
+	/**
+	 * Formats a time as minutes and seconds.
+	 * @param time - the time in seconds
+	 * @return the formatted time
+	 */
+	private static String formatTime(double time) {
+		int seconds = (int) time;
+		return String.format("%d:%02d", seconds / 60, seconds % 60);
+	}
+
+}
@@ -0,0 +1,639 @@
+package rpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>Telemetry Reader</h1>
+ * <p>
+ * Reads a telemetry file written by a TelemetryWriter, so that a session
+ * can be reviewed at any point in time.
+ * </p>
+ * <p>
+ * The file is memory mapped rather than read, so only the parts of it
+ * which are looked at are loaded, and long sessions don't fill the heap.
+ * Seeking goes to the last keyframe before the time sought, using the
+ * index at the end of the file, then applies the frames after it; seeking
+ * forwards from the current frame only applies the frames in between.
+ * </p>
+ * <p>
+ * Files which weren't closed, e.g. because the game exited, have no index.
+ * It is rebuilt by scanning the frames' headers, and any frame cut short
+ * is ignored.
+ * </p>
+ */
+public class TelemetryReader {
+
+	/**
+	 * The state of a player in a frame.
+	 */
+	public static class PlayerState {
+
+		/** The player's ID */
+		private final int id;
+
+		/** The player's score */
+		private final int score;
+
+		/** The player's remaining lives */
+		private final int lives;
+
+		/**
+		 * Constructor for a player's state.
+		 * @param id - the player's ID
+		 * @param score - the player's score
+		 * @param lives - the player's remaining lives
+		 */
+		private PlayerState(int id, int score, int lives) {
+			this.id = id;
+			this.score = score;
+			this.lives = lives;
+		}
+
+		/**
+		 * Gets the player's ID.
+		 * @return the player's ID
+		 */
+		public int getID() {
+			return id;
+		}
+
+		/**
+		 * Gets the player's score.
+		 * @return the player's score
+		 */
+		public int getScore() {
+			return score;
+		}
+
+		/**
+		 * Gets the player's remaining lives.
+		 * @return the player's remaining lives
+		 */
+		public int getLives() {
+			return lives;
+		}
+
+	}
+
+	/**
+	 * The state of an aircraft in a frame.
+	 */
+	public static class AircraftState {
+
+		/** The aircraft's name */
+		private final String name;
+
+		/** The aircraft's state, in the units it was stored in */
+		private final int[] state;
+
+		/**
+		 * Constructor for an aircraft's state.
+		 * @param name - the aircraft's name
+		 * @param state - the aircraft's state, as stored
+		 */
+		private AircraftState(String name, int[] state) {
+			this.name = name;
+			this.state = state;
+		}
+
+		/**
+		 * Gets the aircraft's name.
+		 * @return the aircraft's name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Gets the ID of the player controlling the aircraft.
+		 * @return the ID of the player controlling the aircraft
+		 */
+		public int getOwner() {
+			return state[TelemetryWriter.OWNER];
+		}
+
+		/**
+		 * Gets the aircraft's x coordinate.
+		 * @return the aircraft's x coordinate, to the nearest eighth of a pixel
+		 */
+		public double getX() {
+			return state[TelemetryWriter.X] / TelemetryWriter.POSITION_SCALE;
+		}
+
+		/**
+		 * Gets the aircraft's y coordinate.
+		 * @return the aircraft's y coordinate, to the nearest eighth of a pixel
+		 */
+		public double getY() {
+			return state[TelemetryWriter.Y] / TelemetryWriter.POSITION_SCALE;
+		}
+
+		/**
+		 * Gets the aircraft's altitude.
+		 * @return the aircraft's altitude, to the nearest foot
+		 */
+		public int getAltitude() {
+			return state[TelemetryWriter.ALTITUDE];
+		}
+
+		/**
+		 * Gets the aircraft's bearing.
+		 * @return the aircraft's bearing, to the nearest milliradian
+		 */
+		public double getBearing() {
+			return state[TelemetryWriter.BEARING] / TelemetryWriter.BEARING_SCALE;
+		}
+
+		/**
+		 * Gets the index of the waypoint the aircraft is heading for.
+		 * @return the index of the waypoint the aircraft is heading for
+		 */
+		public int getRouteStage() {
+			return state[TelemetryWriter.ROUTE_STAGE];
+		}
+
+		/**
+		 * Gets whether the aircraft was being manually controlled.
+		 * @return whether the aircraft was being manually controlled
+		 */
+		public boolean isManuallyControlled() {
+			return (state[TelemetryWriter.FLAGS] & TelemetryWriter.MANUAL) != 0;
+		}
+
+		/**
+		 * Gets whether the aircraft had finished its route.
+		 * @return whether the aircraft had finished its route
+		 */
+		public boolean isFinished() {
+			return (state[TelemetryWriter.FLAGS] & TelemetryWriter.FINISHED) != 0;
+		}
+
+		/**
+		 * Gets whether the aircraft was in danger of colliding.
+		 * @return whether the aircraft was in danger of colliding
+		 */
+		public boolean isInDanger() {
+			return (state[TelemetryWriter.FLAGS] & TelemetryWriter.IN_DANGER) != 0;
+		}
+
+	}
+
+	/**
+	 * The state of the game at one point in time.
+	 */
+	public static class Frame {
+
+		/** The time the game had run for */
+		private final double time;
+
+		/** The state of each player */
+		private final List<PlayerState> players;
+
+		/** The state of each aircraft */
+		private final List<AircraftState> aircraft;
+
+		/**
+		 * Constructor for a frame.
+		 * @param time - the time the game had run for
+		 * @param players - the state of each player
+		 * @param aircraft - the state of each aircraft
+		 */
+		private Frame(double time, List<PlayerState> players,
+				List<AircraftState> aircraft) {
+			this.time = time;
+			this.players = Collections.unmodifiableList(players);
+			this.aircraft = Collections.unmodifiableList(aircraft);
+		}
+
+		/**
+		 * Gets the time the game had run for.
+		 * @return the time the game had run for
+		 */
+		public double getTime() {
+			return time;
+		}
+
+		/**
+		 * Gets the state of each player.
+		 * @return the state of each player
+		 */
+		public List<PlayerState> getPlayers() {
+			return players;
+		}
+
+		/**
+		 * Gets the state of each aircraft.
+		 * @return the state of each aircraft
+		 */
+		public List<AircraftState> getAircraft() {
+			return aircraft;
+		}
+
+		/**
+		 * Gets the state of an aircraft.
+		 * @param name - the aircraft's name
+		 * @return the aircraft's state, or <code>null</code> if it wasn't
+		 * 			in the airspace
+		 */
+		public AircraftState getAircraft(String name) {
+			for (AircraftState state : aircraft) {
+				if (state.getName().equals(name)) return state;
+			}
+			return null;
+		}
+
+	}
+
+	/** The mapped file */
+	private final ByteBuffer log;
+
+	/** The version of the game the session was played in */
+	private final String gameVersion;
+
+	/** The width of the window the session was played in */
+	private final int width;
+
+	/** The height of the window the session was played in */
+	private final int height;
+
+	/** The time between frames */
+	private final double interval;
+
+	/** The offset of the first frame */
+	private final int start;
+
+	/** The offset after the last frame */
+	private int end;
+
+	/** The time of the last frame */
+	private double endTime;
+
+	/** The times of the keyframes */
+	private double[] keyframeTimes;
+
+	/** The offsets of the keyframes */
+	private int[] keyframeOffsets;
+
+	/** The offset of the frame after the current one */
+	private int position;
+
+	/** The time of the current frame, or NaN if no frame has been read */
+	private double time = Double.NaN;
+
+	/** The state of each player in the current frame */
+	private PlayerState[] players = new PlayerState[0];
+
+	/** The names of the aircraft in the current frame, by ID */
+	private final HashMap<Integer, String> names = new HashMap<Integer, String>();
+
+	/** The state of the aircraft in the current frame, by ID */
+	private final HashMap<Integer, int[]> states = new HashMap<Integer, int[]>();
+
+
+	/**
+	 * Constructor for a telemetry reader.
+	 * @param path - the telemetry file to read
+	 * @throws IOException if the file can't be read, or isn't telemetry
+	 */
+	public TelemetryReader(String path) throws IOException {
+		MappedByteBuffer mapped;
+
+		FileChannel channel = FileChannel.open(new File(path).toPath(),
+				StandardOpenOption.READ);
+		try {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Telemetry files over 2GB can't be mapped");
+			}
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			// The mapping stays valid once the channel is closed
+			channel.close();
+		}
+
+		log = mapped;
+
+		try {
+			if (log.getInt() != TelemetryWriter.MAGIC) {
+				throw new IOException(path + " is not telemetry");
+			}
+			if (log.getInt() != TelemetryWriter.VERSION) {
+				throw new IOException(path + " was written by an unsupported version");
+			}
+
+			byte[] version = new byte[log.getShort()];
+			log.get(version);
+			gameVersion = new String(version, StandardCharsets.UTF_8);
+			log.getLong();
+
+			interval = log.getDouble();
+			width = log.getInt();
+			height = log.getInt();
+		} catch (RuntimeException e) {
+			throw new IOException(path + " is not telemetry", e);
+		}
+
+		start = log.position();
+
+		if (!readIndex()) rebuildIndex();
+		position = start;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the version of the game the session was played in.
+	 * @return the version of the game the session was played in
+	 */
+	public String getGameVersion() {
+		return gameVersion;
+	}
+
+	/**
+	 * Gets the width of the window the session was played in.
+	 * @return the width of the window the session was played in
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the height of the window the session was played in.
+	 * @return the height of the window the session was played in
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Gets the time between frames.
+	 * @return the time between frames
+	 */
+	public double getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Gets the time of the first frame.
+	 * @return the time of the first frame
+	 */
+	public double getStartTime() {
+		return (keyframeTimes.length == 0) ? 0 : keyframeTimes[0];
+	}
+
+	/**
+	 * Gets the time of the last frame.
+	 * @return the time of the last frame
+	 */
+	public double getEndTime() {
+		return endTime;
+	}
+
+	/**
+	 * Gets the number of keyframes in the file.
+	 * @return the number of keyframes in the file
+	 */
+	public int getKeyframeCount() {
+		return keyframeTimes.length;
+	}
+
+
+	// Seeking --------------------------------------------------------------------------
+
+	/**
+	 * Gets the state of the game at a point in time.
+	 * <p>
+	 * The state is that of the last frame at or before the time, or of
+	 * the first frame if the time is before it.
+	 * </p>
+	 * @param time - the time to seek to
+	 * @return the state at that time, or <code>null</code> if the file
+	 * 			has no frames
+	 */
+	public Frame seek(double time) {
+		if (keyframeTimes.length == 0) return null;
+
+		// Go back to the last keyframe, unless it is quicker to keep going
+		int keyframe = findKeyframe(time);
+		if (Double.isNaN(this.time) || time < this.time
+				|| position <= keyframeOffsets[keyframe]) {
+			position = keyframeOffsets[keyframe];
+			readFrame();
+		}
+
+		while (position < end && peekFrameTime() <= time) {
+			readFrame();
+		}
+
+		return getFrame();
+	}
+
+	/**
+	 * Gets the state of the game in the current frame.
+	 * @return the current frame, or <code>null</code> if none has been read
+	 */
+	public Frame getFrame() {
+		if (Double.isNaN(time)) return null;
+
+		ArrayList<PlayerState> players = new ArrayList<PlayerState>();
+		for (PlayerState player : this.players) {
+			players.add(player);
+		}
+
+		ArrayList<AircraftState> aircraft = new ArrayList<AircraftState>();
+		for (Map.Entry<Integer, int[]> entry : states.entrySet()) {
+			aircraft.add(new AircraftState(names.get(entry.getKey()),
+					entry.getValue().clone()));
+		}
+
+		return new Frame(time, players, aircraft);
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Reads the index of keyframes from the end of the file.
+	 * @return <code>true</code> if the file has a valid index
+	 */
+	private boolean readIndex() {
+		int size = log.limit();
+		if (size - start < TelemetryWriter.FRAME_HEADER_SIZE + 12) return false;
+		if (log.getInt(size - 4) != TelemetryWriter.MAGIC) return false;
+
+		long offset = log.getLong(size - 12);
+		if (offset < start || offset > size - 12 - TelemetryWriter.FRAME_HEADER_SIZE
+				|| log.get((int) offset) != TelemetryWriter.INDEX) {
+			return false;
+		}
+
+		log.position((int) offset + TelemetryWriter.FRAME_HEADER_SIZE);
+		int count = (int) SessionLog.getVarLong(log);
+		keyframeTimes = new double[count];
+		keyframeOffsets = new int[count];
+
+		for (int i = 0; i < count; i++) {
+			keyframeTimes[i] = log.getDouble();
+			keyframeOffsets[i] = (int) log.getLong();
+		}
+
+		end = (int) offset;
+		findEndTime();
+		return true;
+	}
+
+	/**
+	 * Rebuilds the index of keyframes by scanning the frames.
+	 */
+	private void rebuildIndex() {
+		ArrayList<Double> times = new ArrayList<Double>();
+		ArrayList<Integer> offsets = new ArrayList<Integer>();
+		int offset = start;
+
+		while (offset + TelemetryWriter.FRAME_HEADER_SIZE <= log.limit()) {
+			byte tag = log.get(offset);
+			int length = log.getInt(offset + 1);
+			int next = offset + TelemetryWriter.FRAME_HEADER_SIZE + length;
+
+			// Stop at a frame which was cut short
+			if (length < 0 || next > log.limit()) break;
+			if (tag == TelemetryWriter.INDEX) break;
+
+			if (tag == TelemetryWriter.KEYFRAME) {
+				times.add(log.getDouble(offset + TelemetryWriter.FRAME_HEADER_SIZE));
+				offsets.add(offset);
+			}
+			offset = next;
+		}
+
+		keyframeTimes = new double[times.size()];
+		keyframeOffsets = new int[offsets.size()];
+		for (int i = 0; i < times.size(); i++) {
+			keyframeTimes[i] = times.get(i);
+			keyframeOffsets[i] = offsets.get(i);
+		}
+
+		end = offset;
+		findEndTime();
+	}
+
+	/**
+	 * Finds the time of the last frame, from the last keyframe.
+	 */
+	private void findEndTime() {
+		if (keyframeOffsets.length == 0) return;
+
+		int offset = keyframeOffsets[keyframeOffsets.length - 1];
+		while (offset < end) {
+			endTime = log.getDouble(offset + TelemetryWriter.FRAME_HEADER_SIZE);
+			offset += TelemetryWriter.FRAME_HEADER_SIZE + log.getInt(offset + 1);
+		}
+	}
+
+	/**
+	 * Finds the last keyframe at or before a time.
+	 * @param time - the time to search for
+	 * @return the index of the keyframe, or 0 if the time is before them all
+	 */
+	private int findKeyframe(double time) {
+		int low = 0;
+		int high = keyframeTimes.length - 1;
+
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (keyframeTimes[middle] <= time) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Gets the time of the frame after the current one.
+	 * @return the frame's time
+	 */
+	private double peekFrameTime() {
+		return log.getDouble(position + TelemetryWriter.FRAME_HEADER_SIZE);
+	}
+
+	/**
+	 * Reads the frame after the current one, applying it to the state.
+	 */
+	private void readFrame() {
+		byte tag = log.get(position);
+		int length = log.getInt(position + 1);
+
+		log.position(position + TelemetryWriter.FRAME_HEADER_SIZE);
+		time = log.getDouble();
+
+		players = new PlayerState[(int) SessionLog.getVarLong(log)];
+		for (int i = 0; i < players.length; i++) {
+			players[i] = new PlayerState(SessionLog.getVarInt(log),
+					SessionLog.getVarInt(log), SessionLog.getVarInt(log));
+		}
+
+		if (tag == TelemetryWriter.KEYFRAME) {
+			names.clear();
+			states.clear();
+			readAircraft((int) SessionLog.getVarLong(log));
+		} else {
+			long removed = SessionLog.getVarLong(log);
+			for (long i = 0; i < removed; i++) {
+				int id = (int) SessionLog.getVarLong(log);
+				names.remove(id);
+				states.remove(id);
+			}
+
+			readAircraft((int) SessionLog.getVarLong(log));
+
+			long changed = SessionLog.getVarLong(log);
+			for (long i = 0; i < changed; i++) {
+				int[] state = states.get((int) SessionLog.getVarLong(log));
+				int changes = log.get();
+
+				for (int field = 0; field < TelemetryWriter.FIELDS; field++) {
+					if ((changes & (1 << field)) != 0) {
+						state[field] += SessionLog.getVarInt(log);
+					}
+				}
+			}
+		}
+
+		position += TelemetryWriter.FRAME_HEADER_SIZE + length;
+	}
+
+	/**
+	 * Reads the whole state of a number of aircraft.
+	 * @param count - the number of aircraft to read
+	 */
+	private void readAircraft(int count) {
+		for (int i = 0; i < count; i++) {
+			int id = (int) SessionLog.getVarLong(log);
+			byte[] name = new byte[(int) SessionLog.getVarLong(log)];
+			log.get(name);
+
+			int[] state = new int[TelemetryWriter.FIELDS];
+			for (int field = 0; field < state.length; field++) {
+				state[field] = SessionLog.getVarInt(log);
+			}
+
+			names.put(id, new String(name, StandardCharsets.UTF_8));
+			states.put(id, state);
+		}
+	}
+
+}
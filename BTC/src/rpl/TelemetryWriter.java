@@ -0,0 +1,491 @@
+package rpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import btc.Main;
+import cls.Aircraft;
+import cls.Player;
+import lib.jog.window;
+
+/**
+ * <h1>Telemetry Writer</h1>
+ * <p>
+ * Writes the state of every aircraft and player to a telemetry file at
+ * regular intervals, so that a session can be reviewed afterwards.
+ * </p>
+ * <p>
+ * The file is written append-only, as a series of frames. Every so often
+ * a keyframe holds the whole state; the frames between hold only what
+ * has changed since the previous frame: aircraft which have arrived or
+ * left, and the fields of the others which have changed, as differences.
+ * When the file is closed, an index of the keyframes' times and offsets
+ * is appended, so that a reader can seek to any time by decoding at most
+ * one keyframe's worth of frames.
+ * </p>
+ * <p>
+ * Positions are stored in eighths of a pixel, bearings in milliradians
+ * and altitudes in feet, so the differences between frames are small
+ * integers, written in one or two bytes.
+ * </p>
+ */
+public class TelemetryWriter {
+
+	/** Identifies a file as telemetry ("BTCT") */
+	static final int MAGIC = 0x42544354;
+
+	/** The version of the format */
+	static final int VERSION = 1;
+
+	/** The extension given to telemetry files */
+	public static final String EXTENSION = ".btct";
+
+	// Frame tags
+	static final byte KEYFRAME = 1;
+	static final byte DELTA = 2;
+	static final byte INDEX = 3;
+
+	// The fields of each aircraft's state
+	static final int X = 0;
+	static final int Y = 1;
+	static final int ALTITUDE = 2;
+	static final int BEARING = 3;
+	static final int ROUTE_STAGE = 4;
+	static final int FLAGS = 5;
+	static final int OWNER = 6;
+	static final int FIELDS = 7;
+
+	// Flags in the FLAGS field
+	static final int MANUAL = 1;
+	static final int FINISHED = 2;
+	static final int IN_DANGER = 4;
+
+	/** The number of units positions are stored in per pixel */
+	static final double POSITION_SCALE = 8;
+
+	/** The number of units bearings are stored in per radian */
+	static final double BEARING_SCALE = 1000;
+
+	/** The number of bytes in a frame's header: its tag and length */
+	static final int FRAME_HEADER_SIZE = 5;
+
+	/** The size of the buffer frames are written to */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** The directory telemetry is written to, or "off" to not write it */
+	private static String directory = System.getProperty("btc.telemetry",
+			"telemetry");
+
+	/** The time between frames, in seconds */
+	private static double defaultInterval = Double.parseDouble(
+			System.getProperty("btc.telemetry.interval", "0.1"));
+
+	/** The number of frames between keyframes */
+	private static int defaultKeyframeInterval = Integer.getInteger(
+			"btc.telemetry.keyframes", 50);
+
+	/** The file being written to */
+	private final String path;
+
+	/** The file being written to */
+	private final FileChannel channel;
+
+	/** The frames which haven't yet been written to the file */
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/** The frame being encoded, which grows to fit the largest frame */
+	private ByteBuffer frame = ByteBuffer.allocate(4096);
+
+	/** The number of bytes written to the file */
+	private long written;
+
+	/** The time between frames, in seconds */
+	private final double interval;
+
+	/** The number of frames between keyframes */
+	private final int keyframeInterval;
+
+	/** The time the next frame is due */
+	private double nextFrameTime;
+
+	/** The number of frames written since the last keyframe */
+	private int framesSinceKeyframe;
+
+	/** The times of the keyframes */
+	private final ArrayList<Double> keyframeTimes = new ArrayList<Double>();
+
+	/** The offsets of the keyframes in the file */
+	private final ArrayList<Long> keyframeOffsets = new ArrayList<Long>();
+
+	/** The IDs given to aircraft, by name */
+	private final HashMap<String, Integer> ids = new HashMap<String, Integer>();
+
+	/** The state of each aircraft in the previous frame, by name */
+	private HashMap<String, int[]> previous = new HashMap<String, int[]>();
+
+	/** Whether the file has been closed */
+	private boolean isClosed;
+
+
+	/**
+	 * Starts writing telemetry for a new game.
+	 * <p>
+	 * Telemetry isn't written while testing, or if the btc.telemetry
+	 * property is "off".
+	 * </p>
+	 * @return the writer, or <code>null</code> if telemetry isn't
+	 * 			being written
+	 */
+	public static TelemetryWriter start() {
+		if (Main.testing || directory.equals("off")) return null;
+
+		File file = new File(directory, "session-" + System.currentTimeMillis()
+				+ EXTENSION);
+		file.getParentFile().mkdirs();
+
+		try {
+			return new TelemetryWriter(file.getPath(), defaultInterval,
+					defaultKeyframeInterval, window.width(), window.height());
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Constructor for a telemetry writer.
+	 * @param path - the file to write to
+	 * @param interval - the time between frames, in seconds
+	 * @param keyframeInterval - the number of frames between keyframes
+	 * @param width - the width of the window
+	 * @param height - the height of the window
+	 * @throws IOException if the file can't be created
+	 */
+	public TelemetryWriter(String path, double interval, int keyframeInterval,
+			int width, int height) throws IOException {
+		this.path = path;
+		this.interval = interval;
+		this.keyframeInterval = Math.max(1, keyframeInterval);
+		this.channel = FileChannel.open(new File(path).toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+
+		byte[] version = Main.VERSION.getBytes(StandardCharsets.UTF_8);
+
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putShort((short) version.length);
+		buffer.put(version);
+		buffer.putLong(System.currentTimeMillis());
+		buffer.putDouble(interval);
+		buffer.putInt(width);
+		buffer.putInt(height);
+	}
+
+
+	// Writing --------------------------------------------------------------------------
+
+	/**
+	 * Writes a frame, if one is due.
+	 * @param time - the time the game has run for
+	 * @param players - the players in the game
+	 */
+	public void sample(double time, Player[] players) {
+		if (isClosed || time < nextFrameTime) return;
+		nextFrameTime = time + interval;
+
+		// Gather the current state of every aircraft
+		HashMap<String, int[]> current = new HashMap<String, int[]>();
+		for (Player player : players) {
+			if (player == null) continue;
+
+			for (Aircraft aircraft : player.getAircraft()) {
+				current.put(aircraft.getName(), getState(aircraft, player));
+			}
+		}
+
+		reserve(64 + 64 * players.length + 64 * (current.size() + previous.size()));
+
+		boolean isKeyframe = (framesSinceKeyframe == 0);
+		frame.put(isKeyframe ? KEYFRAME : DELTA);
+		frame.putInt(0);
+		frame.putDouble(time);
+
+		SessionLog.putVarLong(frame, players.length);
+		for (Player player : players) {
+			SessionLog.putVarInt(frame, (player == null) ? -1 : player.getID());
+			SessionLog.putVarInt(frame, (player == null) ? 0 : player.getScore());
+			SessionLog.putVarInt(frame, (player == null) ? 0 : player.getLives());
+		}
+
+		if (isKeyframe) {
+			writeKeyframe(current);
+		} else {
+			writeDelta(current);
+		}
+
+		frame.putInt(1, frame.position() - FRAME_HEADER_SIZE);
+		previous = current;
+
+		if (isKeyframe) {
+			keyframeTimes.add(time);
+			keyframeOffsets.add(written + buffer.position());
+		}
+		framesSinceKeyframe = (framesSinceKeyframe + 1) % keyframeInterval;
+
+		writeFrame();
+	}
+
+	/**
+	 * Appends the index of keyframes and closes the file.
+	 */
+	public void close() {
+		if (isClosed) return;
+
+		long indexOffset = written + buffer.position();
+		reserve(16 + 16 * keyframeTimes.size());
+
+		frame.put(INDEX);
+		frame.putInt(0);
+		SessionLog.putVarLong(frame, keyframeTimes.size());
+		for (int i = 0; i < keyframeTimes.size(); i++) {
+			frame.putDouble(keyframeTimes.get(i));
+			frame.putLong(keyframeOffsets.get(i));
+		}
+		frame.putInt(1, frame.position() - FRAME_HEADER_SIZE);
+
+		// The trailer locates the index from the end of the file
+		frame.putLong(indexOffset);
+		frame.putInt(MAGIC);
+		writeFrame();
+
+		isClosed = true;
+
+		try {
+			flush();
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Gets the file being written to.
+	 * @return the path of the file
+	 */
+	public String getPath() {
+		return path;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Gets the state of an aircraft, in the units it is stored in.
+	 * @param aircraft - the aircraft
+	 * @param owner - the player controlling the aircraft
+	 * @return the aircraft's state
+	 */
+	private static int[] getState(Aircraft aircraft, Player owner) {
+		int[] state = new int[FIELDS];
+
+		state[X] = (int) Math.round(aircraft.getPosition().getX() * POSITION_SCALE);
+		state[Y] = (int) Math.round(aircraft.getPosition().getY() * POSITION_SCALE);
+		state[ALTITUDE] = (int) Math.round(aircraft.getPosition().getZ());
+		state[BEARING] = (int) Math.round(aircraft.getBearing() * BEARING_SCALE);
+		state[ROUTE_STAGE] = aircraft.getRouteStage();
+		state[FLAGS] = (aircraft.isManuallyControlled() ? MANUAL : 0)
+				| (aircraft.isFinished() ? FINISHED : 0)
+				| (aircraft.isInDanger() ? IN_DANGER : 0);
+		state[OWNER] = owner.getID();
+
+		return state;
+	}
+
+	/**
+	 * Encodes the state of every aircraft.
+	 * @param current - the state of each aircraft, by name
+	 */
+	private void writeKeyframe(HashMap<String, int[]> current) {
+		// Keyframes replace the whole state, so aircraft which have left
+		// the airspace give up their IDs
+		ids.keySet().retainAll(current.keySet());
+
+		SessionLog.putVarLong(frame, current.size());
+
+		for (Map.Entry<String, int[]> entry : current.entrySet()) {
+			writeAircraft(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Encodes the changes to aircraft since the previous frame.
+	 * @param current - the state of each aircraft, by name
+	 */
+	private void writeDelta(HashMap<String, int[]> current) {
+		// Aircraft which have left the airspace
+		int removed = 0;
+		for (String name : previous.keySet()) {
+			if (!current.containsKey(name)) removed++;
+		}
+
+		SessionLog.putVarLong(frame, removed);
+		for (String name : previous.keySet()) {
+			if (!current.containsKey(name)) {
+				SessionLog.putVarLong(frame, ids.remove(name));
+			}
+		}
+
+		// Aircraft which have entered the airspace
+		int added = 0;
+		for (String name : current.keySet()) {
+			if (!previous.containsKey(name)) added++;
+		}
+
+		SessionLog.putVarLong(frame, added);
+		for (Map.Entry<String, int[]> entry : current.entrySet()) {
+			if (!previous.containsKey(entry.getKey())) {
+				writeAircraft(entry.getKey(), entry.getValue());
+			}
+		}
+
+		// Aircraft whose state has changed
+		ArrayList<String> changed = new ArrayList<String>();
+		for (Map.Entry<String, int[]> entry : current.entrySet()) {
+			int[] before = previous.get(entry.getKey());
+			if (before != null && getChanges(before, entry.getValue()) != 0) {
+				changed.add(entry.getKey());
+			}
+		}
+
+		SessionLog.putVarLong(frame, changed.size());
+		for (String name : changed) {
+			int[] before = previous.get(name);
+			int[] after = current.get(name);
+			int changes = getChanges(before, after);
+
+			SessionLog.putVarLong(frame, ids.get(name));
+			frame.put((byte) changes);
+			for (int i = 0; i < FIELDS; i++) {
+				if ((changes & (1 << i)) != 0) {
+					SessionLog.putVarInt(frame, after[i] - before[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Encodes an aircraft's ID, name and whole state.
+	 * @param name - the aircraft's name
+	 * @param state - the aircraft's state
+	 */
+	private void writeAircraft(String name, int[] state) {
+		Integer id = ids.get(name);
+		if (id == null) {
+			id = nextId();
+			ids.put(name, id);
+		}
+
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+		SessionLog.putVarLong(frame, id);
+		SessionLog.putVarLong(frame, bytes.length);
+		frame.put(bytes);
+		for (int field : state) {
+			SessionLog.putVarInt(frame, field);
+		}
+	}
+
+	/**
+	 * Gets the lowest ID which isn't in use, so that IDs stay small.
+	 * @return the ID to give a new aircraft
+	 */
+	private int nextId() {
+		boolean[] used = new boolean[ids.size() + 1];
+
+		Iterator<Integer> iterator = ids.values().iterator();
+		while (iterator.hasNext()) {
+			int id = iterator.next();
+			if (id < used.length) used[id] = true;
+		}
+
+		int id = 0;
+		while (used[id]) id++;
+		return id;
+	}
+
+	/**
+	 * Gets which fields of an aircraft's state have changed.
+	 * @param before - the aircraft's previous state
+	 * @param after - the aircraft's current state
+	 * @return a bit for each field, set if it has changed
+	 */
+	private static int getChanges(int[] before, int[] after) {
+		int changes = 0;
+
+		for (int i = 0; i < FIELDS; i++) {
+			if (before[i] != after[i]) changes |= 1 << i;
+		}
+
+		return changes;
+	}
+
+	/**
+	 * Clears the frame being encoded, making sure it can hold a number
+	 * of bytes.
+	 * @param size - the largest number of bytes the frame may take
+	 */
+	private void reserve(int size) {
+		if (frame.capacity() < size) {
+			frame = ByteBuffer.allocate(Math.max(size, frame.capacity() * 2));
+		}
+		frame.clear();
+	}
+
+	/**
+	 * Appends the encoded frame to the file.
+	 */
+	private void writeFrame() {
+		frame.flip();
+
+		try {
+			if (frame.remaining() > buffer.remaining()) flush();
+
+			if (frame.remaining() > buffer.remaining()) {
+				// Too large to buffer
+				written += frame.remaining();
+				while (frame.hasRemaining()) {
+					channel.write(frame);
+				}
+			} else {
+				buffer.put(frame);
+			}
+		} catch (IOException e) {
+			// Stop writing telemetry, rather than stopping the game
+			e.printStackTrace();
+			isClosed = true;
+		}
+	}
+
+	/**
+	 * Writes the buffered frames to the file.
+	 * @throws IOException if the frames can't be written
+	 */
+	private void flush() throws IOException {
+		buffer.flip();
+		written += buffer.remaining();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
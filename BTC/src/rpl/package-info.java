@@ -0,0 +1,5 @@
+/**
+ * Contains the recording and replaying of game sessions
+ */
+package rpl;
+//This is a header file for Javadoc
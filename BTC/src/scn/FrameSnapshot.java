@@ -0,0 +1,146 @@
+package scn;
+
+import java.util.ArrayList;
+
+import lib.SpriteAnimation;
+import cls.Aircraft;
+import cls.Airport;
+import cls.Camera;
+import cls.Player;
+
+/**
+ * <h1>Frame Snapshot</h1>
+ * <p>
+ * A copy of the game state which is drawn by the render thread.
+ * </p>
+ * <p>
+ * Snapshots are created by the simulation thread at the end of each update,
+ * and are never modified by it afterwards, so the render thread may draw
+ * one while the next update is in progress.
+ * </p>
+ */
+public class FrameSnapshot {
+
+	/** The copy of the current player */
+	private final Player player;
+
+	/** The copy of the opposing player, or null in a single player game */
+	private final Player opposingPlayer;
+
+	/** The copies of the explosion animations in progress */
+	private final SpriteAnimation[] explosions;
+
+	/** The time the game had been running for */
+	private final double timeElapsed;
+
+	/** The number of aircraft in the airspace */
+	private final int aircraftCount;
+
+	/** The copy of the view of the airspace */
+	private final Camera camera;
+
+
+	/**
+	 * Constructor for a frame snapshot.
+	 * @param player - the current player
+	 * @param opposingPlayer - the opposing player, or <code>null</code>
+	 * @param explosions - copies of the explosion animations in progress
+	 * @param timeElapsed - the time the game has been running for
+	 * @param aircraftCount - the number of aircraft in the airspace
+	 * @param camera - the view of the airspace
+	 */
+	public FrameSnapshot(Player player, Player opposingPlayer,
+			SpriteAnimation[] explosions, double timeElapsed,
+			int aircraftCount, Camera camera) {
+		this.player = copyPlayer(player);
+		this.opposingPlayer = copyPlayer(opposingPlayer);
+		this.timeElapsed = timeElapsed;
+		this.aircraftCount = aircraftCount;
+		this.camera = (camera != null) ? camera.clone() : new Camera();
+		this.explosions = (explosions != null) ? explosions : new SpriteAnimation[0];
+	}
+
+	/**
+	 * Copies a player, including the aircraft, flight strips and airports
+	 * it holds.
+	 * <p>
+	 * Player.clone() only copies the lists themselves, which would leave
+	 * the render thread drawing aircraft that are still being updated.
+	 * </p>
+	 * @param player - the player to copy
+	 * @return a copy of the player which shares no mutable state with it
+	 */
+	private static Player copyPlayer(Player player) {
+		if (player == null) return null;
+
+		Player copy = player.clone();
+
+		ArrayList<Aircraft> aircraft = copy.getAircraft();
+		for (int i = 0; i < aircraft.size(); i++) {
+			aircraft.set(i, aircraft.get(i).clone());
+		}
+
+		// Only the flight strips which are drawn need copying
+		copy.getFlightStripBoard().copyShown();
+
+		Airport[] airports = copy.getAirports();
+		for (int i = 0; i < airports.length; i++) {
+			airports[i] = airports[i].clone();
+		}
+
+		return copy;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the copy of the current player.
+	 * @return the copy of the current player
+	 */
+	public Player getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Gets the copy of the opposing player.
+	 * @return the copy of the opposing player, or <code>null</code> in
+	 * 			a single player game
+	 */
+	public Player getOpposingPlayer() {
+		return opposingPlayer;
+	}
+
+	/**
+	 * Gets the explosion animations in progress.
+	 * @return the explosion animations in progress
+	 */
+	public SpriteAnimation[] getExplosions() {
+		return explosions;
+	}
+
+	/**
+	 * Gets the time the game had been running for.
+	 * @return the time the game had been running for
+	 */
+	public double getTimeElapsed() {
+		return timeElapsed;
+	}
+
+	/**
+	 * Gets the number of aircraft in the airspace.
+	 * @return the number of aircraft in the airspace
+	 */
+	public int getAircraftCount() {
+		return aircraftCount;
+	}
+
+	/**
+	 * Gets the copy of the view of the airspace.
+	 * @return the copy of the camera
+	 */
+	public Camera getCamera() {
+		return camera;
+	}
+
+}
@@ -3,10 +3,17 @@ package scn;
 import java.io.File;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.newdawn.slick.Color;
 
-import lib.SpriteAnimation;
+import lib.AssetManager;
+import lib.EventBus;
+import lib.Profiler;
+import lib.AnimationPool;
+import lib.SpriteSheet;
+import lib.TimerWheel;
+import lib.TripleBuffer;
 import lib.jog.audio;
 import lib.jog.graphics;
 import lib.jog.input;
@@ -15,13 +22,28 @@ import lib.jog.audio.Music;
 import lib.jog.audio.Sound;
 import lib.jog.graphics.Image;
 import cls.Aircraft;
+import cls.AircraftRegistry;
+import cls.AircraftUpdater;
+import cls.AirspaceIndex;
 import cls.Airport;
+import cls.Camera;
 import cls.FlightStrip;
+import cls.FlightStripBoard;
+import cls.GameEvent;
 import cls.Player;
 import cls.Vector;
 import cls.Player.TurningState;
+import cls.SectorTree;
 import cls.Waypoint;
+import btc.GameSettings;
 import btc.Main;
+import btc.SessionContext;
+import bot.Autopilot;
+import trf.FixedRateTraffic;
+import trf.TrafficGenerator;
+import trf.TrafficModel;
+import rpl.SessionRecorder;
+import rpl.TelemetryWriter;
 
 public abstract class Game extends Scene {
 
@@ -37,26 +59,23 @@ public abstract class Game extends Scene {
 	/** The image to use for airports */
 	public static Image airportImage;
 
-	/** The unique instance of this class */
-	protected static Game instance = null;
-
 	/** The time since the scene began */
-	protected static double timeElapsed;
+	protected double timeElapsed;
 
 	/** The music to play during the game scene */
-	protected static Music music;
+	protected Music music;
 
 	/** The background to draw in the airspace */
-	protected static Image background;
+	protected Image background;
 
 	/** The airports in the airspace */
-	protected static Airport[] airports;
+	protected Airport[] airports;
 
 	/** The set of waypoints in the airspace which are entry/exit points */
-	protected static Waypoint[] locationWaypoints;
+	protected Waypoint[] locationWaypoints;
 
 	/** The waypoints through which aircraft must travel to reach their destination */
-	protected static Waypoint[] airspaceWaypoints;
+	protected Waypoint[] airspaceWaypoints;
 
 	/** Difficulty settings: easy, medium and hard */
 	public enum DifficultySetting {EASY, MEDIUM, HARD}
@@ -67,8 +86,125 @@ public abstract class Game extends Scene {
 	/** The current difficulty setting */
 	protected DifficultySetting difficulty;
 
-	/** A sprite animation to handle the frame by frame drawing of the explosion */
-	protected ArrayList<SpriteAnimation> explosionAnimations;
+	/** Records the session, or <code>null</code> if it isn't being recorded */
+	private SessionRecorder recorder;
+
+	/** Writes the game's telemetry, or <code>null</code> if it isn't written */
+	private TelemetryWriter telemetry;
+
+	/** Plays in place of the player, or <code>null</code> if a person is */
+	private Autopilot autopilot;
+
+	/** Whether the game has ended, so is no longer updated */
+	private boolean isOver;
+
+	/** Whether the game ended because aircraft collided */
+	private boolean isCrashed;
+
+	/** The explosion animations being played, timed by the game clock */
+	protected final AnimationPool explosionAnimations = new AnimationPool(8);
+
+	/** The frames of the explosion animation, shared by every explosion */
+	protected SpriteSheet explosionSheet;
+
+	/** Indexes the players' aircraft, flight strips and airports */
+	protected final AircraftRegistry aircraftRegistry = new AircraftRegistry();
+
+	/** Indexes the aircraft by position and target, to find clear entry points */
+	protected final AirspaceIndex airspaceIndex = new AirspaceIndex();
+
+	/** Divides the airspace into sectors by the aircraft in it */
+	protected final SectorTree sectors = new SectorTree();
+
+	/** The aircraft near the one whose collisions are being checked */
+	private final ArrayList<Aircraft> nearbyAircraft = new ArrayList<Aircraft>();
+
+	/** The aircraft being updated in full this update */
+	private final ArrayList<Aircraft> detailedAircraft = new ArrayList<Aircraft>();
+
+	/** The view of the airspace, moved by the player */
+	protected final Camera camera = new Camera();
+
+	/** The view of the airspace in the frame being drawn */
+	private Camera frameCamera = camera;
+
+	/** The size of the airspace, or 0 for the size of the window's map area */
+	private double airspaceWidth, airspaceHeight;
+
+	/** The number of times the game has been updated */
+	private int updateCount;
+
+	/** The mouse position the camera was last panned to, or -1 if it isn't
+	 * being dragged */
+	private int panX = -1, panY = -1;
+
+	/** The length of a tick of the game's timers, in seconds */
+	private static final double TIMER_TICK = 1.0 / 60;
+
+	/** Runs timed game events, driven by the game clock */
+	protected final TimerWheel timers = new TimerWheel(TIMER_TICK);
+
+	/** Delivers changes to the game's state to the parts which react to them */
+	protected final EventBus events = new EventBus();
+
+	/** The settings of the session the game is played in */
+	protected final GameSettings settings = SessionContext.current().getSettings();
+
+	/** Updates the aircraft of each player */
+	protected final AircraftUpdater aircraftUpdater = new AircraftUpdater(
+			settings.getUpdateThreads(), settings.getUpdateThreshold());
+
+	/** The traffic generator for each player */
+	protected final ArrayList<TrafficGenerator> trafficGenerators =
+			new ArrayList<TrafficGenerator>();
+
+	/** How much each turn of the mouse wheel zooms the camera by */
+	private static final double ZOOM_STEP = 1.25;
+
+	/** The vertical offset at which flight strips are drawn */
+	protected static final int FLIGHT_STRIP_Y = 20;
+
+	/** The background image asset */
+	protected final AssetManager.Handle<Image> backgroundAsset = AssetManager
+			.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "bkg" + File.separator + "background_base.png");
+
+	/** The aircraft image asset */
+	protected final AssetManager.Handle<Image> aircraftAsset = AssetManager
+			.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "air" + File.separator + "plane.png");
+
+	/** The airport image asset */
+	protected final AssetManager.Handle<Image> airportAsset = AssetManager
+			.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "apt" + File.separator + "Airport.png");
+
+	/** The explosion animation image asset */
+	protected final AssetManager.Handle<Image> explosionAsset = AssetManager
+			.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "ani" + File.separator + "explosionFrames.png");
+
+	/** The crash sound asset */
+	protected final AssetManager.Handle<Sound> crashAsset = AssetManager
+			.acquire(AssetManager.SOUND, "sfx" + File.separator + "crash.ogg");
+
+	/** The separation warning sound asset */
+	protected final AssetManager.Handle<Sound> warningAsset = AssetManager
+			.acquire(AssetManager.SOUND, "sfx" + File.separator + "beep.ogg");
+
+	/** The music asset */
+	protected final AssetManager.Handle<Music> musicAsset = AssetManager
+			.acquire(AssetManager.MUSIC, "sfx" + File.separator
+					+ "retro-90s-arcade-machine.ogg");
+
+	/** Profiler scopes for the stages of an update */
+	private static final Profiler.Scope COLLISIONS_SCOPE = Profiler.scope("checkCollisions");
+	private static final Profiler.Scope PLAYER_SCOPE = Profiler.scope("updatePlayer");
+	private static final Profiler.Scope STRIPS_SCOPE = Profiler.scope("flightStrips");
+
+	/** The snapshots handed from the simulation thread to the render thread */
+	private final TripleBuffer<FrameSnapshot> frames =
+			new TripleBuffer<FrameSnapshot>();
 
 
 	// Constructors ---------------------------------------------------------------------
@@ -101,12 +237,12 @@ public abstract class Game extends Scene {
 		locationWaypoints = new Waypoint[] {
 				new Waypoint(8, 8,
 						true, "North West Top Leftonia", false),
-						new Waypoint(8, window.height() - (2 * Y_OFFSET) - 4,
+						new Waypoint(8, getAirspaceHeight() - 4,
 								true, "100 Acre Woods", false),
-								new Waypoint(window.width() - (2 * X_OFFSET) - 4, 8,
+								new Waypoint(getAirspaceWidth() - 4, 8,
 										true, "City of Rightson", false),
-										new Waypoint(window.width() - (2 * X_OFFSET) - 4,
-												window.height() - (2 * Y_OFFSET) - 4,
+										new Waypoint(getAirspaceWidth() - 4,
+												getAirspaceHeight() - 4,
 												true, "South Sea", false), airports[0], airports[1]
 		};
 
@@ -130,27 +266,40 @@ public abstract class Game extends Scene {
 		};
 
 		if (!Main.testing) {
-			// Load in graphics
-			background = graphics.newImage("gfx" + File.separator
-					+ "bkg" + File.separator + "background_base.png");
-
-			aircraftImage = graphics.newImage("gfx" + File.separator
-					+ "air" + File.separator + "plane.png");
-			airportImage = graphics.newImage("gfx" + File.separator
-					+ "apt" + File.separator + "Airport.png");
+			// Get the graphics, which have been preloaded
+			background = backgroundAsset.get();
+			aircraftImage = aircraftAsset.get();
+			airportImage = airportAsset.get();
 
-			// Load in music
-			music = audio.newMusic("sfx" + File.separator + "retro-90s-arcade-machine.ogg");
+			// Get the music
+			music = musicAsset.get();
 
 			// Start the music
 			music.setVolume(0.5f);
 			music.play();
-			
-			explosionAnimations = new ArrayList<SpriteAnimation>();
+
+			explosionSheet = new SpriteSheet(explosionAsset.get(), 6, 16, 8, 4, false);
 		}
 
+		explosionAnimations.clear();
+
 		// Reset game attributes
 		timeElapsed = 0;
+		updateCount = 0;
+		isOver = false;
+		isCrashed = false;
+		closeTelemetry();
+		telemetry = TelemetryWriter.start();
+		autopilot = Autopilot.start(this);
+		timers.reset();
+		events.clear();
+		airspaceIndex.clear();
+		trafficGenerators.clear();
+		camera.reset();
+		panX = -1;
+		panY = -1;
+
+		subscribeEvents();
 	}
 
 	/**
@@ -163,71 +312,61 @@ public abstract class Game extends Scene {
 	 */
 	@Override
 	public void update(double timeDifference) {
+		// Record the time step, and the input state read during the update
+		if (recorder != null) recorder.recordTick(timeDifference);
+
 		// Update the time the game has run for
 		timeElapsed += timeDifference;
+		updateCount++;
 
-		// Update any explosion animations
-		if (explosionAnimations.size() > 0) {
-			for (int i = explosionAnimations.size() - 1; i >= 0; i--) {
-				if (!explosionAnimations.get(i).hasFinished()) {
-					explosionAnimations.get(i).update(timeDifference);
-				} else {
-					explosionAnimations.remove(i);
-				}
-			}
-		}
+		// Re-index the players if any have been replaced
+		indexPlayers();
 
-		// Check if any aircraft in the airspace have collided
-		checkCollisions(timeDifference);
+		// Let the autopilot, if any, take the player's actions
+		if (autopilot != null) autopilot.update(timeElapsed);
 
-		// Update the player
-		updatePlayer(timeDifference, player);
+		// Bring the positions and targets of aircraft up to date, so that
+		// any flights generated below enter at clear entry points
+		airspaceIndex.update(getAllAircraft());
 
-		// Copy flight strip array
-		@SuppressWarnings("unchecked")
-		ArrayList<FlightStrip> shuffledFlightStrips =
-		(ArrayList<FlightStrip>) player.getFlightStrips().clone();
-		player.getFlightStrips().clear();
+		// Run any timed events which have become due
+		timers.advance(timeElapsed);
 
-		// Update flight strips
-		for (FlightStrip fs : shuffledFlightStrips) {
-			fs.update(timeDifference);
-			player.getFlightStrips().add(fs);
-		}
+		// Handle any events posted since the last update
+		events.dispatch();
 
-		// Deselect and remove any aircraft which have completed their routes
-		for (int i = player.getAircraft().size() - 1; i >= 0; i--) {
-			if (player.getAircraft().get(i).isFinished()) {
-				if (player.getAircraft().get(i).equals(player
-						.getSelectedAircraft())) {
-					deselectAircraft(player);
-				}
+		// Recycle any explosion animations which have finished
+		explosionAnimations.update(timeElapsed);
 
-				if (!player.getAircraft().get(i).isCrashed()) {
-					player.increaseScore(player.getAircraft().get(i).getScore());
-				}
+		// Check if any aircraft in the airspace have collided
+		long start = COLLISIONS_SCOPE.begin();
+		checkCollisions(timeDifference);
+		COLLISIONS_SCOPE.end(start);
 
-				if (player.getAircraft().get(i).isCrashed()) {
-					// Add to the players collided aircraft
-					player.setPlanesCollided(player.getPlanesCollided() + 1);
-				}
+		// Update the player
+		start = PLAYER_SCOPE.begin();
+		updatePlayer(timeDifference, player);
+		PLAYER_SCOPE.end(start);
 
-				if (player.getAircraft().get(i).isAtDestination()) {
-					if (player.getAircraft().get(i).getFlightPlan()
-							.getDestinationAirport() != null) {
-						// Add to the players landed plane count
-						player.setPlanesLanded(player.getPlanesLanded() + 1);
-					} else {
-						// Cleared
-						player.setPlanesCleared(player.getPlanesCleared() + 1);
-					}
-				}
+		// Score and remove any aircraft which have finished their flights,
+		// and handle any other events raised by the update
+		events.dispatch();
 
-				player.getFlightStrips().remove(getFlightStripFromAircraft(
-						player.getAircraft().get(i)));
+		// Write the state of the game, for review once it has ended
+		if (telemetry != null) telemetry.sample(timeElapsed, getPlayers());
 
-				player.getAircraft().remove(i);
-			}
+		// Update flight strips
+		start = STRIPS_SCOPE.begin();
+		player.getFlightStripBoard().update(timeDifference,
+				getFlightStripX(player), FLIGHT_STRIP_Y,
+				window.height() - FLIGHT_STRIP_Y - getYOffset());
+		STRIPS_SCOPE.end(start);
+
+		// Pan the camera with the mouse while it is being dragged
+		if (panX >= 0) {
+			camera.pan(input.mouseX() - panX, input.mouseY() - panY);
+			panX = input.mouseX();
+			panY = input.mouseY();
 		}
 
 		if (player.getSelectedAircraft() != null) {
@@ -279,14 +418,13 @@ public abstract class Game extends Scene {
 	 * @param player - the player to update
 	 */
 	protected void updatePlayer(double timeDifference, Player player) {
-		// Update aircraft
-		for (Aircraft aircraft : player.getAircraft()) {
-			aircraft.update(timeDifference);
-		}
+		// Update aircraft, in parallel if there are enough
+		aircraftUpdater.update(getAircraftToUpdate(player, timeDifference),
+				timeDifference);
 
 		// Update the airports
 		for (Airport airport : player.getAirports()) {
-			airport.update(player.getAircraft());
+			airport.update();
 		}
 
 		// Handle turning
@@ -299,32 +437,24 @@ public abstract class Game extends Scene {
 			}
 		}
 
-		// Update the counter used to determine when another flight should
-		// enter the airspace
-		// If the counter has reached 0, then spawn a new aircraft
-		player.setFlightGenerationTimeElapsed(player
-				.getFlightGenerationTimeElapsed() + timeDifference);
-
-		if (player.getFlightGenerationTimeElapsed()
-				>= getFlightGenerationInterval(player)) {
-			player.setFlightGenerationTimeElapsed(
-					player.getFlightGenerationTimeElapsed()
-					- getFlightGenerationInterval(player));
-
-			if (player.getAircraft().size() < player.getMaxAircraft()) {
-				generateFlight(player);
-			}
-		}
-
 		// If there are no aircraft in the airspace, spawn a new aircraft
 		//if (player.getAircraft().size() == 0) generateFlight(player);
 	}
 
 	/**
 	 * Draw the scene GUI and all drawables within it, e.g. aircraft and waypoints.
+	 * <p>
+	 * Everything is drawn from the most recent frame snapshot, as the
+	 * game state itself may be being updated on the simulation thread.
+	 * </p>
 	 */
 	@Override
 	public void draw() {
+		FrameSnapshot frame = frames.acquire();
+
+		// Nothing has been simulated yet
+		if (frame == null) return;
+
 		// Draw the rectangle surrounding the map area
 		graphics.setColour(graphics.white);
 		graphics.setFont(Main.mainFont);
@@ -335,35 +465,66 @@ public abstract class Game extends Scene {
 		graphics.setViewport(X_OFFSET, Y_OFFSET, window.width() - (2 * X_OFFSET),
 				window.height() - (2 * Y_OFFSET));
 
+		// Draw the part of the airspace in view, until the viewport is reset
+		frameCamera = frame.getCamera();
+		frameCamera.apply();
+
 		// Draw the map background
 		graphics.setColour(255, 255, 255, 80);
 		graphics.drawScaled(background, 0, 0,
 				Math.max(Main.getXScale(), Main.getYScale()));
 
 		// Draw individual map features
-		drawMapFeatures();
+		drawMapFeatures(frame);
 
 		// Reset the viewport - these statistics can appear outside the game
 		// area
 		graphics.setViewport();
-		drawAdditional(getAllAircraft().size());
+		drawAdditional(frame);
+	}
+
+	/**
+	 * Publishes a snapshot of the game state for the render thread to draw.
+	 */
+	@Override
+	public void publishFrame() {
+		frames.publish(createFrame());
+	}
+
+	/**
+	 * Creates a snapshot of the game state.
+	 * @return a snapshot of the game state
+	 */
+	protected FrameSnapshot createFrame() {
+		return new FrameSnapshot(player, null, explosionAnimations.copyActive(),
+				timeElapsed, getAllAircraft().size(), camera);
+	}
+
+	/**
+	 * Simulation of the game runs on its own thread.
+	 */
+	@Override
+	public boolean isSimulatedConcurrently() {
+		return true;
 	}
 
 	/**
 	 * Draws map features.
+	 * @param frame - the snapshot to draw
 	 */
-	protected void drawMapFeatures() {
+	protected void drawMapFeatures(FrameSnapshot frame) {
+		Player player = frame.getPlayer();
+
 		drawAirports(player);
 		drawWaypoints(player);
 		drawAircraft(player);
-		drawSelectedAircraft();
+		drawSelectedAircraft(player);
 
 		// Draw any explosions
 		graphics.setColour(graphics.red);
-		for (SpriteAnimation explosion : explosionAnimations) {
-			explosion.draw();
-		}
+		AnimationPool.draw(frame.getExplosions(), frame.getTimeElapsed());
 
+		frameCamera.restore();
 		graphics.setViewport();
 
 		graphics.setColour(Color.white);
@@ -375,9 +536,17 @@ public abstract class Game extends Scene {
 				window.height() - getYOffset() + 5, 1);
 
 		// Draw flight strips
-		for (FlightStrip fs : player.getFlightStrips()) {
-			fs.draw(16, 20);
-		}
+		player.getFlightStripBoard().draw(getFlightStripX(player),
+				FLIGHT_STRIP_Y);
+	}
+
+	/**
+	 * Gets the horizontal offset at which a player's flight strips are drawn.
+	 * @param player - the player whose flight strips are being drawn
+	 * @return the horizontal offset of the player's flight strips
+	 */
+	protected double getFlightStripX(Player player) {
+		return 16;
 	}
 
 	/**
@@ -392,9 +561,14 @@ public abstract class Game extends Scene {
 	protected void drawAircraft(Player player) {
 		graphics.setColour(255, 255, 255);
 
-		// Draw all aircraft, and show their routes if the mouse is hovering
-		// above them
+		// Draw all aircraft in view, and show their routes if the mouse is
+		// hovering above them
 		for (Aircraft aircraft : player.getAircraft()) {
+			if (!frameCamera.isVisible(aircraft.getPosition().getX(),
+					aircraft.getPosition().getY(), Aircraft.COMPASS_RADIUS)) {
+				continue;
+			}
+
 			aircraft.draw(player.getAircraftColour(), player.getControlAltitude());
 
 			//draw the score of each aircraft
@@ -407,8 +581,9 @@ public abstract class Game extends Scene {
 
 	/**
 	 * Draws additional features around the selected aircraft.
+	 * @param player - the player whose selected aircraft is to be drawn
 	 */
-	protected void drawSelectedAircraft() {
+	protected void drawSelectedAircraft(Player player) {
 		if (player.getSelectedAircraft() != null) {
 			// If the selected aircraft is under manual control,
 			// draw a directional compass around it
@@ -423,8 +598,8 @@ public abstract class Game extends Scene {
 						&& !player.getSelectedAircraft().isManuallyControlled()) {
 					player.getSelectedAircraft().drawModifiedPath(
 							player.getSelectedPathpoint(),
-							input.mouseX() - X_OFFSET,
-							input.mouseY() - Y_OFFSET);
+							toAirspaceX(input.mouseX()),
+							toAirspaceY(input.mouseY()));
 				}
 
 				// Draw the selected aircraft's flight path
@@ -445,9 +620,11 @@ public abstract class Game extends Scene {
 	 * </p>
 	 */
 	protected void drawWaypoints(Player player) {
-		// Draw all waypoints, except airport waypoints
+		// Draw all waypoints in view, except airport waypoints
 		for (Waypoint waypoint : player.getWaypoints()) {
-			if (!(waypoint instanceof Airport)) {
+			if (!(waypoint instanceof Airport) && frameCamera.isVisible(
+					waypoint.getLocation().getX(), waypoint.getLocation().getY(),
+					Waypoint.WAYPOINT_ICON_RADIUS)) {
 				waypoint.draw();
 			}
 		}
@@ -499,11 +676,13 @@ public abstract class Game extends Scene {
 	/**
 	 * Draws a readout of the time the game has been played for, and number of planes
 	 * in the sky.
+	 * @param frame - the snapshot to draw
 	 */
-	protected void drawAdditional(int aircraftCount) {
+	protected void drawAdditional(FrameSnapshot frame) {
 		graphics.setColour(Color.white);
 
 		// Get the time the game has been played for
+		double timeElapsed = frame.getTimeElapsed();
 		int hours = (int)(timeElapsed / (60 * 60));
 		int minutes = (int)(timeElapsed / 60) % 60;
 		double seconds = timeElapsed % 60;
@@ -531,6 +710,84 @@ public abstract class Game extends Scene {
 
 	// Event handling -------------------------------------------------------------------
 
+	/**
+	 * Subscribes the game to the events it reacts to.
+	 * <p>
+	 * Called each time the game starts, once any previous listeners have
+	 * been removed. Subclasses subscribing to further events should call
+	 * this first.
+	 * </p>
+	 */
+	protected void subscribeEvents() {
+		// Score and remove aircraft once they have finished their flights
+		events.subscribe(GameEvent.AircraftLanded.class,
+				new EventBus.Listener<GameEvent.AircraftLanded>() {
+			@Override
+			public void handle(GameEvent.AircraftLanded event) {
+				if (isPlayersAircraft(event.getAircraft())) {
+					player.increaseScore(event.getAircraft().getScore());
+					player.setPlanesLanded(player.getPlanesLanded() + 1);
+					removeFinishedAircraft(event.getAircraft());
+				}
+			}
+		});
+
+		events.subscribe(GameEvent.AircraftCleared.class,
+				new EventBus.Listener<GameEvent.AircraftCleared>() {
+			@Override
+			public void handle(GameEvent.AircraftCleared event) {
+				if (isPlayersAircraft(event.getAircraft())) {
+					player.increaseScore(event.getAircraft().getScore());
+					player.setPlanesCleared(player.getPlanesCleared() + 1);
+					removeFinishedAircraft(event.getAircraft());
+				}
+			}
+		});
+
+		events.subscribe(GameEvent.Crash.class,
+				new EventBus.Listener<GameEvent.Crash>() {
+			@Override
+			public void handle(GameEvent.Crash event) {
+				if (isPlayersAircraft(event.getAircraft())) {
+					player.setPlanesCollided(player.getPlanesCollided() + 1);
+					removeFinishedAircraft(event.getAircraft());
+				}
+			}
+		});
+
+		// Warn the player when aircraft get too close
+		events.subscribe(GameEvent.SeparationBreached.class,
+				new EventBus.Listener<GameEvent.SeparationBreached>() {
+			@Override
+			public void handle(GameEvent.SeparationBreached event) {
+				if (!Main.testing) {
+					warningAsset.get().play();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Checks whether an aircraft is controlled by the player.
+	 * @param aircraft - the aircraft to check
+	 * @return <code>true</code> if the aircraft is the player's
+	 */
+	private boolean isPlayersAircraft(Aircraft aircraft) {
+		return aircraftRegistry.getOwner(aircraft) == player;
+	}
+
+	/**
+	 * Deselects and removes an aircraft which has finished its flight.
+	 * @param aircraft - the aircraft which has finished
+	 */
+	private void removeFinishedAircraft(Aircraft aircraft) {
+		if (aircraft.equals(player.getSelectedAircraft())) {
+			deselectAircraft(player);
+		}
+
+		aircraftRegistry.remove(aircraft);
+	}
+
 	/**
 	 * Handles mouse click events.
 	 * @param key - the button which was pressed
@@ -539,24 +796,34 @@ public abstract class Game extends Scene {
 	 */
 	@Override
 	public void mousePressed(int key, int x, int y) {
+		if (recorder != null) recorder.mousePressed(key, x, y);
+
 		// Send input to flight strips
-		for (FlightStrip fs : player.getFlightStrips()) {
-			fs.mousePressed(key, x, y);
-		}
+		player.getFlightStripBoard().mousePressed(key, x, y);
+
+		// Find what was clicked in the airspace where it would be with the
+		// whole airspace in view
+		int mapX = getXOffset() + (int) toAirspaceX(x);
+		int mapY = getYOffset() + (int) toAirspaceY(y);
 
 		// Select an aircraft (if an aircraft was clicked)
-		if (aircraftClicked(x, y, player)) {
+		if (aircraftClicked(mapX, mapY, player)) {
 			deselectAircraft(player);
-			player.setSelectedAircraft(findClickedAircraft(x, y, player));
+			player.setSelectedAircraft(findClickedAircraft(mapX, mapY, player));
 		}
 
-		if (key == input.MOUSE_LEFT) {
-			if (waypointInFlightplanClicked(x, y, player.getSelectedAircraft(),
-					player) && !aircraftClicked(x, y, player)) {
+		if (key == input.MOUSE_MIDDLE && isCameraMovable()) {
+			// Start dragging the camera
+			panX = x;
+			panY = y;
+		} else if (key == input.MOUSE_LEFT) {
+			if (waypointInFlightplanClicked(mapX, mapY,
+					player.getSelectedAircraft(), player)
+					&& !aircraftClicked(mapX, mapY, player)) {
 				// If a waypoint in the currently selected aircraft's flight
 				// plan has been clicked, save this waypoint to the
 				// clicked waypoint attribute
-				player.setSelectedWaypoint(findClickedWaypoint(x, y, player));
+				player.setSelectedWaypoint(findClickedWaypoint(mapX, mapY, player));
 				if (player.getSelectedWaypoint() != null) {
 					if (!player.getSelectedWaypoint().isEntryOrExit()) {
 						player.setWaypointClicked(true); // Flag to mouseReleased
@@ -573,29 +840,29 @@ public abstract class Game extends Scene {
 
 			for (Airport airport : player.getAirports()) {
 				if (player.getSelectedAircraft() != null
-						&& airport.isArrivalsClicked(x, y)) {
+						&& airport.isArrivalsClicked(mapX, mapY)) {
 					if ((player.getSelectedAircraft().isWaitingToLand)
 							&& (player.getSelectedAircraft()
 									.currentTarget.equals(airport.getLocation()))) {
 						// If arrivals is clicked, and the selected aircraft
-						// is waiting to land at that airport, cause the aircraft
-						// to land
-						airport.mousePressed(key, x, y);
-						player.getSelectedAircraft().land();
+						// is waiting to land at that airport, clear the
+						// aircraft to land once a runway is free
+						airport.mousePressed(key, mapX, mapY);
+						airport.requestLanding(player.getSelectedAircraft());
 						deselectAircraft(player);
 					}
-				} else if (airport.isDeparturesClicked(x, y)) {
+				} else if (airport.isDeparturesClicked(mapX, mapY)) {
 					if (airport.aircraftHangar.size() > 0) {
 						// If departures is clicked, and there is a flight waiting
-						// to take off, let it take off
-						airport.mousePressed(key, x, y);
+						// to take off, clear it to take off once a runway is free
+						airport.mousePressed(key, mapX, mapY);
 						airport.signalTakeOff();
 					}
 				}
 			}
 		} else if (key == input.MOUSE_RIGHT) {
 			if (player.getSelectedAircraft() != null) {
-				if (compassClicked(x, y, player.getSelectedAircraft())) {
+				if (compassClicked(mapX, mapY, player.getSelectedAircraft())) {
 					player.setCompassClicked(true);
 					if (!player.getSelectedAircraft().isManuallyControlled()) {
 						toggleManualControl(player);
@@ -615,17 +882,26 @@ public abstract class Game extends Scene {
 	 */
 	@Override
 	public void mouseReleased(int key, int x, int y) {
-		for (FlightStrip fs : player.getFlightStrips()) {
-			fs.mouseReleased(key, x, y);
-		}
+		if (recorder != null) recorder.mouseReleased(key, x, y);
+
+		player.getFlightStripBoard().mouseReleased(key, x, y);
+
+		// Find what was released over in the airspace where it would be
+		// with the whole airspace in view
+		int mapX = getXOffset() + (int) toAirspaceX(x);
+		int mapY = getYOffset() + (int) toAirspaceY(y);
 
 		for (Airport airport : player.getAirports()) {
-			airport.mouseReleased(key, x, y);
+			airport.mouseReleased(key, mapX, mapY);
 		}
 
-		if (key == input.MOUSE_LEFT) {
+		if (key == input.MOUSE_MIDDLE) {
+			// Stop dragging the camera
+			panX = -1;
+			panY = -1;
+		} else if (key == input.MOUSE_LEFT) {
 			if (player.isWaypointClicked() && player.getSelectedAircraft() != null) {
-				Waypoint newWaypoint = findClickedWaypoint(x, y, player);
+				Waypoint newWaypoint = findClickedWaypoint(mapX, mapY, player);
 				if (newWaypoint != null) {
 					player.getSelectedAircraft().alterPath(player.getSelectedPathpoint(),
 							newWaypoint);
@@ -637,15 +913,26 @@ public abstract class Game extends Scene {
 			player.setSelectedWaypoint(null);
 		} else if (key == input.MOUSE_RIGHT) {
 			if (player.isCompassClicked() && player.getSelectedAircraft() != null) {
-				double dx = (input.mouseX() - X_OFFSET)
+				double dx = toAirspaceX(input.mouseX())
 						- player.getSelectedAircraft().getPosition().getX()
 						- 8;
-				double dy = (input.mouseY() - Y_OFFSET)
+				double dy = toAirspaceY(input.mouseY())
 						- player.getSelectedAircraft().getPosition().getY()
 						- 8;
 				double newBearing = Math.atan2(dy, dx);
 				player.getSelectedAircraft().setBearing(newBearing);
 			}
+		} else if (isOverFlightStrips(x, player)
+				&& (key == input.MOUSE_WHEEL_UP || key == input.MOUSE_WHEEL_DOWN)) {
+			// Scroll the flight strips rather than changing altitude
+			player.getFlightStripBoard().scroll(
+					(key == input.MOUSE_WHEEL_UP) ? -1 : 1);
+		} else if ((input.isKeyDown(input.KEY_LCRTL)
+				|| input.isKeyDown(input.KEY_RCRTL)) && isCameraMovable()
+				&& (key == input.MOUSE_WHEEL_UP || key == input.MOUSE_WHEEL_DOWN)) {
+			// Zoom about the mouse rather than changing altitude
+			camera.zoomAt((key == input.MOUSE_WHEEL_UP) ? ZOOM_STEP : 1 / ZOOM_STEP,
+					x - getXOffset(), y - getYOffset());
 		} else if (key == input.MOUSE_WHEEL_UP) {
 			player.setControlAltitude(30000);
 		} else if (key == input.MOUSE_WHEEL_DOWN){
@@ -658,7 +945,9 @@ public abstract class Game extends Scene {
 	 * @param key - the key which was pressed
 	 */
 	@Override
-	public void keyPressed(int key) {}
+	public void keyPressed(int key) {
+		if (recorder != null) recorder.keyPressed(key);
+	}
 
 	/**
 	 * Handles key release events.
@@ -666,21 +955,114 @@ public abstract class Game extends Scene {
 	 */
 	@Override
 	public void keyReleased(int key) {
+		if (recorder != null) recorder.keyReleased(key);
+
 		switch (key) {
 		case input.KEY_SPACE :
 			toggleManualControl(player);
 			break;
+		case input.KEY_0 :
+			// Show the whole airspace again
+			camera.reset();
+			break;
 			//              case input.KEY_LCRTL :
 			//                      generateFlight(player);
 			//                      break;
 		case input.KEY_ESCAPE :
-			player.getAircraft().clear();
+			aircraftRegistry.clear(player);
 			for (Airport airport : player.getAirports()) airport.clear();
+			isOver = true;
 			Main.closeScene();
 			break;
+		default :
+			flightStripKeyReleased(key, player);
+			break;
+		}
+	}
+
+	/**
+	 * Handles key release events for a player's flight strips.
+	 * <p>
+	 * Tab selects the aircraft on the next strip, or the previous with
+	 * shift held; page up, page down, home and end scroll the strips; and
+	 * F1, F2 and F3 cycle the altitude, airport and conflict filters.
+	 * </p>
+	 * @param key - the key which was released
+	 * @param player - the player whose flight strips to control
+	 */
+	protected void flightStripKeyReleased(int key, Player player) {
+		FlightStripBoard board = player.getFlightStripBoard();
+
+		switch (key) {
+		case input.KEY_TAB :
+			boolean backwards = input.isKeyDown(input.KEY_LSHIFT)
+					|| input.isKeyDown(input.KEY_RSHIFT);
+			FlightStrip next = board.getAdjacent(player.getSelectedAircraft(),
+					backwards ? -1 : 1);
+
+			if (next != null && !next.getAircraft().isFinished()) {
+				deselectAircraft(player);
+				player.setSelectedAircraft(next.getAircraft());
+			}
+			break;
+		case input.KEY_PAGE_UP :
+			board.scrollPage(-1);
+			break;
+		case input.KEY_PAGE_DOWN :
+			board.scrollPage(1);
+			break;
+		case input.KEY_HOME :
+			board.scrollTo(0);
+			break;
+		case input.KEY_END :
+			board.scrollTo(Integer.MAX_VALUE);
+			break;
+		case input.KEY_F1 :
+			// Cycle between all, high and low altitudes
+			if (!Double.isNaN(board.getMinAltitude())) {
+				board.setAltitudeFilter(Double.NaN, 29000);
+			} else if (!Double.isNaN(board.getMaxAltitude())) {
+				board.setAltitudeFilter(Double.NaN, Double.NaN);
+			} else {
+				board.setAltitudeFilter(29000, Double.NaN);
+			}
+			break;
+		case input.KEY_F2 :
+			// Cycle between any airport and each of the player's airports
+			Airport[] airports = player.getAirports();
+			String airportName = null;
+
+			for (int i = 0; i < airports.length; i++) {
+				if (board.getAirportFilter() == null) {
+					airportName = airports[0].getName();
+					break;
+				} else if (board.getAirportFilter().equals(airports[i].getName())) {
+					airportName = (i + 1 < airports.length)
+							? airports[i + 1].getName() : null;
+					break;
+				}
+			}
+
+			board.setAirportFilter(airportName);
+			break;
+		case input.KEY_F3 :
+			board.setConflictFilter(!board.isConflictFilter());
+			break;
 		}
 	}
 
+	/**
+	 * Checks whether a position is over a player's flight strips.
+	 * @param x - the x position to check
+	 * @param player - the player whose flight strips to check
+	 * @return <code>true</code> if the position is within the column of
+	 * 			flight strips
+	 */
+	protected boolean isOverFlightStrips(int x, Player player) {
+		return x >= getFlightStripX(player)
+				&& x < getFlightStripX(player) + FlightStrip.STANDARD_WIDTH;
+	}
+
 
 	// Game ending ----------------------------------------------------------------------
 
@@ -689,13 +1071,22 @@ public abstract class Game extends Scene {
 	 * @param timeDifference - the time since the last collision check
 	 */
 	protected void checkCollisions(double timeDifference) {
+		// Divide the airspace into sectors, so each aircraft is only checked
+		// against those in the sectors around it
+		sectors.rebuild(getAllAircraft(), getAirspaceWidth(), getAirspaceHeight());
+
 		for (Aircraft aircraft : getAllAircraft()) {
 			if (aircraft.isFinished()) {
 				continue;
 			}
 
+			nearbyAircraft.clear();
+			sectors.findNear(aircraft.getPosition().getX(),
+					aircraft.getPosition().getY(), aircraft.getCollisionRange(),
+					nearbyAircraft);
+
 			Aircraft collidedWith = aircraft.updateCollisions(timeDifference,
-					getAllAircraft());
+					nearbyAircraft);
 
 			FlightStrip fs1 = null, fs2 = null;
 
@@ -713,13 +1104,8 @@ public abstract class Game extends Scene {
 						// Apply a score penalty
 						player.decreaseScore(400);
 
-						for (FlightStrip fs : player.getFlightStrips()) {
-							if (plane.equals(fs.getAircraft())) {
-								fs1 = fs;
-							} else if (collidedWith.equals(fs.getAircraft())) {
-								fs2 = fs;
-							}
-						}
+						fs1 = getFlightStripFromAircraft(plane);
+						fs2 = getFlightStripFromAircraft(collidedWith);
 
 						// Go to the game over check
 						gameOver(plane, collidedWith, fs1, fs2, false);
@@ -735,10 +1121,11 @@ public abstract class Game extends Scene {
 
 
 	public void explodePlanes(Aircraft plane1, Aircraft plane2) {
-		// The number of frames in each dimension of the animation image
-		int framesAcross = 8;
-		int framesDown = 4;
+		// Without its assets, e.g. when replaying headlessly, the game
+		// can't show the explosion
+		if (Main.testing) return;
 
+		// The number of frames in each dimension of the animation image
 		/*Vector crash = plane1.getPosition().add(
                                     new Vector((plane1.getPosition().getX()
                                                     - plane2.getPosition().getX()) / 2,
@@ -746,21 +1133,17 @@ public abstract class Game extends Scene {
                                                                     - plane2.getPosition().getY()) / 2, 0))
                                                                     .add(origin);*/
 
-		// Load explosion animation image
-		Image explosion = graphics.newImage("gfx" + File.separator
-				+ "ani" + File.separator + "explosionFrames.png");
-		
 		//Play the crashing sound
-		playSound(audio.newSoundEffect("sfx" + File.separator + "crash.ogg"));
+		playSound(crashAsset.get());
 
 		Vector midPoint = plane1.getPosition().add(plane2.getPosition())
 				.scaleBy(0.5);
-		Vector explosionPos = midPoint.sub(new Vector(explosion.width()/(framesAcross*2),
-				explosion.height()/(framesDown*2), 0));
+		Vector explosionPos = midPoint.sub(new Vector(
+				explosionSheet.getFrameWidth() / 2,
+				explosionSheet.getFrameHeight() / 2, 0));
 
-		explosionAnimations.add(new SpriteAnimation(explosion,
-				(int)explosionPos.getX(), (int)explosionPos.getY(),
-				6, 16, framesAcross, framesDown, false));
+		explosionAnimations.play(explosionSheet,
+				(int)explosionPos.getX(), (int)explosionPos.getY(), timeElapsed);
 	}
 
 	/**
@@ -772,16 +1155,25 @@ public abstract class Game extends Scene {
 	 *                                              life values
 	 */
 	public void gameOver(Aircraft plane1, Aircraft plane2, FlightStrip fs1, FlightStrip fs2, boolean override) {
-		player.getAircraft().clear();
+		aircraftRegistry.clear(player);
 
 		for (Airport airport : player.getAirports()) {
 			airport.clear();
 		}
 
-		playSound(audio.newSoundEffect("sfx" + File.separator + "crash.ogg"));
+		isOver = true;
+		isCrashed = true;
+
+		if (!Main.testing) {
+			playSound(crashAsset.get());
+
+			GameOver gameOver = new GameOver(plane1, plane2, fs1, fs2,
+					player.getScore(), player);
+			gameOver.setReview(closeTelemetry());
 
-		Main.closeScene();
-		Main.setScene(new GameOver(plane1, plane2, fs1, fs2, player.getScore(), player));
+			Main.closeScene();
+			Main.setScene(gameOver);
+		}
 	}
 
 	/**
@@ -793,36 +1185,196 @@ public abstract class Game extends Scene {
 			music.stop();
 		}
 
-		instance = null;
+		// End the recording, noting the final state so replays can be checked
+		if (recorder != null) {
+			recorder.end(this);
+			input.setState(null);
+			recorder = null;
+		}
+
+		closeTelemetry();
+
+		for (AssetManager.Handle<?> asset : getAssets()) {
+			AssetManager.release(asset);
+		}
+
+		SessionContext.current().setGame(null);
+	}
+
+	/**
+	 * Gets the images, sounds and music used by the game.
+	 * @return the handles of the game's assets
+	 */
+	@Override
+	public AssetManager.Handle<?>[] getAssets() {
+		return new AssetManager.Handle<?>[] {backgroundAsset, aircraftAsset,
+				airportAsset, explosionAsset, crashAsset, warningAsset,
+				musicAsset};
 	}
 
 
 	// Helper methods -------------------------------------------------------------------
 
+	/**
+	 * Stops writing the game's telemetry.
+	 * @return the telemetry file, so that the session can be reviewed, or
+	 * 			<code>null</code> if no telemetry was being written
+	 */
+	protected String closeTelemetry() {
+		if (telemetry == null) return null;
+
+		telemetry.close();
+		String path = telemetry.getPath();
+		telemetry = null;
+		return path;
+	}
+
 	/**
 	 * The interval in seconds to generate flights after.
 	 * @param player - the player to get the flight generation time for
 	 */
-	protected int getFlightGenerationInterval(Player player) {
+	protected double getFlightGenerationInterval(Player player) {
 		switch (difficulty) {
 		case MEDIUM:
 			// Planes move 2x faster on medium so this makes them spawn
 			// 2 times as often to keep the ratio
-			return (30 / (player.getMaxAircraft() * 2));
+			return (30d / (player.getMaxAircraft() * 2));
 		case HARD:
 			// Planes move 3x faster on hard so this makes them spawn
 			// 3 times as often to keep the ratio
-			return (30 / (player.getMaxAircraft() * 3) );
+			return (30d / (player.getMaxAircraft() * 3) );
 		default:
-			return (30 / player.getMaxAircraft());
+			return (30d / player.getMaxAircraft());
 		}
 	}
 
+	/**
+	 * Gets the aircraft of a player to update in full.
+	 * <p>
+	 * While the whole airspace is in view, every aircraft is updated. While
+	 * only part of it is, aircraft in sectors out of view are updated once
+	 * every few updates, catching up on the time skipped when they are, so
+	 * that very large airspaces can be played. The selected aircraft is
+	 * always updated, and collisions are still checked every update.
+	 * </p>
+	 * @param player - the player whose aircraft are being updated
+	 * @param timeDifference - the time since the last update
+	 * @return the aircraft to update
+	 */
+	protected List<Aircraft> getAircraftToUpdate(Player player,
+			double timeDifference) {
+		int detailInterval = settings.getDetailInterval();
+
+		if (camera.isWholeAirspace() || detailInterval <= 1) {
+			return player.getAircraft();
+		}
+
+		// Aircraft may have moved, arrived or left since the collision check
+		// divided the airspace, so divide it again from where they are now
+		sectors.rebuild(getAllAircraft(), getAirspaceWidth(), getAirspaceHeight());
+		sectors.setVisibleArea(camera.getViewX(), camera.getViewY(),
+				camera.getViewWidth(), camera.getViewHeight());
+		detailedAircraft.clear();
+
+		for (Aircraft aircraft : player.getAircraft()) {
+			// Spread the aircraft out of view between updates by name
+			int hash = aircraft.getName().hashCode();
+			boolean isDue = ((updateCount + hash) % detailInterval
+					+ detailInterval) % detailInterval == 0;
+
+			if (isDue || aircraft == player.getSelectedAircraft()
+					|| sectors.isInVisibleSector(aircraft.getPosition().getX(),
+							aircraft.getPosition().getY())) {
+				detailedAircraft.add(aircraft);
+			} else {
+				aircraft.skipUpdate(timeDifference);
+			}
+		}
+
+		return detailedAircraft;
+	}
+
+	/**
+	 * Creates the traffic model for a player.
+	 * <p>
+	 * By default, flights arrive at the difficulty's fixed interval, with
+	 * the first arriving sooner by the player's initial flight generation
+	 * time.
+	 * </p>
+	 * @param player - the player to create the traffic model for
+	 * @return the player's traffic model
+	 */
+	protected TrafficModel createTrafficModel(Player player) {
+		TrafficModel model = (settings.getTrafficModel() != null)
+				? TrafficGenerator.parseModel(settings.getTrafficModel()) : null;
+
+		if (model == null) {
+			model = new FixedRateTraffic(getFlightGenerationInterval(player),
+					player.getFlightGenerationTimeElapsed());
+		}
+
+		return model;
+	}
+
+	/**
+	 * Starts generating flights for each player, once the configured
+	 * aircraft and airport limits and flight strip order have been
+	 * applied.
+	 */
+	protected void startTraffic() {
+		for (Player player : getPlayers()) {
+			if (player == null) continue;
+
+			if (settings.getMaxAircraft() > 0) {
+				player.setMaxAircraft(settings.getMaxAircraft());
+			}
+
+			for (Airport airport : player.getAirports()) {
+				airport.setHangarSize(settings.getHangarSize());
+				airport.setRunways(settings.getRunways());
+				airport.setDepartureInterval(settings.getDepartureInterval());
+			}
+
+			player.getFlightStripBoard().setSortByUrgency(
+					settings.isSortingStripsByUrgency());
+
+			TrafficGenerator generator = new TrafficGenerator(
+					createTrafficModel(player), timers, Main.getRandom(),
+					settings.getMaxBacklog(), createSpawner(player.getID()));
+			trafficGenerators.add(generator);
+			generator.start();
+		}
+	}
+
+	/**
+	 * Creates the spawner which introduces a player's flights.
+	 * <p>
+	 * The player is looked up by ID when a flight arrives, as the
+	 * player object may have been replaced in the meantime.
+	 * </p>
+	 * @param playerID - the ID of the player to introduce flights for
+	 * @return the spawner for the player's flights
+	 */
+	private TrafficGenerator.Spawner createSpawner(final int playerID) {
+		return new TrafficGenerator.Spawner() {
+			@Override
+			public boolean spawn() {
+				Player player = getPlayerFromID(playerID);
+
+				return (player != null)
+						&& (player.getAircraft().size() < player.getMaxAircraft())
+						&& generateFlight(player);
+			}
+		};
+	}
+
 	/**
 	 * Creates a new aircraft object and introduces it to the airspace.
 	 * @param player - generates a new aircraft for the specified player
+	 * @return <code>true</code> if the aircraft was introduced, or
+	 * 			<code>false</code> if there was nowhere for it to start
 	 */
-	protected void generateFlight(Player player) {
+	protected boolean generateFlight(Player player) {
 		Aircraft aircraft = createAircraft(player);
 
 		if (aircraft != null && player != null) {
@@ -830,19 +1382,29 @@ public abstract class Game extends Scene {
 			for (Airport airport : player.getAirports()) {
 				if (aircraft.getFlightPlan()
 						.getOriginName().equals(airport.getName())) {
+					if (airport.aircraftHangar.isFull()) {
+						return false;
+					}
+
 					airport.addToHangar(aircraft);
-					return;
+					return true;
 				}
 			}
 
 			// Otherwise, add the aircraft to the airspace
-			player.getAircraft().add(aircraft);
+			aircraftRegistry.add(player, aircraft);
+			airspaceIndex.update(aircraft);
+			events.publish(new GameEvent.AircraftSpawned(aircraft, player));
 
 			if (player.equals(this.player)) {
-				player.getFlightStrips().add(new FlightStrip(aircraft,
+				aircraftRegistry.addFlightStrip(player, new FlightStrip(aircraft,
 						FlightStrip.BACKGROUND_COLOURS[player.getID()]));
 			}
+
+			return true;
 		}
+
+		return false;
 	}
 
 	/**
@@ -867,8 +1429,7 @@ public abstract class Game extends Scene {
 		if (availableOrigins.isEmpty()) {
 			int randomAirport = Main.getRandom().nextInt((player.getAirports().length - 1) + 1);
 
-			if (player.getAirports()[randomAirport].aircraftHangar.size()
-					== player.getAirports()[randomAirport].getHangarSize()) {
+			if (player.getAirports()[randomAirport].aircraftHangar.isFull()) {
 				return null;
 			} else {
 				originAirport = player.getAirports()[randomAirport];
@@ -959,27 +1520,24 @@ public abstract class Game extends Scene {
 		}
 
 		// Generate a unique, random flight name, using carrierTag as prefix
-		String name = "";
-		boolean nameTaken = true;
-
-		while (nameTaken) {
-			name = carrierTag + String.format("%03d",
-					(int)(1 + Main.getRandom().nextInt(998) + player.getID()));
-
-			// Check the generated name against every other flight name
-			boolean foundName = false;
-			for (Aircraft a : getAllAircraft()) {
-				if (a.getName().equals(name)) {
-					foundName = true;
-					break;
-				}
-			}
-
-			if (!foundName) {
-				nameTaken = false;
-			}
+		// The registry indexes aircraft by name, so checking a name is taken
+		// doesn't depend on the number of aircraft
+		// Flight numbers get longer once half the three digit names are
+		// taken, so that a free name can always be found quickly
+		String name;
+		int digits = 3;
+		int numbers = 998;
+
+		while (getAllAircraft().size() * 2 > numbers * 8) {
+			digits++;
+			numbers = (numbers + 2) * 10 - 2;
 		}
 
+		do {
+			name = carrierTag + String.format("%0" + digits + "d",
+					(int)(1 + Main.getRandom().nextInt(numbers) + player.getID()));
+		} while (aircraftRegistry.getAircraft(name) != null);
+
 		// Generate a random speed, centred around 37
 		int speed = 32 + (int)(Main.getRandom().nextInt(10));
 
@@ -1054,6 +1612,11 @@ public abstract class Game extends Scene {
 	 * Specifically, returns points where no plane is currently going to exit the
 	 * airspace there, also it is not too close to any plane.
 	 * </p>
+	 * <p>
+	 * Uses the airspace index, so the cost depends on the number of entry
+	 * points rather than the number of aircraft. The index is brought up to
+	 * date at the start of each update.
+	 * </p>
 	 * @param player - the player whose entry points should be checked
 	 * @return a list of available entry points
 	 */
@@ -1064,23 +1627,11 @@ public abstract class Game extends Scene {
 		Waypoint[] playersLocationWaypoints = getLocationWaypoints(player);
 
 		for (Waypoint entryPoint : playersLocationWaypoints) {
-			boolean isAvailable = true;
 			// Prevents spawning a plane at a waypoint if:
 			//   - any plane is currently going towards it
-			//   - or any plane is less than 250 from it
-
-			for (Aircraft aircraft : getAllAircraft()) {
-				// Check if any plane is currently going towards the
-				// exit point/chosen originPoint
-				// Check if any plane is less than what is defined as too close
-				// from the chosen originPoint
-				if (aircraft.currentTarget.equals(entryPoint.getLocation())
-						|| aircraft.isCloseToEntry(entryPoint.getLocation())) {
-					isAvailable = false;
-				}
-			}
-
-			if (isAvailable) {
+			//   - or any plane is too close to it
+			if (!airspaceIndex.isInbound(entryPoint.getLocation())
+					&& !airspaceIndex.isNear(entryPoint.getLocation())) {
 				availableEntryPoints.add(entryPoint);
 			}
 		}
@@ -1095,13 +1646,7 @@ public abstract class Game extends Scene {
 	 *                      otherwise <code>false</code>
 	 */
 	public Airport getAirportFromName(String name) {
-		for (Airport airport : player.getAirports()) {
-			// If a match is found, return true
-			if (airport.getName().equals(name)) return airport;
-		}
-
-		// Otherwise
-		return null;
+		return aircraftRegistry.getAirport(name);
 	}
 
 
@@ -1191,10 +1736,23 @@ public abstract class Game extends Scene {
 
 	/**
 	 * Gets the current instance of the game.
+	 * <p>
+	 * This is the game of the session being run on the calling thread;
+	 * unless the game is hosted by a server, there is only one session.
+	 * </p>
 	 * @return the current game
 	 */
 	public static Game getInstance() {
-		return instance;
+		return SessionContext.current().getGame();
+	}
+
+	/**
+	 * Sets the current instance of the game, for the session being run
+	 * on the calling thread.
+	 * @param game - the new current game
+	 */
+	protected static void setInstance(Game game) {
+		SessionContext.current().setGame(game);
 	}
 
 	/**
@@ -1202,7 +1760,7 @@ public abstract class Game extends Scene {
 	 * @return the window's x-offset
 	 */
 	public static int getXOffset() {
-		if (instance != null) {
+		if (getInstance() != null) {
 			return X_OFFSET;
 		} else {
 			return 0;
@@ -1214,13 +1772,67 @@ public abstract class Game extends Scene {
 	 * @return the window's y-offset
 	 */
 	public static int getYOffset() {
-		if (instance != null) {
+		if (getInstance() != null) {
 			return Y_OFFSET;
 		} else {
 			return 0;
 		}
 	}
 
+	/**
+	 * Gets the width of the airspace of the current game.
+	 * <p>
+	 * Positions in the airspace are measured in pixels at the camera's
+	 * normal zoom. Unless the game sets its own size, the airspace is the
+	 * size of the window's map area.
+	 * </p>
+	 * @return the width of the airspace
+	 */
+	public static double getAirspaceWidth() {
+		Game game = getInstance();
+
+		if (game != null && game.airspaceWidth > 0) {
+			return game.airspaceWidth;
+		}
+
+		return window.width() - (2 * ((game != null) ? X_OFFSET : 0));
+	}
+
+	/**
+	 * Gets the height of the airspace of the current game.
+	 * @return the height of the airspace
+	 * @see #getAirspaceWidth()
+	 */
+	public static double getAirspaceHeight() {
+		Game game = getInstance();
+
+		if (game != null && game.airspaceHeight > 0) {
+			return game.airspaceHeight;
+		}
+
+		return window.height() - (2 * ((game != null) ? Y_OFFSET : 0));
+	}
+
+	/**
+	 * Gets the position in the airspace under a position on screen.
+	 * @param screenX - the x position on screen
+	 * @return the x position in the airspace under it
+	 */
+	public static double toAirspaceX(double screenX) {
+		Game game = getInstance();
+		return (game != null) ? game.camera.toWorldX(screenX - X_OFFSET) : screenX;
+	}
+
+	/**
+	 * Gets the position in the airspace under a position on screen.
+	 * @param screenY - the y position on screen
+	 * @return the y position in the airspace under it
+	 */
+	public static double toAirspaceY(double screenY) {
+		Game game = getInstance();
+		return (game != null) ? game.camera.toWorldY(screenY - Y_OFFSET) : screenY;
+	}
+
 	/**
 	 * Gets the window's x-offset directly.
 	 * @return the window's x-offset
@@ -1237,6 +1849,37 @@ public abstract class Game extends Scene {
 		return Y_OFFSET;
 	}
 
+	/**
+	 * Gets the view of the airspace, which the player moves.
+	 * <p>
+	 * The camera must only be moved on the simulation thread.
+	 * </p>
+	 * @return the camera
+	 */
+	public Camera getCamera() {
+		return camera;
+	}
+
+	/**
+	 * Gets the view of the airspace in the frame being drawn.
+	 * <p>
+	 * This must only be used on the render thread.
+	 * </p>
+	 * @return the camera the frame was taken with
+	 */
+	public Camera getFrameCamera() {
+		return frameCamera;
+	}
+
+	/**
+	 * Gets whether the player can pan and zoom the camera.
+	 * @return <code>true</code> if the camera can be moved, otherwise
+	 * 			<code>false</code>
+	 */
+	protected boolean isCameraMovable() {
+		return true;
+	}
+
 	/**
 	 * Gets the current player.
 	 * @return the current player
@@ -1245,12 +1888,75 @@ public abstract class Game extends Scene {
 		return player;
 	}
 
+	/**
+	 * Gets the players in the game.
+	 * @return the players in the game
+	 */
+	protected Player[] getPlayers() {
+		return new Player[] {player};
+	}
+
+	/**
+	 * Gets a player from their ID.
+	 * @param id - the ID of the player
+	 * @return the player with the specified ID, or <code>null</code>
+	 * 			if there isn't one
+	 */
+	protected Player getPlayerFromID(int id) {
+		for (Player player : getPlayers()) {
+			if (player != null && player.getID() == id) {
+				return player;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the timers which run the game's timed events.
+	 * <p>
+	 * The timers are driven by the game clock, so events happen at the
+	 * same point in the game however quickly it is being updated.
+	 * </p>
+	 * @return the game's timers
+	 */
+	public TimerWheel getTimers() {
+		return timers;
+	}
+
+	/**
+	 * Gets the bus on which changes to the game's state are announced.
+	 * <p>
+	 * Events posted to the bus from any thread are delivered on the
+	 * simulation thread during the next update.
+	 * </p>
+	 * @return the game's event bus
+	 */
+	public EventBus getEvents() {
+		return events;
+	}
+
+	/**
+	 * Gets the registry indexing the players' aircraft.
+	 * <p>
+	 * Aircraft should be added to and removed from players through the
+	 * registry, so that it stays up to date.
+	 * </p>
+	 * @return the aircraft registry
+	 */
+	public AircraftRegistry getAircraftRegistry() {
+		return aircraftRegistry;
+	}
+
 	/**
 	 * Gets a list of all aircraft in the airspace.
+	 * <p>
+	 * The list is read-only, and reflects any aircraft added or removed.
+	 * </p>
 	 * @return a list of all the aircraft in the airspace
 	 */
-	public ArrayList<Aircraft> getAllAircraft() {
-		return player.getAircraft();
+	public List<Aircraft> getAllAircraft() {
+		return aircraftRegistry.getAllAircraft();
 	}
 
 	/**
@@ -1259,13 +1965,7 @@ public abstract class Game extends Scene {
 	 * @return the player controlling the specified aircraft
 	 */
 	public Player getPlayerFromAircraft(Aircraft aircraft) {
-		for (Aircraft a : player.getAircraft()) {
-			if (a.equals(aircraft)) {
-				return player;
-			}
-		}
-
-		return null;
+		return aircraftRegistry.getOwner(aircraft);
 	}
 
 	/**
@@ -1297,13 +1997,7 @@ public abstract class Game extends Scene {
 	 * @return the aircraft with the specified name
 	 */
 	public Aircraft getAircraftFromName(String name) {
-		for (Aircraft a : getAllAircraft()) {
-			if (a.getName().equals(name)) {
-				return a;
-			}
-		}
-
-		return null;
+		return aircraftRegistry.getAircraft(name);
 	}
 
 	/**
@@ -1312,15 +2006,7 @@ public abstract class Game extends Scene {
 	 * @return the flight strip for the specified aircraft
 	 */
 	public FlightStrip getFlightStripFromAircraft(Aircraft aircraft) {
-		if (aircraft != null) {
-			for (FlightStrip fs : player.getFlightStrips()) {
-				if (aircraft.equals(fs.getAircraft())) {
-					return fs;
-				}
-			}
-		}
-
-		return null;
+		return aircraftRegistry.getFlightStrip(aircraft);
 	}
 
 	/**
@@ -1331,15 +2017,86 @@ public abstract class Game extends Scene {
 		return timeElapsed;
 	}
 
+	/**
+	 * Gets whether the game has ended, by a crash or by the player leaving.
+	 * @return <code>true</code> if the game has ended
+	 */
+	public boolean isOver() {
+		return isOver;
+	}
+
+	/**
+	 * Gets whether the game ended because aircraft collided, rather than
+	 * the player leaving.
+	 * @return <code>true</code> if the game ended in a crash
+	 */
+	public boolean isCrashed() {
+		return isCrashed;
+	}
+
 
 	// Mutators -------------------------------------------------------------------------
 
+	/**
+	 * Sets the size of the airspace, rather than it being the size of the
+	 * window's map area.
+	 * @param width - the width of the airspace
+	 * @param height - the height of the airspace
+	 */
+	protected void setAirspaceSize(double width, double height) {
+		airspaceWidth = width;
+		airspaceHeight = height;
+	}
+
+	/**
+	 * Records the game's session.
+	 * <p>
+	 * The recorder becomes the source of the keyboard and mouse state, so
+	 * that the state the game reads during each update is recorded.
+	 * </p>
+	 * @param recorder - the recorder to record with, or <code>null</code>
+	 * 			to not record
+	 */
+	public void setRecorder(SessionRecorder recorder) {
+		this.recorder = recorder;
+		if (recorder != null) input.setState(recorder);
+	}
+
+	/**
+	 * Lets an autopilot play in place of the current player.
+	 * @param autopilot - the autopilot to play with, or <code>null</code>
+	 * 			to leave the player to play
+	 */
+	public void setAutopilot(Autopilot autopilot) {
+		this.autopilot = autopilot;
+	}
+
+	/**
+	 * Writes the game's telemetry, closing any telemetry already being
+	 * written.
+	 * @param telemetry - the writer to write with, or <code>null</code>
+	 * 			to not write telemetry
+	 */
+	public void setTelemetry(TelemetryWriter telemetry) {
+		closeTelemetry();
+		this.telemetry = telemetry;
+	}
+
 	/**
 	 * Sets the current player.
 	 * @param player - the player to set as the current player
 	 */
 	public void setCurrentPlayer(Player player) {
 		this.player = player;
+		indexPlayers();
+	}
+
+	/**
+	 * Indexes the players' aircraft, if any of the players have been
+	 * replaced since they were last indexed.
+	 */
+	protected void indexPlayers() {
+		aircraftRegistry.setPlayers(getPlayers());
 	}
 
 
@@ -9,12 +9,14 @@ import cls.Aircraft;
 import cls.FlightStrip;
 import cls.Vector;
 import cls.Player;
+import lib.AssetManager;
 import lib.SpriteAnimation;
 import lib.jog.audio;
 import lib.jog.audio.Sound;
 import lib.jog.graphics;
 import lib.jog.graphics.Image;
 import lib.jog.window;
+import rpl.SessionReview;
 
 public class GameOver extends Scene {
 	// Used to position the explosion, and provide graphical feedback of how and where the player failed
@@ -42,6 +44,20 @@ public class GameOver extends Scene {
 	/** The explosion image to use for the animation */
 	private Image explosion;
 
+	/** The explosion animation image asset */
+	private final AssetManager.Handle<Image> explosionAsset = AssetManager
+			.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "ani" + File.separator + "explosionFrames.png");
+
+	/** The crash sound asset */
+	private final AssetManager.Handle<Sound> crashAsset = AssetManager
+			.acquire(AssetManager.SOUND, "sfx" + File.separator + "crash.ogg");
+
+	/** The aircraft image asset, used to draw the crashed aircraft */
+	private final AssetManager.Handle<Image> aircraftAsset = AssetManager
+			.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "air" + File.separator + "plane.png");
+
 	/** The value corresponding to the key which has most recently been pressed */
 	private int keyPressed;
 
@@ -50,6 +66,12 @@ public class GameOver extends Scene {
 	/** Integer offset to centre vertically */
 	private int yBorder = (window.height() - 440) / 2 - 20;
 
+	/** The telemetry of the game, or <code>null</code> if none was written */
+	private String reviewPath;
+
+	/** Shows the game at any point, or <code>null</code> if it can't */
+	private SessionReview review;
+
 	/**
 	 * Constructor for the Game Over scene.
 	 * @param plane1
@@ -62,9 +84,6 @@ public class GameOver extends Scene {
 	public GameOver(Aircraft plane1, Aircraft plane2, FlightStrip fs1, FlightStrip fs2, int score, Player player) {
 		super();
 		this.player = player;
-		// The number of frames in each dimension of the animation image
-		int framesAcross = 8;
-		int framesDown = 4;
 
 		aircraft1 = plane1;
 		aircraft2 = plane2;
@@ -82,18 +101,7 @@ public class GameOver extends Scene {
 
 		this.score = score;
 
-		// Load explosion animation image
-		explosion = graphics.newImage("gfx" + File.separator + "ani" + File.separator + "explosionFrames.png");
-
 		if (aircraft1 != null && aircraft2 != null) {
-			Vector midPoint = aircraft1.getPosition().add(aircraft2.getPosition())
-					.scaleBy(0.5).add(origin);
-			Vector explosionPos = midPoint.sub(new Vector(explosion.width()/(framesAcross*2),
-					explosion.height()/(framesDown*2), 0));
-
-			explosionAnim = new SpriteAnimation(explosion,
-					(int)explosionPos.getX(), (int)explosionPos.getY(),
-					6, 16, framesAcross, framesDown, false);
 			if(fs1 != null){
 				flightStrip1 = fs1;
 			}
@@ -109,7 +117,47 @@ public class GameOver extends Scene {
 	 */
 	@Override
 	public void start() {
-		playSound(audio.newSoundEffect("sfx" + File.separator + "crash.ogg"));
+		// The number of frames in each dimension of the animation image
+		int framesAcross = 8;
+		int framesDown = 4;
+
+		// Get the explosion animation image, which has been preloaded
+		explosion = explosionAsset.get();
+
+		if (aircraft1 != null && aircraft2 != null) {
+			Vector midPoint = aircraft1.getPosition().add(aircraft2.getPosition())
+					.scaleBy(0.5).add(origin);
+			Vector explosionPos = midPoint.sub(new Vector(explosion.width()/(framesAcross*2),
+					explosion.height()/(framesDown*2), 0));
+
+			explosionAnim = new SpriteAnimation(explosion,
+					(int)explosionPos.getX(), (int)explosionPos.getY(),
+					6, 16, framesAcross, framesDown, false);
+		}
+
+		review = SessionReview.open(reviewPath, window.width()/4,
+				2 * window.height()/3 + 30, window.width()/2,
+				window.height()/3 - 50);
+
+		playSound(crashAsset.get());
+	}
+
+	/**
+	 * Sets the telemetry to review the game from.
+	 * @param path - the telemetry file, or <code>null</code> if there is none
+	 */
+	public void setReview(String path) {
+		reviewPath = path;
+	}
+
+	/**
+	 * Gets the images and sounds used by the scene.
+	 * @return the handles of the scene's assets
+	 */
+	@Override
+	public AssetManager.Handle<?>[] getAssets() {
+		return new AssetManager.Handle<?>[] {explosionAsset, crashAsset,
+				aircraftAsset};
 	}
 
 	/**
@@ -129,13 +177,24 @@ public class GameOver extends Scene {
 			System.out.println(fs.positionY);
 		}
 
+		if (review != null) {
+			review.update();
+		}
 	}
 
 	@Override
-	public void mousePressed(int key, int x, int y) {}
+	public void mousePressed(int key, int x, int y) {
+		if (review != null) {
+			review.mousePressed(key, x, y);
+		}
+	}
 
 	@Override
-	public void mouseReleased(int key, int x, int y) {}
+	public void mouseReleased(int key, int x, int y) {
+		if (review != null) {
+			review.mouseReleased(key, x, y);
+		}
+	}
 
 	/**
 	 * Tracks if any keys are pressed when the game over screen begins.
@@ -143,6 +202,9 @@ public class GameOver extends Scene {
 	 */
 	@Override
 	public void keyPressed(int key) {
+		// Keys which step through the review don't end the scene
+		if (review != null && review.keyPressed(key)) return;
+
 		keyPressed = key;
 	}
 
@@ -151,6 +213,8 @@ public class GameOver extends Scene {
 	 */
 	@Override
 	public void keyReleased(int key) {
+		if (review != null && SessionReview.isReviewKey(key)) return;
+
 		if (key == keyPressed) {
 			Main.closeScene();
 		}
@@ -200,10 +264,18 @@ public class GameOver extends Scene {
 
 		graphics.setColour(graphics.safetyOrange);
 		graphics.printCentred("Press any key to continue", 0, 2 * window.height()/3, 1, window.width());
+
+		if (review != null) {
+			review.draw();
+		}
 	}
 
 	@Override
-	public void close() {}
+	public void close() {
+		for (AssetManager.Handle<?> asset : getAssets()) {
+			AssetManager.release(asset);
+		}
+	}
 
 	@Override
 	public void playSound(Sound sound) {
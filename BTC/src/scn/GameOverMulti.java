@@ -8,6 +8,7 @@ import lib.jog.audio.Sound;
 import lib.jog.graphics;
 import lib.jog.window;
 import cls.Player;
+import rpl.SessionReview;
 
 public class GameOverMulti extends Scene {
 
@@ -25,6 +26,12 @@ public class GameOverMulti extends Scene {
 	/** Integer offset to centre vertically */
 	private int yBorder = (window.height() - 440) / 2 - 20;
 
+	/** The telemetry of the game, or <code>null</code> if none was written */
+	private String reviewPath;
+
+	/** Shows the game at any point, or <code>null</code> if it can't */
+	private SessionReview review;
+
 	public GameOverMulti(Player hostPlayer, Player opposingPlayer) {
 		this.hostPlayer = hostPlayer;
 		this.opposingPlayer = opposingPlayer;
@@ -61,10 +68,24 @@ public class GameOverMulti extends Scene {
 				returnToTitle, (window.width()/2 + window.height()/3)/2 - 40, window.height() - (yBorder/2) + 9,
 				80, 18, -1, -8);
 //		exitButtons[1].setInset(true);
+
+		review = SessionReview.open(reviewPath, window.height()/3 - 40,
+				yBorder + 350, window.width() - (2 * window.height()/3 - 80),
+				window.height() - (yBorder/2) - yBorder - 370);
 	}
 
-	public void update(double timeDifference) {
+	/**
+	 * Sets the telemetry to review the game from.
+	 * @param path - the telemetry file, or <code>null</code> if there is none
+	 */
+	public void setReview(String path) {
+		reviewPath = path;
+	}
 
+	public void update(double timeDifference) {
+		if (review != null) {
+			review.update();
+		}
 	}
 
 	public void draw() {
@@ -90,6 +111,10 @@ public class GameOverMulti extends Scene {
 		for (ButtonText b : exitButtons) {
 			b.draw();
 		}
+
+		if (review != null) {
+			review.draw();
+		}
 	}
 
 	public void drawHostPlayerStats() {
@@ -135,10 +160,16 @@ public class GameOverMulti extends Scene {
 }
 
 	@Override
-	public void mousePressed(int key, int x, int y) {}
+	public void mousePressed(int key, int x, int y) {
+		if (review != null) {
+			review.mousePressed(key, x, y);
+		}
+	}
 
 	@Override
 	public void mouseReleased(int key, int x, int y) {
+		if (review != null && review.mouseReleased(key, x, y)) return;
+
 		for (ButtonText b : exitButtons) {
 			if (b.isMouseOver(x, y)) {
 				b.act();
@@ -148,11 +179,16 @@ public class GameOverMulti extends Scene {
 
 	@Override
 	public void keyPressed(int key) {
+		// Keys which step through the review don't end the scene
+		if (review != null && review.keyPressed(key)) return;
+
 		keyPressed = key;
 	}
 
 	@Override
 	public void keyReleased(int key) {
+		if (review != null && SessionReview.isReviewKey(key)) return;
+
 		if (key == keyPressed) {
 			Main.closeScene();
 			Main.setScene(new Lobby());
@@ -7,7 +7,8 @@ import org.newdawn.slick.Color;
 
 import btc.Main;
 import net.NetworkManager;
-import lib.SpriteAnimation;
+import lib.AnimationPool;
+import lib.EventBus;
 import lib.jog.audio;
 import lib.jog.graphics;
 import lib.jog.input;
@@ -17,6 +18,7 @@ import lib.jog.graphics.Image;
 import cls.Aircraft;
 import cls.Airport;
 import cls.FlightStrip;
+import cls.GameEvent;
 import cls.Player;
 import cls.Powerup;
 import cls.Waypoint;
@@ -82,15 +84,19 @@ public class MultiPlayerGame extends Game {
 	/** The list of aircraft which are currently being transferred */
 	private ArrayList<Aircraft> aircraftUnderTransfer;
 	
-	/** Whether the game is about to exit to the lobby */
-	private boolean exitingToLobby;
-	
-	/** Whether the game is about to exit to game over */
-	private boolean exitingToGameOver;
-	
 	/** The list of colliding aircraft passed from the opponent */
 	private Aircraft[] passedCollidingAircraft;
 
+	/**
+	 * The opponent has told the game to exit to the lobby.
+	 */
+	private static final class ExitToLobby {}
+
+	/**
+	 * The opponent has told the game to exit to the game over scene.
+	 */
+	private static final class ExitToGameOver {}
+
 
 	/**
 	 * Creates a new instance of a multiplayer game.
@@ -105,13 +111,13 @@ public class MultiPlayerGame extends Game {
 	 */
 	public static MultiPlayerGame createMultiPlayerGame(
 			DifficultySetting difficulty, int playerPosition) {
-		if (instance == null) {
+		if (getInstance() == null) {
 			return new MultiPlayerGame(difficulty, playerPosition);
 		} else {
 			Exception e = new Exception("Attempting to create a " +
 					"second instance of Game");
 			e.printStackTrace();
-			return (MultiPlayerGame) instance;
+			return (MultiPlayerGame) getInstance();
 		}
 	}
 
@@ -122,7 +128,7 @@ public class MultiPlayerGame extends Game {
 	 */
 	private MultiPlayerGame(DifficultySetting difficulty, int playerPosition) {
 		super(difficulty);
-		instance = this;
+		setInstance(this);
 
 		this.playerPosition = playerPosition;
 	}
@@ -132,8 +138,6 @@ public class MultiPlayerGame extends Game {
 	public void start() {
 		super.start();
 		
-		exitingToLobby = false;
-		exitingToGameOver = false;
 		aircraftUnderTransfer = new ArrayList<Aircraft>();
 		dataUpdateTimeElapsed = 0;
 		powerupGenerationTimeElapsed = 0;
@@ -205,35 +209,16 @@ public class MultiPlayerGame extends Game {
 			player = new Player(1, player1Airports, player1Waypoints);
 			opposingPlayer = new Player(0, player0Airports, player0Waypoints);
 		}
+
+		indexPlayers();
+		startTraffic();
 	}
 
 	@Override
 	public void update(double timeDifference) {
-		// Check if the opponent has issued an instruction to exit
-		// to the lobby
-		if (exitingToLobby) {
-			exitingToLobby = false;
-			Main.closeScene();
-		}
-		
-		// Check if the opponent has issued an instruction to exit
-		// to the game over scene
-		if (exitingToGameOver) {
-			exitingToGameOver = false;
-			
-			FlightStrip fs1 = null, fs2 = null;
-//			for (FlightStrip fs : player.getFlightStrips()) {
-//				if (passedCollidingAircraft[0].equals(fs.getAircraft())) {
-//					fs1 = fs;
-//				} else if (passedCollidingAircraft[1].equals(fs.getAircraft())) {
-//					fs2 = fs;
-//				}
-//			}
-			
-			
-			gameOver(passedCollidingAircraft[0],
-					passedCollidingAircraft[1], fs1, fs2, true);
-		}
+		// Handle any instructions the opponent has sent, such as to exit
+		// to the lobby or the game over scene
+		events.dispatch();
 		
 		// Update powerups
 		updatePowerups(timeDifference);
@@ -243,22 +228,13 @@ public class MultiPlayerGame extends Game {
 			checkPowerups();
 		}
 
+		// Activate any powerups which have been received; each
+		// schedules its own expiry
 		for (int i = player.getPowerups().size() - 1; i >= 0; i--) {
 			// If the powerup hasn't yet been activated
 			if (!player.getPowerups().get(i).isActive()) {
 				// Activate it
 				player.getPowerups().get(i).activateEffect();
-				
-			} else {
-				// If the powerup has finished
-				if (player.getPowerups().get(i).getEndTime()
-						<= System.currentTimeMillis()) {
-					// Deactivate it
-					player.getPowerups().get(i).deactivateEffect();
-
-					// Add to players powerup count
-					player.setPowerUpsCollected(player.getPowerUpsCollected() + 1);
-				}
 			}
 		}
 
@@ -296,6 +272,7 @@ public class MultiPlayerGame extends Game {
 				// Set the opposing player's data
 				Player newData = (Player) data;
 				opposingPlayer = newData;
+				indexPlayers();
 
 				// Check if any powerups have been claimed
 				for (int i = 0; i > powerupPoints.length; i++) {
@@ -315,7 +292,7 @@ public class MultiPlayerGame extends Game {
 							aircraftUnderTransfer.remove(i);
 						} else {
 							// If not, add them in
-							opposingPlayer.getAircraft().add(
+							aircraftRegistry.add(opposingPlayer,
 									aircraftUnderTransfer.get(i));
 						}
 					}
@@ -340,6 +317,7 @@ public class MultiPlayerGame extends Game {
 				if (playerArray.length == 2) {
 					player = playerArray[1];
 					opposingPlayer = playerArray[0];
+					indexPlayers();
 				}
 
 				// Check if any powerups have been claimed
@@ -398,7 +376,10 @@ public class MultiPlayerGame extends Game {
 	}
 
 	@Override
-	protected void drawMapFeatures() {
+	protected void drawMapFeatures(FrameSnapshot frame) {
+		Player player = frame.getPlayer();
+		Player opposingPlayer = frame.getOpposingPlayer();
+
 		drawAirports(player);
 		drawAirports(opposingPlayer);
 
@@ -408,22 +389,55 @@ public class MultiPlayerGame extends Game {
 		drawAircraft(player);
 		drawAircraft(opposingPlayer);
 
-		drawSelectedAircraft();
+		drawSelectedAircraft(player);
 
 		drawPowerupPoints();
 		
 		// Draw any explosions
 		graphics.setColour(graphics.red);
-		for (SpriteAnimation explosion : explosionAnimations) {
-			explosion.draw();
-		}
+		AnimationPool.draw(frame.getExplosions(), frame.getTimeElapsed());
 		
+		getFrameCamera().restore();
 		graphics.setViewport();
 
-		drawLives();
-		drawScore();
-		drawFlightStrips();
-		drawPlayerNames();
+		drawLives(player, opposingPlayer);
+		drawScore(player, opposingPlayer);
+		drawFlightStrips(player, opposingPlayer);
+		drawPlayerNames(player, opposingPlayer);
+	}
+
+	@Override
+	protected FrameSnapshot createFrame() {
+		return new FrameSnapshot(player, opposingPlayer,
+				explosionAnimations.copyActive(),
+				timeElapsed, getAllAircraft().size(), camera);
+	}
+
+	/**
+	 * Gets the horizontal offset at which a player's flight strips are drawn.
+	 * <p>
+	 * Player 0 controls the left of the airspace, so has their strips on
+	 * the left, and player 1 has theirs on the right.
+	 * </p>
+	 * @param player - the player whose flight strips are being drawn
+	 * @return the horizontal offset of the player's flight strips
+	 */
+	@Override
+	protected double getFlightStripX(Player player) {
+		return (player.getID() == 0) ? 16 : window.width() - getXOffset() + 16;
+	}
+
+	/**
+	 * Gets whether the player can pan and zoom the camera.
+	 * <p>
+	 * Both players are shown the whole airspace, as the middle zone and
+	 * each player's half of it are drawn on the screen itself.
+	 * </p>
+	 * @return <code>false</code>, as the camera can't be moved
+	 */
+	@Override
+	protected boolean isCameraMovable() {
+		return false;
 	}
 
 	/**
@@ -466,7 +480,7 @@ public class MultiPlayerGame extends Game {
 		}
 	}
 
-	private void drawLives() { 
+	private void drawLives(Player player, Player opposingPlayer) { 
 		graphics.setColour(Color.white);
 		
 		String livesString =
@@ -502,7 +516,7 @@ public class MultiPlayerGame extends Game {
 		}
 	}
 
-	private void drawScore() {
+	private void drawScore(Player player, Player opposingPlayer) {
 		graphics.setColour(Color.white);
 		
 		String scoreString =
@@ -538,37 +552,19 @@ public class MultiPlayerGame extends Game {
 		}
 	}
 
-	private void drawFlightStrips() {
+	private void drawFlightStrips(Player player, Player opposingPlayer) {
 		graphics.setColour(Color.white);
-		
-		switch (playerPosition) {
-		case 0:
-			for (FlightStrip fs : player.getFlightStrips()) {
-				fs.draw(16, 20);
-			}
 
-			for (FlightStrip fs : opposingPlayer.getFlightStrips()) {
-				fs.draw(window.width() - (getXOffset()) + 16, 20);
-			}
-
-			break;
-		case 1:
-			for (FlightStrip fs : player.getFlightStrips()) {
-				fs.draw(window.width() - (getXOffset()) + 16, 20);
-			}
-
-			for (FlightStrip fs : opposingPlayer.getFlightStrips()) {
-				fs.draw(16, 20);
-			}
-			
-			break;
-		}
+		player.getFlightStripBoard().draw(getFlightStripX(player),
+				FLIGHT_STRIP_Y);
+		opposingPlayer.getFlightStripBoard().draw(
+				getFlightStripX(opposingPlayer), FLIGHT_STRIP_Y);
 	}
 	
 	/**
 	 * Draw the player's names.
 	 */
-	private void drawPlayerNames() {
+	private void drawPlayerNames(Player player, Player opposingPlayer) {
 		if (player.getName() != null && opposingPlayer.getName() != null) {
 			switch (playerPosition) {
 			case 0:
@@ -628,17 +624,57 @@ public class MultiPlayerGame extends Game {
 		switch (key) {
 		case input.KEY_T:
 			if (player.getSelectedAircraft() != null) {
-				aircraftUnderTransfer.add(player.getSelectedAircraft());
-				opposingPlayer.getAircraft().add(player.getSelectedAircraft());
-				player.getAircraft().remove(player.getSelectedAircraft());
-
-				NetworkManager.sendData(-1, new Player[] {player, opposingPlayer});
-
+				Aircraft aircraft = player.getSelectedAircraft();
 				deselectAircraft(player);
+				events.publish(new GameEvent.HandoffStarted(aircraft,
+						player, opposingPlayer));
 			}
 		}
 	}
 
+	@Override
+	protected void subscribeEvents() {
+		super.subscribeEvents();
+
+		events.subscribe(ExitToLobby.class,
+				new EventBus.Listener<ExitToLobby>() {
+			@Override
+			public void handle(ExitToLobby event) {
+				Main.closeScene();
+			}
+		});
+
+		events.subscribe(ExitToGameOver.class,
+				new EventBus.Listener<ExitToGameOver>() {
+			@Override
+			public void handle(ExitToGameOver event) {
+				gameOver(passedCollidingAircraft[0],
+						passedCollidingAircraft[1], null, null, true);
+			}
+		});
+
+		// Hand aircraft to the opponent, and tell them about it
+		events.subscribe(GameEvent.HandoffStarted.class,
+				new EventBus.Listener<GameEvent.HandoffStarted>() {
+			@Override
+			public void handle(GameEvent.HandoffStarted event) {
+				aircraftUnderTransfer.add(event.getAircraft());
+				aircraftRegistry.transfer(event.getAircraft(), event.getTo());
+
+				NetworkManager.sendData(-1, new Player[] {player, opposingPlayer});
+			}
+		});
+
+		// Tell the opponent a powerup has been taken from its waypoint
+		events.subscribe(GameEvent.PowerupCollected.class,
+				new EventBus.Listener<GameEvent.PowerupCollected>() {
+			@Override
+			public void handle(GameEvent.PowerupCollected event) {
+				NetworkManager.sendData(-1, event.getWaypoint());
+			}
+		});
+	}
+
 	/**
 	 * Checks if an aircraft has flown over a waypoint which is holding a powerup.
 	 * <p>
@@ -656,16 +692,18 @@ public class MultiPlayerGame extends Game {
 				if (aircraft.isAt(waypoint.getLocation(), 20)
 						&& waypoint.getPowerup() != null) {
 					// Add the waypoint to the appropriate player
-					waypoint.getPowerup().addToPlayer(0);
+					Powerup powerup = waypoint.getPowerup();
+					powerup.addToPlayer(0);
 
 					// Register the aircraft as that which obtained the powerup
-					waypoint.getPowerup().registerAircraft(aircraft);
+					powerup.registerAircraft(aircraft);
 
 					// And remove the powerup from the waypoint
 					waypoint.setPowerup(null);
 					
 					// Send the removal to the opponent
-					NetworkManager.sendData(-1, waypoint);
+					events.publish(new GameEvent.PowerupCollected(aircraft,
+							powerup, waypoint));
 				}
 			}
 
@@ -676,16 +714,18 @@ public class MultiPlayerGame extends Game {
 				if (aircraft.isAt(waypoint.getLocation(), 20)
 						&& waypoint.getPowerup() != null) {
 					// Add the waypoint to the appropriate player
-					waypoint.getPowerup().addToPlayer(1);
+					Powerup powerup = waypoint.getPowerup();
+					powerup.addToPlayer(1);
 
 					// Register the aircraft as that which obtained the powerup
-					waypoint.getPowerup().registerAircraft(aircraft);
+					powerup.registerAircraft(aircraft);
 
 					// And remove the powerup from the waypoint
 					waypoint.setPowerup(null);
 					
 					// Send the removal to the opponent
-					NetworkManager.sendData(-1, waypoint);
+					events.publish(new GameEvent.PowerupCollected(aircraft,
+							powerup, waypoint));
 				}
 			}
 		}
@@ -694,8 +734,8 @@ public class MultiPlayerGame extends Game {
 	@Override
 	public void gameOver(Aircraft plane1, Aircraft plane2, FlightStrip fs1, FlightStrip fs2, boolean override) {
 		if (override || player.getLives() == 0 || opposingPlayer.getLives() == 0) {
-			player.getAircraft().clear();
-			opposingPlayer.getAircraft().clear();
+			aircraftRegistry.clear(player);
+			aircraftRegistry.clear(opposingPlayer);
 
 			for (Airport airport : player.getAirports()) {
 				airport.clear();
@@ -712,7 +752,7 @@ public class MultiPlayerGame extends Game {
 				endGameInstruction = "GAME_OVER_RECEIVED";
 			}
 			
-			playSound(audio.newSoundEffect("sfx" + File.separator + "crash.ogg"));
+			playSound(crashAsset.get());
 			
 			// Perform a final update
 			NetworkManager.sendData(-1, player.clone());
@@ -725,32 +765,22 @@ public class MultiPlayerGame extends Game {
 			
 			updateData();
 			
+			GameOverMulti gameOver = new GameOverMulti(player, opposingPlayer);
+			gameOver.setReview(closeTelemetry());
+
 			Main.closeScene();
-			Main.setScene(new GameOverMulti(player, opposingPlayer));
+			Main.setScene(gameOver);
 		}
 	}
 
 
 	/**
-	 * Gets a player from an aircraft.
-	 * @param aircraft - the aircraft to get the controlling player of
-	 * @return the player controlling the specified aircraft
+	 * Gets the players in the game.
+	 * @return the current player and the opposing player
 	 */
 	@Override
-	public Player getPlayerFromAircraft(Aircraft aircraft) {
-		for (Aircraft a : player.getAircraft()) {
-			if (a.equals(aircraft)) {
-				return player;
-			}
-		}
-
-		for (Aircraft a : opposingPlayer.getAircraft()) {
-			if (a.equals(aircraft)) {
-				return opposingPlayer;
-			}
-		}
-
-		return null;
+	protected Player[] getPlayers() {
+		return new Player[] {player, opposingPlayer};
 	}
 
 	/**
@@ -775,23 +805,6 @@ public class MultiPlayerGame extends Game {
 		return null;
 	}
 
-	/**
-	 * Returns whether a given name is an airport or not.
-	 * @param name - the name to test
-	 * @return <code>true</code> if the name matches an airport name,
-	 * 			otherwise <code>false</code>
-	 */
-	@Override
-	public Airport getAirportFromName(String name) {
-		for (Airport airport : getAllAirports()) {
-			// If a match is found, return true
-			if (airport.getName().equals(name)) return airport;
-		}
-
-		// Otherwise
-		return null;
-	}
-
 	/**
 	 * Gets a list of all airports in the airspace.
 	 * @return a list of all the airports in the airspace
@@ -823,43 +836,6 @@ public class MultiPlayerGame extends Game {
 		return allAirports;
 	}
 
-	/**
-	 * Gets a list of all aircraft in the airspace.
-	 * @return a list of all the aircraft in the airspace
-	 */
-	@Override
-	public ArrayList<Aircraft> getAllAircraft() {
-		ArrayList<Aircraft> allAircraft = new ArrayList<Aircraft>();
-
-		allAircraft.addAll(player.getAircraft());
-		allAircraft.addAll(opposingPlayer.getAircraft());
-
-		return allAircraft;
-	}
-
-	/**
-	 * Gets a flight strip from an aircraft.
-	 * @param aircraft - the aircraft who's flight strip should be returned
-	 * @return the flight strip for the specified aircraft
-	 */
-	public FlightStrip getFlightStripFromAircraft(Aircraft aircraft) {
-		if (aircraft != null) {
-			for (FlightStrip fs : player.getFlightStrips()) {
-				if (aircraft.equals(fs.getAircraft())) {
-					return fs;
-				}
-			}
-
-			for (FlightStrip fs : opposingPlayer.getFlightStrips()) {
-				if (aircraft.equals(fs.getAircraft())) {
-					return fs;
-				}
-			}
-		}
-
-		return null;
-	}
-
 	public ArrayList<Aircraft> getAircraftUnderTransfer() {
 		return aircraftUnderTransfer;
 	}
@@ -872,12 +848,24 @@ public class MultiPlayerGame extends Game {
 		passedCollidingAircraft = aircraft;
 	}
 	
+	/**
+	 * Exits to the lobby at the start of the next update.
+	 * <p>
+	 * May be called from the network thread.
+	 * </p>
+	 */
 	public void setExitingToLobby() {
-		exitingToLobby = true;
+		events.post(new ExitToLobby());
 	}
 	
+	/**
+	 * Exits to the game over scene at the start of the next update.
+	 * <p>
+	 * May be called from the network thread.
+	 * </p>
+	 */
 	public void setExitingToGameOver() {
-		exitingToGameOver = true;
+		events.post(new ExitToGameOver());
 	}
 
 
@@ -913,6 +901,7 @@ public class MultiPlayerGame extends Game {
 
 		player.setAircraft(new ArrayList<Aircraft>());
 		opposingPlayer.setAircraft(new ArrayList<Aircraft>());
+		indexPlayers();
 	}
 	
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package scn;
 
+import lib.AssetManager;
 import lib.jog.audio.Sound;
 
 public abstract class Scene implements lib.jog.input.EventHandler {
@@ -51,6 +52,41 @@ public abstract class Scene implements lib.jog.input.EventHandler {
 	 */
 	public abstract void playSound(Sound sound);
 
+	/**
+	 * Gets the assets which should be loaded before the scene starts.
+	 * <p>
+	 * Main preloads these and shows the loading progress, only calling
+	 * start() once they have all been loaded.
+	 * </p>
+	 * @return the handles of the assets the scene uses
+	 */
+	public AssetManager.Handle<?>[] getAssets() {
+		return new AssetManager.Handle<?>[0];
+	}
+
+	/**
+	 * Gets whether the scene is updated on the simulation thread.
+	 * <p>
+	 * Scenes which return <code>true</code> must not create textures or
+	 * fonts in update, and must draw only from state they have published
+	 * with publishFrame(), as drawing happens concurrently on the render
+	 * thread.
+	 * </p>
+	 * @return <code>true</code> if the scene is updated on the simulation
+	 * 			thread, <code>false</code> if it is updated on the render thread
+	 */
+	public boolean isSimulatedConcurrently() {
+		return false;
+	}
+
+	/**
+	 * Publishes the state to be drawn by the render thread.
+	 * <p>
+	 * Called by main at the end of each update.
+	 * </p>
+	 */
+	public void publishFrame() {}
+
 }
 
 
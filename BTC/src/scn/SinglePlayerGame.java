@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import cls.Aircraft;
 import cls.Player;
 import cls.Waypoint;
+import rpl.SessionRecorder;
 
 public class SinglePlayerGame extends Game {
 	
@@ -19,13 +20,13 @@ public class SinglePlayerGame extends Game {
 	 * @return the single player game instance
 	 */
 	public static SinglePlayerGame createSinglePlayerGame(DifficultySetting difficulty) {
-		if (instance == null) {
+		if (getInstance() == null) {
 			return new SinglePlayerGame(difficulty);
 		} else {
 			Exception e = new Exception("Attempting to create a " +
 					"second instance of Game");
 			e.printStackTrace();
-			return (SinglePlayerGame) instance;
+			return (SinglePlayerGame) getInstance();
 		}
 	}
 	
@@ -36,7 +37,7 @@ public class SinglePlayerGame extends Game {
 	 */
 	private SinglePlayerGame(DifficultySetting difficulty) {
 		super(difficulty);
-		instance = this;
+		setInstance(this);
 	}
 
 
@@ -48,6 +49,10 @@ public class SinglePlayerGame extends Game {
 	 */
 	@Override
 	public void start() {
+		// Seed the random numbers, and record the session so that it can
+		// be replayed
+		setRecorder(SessionRecorder.start(difficulty));
+
 		super.start();
 		
 		// Generate list of waypoints to pass to the player
@@ -66,6 +71,8 @@ public class SinglePlayerGame extends Game {
 		
 		// Set up the player
 		player = new Player(0, airports, playersWaypoints);
+		indexPlayers();
+		startTraffic();
 
 		// Reset game attributes for each player
 		deselectAircraft(player);
@@ -83,6 +90,7 @@ public class SinglePlayerGame extends Game {
 		super.start();
 		player = new Player(0, null, null);
 		player.setAircraft(new ArrayList<Aircraft>());
+		indexPlayers();
 	}
 
 }
@@ -0,0 +1,289 @@
+package scn;
+
+import java.util.ArrayList;
+
+import cls.Aircraft;
+import cls.FlightStrip;
+import cls.Player;
+import cls.Waypoint;
+import btc.Main;
+
+/**
+ * <h1>Stress Game</h1>
+ * <p>
+ * A headless single player game which keeps thousands of aircraft in the
+ * air at once, for measuring how the simulation scales.
+ * </p>
+ * <p>
+ * The airspace is made large enough to hold the aircraft at a density
+ * like a normal game's, with a generated grid of waypoints to route
+ * through, and exits spread along its edges. Aircraft enter anywhere in
+ * the airspace where there is room, and whenever aircraft land, leave or
+ * crash, new ones are created to take their place.
+ * </p>
+ * <p>
+ * Aircraft are created, flown, checked for collisions, landed and scored
+ * exactly as in a normal game. The only difference is that crashes are
+ * counted rather than ending the game, so the game runs for as long as
+ * it is updated.
+ * </p>
+ */
+public class StressGame extends Game {
+
+	/** The distance between the points aircraft enter at, in pixels */
+	public static final double SPAWN_SPACING = 1.5 * Aircraft.ENTRY_CLEARANCE;
+
+	/** The fraction of entry points which are occupied when the airspace
+	 * is full */
+	private static final double FILL = 0.5;
+
+	/** The number of entry points tried for each aircraft entering */
+	private static final int SPAWN_ATTEMPTS = 8;
+
+	/** The number of aircraft kept in the air */
+	private final int aircraftCount;
+
+	/** The number of waypoints along each side of the waypoint grid */
+	private final int gridSize;
+
+	/** The number of entry points across the airspace */
+	private final int columns;
+
+	/** The number of entry points down the airspace */
+	private final int rows;
+
+	/** The number of crashes */
+	private int crashes;
+
+
+	/**
+	 * Creates a new stress game.
+	 * @param difficulty - the difficulty to play at
+	 * @param aircraftCount - the number of aircraft to keep in the air
+	 * @param gridSize - the number of waypoints along each side of the
+	 * 			waypoint grid
+	 * @return the stress game
+	 * @throws IllegalStateException if a game is already running
+	 */
+	public static StressGame createStressGame(DifficultySetting difficulty,
+			int aircraftCount, int gridSize) {
+		if (getInstance() != null) {
+			throw new IllegalStateException("A game is already running");
+		}
+
+		return new StressGame(difficulty, aircraftCount, gridSize);
+	}
+
+	/**
+	 * Constructor for StressGame.
+	 * @param difficulty - the difficulty to play at
+	 * @param aircraftCount - the number of aircraft to keep in the air
+	 * @param gridSize - the number of waypoints along each side of the
+	 * 			waypoint grid
+	 */
+	private StressGame(DifficultySetting difficulty, int aircraftCount,
+			int gridSize) {
+		super(difficulty);
+		this.aircraftCount = aircraftCount;
+		this.gridSize = gridSize;
+
+		// Make the airspace at least as large as a normal game's, with a
+		// 4:3 aspect, and enough entry points for every aircraft
+		double entryPoints = Math.max(aircraftCount / FILL, 12);
+		columns = (int) Math.ceil(Math.sqrt(entryPoints * 4 / 3));
+		rows = (int) Math.ceil(entryPoints / columns);
+
+		setAirspaceSize((int) (columns * SPAWN_SPACING),
+				(int) (rows * SPAWN_SPACING));
+
+		setInstance(this);
+	}
+
+
+	// Implemented methods --------------------------------------------------------------
+
+	/**
+	 * Generates the airspace, and fills it with aircraft.
+	 */
+	@Override
+	public void start() {
+		super.start();
+
+		airspaceWaypoints = createWaypointGrid();
+		locationWaypoints = join(locationWaypoints, createExits());
+
+		player = new Player(0, airports, join(airspaceWaypoints,
+				locationWaypoints));
+		indexPlayers();
+		deselectAircraft(player);
+
+		crashes = 0;
+		fill(aircraftCount * SPAWN_ATTEMPTS);
+	}
+
+	/**
+	 * Updates the game, then replaces any aircraft which have finished.
+	 * @param timeDifference - the time since the last update
+	 */
+	@Override
+	public void update(double timeDifference) {
+		super.update(timeDifference);
+
+		fill(aircraftCount - getAllAircraft().size());
+	}
+
+	/**
+	 * Counts a crash, without ending the game.
+	 */
+	@Override
+	public void gameOver(Aircraft plane1, Aircraft plane2, FlightStrip fs1,
+			FlightStrip fs2, boolean override) {
+		crashes++;
+	}
+
+	/**
+	 * Gets a point where an aircraft can enter the airspace.
+	 * <p>
+	 * Aircraft can enter anywhere in the airspace, at any of a lattice of
+	 * entry points which has no aircraft near it, so a few random points
+	 * are tried. If none of them are free, there are no entry points, and
+	 * new aircraft depart from the airports instead.
+	 * </p>
+	 * @param player - the player whose aircraft is entering
+	 * @return a free entry point, or an empty list if none was found
+	 */
+	@Override
+	public ArrayList<Waypoint> getAvailableEntryPoints(Player player) {
+		ArrayList<Waypoint> availableEntryPoints = new ArrayList<Waypoint>();
+
+		for (int i = 0; i < SPAWN_ATTEMPTS; i++) {
+			int entryPoint = Main.getRandom().nextInt(columns * rows);
+
+			Waypoint point = new Waypoint(
+					((entryPoint % columns) + 0.5) / columns,
+					((entryPoint / columns) + 0.5) / rows, true, true);
+
+			if (!airspaceIndex.isNear(point.getLocation())) {
+				availableEntryPoints.add(point);
+				break;
+			}
+		}
+
+		return availableEntryPoints;
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the number of aircraft kept in the air.
+	 * @return the number of aircraft kept in the air
+	 */
+	public int getAircraftCount() {
+		return aircraftCount;
+	}
+
+	/**
+	 * Gets the number of waypoints along each side of the waypoint grid.
+	 * @return the number of waypoints along each side of the waypoint grid
+	 */
+	public int getGridSize() {
+		return gridSize;
+	}
+
+	/**
+	 * Gets the number of crashes so far.
+	 * @return the number of crashes so far
+	 */
+	public int getCrashes() {
+		return crashes;
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Creates aircraft until the airspace is full.
+	 * @param attempts - the most aircraft to try to create
+	 */
+	private void fill(int attempts) {
+		for (int i = 0; i < attempts
+				&& getAllAircraft().size() < aircraftCount; i++) {
+			generateFlight(player);
+		}
+	}
+
+	/**
+	 * Creates a square grid of waypoints covering the airspace.
+	 * @return the waypoints
+	 */
+	private Waypoint[] createWaypointGrid() {
+		Waypoint[] waypoints = new Waypoint[gridSize * gridSize];
+
+		for (int i = 0; i < gridSize; i++) {
+			for (int j = 0; j < gridSize; j++) {
+				waypoints[i * gridSize + j] = new Waypoint(
+						(i + 0.5) / gridSize, (j + 0.5) / gridSize, false, true);
+			}
+		}
+
+		return waypoints;
+	}
+
+	/**
+	 * Creates exits spread along each edge of the airspace, in line with
+	 * the waypoint grid.
+	 * @return the exits
+	 */
+	private Waypoint[] createExits() {
+		Waypoint[] exits = new Waypoint[4 * gridSize];
+
+		// Exits sit just inside the edges, as the corner exits do
+		double left = 8d / getAirspaceWidth();
+		double top = 8d / getAirspaceHeight();
+
+		for (int i = 0; i < gridSize; i++) {
+			double along = (i + 0.5) / gridSize;
+
+			exits[4 * i] = new Waypoint(along, top, true, "North " + i, true);
+			exits[4 * i + 1] = new Waypoint(along, 1 - top, true, "South " + i,
+					true);
+			exits[4 * i + 2] = new Waypoint(left, along, true, "West " + i, true);
+			exits[4 * i + 3] = new Waypoint(1 - left, along, true, "East " + i,
+					true);
+		}
+
+		return exits;
+	}
+
+	/**
+	 * Joins two lists of waypoints.
+	 * @param first - the waypoints to put first
+	 * @param second - the waypoints to put after them
+	 * @return the joined waypoints
+	 */
+	private static Waypoint[] join(Waypoint[] first, Waypoint[] second) {
+		Waypoint[] joined = new Waypoint[first.length + second.length];
+
+		System.arraycopy(first, 0, joined, 0, first.length);
+		System.arraycopy(second, 0, joined, first.length, second.length);
+
+		return joined;
+	}
+
+
+	// Deprecated -----------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Deprecated
+	@Override
+	public void initializeAircraftArray() {
+		super.start();
+		player = new Player(0, null, null);
+		player.setAircraft(new ArrayList<Aircraft>());
+		indexPlayers();
+	}
+
+}
@@ -7,6 +7,7 @@ import java.net.URISyntaxException;
 
 import org.newdawn.slick.Color;
 
+import lib.AssetManager;
 import lib.jog.audio.Sound;
 import lib.jog.graphics.Image;
 import lib.jog.graphics;
@@ -18,25 +19,30 @@ public class Title extends Scene {
 	/** A List of buttons, to hold declared buttons in the scene */
 	private lib.ButtonText[] buttons;
 
-	public static final Image SINGLE_PLAYER =
-			graphics.newImage("gfx" + File.separator + "pup"
-					+ File.separator + "singleplayer_512.png");
+	/*
+	 * The button icons. These are held for as long as the game runs, as the
+	 * title screen is never restarted once it has been covered by another
+	 * scene, so the icons are never released.
+	 */
+	public static final AssetManager.Handle<Image> SINGLE_PLAYER =
+			AssetManager.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "pup" + File.separator + "singleplayer_512.png");
 
-	public static final Image MULTIPLAYER =
-			graphics.newImage("gfx" + File.separator + "pup"
-					+ File.separator + "multiplayer_512.png");
+	public static final AssetManager.Handle<Image> MULTIPLAYER =
+			AssetManager.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "pup" + File.separator + "multiplayer_512.png");
 
-	public static final Image CREDITS =
-			graphics.newImage("gfx" + File.separator + "pup"
-					+ File.separator + "credits_512.png");
+	public static final AssetManager.Handle<Image> CREDITS =
+			AssetManager.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "pup" + File.separator + "credits_512.png");
 
-	public static final Image HELP =
-			graphics.newImage("gfx" + File.separator + "pup"
-					+ File.separator + "help_512.png");
+	public static final AssetManager.Handle<Image> HELP =
+			AssetManager.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "pup" + File.separator + "help_512.png");
 
-	public static final Image EXIT =
-			graphics.newImage("gfx" + File.separator + "pup"
-					+ File.separator + "exit_512.png");
+	public static final AssetManager.Handle<Image> EXIT =
+			AssetManager.acquire(AssetManager.IMAGE, "gfx" + File.separator
+					+ "pup" + File.separator + "exit_512.png");
 
 	/** Integer offset to centre the main menu */
 	private int yBorder = (window.height() - 440) / 2 - 20;
@@ -184,11 +190,11 @@ public class Title extends Scene {
 		graphics.printRight("Ausfahrt", (window.width() - (window.height()/3) + 20) - 4, yBorder + 405, 0, 0);
 		graphics.printRight("Postuminen", (window.width() - (window.height()/3) + 20) - 4, yBorder + 420, 0, 0);
 		graphics.setColour(graphics.safetyOrange);
-		graphics.drawScaled(SINGLE_PLAYER, window.height()/3 - 40, yBorder + 80, 0.0625);
-		graphics.drawScaled(MULTIPLAYER, window.height()/3 - 40, yBorder + 160, 0.0625);
-		graphics.drawScaled(CREDITS, window.height()/3 - 40, yBorder + 240, 0.0625);
-		graphics.drawScaled(HELP, window.height()/3 - 40, yBorder + 320, 0.0625);
-		graphics.drawScaled(EXIT, window.height()/3 - 40, yBorder + 400, 0.0625);
+		graphics.drawScaled(SINGLE_PLAYER.get(), window.height()/3 - 40, yBorder + 80, 0.0625);
+		graphics.drawScaled(MULTIPLAYER.get(), window.height()/3 - 40, yBorder + 160, 0.0625);
+		graphics.drawScaled(CREDITS.get(), window.height()/3 - 40, yBorder + 240, 0.0625);
+		graphics.drawScaled(HELP.get(), window.height()/3 - 40, yBorder + 320, 0.0625);
+		graphics.drawScaled(EXIT.get(), window.height()/3 - 40, yBorder + 400, 0.0625);
 
 		// Draw Buttons
 		for (lib.ButtonText b : buttons) b.draw();
@@ -239,6 +245,16 @@ public class Title extends Scene {
 	@Override
 	public void close() {}
 
+	/**
+	 * Gets the button icons, so that they are preloaded.
+	 * @return the handles of the button icons
+	 */
+	@Override
+	public AssetManager.Handle<?>[] getAssets() {
+		return new AssetManager.Handle<?>[] {SINGLE_PLAYER, MULTIPLAYER,
+				CREDITS, HELP, EXIT};
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,301 @@
+package srv;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import lib.jog.input;
+import lib.jog.window;
+import scn.Game.DifficultySetting;
+import bot.Autopilot;
+import btc.GameSettings;
+import btc.SessionContext;
+
+/**
+ * <h1>Game Server</h1>
+ * <p>
+ * Hosts many single player sessions in one process, e.g. for a classroom
+ * of players connecting remotely, sharing a pool of threads between them.
+ * </p>
+ * <p>
+ * Each session has its own game, random numbers, clock and settings, so
+ * sessions don't affect each other, and each plays out as it would on
+ * its own.
+ * Sessions are played headlessly: nothing is drawn, and nobody is at the
+ * server's keyboard or mouse, so players' actions are posted to their
+ * sessions as commands.
+ * </p>
+ * <p>
+ * Each session's turn is scheduled every update period, and plays at most
+ * a fixed number of updates, so a session which falls behind drops time
+ * rather than holding up the others.
+ * </p>
+ * <p>
+ * Multiplayer games aren't hosted, as they are played between two
+ * clients through the network lobby rather than on a server, and the
+ * network connection belongs to the process rather than to a session.
+ * </p>
+ * <p>
+ * Usage: <code>java srv.GameServer sessions seconds [threads]
+ * [difficulty] [strategy] [speed]</code> plays the given number of
+ * sessions with autopilots, for load testing, reopening each as it ends.
+ * </p>
+ */
+public class GameServer {
+
+	/** The default most updates each session may play in one turn */
+	public static final int DEFAULT_TICK_BUDGET = 4;
+
+	/** The time between each session's turns, in nanoseconds */
+	private static final long TURN_PERIOD = 1000000000L / 60;
+
+	/**
+	 * A session which is being played, and its scheduled turns.
+	 */
+	private class Hosted implements Runnable {
+
+		/** The session */
+		private final Session session;
+
+		/** The session's scheduled turns */
+		private ScheduledFuture<?> turns;
+
+		/**
+		 * Constructor for a hosted session.
+		 * @param session - the session
+		 */
+		private Hosted(Session session) {
+			this.session = session;
+		}
+
+		@Override
+		public void run() {
+			session.turn(System.nanoTime(), tickBudget);
+		}
+
+	}
+
+	/** The threads sessions are played on */
+	private final ScheduledThreadPoolExecutor workers;
+
+	/** The most updates each session may play in one turn */
+	private final int tickBudget;
+
+	/** The sessions being hosted */
+	private final ArrayList<Hosted> sessions = new ArrayList<Hosted>();
+
+	/** The number of sessions which have been opened */
+	private int opened;
+
+
+	/**
+	 * Plays sessions with autopilots for a time, printing the rate at
+	 * which they are played each second.
+	 * @param args - the number of sessions, the seconds to run for, and
+	 * 			optionally the number of threads, the difficulty, the
+	 * 			strategy and the speed
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		if (args.length < 2) {
+			System.out.println("Usage: GameServer sessions seconds [threads]"
+					+ " [easy|medium|hard] [idle|greedy|aggressive] [speed]");
+			return;
+		}
+
+		int count = Integer.parseInt(args[0]);
+		int seconds = Integer.parseInt(args[1]);
+		int threads = (args.length > 2) ? Integer.parseInt(args[2])
+				: Runtime.getRuntime().availableProcessors();
+		DifficultySetting difficulty = (args.length > 3)
+				? DifficultySetting.valueOf(args[3].toUpperCase())
+				: DifficultySetting.MEDIUM;
+		String strategy = (args.length > 4) ? args[4] : "greedy";
+		double speed = (args.length > 5) ? Double.parseDouble(args[5]) : 1;
+
+		Autopilot.createStrategy(strategy);
+		window.setVirtualSize(1280, 960);
+
+		// Sessions already share every core
+		SessionContext.current().getSettings().setUpdateThreads(1,
+				Integer.MAX_VALUE);
+
+		GameServer server = new GameServer(threads, DEFAULT_TICK_BUDGET);
+		for (int i = 0; i < count; i++) {
+			server.open(difficulty, i, strategy, speed, 0);
+		}
+
+		long lastTicks = 0;
+		long endedTicks = 0;
+		int endedOverruns = 0;
+		int seed = count;
+		int ended = 0;
+
+		for (int second = 1; second <= seconds; second++) {
+			Thread.sleep(1000);
+
+			long ticks = endedTicks;
+			int overruns = endedOverruns;
+
+			for (Session session : server.getSessions()) {
+				// Keep the same number of sessions running
+				if (session.isFinished()) {
+					server.close(session);
+					server.open(difficulty, seed++, strategy, speed, 0);
+					endedTicks += session.getTicks();
+					endedOverruns += session.getOverruns();
+					ended++;
+				}
+
+				ticks += session.getTicks();
+				overruns += session.getOverruns();
+			}
+
+			System.out.println(String.format(Locale.ROOT,
+					"%3ds: %d sessions, %d ticks/s (%.0f%% of real time),"
+					+ " %d overruns, %d ended", second, count, ticks - lastTicks,
+					100.0 * (ticks - lastTicks) / (count * 60), overruns, ended));
+			lastTicks = ticks;
+		}
+
+		server.shutdown();
+	}
+
+	/**
+	 * Constructor for a game server.
+	 * <p>
+	 * No input is read from the server's own keyboard or mouse until it
+	 * is shut down.
+	 * </p>
+	 * @param threads - the number of threads to play sessions on
+	 * @param tickBudget - the most updates each session may play in one turn
+	 */
+	public GameServer(int threads, int tickBudget) {
+		this.tickBudget = tickBudget;
+
+		workers = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+			private int count = 0;
+
+			@Override
+			public synchronized Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Session Worker " + count++);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		workers.setRemoveOnCancelPolicy(true);
+
+		input.setState(input.IDLE_STATE);
+	}
+
+
+	/**
+	 * Opens a new session with the settings of the calling thread's
+	 * session, and starts playing it.
+	 * @param difficulty - the difficulty to play at
+	 * @param seed - the seed of the game's random numbers
+	 * @param strategy - the name of the strategy for an autopilot to play
+	 * 			with, or <code>null</code> to leave the player to play
+	 * @param speed - the multiple of real time to play at, or 0 to play as
+	 * 			fast as possible
+	 * @param duration - the longest time to play for, in game seconds, or
+	 * 			0 to play until the game ends
+	 * @return the session
+	 */
+	public Session open(DifficultySetting difficulty, int seed,
+			String strategy, double speed, double duration) {
+		return open(difficulty, seed, strategy, speed, duration,
+				SessionContext.current().getSettings());
+	}
+
+	/**
+	 * Opens a new session with its own settings, and starts playing it.
+	 * @param difficulty - the difficulty to play at
+	 * @param seed - the seed of the game's random numbers
+	 * @param strategy - the name of the strategy for an autopilot to play
+	 * 			with, or <code>null</code> to leave the player to play
+	 * @param speed - the multiple of real time to play at, or 0 to play as
+	 * 			fast as possible
+	 * @param duration - the longest time to play for, in game seconds, or
+	 * 			0 to play until the game ends
+	 * @param settings - the settings to create the session's game with,
+	 * 			which are copied
+	 * @return the session
+	 */
+	public synchronized Session open(DifficultySetting difficulty, int seed,
+			String strategy, double speed, double duration,
+			GameSettings settings) {
+		Hosted hosted = new Hosted(new Session("session-" + opened++,
+				difficulty, seed, strategy, speed, duration, settings));
+
+		if (speed > 0) {
+			hosted.turns = workers.scheduleAtFixedRate(hosted, 0,
+					Math.max(1, (long) (TURN_PERIOD / speed)), TimeUnit.NANOSECONDS);
+		} else {
+			// Turns are taken as often as threads are free
+			hosted.turns = workers.scheduleWithFixedDelay(hosted, 0, 1,
+					TimeUnit.NANOSECONDS);
+		}
+
+		sessions.add(hosted);
+		return hosted.session;
+	}
+
+	/**
+	 * Stops playing a session, and closes it.
+	 * @param session - the session to close
+	 */
+	public void close(Session session) {
+		Hosted hosted = null;
+
+		synchronized (this) {
+			for (int i = 0; i < sessions.size(); i++) {
+				if (sessions.get(i).session == session) {
+					hosted = sessions.remove(i);
+					break;
+				}
+			}
+		}
+
+		if (hosted != null) {
+			hosted.turns.cancel(false);
+			session.close();
+		}
+	}
+
+	/**
+	 * Closes every session, and stops the server's threads.
+	 */
+	public void shutdown() {
+		for (Session session : getSessions()) {
+			close(session);
+		}
+
+		workers.shutdown();
+		input.setState(null);
+	}
+
+	/**
+	 * Gets the sessions being hosted.
+	 * @return the sessions being hosted
+	 */
+	public synchronized List<Session> getSessions() {
+		ArrayList<Session> list = new ArrayList<Session>();
+		for (Hosted hosted : sessions) {
+			list.add(hosted.session);
+		}
+		return list;
+	}
+
+	/**
+	 * Gets the most updates each session may play in one turn.
+	 * @return the most updates each session may play in one turn
+	 */
+	public int getTickBudget() {
+		return tickBudget;
+	}
+
+}
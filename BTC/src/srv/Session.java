@@ -0,0 +1,314 @@
+package srv;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import bot.Autopilot;
+import bot.Controls;
+import btc.GameSettings;
+import btc.Main;
+import btc.SessionContext;
+import rpl.SessionLog;
+import scn.Game;
+import scn.SinglePlayerGame;
+import scn.Game.DifficultySetting;
+
+/**
+ * <h1>Session</h1>
+ * <p>
+ * A single player game hosted by a game server, with its own context, so
+ * it can be played alongside many others in the same process.
+ * </p>
+ * <p>
+ * Sessions are played in turns, on whichever of the server's threads is
+ * free, but never on more than one at a time. Each turn runs the commands
+ * posted since the last, then plays the updates which have become due, up
+ * to the server's limit, so that one session falling behind can't hold up
+ * the rest. A session which can't keep up drops the time it has missed,
+ * rather than trying to catch up.
+ * </p>
+ * <p>
+ * Every update is given the same time step, so a session plays out the
+ * same however it is scheduled.
+ * </p>
+ */
+public class Session {
+
+	/**
+	 * An action taken on a session's game, such as one sent by a player.
+	 */
+	public interface Command {
+
+		/**
+		 * Takes the action.
+		 * @param controls - the controls of the session's player
+		 */
+		void run(Controls controls);
+
+	}
+
+	/** The time step each update is given, as at 60 frames a second */
+	public static final double TIME_STEP = 1 / 60d;
+
+	/** The time between updates in real time, in nanoseconds */
+	private static final long TICK_PERIOD = 1000000000L / 60;
+
+	/** The session's name */
+	private final String name;
+
+	/** The state belonging to the session, rather than the process */
+	private final SessionContext context;
+
+	/** The game being played */
+	private final Game game;
+
+	/** The player's controls */
+	private final Controls controls;
+
+	/** The commands waiting to be run before the next turn */
+	private final ConcurrentLinkedQueue<Command> commands =
+			new ConcurrentLinkedQueue<Command>();
+
+	/** The multiple of real time to play at, or 0 for as fast as possible */
+	private final double speed;
+
+	/** The longest time to play for, in game seconds, or 0 for no limit */
+	private final double duration;
+
+	/** The time play is measured from, in nanoseconds */
+	private long startTime = -1;
+
+	/** The number of updates played */
+	private volatile long ticks;
+
+	/** The number of turns in which updates were dropped */
+	private volatile int overruns;
+
+	/** Whether the session has finished, or been closed */
+	private volatile boolean isFinished;
+
+	/** The error the session failed with, if any */
+	private volatile Throwable failure;
+
+
+	/**
+	 * Constructor for a session.
+	 * @param name - the session's name
+	 * @param difficulty - the difficulty to play at
+	 * @param seed - the seed of the game's random numbers
+	 * @param strategy - the name of the strategy for an autopilot to play
+	 * 			with, or <code>null</code> to leave the player to play
+	 * @param speed - the multiple of real time to play at, or 0 to play as
+	 * 			fast as possible
+	 * @param duration - the longest time to play for, in game seconds, or
+	 * 			0 to play until the game ends
+	 * @param settings - the settings to create the game with, which are
+	 * 			copied
+	 */
+	Session(String name, DifficultySetting difficulty, int seed,
+			String strategy, double speed, double duration,
+			GameSettings settings) {
+		this.name = name;
+		this.speed = speed;
+		this.duration = duration;
+		this.context = new SessionContext(settings);
+
+		SessionContext previous = context.enter();
+		try {
+			Main.setRandomSeed(seed);
+			game = SinglePlayerGame.createSinglePlayerGame(difficulty);
+
+			Autopilot autopilot = (strategy != null) ? new Autopilot(game,
+					Autopilot.createStrategy(strategy),
+					Autopilot.DEFAULT_REACTION_TIME) : null;
+
+			game.start();
+			if (autopilot != null) game.setAutopilot(autopilot);
+
+			controls = (autopilot != null) ? autopilot.getControls()
+					: new Controls(game);
+		} finally {
+			SessionContext.exit(previous);
+		}
+	}
+
+
+	/**
+	 * Posts a command to be run before the session's next turn.
+	 * @param command - the command to run
+	 */
+	public void post(Command command) {
+		commands.add(command);
+	}
+
+	/**
+	 * Plays a turn.
+	 * @param now - the current time, in nanoseconds
+	 * @param maxTicks - the most updates to play
+	 */
+	synchronized void turn(long now, int maxTicks) {
+		if (isFinished) return;
+
+		SessionContext previous = context.enter();
+		try {
+			Command command;
+			while ((command = commands.poll()) != null) {
+				command.run(controls);
+			}
+
+			long due = maxTicks;
+			if (speed > 0) {
+				if (startTime < 0) startTime = now;
+
+				due = (long) ((now - startTime) * speed / TICK_PERIOD) - ticks;
+				if (due > maxTicks) {
+					// Running behind, so drop the time missed
+					startTime += (long) ((due - maxTicks) * TICK_PERIOD / speed);
+					due = maxTicks;
+					overruns++;
+				}
+			}
+
+			for (long i = 0; i < due && !isFinished; i++) {
+				game.update(TIME_STEP);
+				ticks++;
+
+				isFinished = game.isOver()
+						|| (duration > 0 && game.getTime() >= duration);
+			}
+		} catch (RuntimeException e) {
+			fail(e);
+		} catch (Error e) {
+			fail(e);
+		} finally {
+			SessionContext.exit(previous);
+		}
+	}
+
+	/**
+	 * Ends the session, releasing its game.
+	 * <p>
+	 * Waits for a turn in progress to finish.
+	 * </p>
+	 */
+	synchronized void close() {
+		isFinished = true;
+
+		SessionContext previous = context.enter();
+		try {
+			game.close();
+		} finally {
+			SessionContext.exit(previous);
+		}
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the session's name.
+	 * @return the session's name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the number of updates played.
+	 * @return the number of updates played
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Gets the time played.
+	 * @return the time played, in game seconds
+	 */
+	public double getTime() {
+		return ticks * TIME_STEP;
+	}
+
+	/**
+	 * Gets the number of turns in which the session fell behind.
+	 * @return the number of turns in which the session fell behind, and
+	 * 			dropped updates
+	 */
+	public int getOverruns() {
+		return overruns;
+	}
+
+	/**
+	 * Gets whether the session has finished.
+	 * @return whether the game has ended, its time is up, or the session
+	 * 			has been closed
+	 */
+	public boolean isFinished() {
+		return isFinished;
+	}
+
+	/**
+	 * Gets the error the session failed with.
+	 * @return the error the session failed with, or <code>null</code> if
+	 * 			it hasn't failed
+	 */
+	public Throwable getFailure() {
+		return failure;
+	}
+
+	/**
+	 * Gets the player's score.
+	 * <p>
+	 * Waits for a turn in progress to finish.
+	 * </p>
+	 * @return the player's score
+	 */
+	public synchronized int getScore() {
+		return game.getPlayer().getScore();
+	}
+
+	/**
+	 * Gets whether the game ended in a crash, rather than the player
+	 * leaving or the session's time running out.
+	 * <p>
+	 * Waits for a turn in progress to finish.
+	 * </p>
+	 * @return <code>true</code> if the game ended in a crash
+	 */
+	public synchronized boolean isCrashed() {
+		return game.isCrashed();
+	}
+
+	/**
+	 * Gets the settings the session's game was created with.
+	 * @return the settings the session's game was created with
+	 */
+	public GameSettings getSettings() {
+		return context.getSettings();
+	}
+
+	/**
+	 * Gets a fingerprint of the game's state, which is the same for
+	 * sessions which have played out the same.
+	 * <p>
+	 * Waits for a turn in progress to finish.
+	 * </p>
+	 * @return the fingerprint
+	 */
+	public synchronized long getFingerprint() {
+		return SessionLog.fingerprint(game);
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Ends the session after an error, keeping the error to report.
+	 * @param error - the error
+	 */
+	private void fail(Throwable error) {
+		failure = error;
+		isFinished = true;
+		System.err.println("Session " + name + " failed: " + error);
+	}
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains the server which hosts many game sessions in one process
+ */
+package srv;
+//This is a header file for Javadoc
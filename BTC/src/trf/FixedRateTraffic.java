@@ -0,0 +1,45 @@
+package trf;
+
+import java.util.Random;
+
+/**
+ * <h1>Fixed Rate Traffic</h1>
+ * <p>
+ * Aircraft arrive at a fixed interval.
+ * </p>
+ */
+public class FixedRateTraffic implements TrafficModel {
+
+	/** The time between arrivals */
+	private final double interval;
+
+	/** The time taken off the wait for the first arrival */
+	private double headStart;
+
+
+	/**
+	 * Constructor for fixed rate traffic.
+	 * @param interval - the time between arrivals
+	 * @param headStart - the time taken off the wait for the first arrival
+	 */
+	public FixedRateTraffic(double interval, double headStart) {
+		this.interval = interval;
+		this.headStart = headStart;
+	}
+
+	/**
+	 * Constructor for fixed rate traffic.
+	 * @param interval - the time between arrivals
+	 */
+	public FixedRateTraffic(double interval) {
+		this(interval, 0);
+	}
+
+	@Override
+	public double getNextArrival(double time, Random random) {
+		double next = time + Math.max(0, interval - headStart);
+		headStart = 0;
+		return next;
+	}
+
+}
@@ -0,0 +1,47 @@
+package trf;
+
+import java.util.Random;
+
+/**
+ * <h1>Poisson Traffic</h1>
+ * <p>
+ * Aircraft arrive independently at random, at an average rate, so the
+ * time between arrivals is exponentially distributed. Arrivals bunch
+ * together and spread apart as real traffic does.
+ * </p>
+ */
+public class PoissonTraffic implements TrafficModel {
+
+	/** The average number of arrivals per second */
+	private final double rate;
+
+
+	/**
+	 * Constructor for Poisson traffic.
+	 * @param rate - the average number of arrivals per second
+	 */
+	public PoissonTraffic(double rate) {
+		if (rate <= 0) {
+			throw new IllegalArgumentException("Arrival rate must be positive: "
+					+ rate);
+		}
+
+		this.rate = rate;
+	}
+
+	@Override
+	public double getNextArrival(double time, Random random) {
+		return time + nextInterval(rate, random);
+	}
+
+	/**
+	 * Gets a random time between arrivals.
+	 * @param rate - the average number of arrivals per second
+	 * @param random - the random number generator to use
+	 * @return a random, exponentially distributed, time between arrivals
+	 */
+	static double nextInterval(double rate, Random random) {
+		return -Math.log(1 - random.nextDouble()) / rate;
+	}
+
+}
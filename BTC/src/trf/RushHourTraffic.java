@@ -0,0 +1,113 @@
+package trf;
+
+import java.util.Random;
+
+/**
+ * <h1>Rush Hour Traffic</h1>
+ * <p>
+ * Aircraft arrive at random, with the average rate following a daily
+ * profile of busy and quiet hours. The day is compressed into a length
+ * of game time.
+ * </p>
+ * <p>
+ * Arrivals are generated at the busiest rate of the day, and each is kept
+ * with a probability of the rate at that time over the busiest rate, which
+ * gives arrivals at exactly the rate of the profile.
+ * </p>
+ */
+public class RushHourTraffic implements TrafficModel {
+
+	/**
+	 * The default daily profile, with each hour's rate relative to the
+	 * base rate: quiet overnight, with morning and evening peaks.
+	 */
+	public static final double[] DEFAULT_PROFILE = {
+		0.1, 0.1, 0.1, 0.1, 0.2, 0.5,
+		1.2, 2.0, 2.5, 1.8, 1.2, 1.0,
+		1.1, 1.2, 1.1, 1.2, 1.6, 2.2,
+		2.5, 1.8, 1.2, 0.8, 0.4, 0.2
+	};
+
+	/** The average number of arrivals per second when the profile is 1 */
+	private final double baseRate;
+
+	/** The rate of each hour, relative to the base rate */
+	private final double[] profile;
+
+	/** The length of game time a day is compressed into */
+	private final double dayLength;
+
+	/** The busiest rate of the day */
+	private final double peakRate;
+
+
+	/**
+	 * Constructor for rush hour traffic.
+	 * @param baseRate - the average number of arrivals per second when
+	 * 			the profile is 1
+	 * @param profile - the rate of each hour of the day, relative to
+	 * 			the base rate
+	 * @param dayLength - the length of game time, in seconds, a day is
+	 * 			compressed into
+	 */
+	public RushHourTraffic(double baseRate, double[] profile, double dayLength) {
+		if (baseRate <= 0 || profile.length == 0 || dayLength <= 0) {
+			throw new IllegalArgumentException("Invalid rush hour profile");
+		}
+
+		double peak = 0;
+		for (double hour : profile) {
+			peak = Math.max(peak, hour);
+		}
+
+		if (peak <= 0) {
+			throw new IllegalArgumentException("Rush hour profile has no traffic");
+		}
+
+		this.baseRate = baseRate;
+		this.profile = profile.clone();
+		this.dayLength = dayLength;
+		this.peakRate = baseRate * peak;
+	}
+
+	/**
+	 * Constructor for rush hour traffic, using the default profile.
+	 * @param baseRate - the average number of arrivals per second when
+	 * 			the profile is 1
+	 * @param dayLength - the length of game time, in seconds, a day is
+	 * 			compressed into
+	 */
+	public RushHourTraffic(double baseRate, double dayLength) {
+		this(baseRate, DEFAULT_PROFILE, dayLength);
+	}
+
+	@Override
+	public double getNextArrival(double time, Random random) {
+		double next = time;
+
+		do {
+			next += PoissonTraffic.nextInterval(peakRate, random);
+		} while (random.nextDouble() * peakRate > getRate(next));
+
+		return next;
+	}
+
+	/**
+	 * Gets the average arrival rate at a time.
+	 * <p>
+	 * The rate changes smoothly from one hour to the next.
+	 * </p>
+	 * @param time - the game time
+	 * @return the average number of arrivals per second at that time
+	 */
+	public double getRate(double time) {
+		double hour = ((time % dayLength) / dayLength) * profile.length;
+		int current = (int) hour % profile.length;
+		int next = (current + 1) % profile.length;
+		double fraction = hour - Math.floor(hour);
+
+		return baseRate * (profile[current]
+				+ (profile[next] - profile[current]) * fraction);
+	}
+
+}
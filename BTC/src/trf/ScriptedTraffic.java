@@ -0,0 +1,135 @@
+package trf;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * <h1>Scripted Traffic</h1>
+ * <p>
+ * Aircraft arrive at times set out in a scenario, so that a training
+ * exercise plays out the same way each time.
+ * </p>
+ * <p>
+ * A scenario file has one arrival per line, as the time in seconds
+ * followed optionally by the number of aircraft arriving at that time.
+ * A line <code>repeat &lt;period&gt;</code> makes the scenario start again
+ * every period. Blank lines, and anything after a <code>#</code>, are
+ * ignored. For example:
+ * </p>
+ * <pre>
+ * # Two quiet arrivals, then a rush of six
+ * 5
+ * 20
+ * 40 6
+ * repeat 60
+ * </pre>
+ */
+public class ScriptedTraffic implements TrafficModel {
+
+	/** The times of the arrivals, in order */
+	private final double[] arrivals;
+
+	/** The time after which the scenario starts again, or 0 if it doesn't */
+	private final double period;
+
+	/** The index of the next arrival */
+	private int next;
+
+	/** The time the current repetition of the scenario started */
+	private double offset;
+
+
+	/**
+	 * Constructor for scripted traffic.
+	 * @param arrivals - the times of the arrivals
+	 * @param period - the time after which the scenario starts again,
+	 * 			or 0 if it shouldn't repeat
+	 */
+	public ScriptedTraffic(double[] arrivals, double period) {
+		this.arrivals = arrivals.clone();
+		this.period = period;
+		Arrays.sort(this.arrivals);
+
+		if (period > 0 && this.arrivals.length > 0
+				&& this.arrivals[this.arrivals.length - 1] >= period) {
+			throw new IllegalArgumentException("Scenario arrivals must be "
+					+ "within the repeat period");
+		}
+	}
+
+	/**
+	 * Loads scripted traffic from a scenario file.
+	 * @param path - the path of the scenario file
+	 * @return the traffic set out in the file
+	 * @throws IOException if the file can't be read
+	 * @throws IllegalArgumentException if the file isn't a valid scenario
+	 */
+	public static ScriptedTraffic load(String path) throws IOException {
+		ArrayList<Double> arrivals = new ArrayList<Double>();
+		double period = 0;
+
+		BufferedReader reader = new BufferedReader(new FileReader(path));
+
+		try {
+			String line;
+			int lineNumber = 0;
+
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+
+				// Strip comments
+				int comment = line.indexOf('#');
+				if (comment >= 0) line = line.substring(0, comment);
+
+				String[] fields = line.trim().split("\\s+");
+				if (fields[0].isEmpty()) continue;
+
+				try {
+					if (fields[0].equals("repeat")) {
+						period = Double.parseDouble(fields[1]);
+					} else {
+						double time = Double.parseDouble(fields[0]);
+						int count = (fields.length > 1)
+								? Integer.parseInt(fields[1]) : 1;
+
+						for (int i = 0; i < count; i++) {
+							arrivals.add(time);
+						}
+					}
+				} catch (RuntimeException e) {
+					throw new IllegalArgumentException(path + ":" + lineNumber
+							+ ": invalid scenario line: " + line.trim(), e);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		double[] times = new double[arrivals.size()];
+		for (int i = 0; i < times.length; i++) {
+			times[i] = arrivals.get(i);
+		}
+
+		return new ScriptedTraffic(times, period);
+	}
+
+	@Override
+	public double getNextArrival(double time, Random random) {
+		if (next >= arrivals.length) {
+			if (period <= 0 || arrivals.length == 0) {
+				return Double.POSITIVE_INFINITY;
+			}
+
+			// Start the scenario again
+			next = 0;
+			offset += period;
+		}
+
+		return Math.max(time, offset + arrivals[next++]);
+	}
+
+}
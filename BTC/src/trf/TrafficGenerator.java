@@ -0,0 +1,290 @@
+package trf;
+
+import java.io.IOException;
+import java.util.Random;
+
+import lib.TimerWheel;
+
+/**
+ * <h1>Traffic Generator</h1>
+ * <p>
+ * Introduces aircraft into a player's airspace as they arrive, with the
+ * arrival times decided by a traffic model.
+ * </p>
+ * <p>
+ * An aircraft enters as soon as it arrives if there is room for it. If
+ * it can't, for instance because every entry point is blocked, it waits
+ * in a backlog and entering is tried again shortly after, rather than
+ * the arrival being lost. Aircraft waiting in the backlog enter before
+ * any which arrive after them. Arrivals are only turned away when they
+ * can't enter and the backlog is full, and are counted when they are.
+ * </p>
+ * <p>
+ * Arrivals are run by the game's timers, so they happen at the same
+ * points in the game however quickly it is being updated.
+ * </p>
+ */
+public class TrafficGenerator {
+
+	/**
+	 * Introduces an aircraft into the airspace.
+	 */
+	public interface Spawner {
+
+		/**
+		 * Tries to introduce an aircraft into the airspace.
+		 * @return <code>true</code> if an aircraft entered, or
+		 * 			<code>false</code> if there was no room for it
+		 */
+		boolean spawn();
+
+	}
+
+
+	/** The time to wait before trying again to introduce waiting aircraft */
+	public static final double RETRY_INTERVAL = 0.5;
+
+	/** The default number of arrivals which may wait to enter */
+	public static final int DEFAULT_MAX_BACKLOG = 3;
+
+	/** The model deciding when aircraft arrive */
+	private final TrafficModel model;
+
+	/** The timers which run arrivals */
+	private final TimerWheel timers;
+
+	/** The random number generator given to the model */
+	private final Random random;
+
+	/** The number of arrivals which may wait to enter */
+	private final int maxBacklog;
+
+	/** Introduces the aircraft */
+	private final Spawner spawner;
+
+	/** The timer for the next arrival */
+	private TimerWheel.Timer nextArrival;
+
+	/** The timer for the next attempt to introduce waiting aircraft */
+	private TimerWheel.Timer retry;
+
+	/** The number of arrivals waiting to enter */
+	private int backlog;
+
+	/** The number of aircraft which have arrived */
+	private int arrivals;
+
+	/** The number of aircraft which have entered */
+	private int spawned;
+
+	/** The number of arrivals turned away as the backlog was full */
+	private int dropped;
+
+
+	/**
+	 * Constructor for a traffic generator.
+	 * @param model - the model deciding when aircraft arrive
+	 * @param timers - the timers to run arrivals with
+	 * @param random - the random number generator to give the model
+	 * @param maxBacklog - the number of arrivals which may wait to enter
+	 * @param spawner - introduces the aircraft
+	 */
+	public TrafficGenerator(TrafficModel model, TimerWheel timers,
+			Random random, int maxBacklog, Spawner spawner) {
+		this.model = model;
+		this.timers = timers;
+		this.random = random;
+		this.maxBacklog = maxBacklog;
+		this.spawner = spawner;
+	}
+
+
+	// Control --------------------------------------------------------------------------
+
+	/**
+	 * Starts generating traffic, from the current time on the timers.
+	 */
+	public void start() {
+		scheduleArrival(model.getNextArrival(timers.getTime(), random));
+	}
+
+	/**
+	 * Stops generating traffic, discarding any waiting arrivals.
+	 */
+	public void stop() {
+		if (nextArrival != null) nextArrival.cancel();
+		if (retry != null) retry.cancel();
+		backlog = 0;
+	}
+
+	/**
+	 * Schedules the next arrival.
+	 * @param time - the time of the arrival
+	 */
+	private void scheduleArrival(final double time) {
+		if (Double.isInfinite(time)) return;
+
+		nextArrival = timers.scheduleAt(time, new Runnable() {
+			@Override
+			public void run() {
+				arrive(time);
+			}
+		});
+	}
+
+	/**
+	 * Handles an arrival, and any others at the same time.
+	 * @param time - the time of the arrival
+	 */
+	private void arrive(double time) {
+		double next = time;
+		int taken = 0;
+
+		// Take every arrival due by now, as several may arrive together,
+		// leaving any more than the backlog could hold until the next tick
+		do {
+			arrivals++;
+			taken++;
+
+			// Aircraft already waiting enter first, then the arrival enters
+			// if there is still room, waiting if there isn't
+			spawnWaiting();
+
+			if (backlog == 0 && spawner.spawn()) {
+				spawned++;
+			} else if (backlog < maxBacklog) {
+				backlog++;
+			} else {
+				dropped++;
+			}
+
+			next = model.getNextArrival(next, random);
+		} while (next <= time && taken < maxBacklog);
+
+		scheduleRetry();
+		scheduleArrival(next);
+	}
+
+	/**
+	 * Introduces as many waiting aircraft as there is room for, trying
+	 * again later if any are left waiting.
+	 */
+	private void spawnBacklog() {
+		spawnWaiting();
+		scheduleRetry();
+	}
+
+	/**
+	 * Introduces as many waiting aircraft as there is room for.
+	 */
+	private void spawnWaiting() {
+		while (backlog > 0 && spawner.spawn()) {
+			backlog--;
+			spawned++;
+		}
+	}
+
+	/**
+	 * Schedules another attempt to introduce waiting aircraft, if any are
+	 * waiting and an attempt isn't already scheduled.
+	 */
+	private void scheduleRetry() {
+		if (backlog > 0 && (retry == null || !retry.isPending())) {
+			retry = timers.schedule(RETRY_INTERVAL, new Runnable() {
+				@Override
+				public void run() {
+					spawnBacklog();
+				}
+			});
+		}
+	}
+
+
+	// Accessors ------------------------------------------------------------------------
+
+	/**
+	 * Gets the number of arrivals waiting to enter.
+	 * @return the number of arrivals waiting to enter
+	 */
+	public int getBacklog() {
+		return backlog;
+	}
+
+	/**
+	 * Gets the number of aircraft which have arrived.
+	 * @return the number of aircraft which have arrived
+	 */
+	public int getArrivals() {
+		return arrivals;
+	}
+
+	/**
+	 * Gets the number of aircraft which have entered the airspace.
+	 * @return the number of aircraft which have entered
+	 */
+	public int getSpawned() {
+		return spawned;
+	}
+
+	/**
+	 * Gets the number of arrivals turned away because the backlog was full.
+	 * @return the number of arrivals turned away
+	 */
+	public int getDropped() {
+		return dropped;
+	}
+
+
+	// Models ---------------------------------------------------------------------------
+
+	/**
+	 * Creates a traffic model from a description.
+	 * <p>
+	 * The description is the model's name and its parameters, separated
+	 * by colons:
+	 * <ul>
+	 * <li>fixed:&lt;interval&gt; - an arrival every interval seconds</li>
+	 * <li>poisson:&lt;rate&gt; - random arrivals, at an average rate
+	 * per second</li>
+	 * <li>rush:&lt;rate&gt;[:&lt;day length&gt;] - random arrivals following
+	 * the default daily profile, with a day lasting day length seconds
+	 * (5 minutes by default)</li>
+	 * <li>script:&lt;path&gt; - arrivals from a scenario file</li>
+	 * </ul>
+	 * </p>
+	 * @param description - the description of the model
+	 * @return the traffic model, or <code>null</code> if the description
+	 * 			isn't valid
+	 */
+	public static TrafficModel parseModel(String description) {
+		String[] fields = description.trim().split(":", 2);
+		String parameters = (fields.length > 1) ? fields[1] : "";
+
+		try {
+			if (fields[0].equals("fixed")) {
+				return new FixedRateTraffic(Double.parseDouble(parameters));
+			} else if (fields[0].equals("poisson")) {
+				return new PoissonTraffic(Double.parseDouble(parameters));
+			} else if (fields[0].equals("rush")) {
+				String[] values = parameters.split(":");
+				double dayLength = (values.length > 1)
+						? Double.parseDouble(values[1]) : 300;
+				return new RushHourTraffic(Double.parseDouble(values[0]),
+						dayLength);
+			} else if (fields[0].equals("script")) {
+				return ScriptedTraffic.load(parameters);
+			} else {
+				Exception e = new Exception("Unknown traffic model: "
+						+ description);
+				e.printStackTrace();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+		}
+
+		return null;
+	}
+
+}
@@ -0,0 +1,28 @@
+package trf;
+
+import java.util.Random;
+
+/**
+ * <h1>Traffic Model</h1>
+ * <p>
+ * Decides when aircraft arrive to enter a player's airspace.
+ * </p>
+ * <p>
+ * A model may keep track of the arrivals it has produced, so each
+ * traffic generator should be given its own model.
+ * </p>
+ */
+public interface TrafficModel {
+
+	/**
+	 * Gets the time of the next arrival.
+	 * @param time - the time of the previous arrival, or the time the
+	 * 			generator was started if there hasn't been one
+	 * @param random - the random number generator to use
+	 * @return the time of the next arrival, which is no earlier than
+	 * 			<code>time</code>, or <code>Double.POSITIVE_INFINITY</code>
+	 * 			if there are no more arrivals
+	 */
+	double getNextArrival(double time, Random random);
+
+}
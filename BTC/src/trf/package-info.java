@@ -0,0 +1,5 @@
+/**
+ * Contains the traffic generator and its arrival models
+ */
+package trf;
+//This is a header file for Javadoc
@@ -0,0 +1,93 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import scn.SinglePlayerGame;
+import scn.Game.DifficultySetting;
+import cls.Aircraft;
+import cls.AircraftRegistry;
+import cls.Airport;
+import cls.Player;
+import cls.Waypoint;
+
+public class AircraftRegistryTest {
+	AircraftRegistry registry;
+	Player player;
+	Player opposingPlayer;
+	Aircraft testAircraft;
+	
+	@Before
+	public void setUp() {
+		Waypoint[] waypointList = new Waypoint[]{
+				new Waypoint(25, 75, false, false),
+				new Waypoint(75, 25, false, false),
+				new Waypoint(50, 50, false, false)};
+		
+		SinglePlayerGame.createSinglePlayerGame(DifficultySetting.EASY);
+		
+		Airport testAirport = new Airport("Babbage International", (1d/7d), (1d/2d));
+		
+		testAircraft = new Aircraft("TSTAircraft", "TestAir", "Berlin", "Dublin",
+				new Waypoint(100, 100, true, false), new Waypoint(0, 0, true, false),
+				10.0, waypointList, DifficultySetting.MEDIUM, testAirport, testAirport);
+		
+		player = new Player(0, new Airport[] {testAirport}, waypointList);
+		opposingPlayer = new Player(1, new Airport[0], waypointList);
+		
+		registry = new AircraftRegistry();
+		registry.setPlayers(player, opposingPlayer);
+	}
+	
+	// Test lookups after adding an aircraft
+	@Test
+	public void testAdd() {
+		registry.add(player, testAircraft);
+		
+		assertTrue("Aircraft added to player", player.getAircraft().contains(testAircraft));
+		assertTrue("Found by name", registry.getAircraft("TSTAircraft") == testAircraft);
+		assertTrue("Owner is player", registry.getOwner(testAircraft) == player);
+		assertTrue("Listed in all aircraft", registry.getAllAircraft().size() == 1);
+	}
+	
+	// Test an aircraft can be moved between players
+	@Test
+	public void testTransfer() {
+		registry.add(player, testAircraft);
+		registry.transfer(testAircraft, opposingPlayer);
+		
+		assertFalse("Removed from player", player.getAircraft().contains(testAircraft));
+		assertTrue("Added to opposing player",
+				opposingPlayer.getAircraft().contains(testAircraft));
+		assertTrue("Owner is opposing player",
+				registry.getOwner(testAircraft) == opposingPlayer);
+		assertTrue("Listed once in all aircraft", registry.getAllAircraft().size() == 1);
+	}
+	
+	// Test removing an aircraft
+	@Test
+	public void testRemove() {
+		registry.add(player, testAircraft);
+		registry.remove(testAircraft);
+		
+		assertTrue("Not found by name", registry.getAircraft("TSTAircraft") == null);
+		assertTrue("No owner", registry.getOwner(testAircraft) == null);
+		assertTrue("All aircraft empty", registry.getAllAircraft().isEmpty());
+	}
+	
+	// Test the registry is rebuilt when a player is replaced
+	@Test
+	public void testReplacePlayer() {
+		Player replacement = opposingPlayer.clone();
+		replacement.getAircraft().add(testAircraft);
+		registry.setPlayers(player, replacement);
+		
+		assertTrue("Owner is replacement player",
+				registry.getOwner(testAircraft) == replacement);
+		assertTrue("Airport found by name",
+				registry.getAirport("Babbage International") != null);
+	}
+	
+}
@@ -0,0 +1,186 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import btc.Main;
+import cls.Aircraft;
+import cls.AircraftUpdater;
+import cls.Airport;
+import cls.Waypoint;
+import lib.jog.window;
+import scn.Game;
+import scn.Game.DifficultySetting;
+
+public class AircraftUpdaterTest {
+
+	/** The time between updates */
+	private static final double TIME_STEP = 1 / 60d;
+
+	/** The airports aircraft were last created to fly to */
+	private Airport[] airports;
+
+	@Before
+	public void setUp() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+	}
+
+	@After
+	public void tearDown() {
+		window.setVirtualSize(0, 0);
+	}
+
+
+	// Update tests ---------------------------------------------------------------------
+
+	// Test that updating in parallel moves aircraft exactly as updating serially
+	@Test
+	public void testParallelMatchesSerial() {
+		ArrayList<Aircraft> serial = createAircraft(400);
+		Airport[] serialAirports = airports;
+		ArrayList<Aircraft> parallel = createAircraft(400);
+		Airport[] parallelAirports = airports;
+
+		AircraftUpdater serialUpdater = new AircraftUpdater(1, 1);
+		AircraftUpdater parallelUpdater = new AircraftUpdater(4, 1);
+
+		int arrivals = 0;
+		for (int tick = 0; tick < 1800; tick++) {
+			serialUpdater.update(serial, TIME_STEP);
+			parallelUpdater.update(parallel, TIME_STEP);
+			arrivals = Math.max(arrivals,
+					parallelAirports[0].aircraftWaitingToLand.size());
+		}
+		assertTrue("Aircraft joined the arrivals", arrivals > 0);
+
+		int finished = 0;
+		for (int i = 0; i < serial.size(); i++) {
+			Aircraft expected = serial.get(i);
+			Aircraft actual = parallel.get(i);
+
+			assertTrue("Same position",
+					expected.getPosition().equals(actual.getPosition()));
+			assertTrue("Same bearing", Double.doubleToLongBits(expected.getBearing())
+					== Double.doubleToLongBits(actual.getBearing()));
+			assertTrue("Same route stage",
+					expected.getRouteStage() == actual.getRouteStage());
+			assertTrue("Same finish", expected.isFinished() == actual.isFinished());
+			if (expected.isFinished()) finished++;
+		}
+		assertTrue("Some flights finished", finished > 0);
+
+		for (int i = 0; i < serialAirports.length; i++) {
+			assertTrue("Same arrivals, in the same order",
+					getNames(serialAirports[i]).equals(getNames(parallelAirports[i])));
+		}
+	}
+
+	// Test that an aircraft's effects on airports wait until they're applied
+	@Test
+	public void testEffectsDeferred() {
+		Aircraft aircraft = createAircraft(1).get(0);
+		Airport airport = airports[0];
+
+		for (int tick = 0; tick < 3600
+				&& !airport.aircraftWaitingToLand.contains(aircraft); tick++) {
+			aircraft.update(TIME_STEP);
+		}
+
+		assertTrue("Heading for the airport",
+				airport.aircraftWaitingToLand.contains(aircraft));
+
+		aircraft.deferEffects();
+		aircraft.cancelArrival();
+		assertTrue("Still in the arrivals while deferred",
+				airport.aircraftWaitingToLand.contains(aircraft));
+
+		aircraft.applyDeferredEffects();
+		assertFalse("Left the arrivals once applied",
+				airport.aircraftWaitingToLand.contains(aircraft));
+
+		aircraft.cancelArrival();
+		aircraft.deferEffects();
+		aircraft.applyDeferredEffects();
+		assertTrue("Nothing left to apply",
+				airport.aircraftWaitingToLand.isEmpty());
+	}
+
+	// Test that small numbers of aircraft are updated on the calling thread
+	@Test
+	public void testBelowThresholdUpdatesSerially() {
+		ArrayList<Aircraft> aircraft = createAircraft(10);
+		Airport airport = airports[0];
+		int waiting = airport.aircraftWaitingToLand.size();
+
+		new AircraftUpdater(4, 64).update(aircraft, TIME_STEP);
+		assertTrue("Aircraft moved", !aircraft.get(0).getPosition()
+				.equals(createAircraft(1).get(0).getPosition()));
+		assertTrue("Arrivals unchanged",
+				airport.aircraftWaitingToLand.size() == waiting);
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Creates aircraft flying across the airspace, every other one to one
+	 * of two new airports, each time in the same way.
+	 * @param count - the number of aircraft to create
+	 * @return the aircraft
+	 */
+	private ArrayList<Aircraft> createAircraft(int count) {
+		Random random = new Random(7);
+		Main.setRandomSeed(7);
+
+		airports = new Airport[] {
+				new Airport("North", 0.5, 0.25),
+				new Airport("South", 0.5, 0.75)
+		};
+
+		Waypoint[] waypoints = new Waypoint[12];
+		for (int i = 0; i < waypoints.length; i++) {
+			waypoints[i] = new Waypoint(random.nextDouble(), random.nextDouble(),
+					false, true);
+		}
+
+		ArrayList<Aircraft> aircraft = new ArrayList<Aircraft>();
+		for (int i = 0; i < count; i++) {
+			Airport airport = (i % 2 == 0) ? airports[(i / 2) % 2] : null;
+			Waypoint origin = new Waypoint(random.nextDouble(),
+					random.nextDouble(), true, "Origin", true);
+			Waypoint destination = (airport != null) ? airport
+					: new Waypoint(random.nextDouble(), random.nextDouble(),
+							true, "Destination", true);
+
+			aircraft.add(new Aircraft("UPD" + i, "Updater Air",
+					destination.getName(), "Origin", destination, origin, 10,
+					waypoints, DifficultySetting.MEDIUM, null, airport));
+		}
+
+		return aircraft;
+	}
+
+	/**
+	 * Gets the names of the aircraft waiting to land at an airport.
+	 * @param airport - the airport
+	 * @return the names, in the order the aircraft joined
+	 */
+	private static ArrayList<String> getNames(Airport airport) {
+		ArrayList<String> names = new ArrayList<String>();
+		for (Aircraft aircraft : airport.aircraftWaitingToLand) {
+			names.add(aircraft.getName());
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,179 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cls.Aircraft;
+import cls.AirspaceIndex;
+import cls.Airport;
+import cls.Vector;
+import cls.Waypoint;
+import lib.jog.window;
+import scn.Game;
+import scn.Game.DifficultySetting;
+
+public class AirspaceIndexTest {
+
+	/** The index under test */
+	private AirspaceIndex index;
+
+	/** The aircraft in the airspace */
+	private ArrayList<Aircraft> aircraft;
+
+	/** Airports for aircraft to head towards */
+	private Airport northAirport, southAirport;
+
+	@Before
+	public void setUp() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+
+		index = new AirspaceIndex();
+		aircraft = new ArrayList<Aircraft>();
+		northAirport = new Airport("North", 0.5, 0.1);
+		southAirport = new Airport("South", 0.5, 0.9);
+	}
+
+	@After
+	public void tearDown() {
+		window.setVirtualSize(0, 0);
+	}
+
+
+	// Position tests -------------------------------------------------------------------
+
+	// Test that an aircraft is found near where it is, and not elsewhere
+	@Test
+	public void testFindsNearbyAircraft() {
+		aircraft.add(createAircraft("IDX1", 100, 100, northAirport));
+		index.update(aircraft);
+
+		assertEquals("Aircraft indexed", 1, index.size());
+		assertTrue("Near its position", index.isNear(new Vector(150, 120, 0)));
+		assertFalse("Not near the far corner", index.isNear(new Vector(1200, 900, 0)));
+	}
+
+	// Test that an aircraft is moved between cells as it flies
+	@Test
+	public void testAircraftMovesBetweenCells() {
+		Aircraft plane = createAircraft("IDX1", 100, 100, southAirport);
+		Vector start = plane.getPosition().clone();
+		aircraft.add(plane);
+		index.update(aircraft);
+
+		// Fly until the aircraft is well clear of where it started
+		double clearance = 2 * Aircraft.ENTRY_CLEARANCE;
+		for (int i = 0; i < 100000
+				&& plane.getPosition().sub(start).magnitude() < clearance; i++) {
+			plane.update(0.1);
+			index.update(aircraft);
+		}
+
+		assertTrue("Aircraft moved", plane.getPosition().sub(start).magnitude() >= clearance);
+		assertFalse("No longer near where it started", index.isNear(start));
+		assertTrue("Near where it is now", index.isNear(plane.getPosition()));
+		assertEquals("Still indexed once", 1, index.size());
+	}
+
+	// Test that a copy of an aircraft replaces it, rather than being added
+	@Test
+	public void testCopyReplacesAircraft() {
+		aircraft.add(createAircraft("IDX1", 100, 100, northAirport));
+		index.update(aircraft);
+
+		aircraft.set(0, createAircraft("IDX1", 1100, 800, northAirport));
+		index.update(aircraft);
+
+		assertEquals("Copy replaces aircraft", 1, index.size());
+		assertFalse("Not near the old position", index.isNear(new Vector(100, 100, 0)));
+		assertTrue("Near the new position", index.isNear(new Vector(1100, 800, 0)));
+	}
+
+
+	// Inbound tests --------------------------------------------------------------------
+
+	// Test that the aircraft heading towards each airport are counted
+	@Test
+	public void testInboundCountedPerAirport() {
+		Aircraft first = createAircraft("IDX1", 100, 100, northAirport);
+		Aircraft second = createAircraft("IDX2", 1100, 100, northAirport);
+		aircraft.add(first);
+		aircraft.add(second);
+		index.update(aircraft);
+
+		assertTrue("North airport inbound", index.isInbound(northAirport.getLocation()));
+		assertFalse("South airport not inbound", index.isInbound(southAirport.getLocation()));
+
+		// One aircraft turning away leaves the other inbound
+		first.currentTarget = southAirport.getLocation();
+		index.update(aircraft);
+
+		assertTrue("North airport still inbound", index.isInbound(northAirport.getLocation()));
+		assertTrue("South airport inbound", index.isInbound(southAirport.getLocation()));
+
+		second.currentTarget = southAirport.getLocation();
+		index.update(aircraft);
+
+		assertFalse("North airport no longer inbound",
+				index.isInbound(northAirport.getLocation()));
+		assertTrue("South airport inbound", index.isInbound(southAirport.getLocation()));
+	}
+
+
+	// Removal tests --------------------------------------------------------------------
+
+	// Test that aircraft which have left the airspace are removed from the index
+	@Test
+	public void testStaleAircraftRemoved() {
+		Aircraft staying = createAircraft("IDX1", 100, 100, northAirport);
+		Aircraft leaving = createAircraft("IDX2", 1100, 800, southAirport);
+		aircraft.add(staying);
+		aircraft.add(leaving);
+		index.update(aircraft);
+
+		aircraft.remove(leaving);
+		index.update(aircraft);
+
+		assertEquals("Only remaining aircraft indexed", 1, index.size());
+		assertFalse("Not near the removed aircraft", index.isNear(new Vector(1100, 800, 0)));
+		assertFalse("Removed aircraft no longer inbound",
+				index.isInbound(southAirport.getLocation()));
+		assertTrue("Remaining aircraft still near", index.isNear(new Vector(100, 100, 0)));
+
+		index.clear();
+		assertEquals("Nothing indexed once cleared", 0, index.size());
+		assertFalse("Nothing inbound once cleared",
+				index.isInbound(northAirport.getLocation()));
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Creates an aircraft heading towards an airport.
+	 * @param name - the aircraft's flight name
+	 * @param x - the x position the aircraft starts at
+	 * @param y - the y position the aircraft starts at
+	 * @param airport - the airport to head towards
+	 * @return the aircraft
+	 */
+	private Aircraft createAircraft(String name, double x, double y,
+			Airport airport) {
+		Waypoint origin = new Waypoint(x / 1280, y / 960, true, "Origin", true);
+		Aircraft plane = new Aircraft(name, "Index Air", airport.getName(),
+				"Origin", airport, origin, 10, new Waypoint[0],
+				DifficultySetting.MEDIUM, null, null);
+		plane.currentTarget = airport.getLocation();
+
+		return plane;
+	}
+
+}
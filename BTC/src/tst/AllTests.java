@@ -10,7 +10,31 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({AircraftTest.class,
 						VectorTest.class,
 						WaypointTest.class,
-						AirportTest.class
+						AirportTest.class,
+						ProfilerTest.class,
+						AssetManagerTest.class,
+						AnimationPoolTest.class,
+						AircraftRegistryTest.class,
+						PlayerEffectsTest.class,
+						TimerWheelTest.class,
+						AirspaceIndexTest.class,
+						TrafficGeneratorTest.class,
+						HangarTest.class,
+						RunwaySequencerTest.class,
+						FlightStripBoardTest.class,
+						EventBusTest.class,
+						BenchmarkRunnerTest.class,
+						SessionReplayTest.class,
+						TelemetryTest.class,
+						AutopilotTest.class,
+						TuningHarnessTest.class,
+						AircraftUpdaterTest.class,
+						GameServerTest.class,
+						ConnectionScopeTest.class,
+						StressGameTest.class,
+						SectorTreeTest.class,
+						CameraTest.class,
+						TripleBufferTest.class
 						})
 public class AllTests {
 	// Runs all tests
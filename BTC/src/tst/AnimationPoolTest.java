@@ -0,0 +1,96 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import lib.AnimationPool;
+import lib.SpriteAnimation;
+import lib.SpriteSheet;
+
+public class AnimationPoolTest {
+
+	/** The time an animation takes to finish, in seconds */
+	private static final double DURATION = 0.4;
+
+	/** The pool under test */
+	private AnimationPool pool;
+
+	/** A sheet of four frames, shown at ten frames a second */
+	private SpriteSheet sheet;
+
+	@Before
+	public void setUp() {
+		pool = new AnimationPool(4);
+		sheet = new SpriteSheet(null, 128, 32, 10, 4, 4, 1, false);
+	}
+
+
+	// Pooling tests --------------------------------------------------------------------
+
+	// Test that animations are returned to the pool once they have finished
+	@Test
+	public void testFinishedAnimationsReleased() {
+		pool.play(sheet, 0, 0, 0);
+		pool.play(sheet, 0, 0, 0.2);
+
+		pool.update(DURATION / 2);
+		assertEquals("Both animations playing", 2, pool.size());
+
+		pool.update(DURATION + 0.1);
+		assertEquals("First animation finished", 1, pool.size());
+
+		pool.update(DURATION + 0.3);
+		assertEquals("Both animations finished", 0, pool.size());
+	}
+
+	// Test that finished animations are reused, rather than new ones created
+	@Test
+	public void testFinishedAnimationsReused() {
+		SpriteAnimation first = pool.play(sheet, 10, 20, 0);
+		pool.update(DURATION + 0.1);
+
+		SpriteAnimation second = pool.play(sheet, 30, 40, 1);
+
+		assertSame("Animation reused", first, second);
+		assertEquals("Reused animation moved", 30, second.getX());
+		assertEquals("Reused animation restarted", 0, second.getFrame(1));
+	}
+
+	// Test that the pool stops growing once it holds as many animations as
+	// are played at once
+	@Test
+	public void testNoGrowthInSteadyState() {
+		Set<SpriteAnimation> created = Collections.newSetFromMap(
+				new IdentityHashMap<SpriteAnimation, Boolean>());
+		double time = 0;
+
+		for (int i = 0; i < 100; i++) {
+			for (int j = 0; j < 3; j++) {
+				created.add(pool.play(sheet, i, j, time));
+			}
+
+			time += DURATION + 0.1;
+			pool.update(time);
+		}
+
+		assertEquals("Only as many animations as played at once", 3, created.size());
+		assertEquals("Every animation finished", 0, pool.size());
+	}
+
+	// Test that clearing the pool stops every animation, for reuse
+	@Test
+	public void testClearReleasesAll() {
+		SpriteAnimation animation = pool.play(sheet, 0, 0, 0);
+		pool.clear();
+
+		assertEquals("No animations playing", 0, pool.size());
+		assertSame("Cleared animation reused", animation, pool.play(sheet, 0, 0, 0));
+	}
+
+}
@@ -0,0 +1,142 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import lib.AssetManager;
+
+public class AssetManagerTest {
+	
+	/** Counts loads and unloads, without needing a window or audio device */
+	private static int loads = 0;
+	private static int unloads = 0;
+	
+	private static final AssetManager.Type<String> TEXT =
+			new AssetManager.Type<String>("test") {
+		@Override
+		protected String load(String filepath) {
+			loads++;
+			return filepath;
+		}
+		
+		@Override
+		protected void unload(String asset) {
+			unloads++;
+		}
+	};
+	
+	/** Decodes on a worker thread, and loads the decoded data */
+	private static final AssetManager.Type<String> DECODED =
+			new AssetManager.Type<String>("test.decoded") {
+		@Override
+		protected String load(String filepath) {
+			return "undecoded";
+		}
+		
+		@Override
+		protected Object decode(String filepath) {
+			return "decoded on " + Thread.currentThread().getName();
+		}
+		
+		@Override
+		protected String load(String filepath, Object decoded) {
+			return (String) decoded;
+		}
+		
+		@Override
+		protected boolean requiresRenderThread() {
+			return true;
+		}
+	};
+	
+	// Test that the same file is shared by handles
+	@Test
+	public void testAcquireShared() {
+		AssetManager.Handle<String> first = AssetManager.acquire(TEXT, "shared");
+		AssetManager.Handle<String> second = AssetManager.acquire(TEXT, "shared");
+		
+		assertTrue("Same handle returned for the same file", first == second);
+		
+		AssetManager.release(first);
+		AssetManager.release(second);
+		AssetManager.purge();
+	}
+	
+	// Test that assets are loaded lazily, and only once
+	@Test
+	public void testLoadOnce() {
+		int loadsBefore = loads;
+		AssetManager.Handle<String> handle = AssetManager.acquire(TEXT, "once");
+		
+		assertFalse("Not loaded when acquired", handle.isLoaded());
+		assertTrue("Asset loaded", "once".equals(handle.get()));
+		handle.get();
+		assertTrue("Loaded once", loads == loadsBefore + 1);
+		
+		AssetManager.release(handle);
+		AssetManager.purge();
+	}
+	
+	// Test that purging only unloads assets without references
+	@Test
+	public void testPurge() {
+		AssetManager.Handle<String> held = AssetManager.acquire(TEXT, "held");
+		AssetManager.Handle<String> released = AssetManager.acquire(TEXT, "released");
+		held.get();
+		released.get();
+		
+		int unloadsBefore = unloads;
+		AssetManager.release(released);
+		AssetManager.purge();
+		
+		assertTrue("Released asset unloaded", unloads == unloadsBefore + 1);
+		assertFalse("Released asset no longer loaded", released.isLoaded());
+		assertTrue("Held asset still loaded", held.isLoaded());
+		
+		AssetManager.release(held);
+		AssetManager.purge();
+	}
+	
+	// Test that preloading reports progress
+	@Test
+	public void testPreload() throws InterruptedException {
+		AssetManager.Handle<String> handle = AssetManager.acquire(TEXT, "preload");
+		AssetManager.Preload preload = AssetManager.preload(
+				new AssetManager.Handle<?>[] {handle}, null);
+		
+		// Background loading should finish well within a second
+		for (int i = 0; i < 100 && !preload.isFinished(); i++) {
+			Thread.sleep(10);
+			AssetManager.update(0);
+		}
+		
+		assertTrue("Preload finished", preload.isFinished());
+		assertTrue("Progress complete", preload.getProgress() == 1);
+		
+		AssetManager.release(handle);
+		AssetManager.purge();
+	}
+	
+	// Test that assets needing the render thread are decoded by workers,
+	// and only loaded by update()
+	@Test
+	public void testDecodeThenLoad() throws InterruptedException {
+		AssetManager.Handle<String> handle = AssetManager.acquire(DECODED, "decode");
+		AssetManager.Preload preload = AssetManager.preload(
+				new AssetManager.Handle<?>[] {handle}, null);
+		
+		for (int i = 0; i < 100 && !preload.isFinished(); i++) {
+			Thread.sleep(10);
+			AssetManager.update(1000000000L);
+		}
+		
+		assertTrue("Preload finished", preload.isFinished());
+		assertTrue("Loaded from decoded data",
+				handle.get().startsWith("decoded on Asset Decoder"));
+		
+		AssetManager.release(handle);
+		AssetManager.purge();
+	}
+	
+}
@@ -0,0 +1,153 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import bot.Autopilot;
+import bot.BotMatch;
+import bot.Controls;
+import btc.Main;
+import cls.Aircraft;
+import cls.Airport;
+import lib.jog.input;
+import lib.jog.window;
+import scn.Game;
+import scn.SinglePlayerGame;
+import scn.Game.DifficultySetting;
+
+public class AutopilotTest {
+
+	@Before
+	public void setUp() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+	}
+
+	@After
+	public void tearDown() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		input.setState(null);
+		window.setVirtualSize(0, 0);
+	}
+
+
+	// Strategy tests -------------------------------------------------------------------
+
+	// Test that the idle strategy leaves the game to play itself
+	@Test
+	public void testIdleTakesNoActions() {
+		BotMatch.Result result = new BotMatch("idle", DifficultySetting.HARD, 60)
+				.play(4);
+
+		assertTrue("No actions taken", result.getActions() == 0);
+		assertTrue("Nothing landed", result.getLanded() == 0);
+	}
+
+	// Test that resolving conflicts and clearing traffic plays better than idling
+	@Test
+	public void testGreedyPlaysBetterThanIdle() {
+		BotMatch idle = new BotMatch("idle", DifficultySetting.HARD, 120);
+		BotMatch greedy = new BotMatch("greedy", DifficultySetting.HARD, 120);
+
+		int idleScore = 0;
+		int greedyScore = 0;
+		int idleCrashes = 0;
+		int greedyCrashes = 0;
+
+		for (int seed = 0; seed < 4; seed++) {
+			BotMatch.Result idleResult = idle.play(seed);
+			BotMatch.Result greedyResult = greedy.play(seed);
+
+			idleScore += idleResult.getScore();
+			greedyScore += greedyResult.getScore();
+			if (idleResult.isCrashed()) idleCrashes++;
+			if (greedyResult.isCrashed()) greedyCrashes++;
+
+			assertTrue("Greedy lands aircraft", greedyResult.getLanded() > 0);
+		}
+
+		assertTrue("Greedy scores higher", greedyScore > idleScore);
+		assertTrue("Greedy crashes no more often", greedyCrashes <= idleCrashes);
+	}
+
+	// Test that the aggressive strategy keeps acting
+	@Test
+	public void testAggressiveActsEveryDecision() {
+		BotMatch.Result result = new BotMatch("aggressive", DifficultySetting.EASY, 30)
+				.play(5);
+
+		assertTrue("An action most decisions", result.getActions()
+				>= result.getTime() / Autopilot.DEFAULT_REACTION_TIME / 2);
+	}
+
+	// Test that a match played again with the same seed plays out the same
+	@Test
+	public void testMatchesAreRepeatable() {
+		BotMatch match = new BotMatch("aggressive", DifficultySetting.MEDIUM, 60);
+		BotMatch.Result first = match.play(9);
+		BotMatch.Result second = match.play(9);
+
+		assertTrue("Same time", first.getTime() == second.getTime());
+		assertTrue("Same score", first.getScore() == second.getScore());
+		assertTrue("Same actions", first.getActions() == second.getActions());
+	}
+
+	// Test that strategies must exist
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownStrategyRejected() {
+		Autopilot.createStrategy("reckless");
+	}
+
+
+	// Controls tests -------------------------------------------------------------------
+
+	// Test that actions are only allowed when a player's input would be
+	@Test
+	public void testControlsFollowPlayerRules() {
+		Main.setRandomSeed(1);
+		SinglePlayerGame game = SinglePlayerGame
+				.createSinglePlayerGame(DifficultySetting.EASY);
+		game.start();
+		input.setState(input.IDLE_STATE);
+
+		Controls controls = new Controls(game);
+
+		while (controls.getAircraft().isEmpty()) {
+			game.update(1 / 60d);
+		}
+
+		assertFalse("Can't climb without a selection", controls.climb());
+		assertFalse("Can't steer without a selection", controls.steer(0));
+		assertFalse("Can't select nothing", controls.select(null));
+
+		for (Airport airport : game.getPlayer().getAirports()) {
+			if (airport.aircraftHangar.size() == 0) {
+				assertFalse("Can't take off from an empty hangar",
+						controls.takeOff(airport));
+			}
+		}
+
+		Aircraft aircraft = controls.getAircraft().get(0);
+		assertTrue("Aircraft selected", controls.select(aircraft));
+		assertTrue("Aircraft selected in game",
+				game.getPlayer().getSelectedAircraft() == aircraft);
+
+		assertTrue("Aircraft steered", controls.steer(1));
+		assertTrue("Manual control taken", aircraft.isManuallyControlled());
+
+		controls.deselect();
+		assertFalse("Manual control released on deselection",
+				aircraft.isManuallyControlled());
+		assertTrue("Actions counted", controls.getActions() == 3);
+	}
+
+}
@@ -0,0 +1,86 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import bch.Benchmark;
+import bch.BenchmarkRunner;
+
+public class BenchmarkRunnerTest {
+
+	BenchmarkRunner runner;
+
+
+	@Before
+	public void setup() {
+		runner = new BenchmarkRunner(1, 3, 0.01);
+	}
+
+	/**
+	 * A benchmark which sums an array of a given length.
+	 */
+	private static class SumBenchmark extends Benchmark {
+
+		int[] values;
+
+		SumBenchmark() {
+			super("Sum", "length", 10, 1000);
+		}
+
+		@Override
+		public void setup(int param) {
+			values = new int[param];
+		}
+
+		@Override
+		public Object run() {
+			int sum = 0;
+			for (int value : values) sum += value;
+			return sum;
+		}
+
+	}
+
+	// Test that a benchmark is measured with each value of its parameter
+	@Test
+	public void testRun() throws Exception {
+		List<BenchmarkRunner.Result> results = runner.run(new SumBenchmark());
+
+		assertTrue("One result for each parameter", results.size() == 2);
+		assertTrue("Parameter recorded",
+				results.get(1).getParams().equals("length=1000"));
+		assertTrue("Time measured", results.get(0).getScore() > 0);
+		assertNull("Didn't fail", results.get(0).getError());
+
+		StringWriter json = new StringWriter();
+		runner.writeJson(results, json);
+		assertTrue("Written in JMH's layout", json.toString()
+				.contains("\"benchmark\" : \"bch.Sum\""));
+		assertTrue("Parameters written", json.toString()
+				.contains("\"params\" : { \"length\" : \"1000\" }"));
+	}
+
+	// Test that a failing benchmark is recorded, and left out of the JSON
+	@Test
+	public void testFailure() throws Exception {
+		List<BenchmarkRunner.Result> results = runner.run(new Benchmark("Fail") {
+			@Override
+			public Object run() {
+				throw new IllegalStateException("broken");
+			}
+		});
+
+		assertTrue("Failure recorded",
+				results.get(0).getError().contains("broken"));
+
+		StringWriter json = new StringWriter();
+		runner.writeJson(results, json);
+		assertFalse("Not written", json.toString().contains("Fail"));
+	}
+
+}
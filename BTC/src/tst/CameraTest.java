@@ -0,0 +1,101 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import cls.Camera;
+import lib.jog.window;
+import scn.Game;
+
+public class CameraTest {
+
+	/** The largest error allowed in positions */
+	private static final double EPSILON = 1e-6;
+
+	/** The camera under test */
+	private Camera camera;
+
+	@Before
+	public void setUp() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+		camera = new Camera();
+	}
+
+	@After
+	public void tearDown() {
+		window.setVirtualSize(0, 0);
+	}
+
+
+	// View tests -----------------------------------------------------------------------
+
+	// Test that a new camera shows the whole airspace as it is
+	@Test
+	public void testShowsWholeAirspace() {
+		assertTrue("Whole airspace shown", camera.isWholeAirspace());
+		assertTrue("View starts at the corner",
+				camera.getViewX() == 0 && camera.getViewY() == 0);
+		assertTrue("View covers the airspace", camera.getViewWidth() == 1280
+				&& camera.getViewHeight() == 960);
+		assertTrue("Screen and airspace match",
+				camera.toWorldX(300) == 300 && camera.toWorldY(200) == 200);
+	}
+
+	// Test that zooming keeps the point under the mouse still
+	@Test
+	public void testZoomKeepsPointStill() {
+		double worldX = camera.toWorldX(900);
+		double worldY = camera.toWorldY(300);
+
+		camera.zoomAt(2, 900, 300);
+
+		assertTrue("Zoomed in", camera.getZoom() == 2 && !camera.isWholeAirspace());
+		assertEquals("Same x position under the mouse",
+				worldX, camera.toWorldX(900), EPSILON);
+		assertEquals("Same y position under the mouse",
+				worldY, camera.toWorldY(300), EPSILON);
+		assertEquals("Conversions are reversible",
+				900, camera.toScreenX(camera.toWorldX(900)), EPSILON);
+		assertTrue("Point is in view", camera.isVisible(worldX, worldY, 0));
+		assertFalse("Far corner is out of view", camera.isVisible(0, 960, 0));
+	}
+
+	// Test that the view can't leave the airspace, or show more than all of it
+	@Test
+	public void testViewStaysInAirspace() {
+		camera.zoomAt(4, 0, 0);
+		camera.pan(10000, 10000);
+
+		assertEquals("View stops at the left edge", 0, camera.getViewX(), EPSILON);
+		assertEquals("View stops at the top edge", 0, camera.getViewY(), EPSILON);
+
+		camera.pan(-100000, -100000);
+
+		assertEquals("View stops at the right edge", 1280,
+				camera.getViewX() + camera.getViewWidth(), EPSILON);
+		assertEquals("View stops at the bottom edge", 960,
+				camera.getViewY() + camera.getViewHeight(), EPSILON);
+
+		camera.zoomAt(0.01, 640, 480);
+
+		assertTrue("Can't zoom out past the whole airspace",
+				camera.isWholeAirspace() && camera.getViewX() == 0);
+	}
+
+	// Test that a cloned camera doesn't move with the original
+	@Test
+	public void testCloneIsIndependent() {
+		Camera copy = camera.clone();
+		camera.zoomAt(3, 100, 100);
+
+		assertTrue("Copy still shows the whole airspace", copy.isWholeAirspace());
+	}
+
+}
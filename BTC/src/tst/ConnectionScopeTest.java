@@ -0,0 +1,152 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import net.ConnectionScope;
+
+public class ConnectionScopeTest {
+
+	/** The number of idle connections held at once */
+	private static final int IDLE_CONNECTIONS = 500;
+
+
+	// Scope tests ----------------------------------------------------------------------
+
+	// Test that a loop ending cancels the connection's other loops
+	@Test
+	public void testLoopEndingCancelsOthers() throws InterruptedException {
+		ConnectionScope scope = new ConnectionScope("Test");
+		final boolean[] wasInterrupted = new boolean[1];
+
+		scope.fork("Receive", new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(60000);
+				} catch (InterruptedException e) {
+					wasInterrupted[0] = true;
+				}
+			}
+		});
+		scope.fork("Send", new Runnable() {
+			@Override
+			public void run() {
+				// Ends straight away
+			}
+		});
+
+		scope.join();
+		scope.close();
+
+		assertTrue("Blocked loop was interrupted", wasInterrupted[0]);
+		assertTrue("Scope was cancelled", scope.isCancelled());
+		assertTrue("No loops left running", scope.getRunning() == 0);
+		assertTrue("Ending normally isn't a failure", scope.getFailure() == null);
+	}
+
+	// Test that a loop failing is reported, and cancels the other loops
+	@Test
+	public void testLoopFailingIsReported() throws InterruptedException {
+		ConnectionScope scope = new ConnectionScope("Test");
+		final IllegalStateException error = new IllegalStateException("Test");
+
+		scope.fork("Receive", new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(60000);
+				} catch (InterruptedException e) {
+					// Cancelled
+				}
+			}
+		});
+		scope.fork("Send", new Runnable() {
+			@Override
+			public void run() {
+				throw error;
+			}
+		});
+
+		scope.join();
+		scope.close();
+
+		assertTrue("Failure is reported", scope.getFailure() == error);
+		assertTrue("No loops left running", scope.getRunning() == 0);
+	}
+
+	// Test that loops can't be started once a scope has been cancelled
+	@Test(expected = IllegalStateException.class)
+	public void testNoForkAfterCancel() {
+		ConnectionScope scope = new ConnectionScope("Test");
+		scope.cancel();
+
+		scope.fork("Send", new Runnable() {
+			@Override
+			public void run() {}
+		});
+	}
+
+	// Test that a scope knows which threads are its loops
+	@Test
+	public void testContainsLoopThreads() throws InterruptedException {
+		final ConnectionScope scope = new ConnectionScope("Test");
+		final boolean[] isContained = new boolean[1];
+
+		scope.fork("Send", new Runnable() {
+			@Override
+			public void run() {
+				isContained[0] = scope.contains(Thread.currentThread());
+			}
+		});
+
+		scope.join();
+		scope.close();
+
+		assertTrue("Loop's thread is in the scope", isContained[0]);
+		assertFalse("Owner's thread isn't in the scope",
+				scope.contains(Thread.currentThread()));
+	}
+
+	// Test that many idle connections can be held at once, and all closed
+	@Test
+	public void testManyIdleConnections() throws InterruptedException {
+		ArrayList<ConnectionScope> scopes = new ArrayList<ConnectionScope>();
+		final CountDownLatch started = new CountDownLatch(2 * IDLE_CONNECTIONS);
+		final CountDownLatch never = new CountDownLatch(1);
+
+		Runnable idle = new Runnable() {
+			@Override
+			public void run() {
+				started.countDown();
+				try {
+					never.await();
+				} catch (InterruptedException e) {
+					// Closed
+				}
+			}
+		};
+
+		for (int i = 0; i < IDLE_CONNECTIONS; i++) {
+			ConnectionScope scope = new ConnectionScope("Client " + i);
+			scope.fork("Send", idle);
+			scope.fork("Receive", idle);
+			scopes.add(scope);
+		}
+
+		assertTrue("Every loop started", started.await(30, TimeUnit.SECONDS));
+
+		for (ConnectionScope scope : scopes) {
+			assertTrue("Idle connections stay open", scope.getRunning() == 2);
+			scope.close();
+			assertTrue("Closed connections have no loops left",
+					scope.getRunning() == 0);
+		}
+	}
+
+}
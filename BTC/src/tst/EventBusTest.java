@@ -0,0 +1,114 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import lib.EventBus;
+
+public class EventBusTest {
+
+	EventBus events;
+	ArrayList<String> received;
+
+
+	@Before
+	public void setup() {
+		events = new EventBus();
+		received = new ArrayList<String>();
+	}
+
+	/**
+	 * Creates a listener which records the events it receives.
+	 * @param name - the name to record each event under
+	 */
+	private EventBus.Listener<String> record(final String name) {
+		return new EventBus.Listener<String>() {
+			@Override
+			public void handle(String event) {
+				received.add(name + ":" + event);
+			}
+		};
+	}
+
+
+	// Delivery tests -------------------------------------------------------------------
+
+	// Test that published events reach every listener for their type, in order
+	@Test
+	public void testPublish() {
+		events.subscribe(String.class, record("a"));
+		events.subscribe(String.class, record("b"));
+		events.publish("x");
+		events.publish(Integer.valueOf(1));
+
+		assertTrue("Both listeners received the event", received.size() == 2);
+		assertTrue("Listeners run in order", received.get(0).equals("a:x")
+				&& received.get(1).equals("b:x"));
+	}
+
+	// Test that posted events wait for the next dispatch
+	@Test
+	public void testPost() {
+		events.subscribe(String.class, record("a"));
+		events.post("x");
+		events.post("y");
+
+		assertTrue("Not delivered before dispatch", received.isEmpty());
+		assertTrue("Both delivered on dispatch", events.dispatch() == 2);
+		assertTrue("Delivered in order", received.get(0).equals("a:x")
+				&& received.get(1).equals("a:y"));
+	}
+
+	// Test that events with no listeners aren't queued
+	@Test
+	public void testNoListeners() {
+		events.post("x");
+		assertTrue("Nothing queued", events.getQueued() == 0);
+	}
+
+	// Test that events posted from other threads are delivered on dispatch
+	@Test
+	public void testPostFromOtherThreads() throws InterruptedException {
+		events.subscribe(String.class, record("a"));
+		Thread[] threads = new Thread[4];
+
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 1000; j++) events.post("x");
+				}
+			});
+			threads[i].start();
+		}
+
+		for (Thread thread : threads) thread.join();
+
+		assertTrue("Every event delivered", events.dispatch() == 4000);
+		assertTrue("On the dispatching thread", received.size() == 4000);
+	}
+
+	// Test that listeners can unsubscribe while an event is delivered
+	@Test
+	public void testUnsubscribeWhileDelivering() {
+		final EventBus.Listener<String> second = record("b");
+		events.subscribe(String.class, new EventBus.Listener<String>() {
+			@Override
+			public void handle(String event) {
+				events.unsubscribe(String.class, second);
+			}
+		});
+		events.subscribe(String.class, second);
+
+		events.publish("x");
+		assertTrue("Current event still delivered", received.size() == 1);
+
+		events.publish("y");
+		assertTrue("Later events not delivered", received.size() == 1);
+	}
+
+}
@@ -0,0 +1,239 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.newdawn.slick.Color;
+
+import cls.FlightStrip;
+import cls.FlightStripBoard;
+
+public class FlightStripBoardTest {
+
+	FlightStripBoard board;
+	FlightStrip first;
+	FlightStrip second;
+	FlightStrip third;
+
+
+	@Before
+	public void setup() {
+		board = new FlightStripBoard();
+
+		// Layout doesn't depend on the aircraft, so none are created
+		first = new FlightStrip(0, 100, 50, null, Color.white);
+		second = new FlightStrip(0, 100, 50, null, Color.white);
+		third = new FlightStrip(0, 100, 50, null, Color.white);
+
+		board.add(first);
+		board.add(second);
+		board.add(third);
+	}
+
+	/**
+	 * A flight strip whose urgency is set directly, rather than found
+	 * from its aircraft.
+	 */
+	private static class UrgentStrip extends FlightStrip {
+
+		private static final long serialVersionUID = 1L;
+
+		int level = FlightStrip.URGENCY_NONE;
+
+		UrgentStrip() {
+			super(0, 100, 50, null, Color.white);
+		}
+
+		@Override
+		public int getUrgency() {
+			return level;
+		}
+
+	}
+
+	/**
+	 * Updates the board without any strips under the mouse.
+	 */
+	private void update() {
+		board.update(0, -1000, -1000, 1000);
+	}
+
+	/**
+	 * Strips are laid out one below another.
+	 */
+	@Test
+	public void testLayout() {
+		update();
+		assertTrue("First strip at the top", first.positionY == 0);
+		assertTrue("Second strip below the first", second.positionY == 60);
+		assertTrue("Third strip below the second", third.positionY == 120);
+	}
+
+	/**
+	 * Removing a strip moves the strips below it up.
+	 */
+	@Test
+	public void testRemove() {
+		update();
+		assertTrue("Strip removed", board.remove(first));
+		assertFalse("Strip not removed twice", board.remove(first));
+
+		update();
+		assertTrue("Second strip moved to the top", second.positionY == 0);
+		assertTrue("Third strip moved up", third.positionY == 60);
+	}
+
+	/**
+	 * Hidden strips don't take up a slot.
+	 */
+	@Test
+	public void testHide() {
+		update();
+		second.hide();
+		update();
+		assertTrue("Third strip moved into the hidden strip's slot",
+				third.positionY == 60);
+
+		second.show();
+		update();
+		assertTrue("Third strip moved back down", third.positionY == 120);
+	}
+
+	/**
+	 * Strips stay in place until something changes.
+	 */
+	@Test
+	public void testLayoutOnlyOnChange() {
+		update();
+		second.positionY = 500;
+		update();
+		assertTrue("Strips aren't laid out again if nothing has changed",
+				second.positionY == 500);
+	}
+
+	/**
+	 * Only the rows which fit on the board are laid out.
+	 */
+	@Test
+	public void testVirtualised() {
+		for (int i = 0; i < 500; i++) {
+			board.add(new FlightStrip(0, 100, 50, null, Color.white));
+		}
+
+		board.update(0, -1000, -1000, 170);
+		assertTrue("Every strip is a row", board.getRowCount() == 503);
+		assertTrue("Only the strips which fit are shown",
+				board.getShown().size() == 3);
+		assertTrue("The last strip isn't laid out",
+				board.getStrips().get(502).positionY == 0);
+	}
+
+	/**
+	 * Scrolling moves the rows shown, without going past either end.
+	 */
+	@Test
+	public void testScroll() {
+		board.update(0, -1000, -1000, 110);
+		assertTrue("Two rows fit", board.getShown().size() == 2);
+
+		board.scroll(1);
+		update();
+		assertTrue("Second strip at the top", second.positionY == 0);
+		assertTrue("Third strip below it", third.positionY == 60);
+		assertFalse("First strip scrolled off",
+				board.getShown().contains(first));
+
+		board.scrollPage(5);
+		assertTrue("Can't scroll past the last row", board.getFirstRow() == 2);
+		board.scrollTo(-4);
+		assertTrue("Can't scroll before the first row",
+				board.getFirstRow() == 0);
+	}
+
+	/**
+	 * Always shows at least one row, however small the board.
+	 */
+	@Test
+	public void testTooSmall() {
+		board.update(0, -1000, -1000, 10);
+		assertTrue("One row shown", board.getShown().size() == 1);
+	}
+
+	/**
+	 * Moving to the next strip wraps round, and scrolls it into view.
+	 */
+	@Test
+	public void testAdjacent() {
+		board.update(0, -1000, -1000, 50);
+		assertTrue("Starts from the first strip",
+				board.getAdjacent(null, 1) == first);
+		assertTrue("Backwards starts from the last strip",
+				board.getAdjacent(null, -1) == third);
+		assertTrue("Scrolled to the last strip", board.getFirstRow() == 2);
+	}
+
+	/**
+	 * Strips of equal urgency are shown in the order they were added, even
+	 * after a strip's urgency rises and falls again.
+	 */
+	@Test
+	public void testUrgencyKeepsAddedOrder() {
+		FlightStripBoard sorted = new FlightStripBoard();
+		UrgentStrip a = new UrgentStrip();
+		UrgentStrip b = new UrgentStrip();
+		UrgentStrip c = new UrgentStrip();
+
+		sorted.add(a);
+		sorted.add(b);
+		sorted.add(c);
+		sorted.setSortByUrgency(true);
+
+		b.level = FlightStrip.URGENCY_DANGER;
+		sorted.update(0, -1000, -1000, 1000);
+		assertTrue("Urgent strip first", sorted.getStrips().get(0) == b);
+		assertTrue("Others in the order added", sorted.getStrips().get(1) == a
+				&& sorted.getStrips().get(2) == c);
+
+		b.level = FlightStrip.URGENCY_NONE;
+		sorted.update(0, -1000, -1000, 1000);
+		assertTrue("Strip back where it was added", sorted.getStrips().get(0) == a
+				&& sorted.getStrips().get(1) == b && sorted.getStrips().get(2) == c);
+
+		c.level = FlightStrip.URGENCY_ARRIVING;
+		sorted.update(0, -1000, -1000, 1000);
+		sorted.setSortByUrgency(false);
+		assertTrue("Order added restored when not sorting",
+				sorted.getStrips().get(2) == c);
+	}
+
+	/**
+	 * A board read back from a stream lays out its strips again when they
+	 * are hidden.
+	 */
+	@Test
+	public void testDeserialisedStripsAttached() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(board);
+		out.close();
+
+		ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray()));
+		FlightStripBoard copy = (FlightStripBoard) in.readObject();
+		in.close();
+
+		copy.update(0, -1000, -1000, 1000);
+		copy.getStrips().get(1).hide();
+		copy.update(0, -1000, -1000, 1000);
+
+		assertTrue("Third strip moved into the hidden strip's slot",
+				copy.getStrips().get(2).positionY == 60);
+	}
+
+}
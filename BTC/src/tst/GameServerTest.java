@@ -0,0 +1,173 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import bot.BotMatch;
+import bot.Controls;
+import btc.GameSettings;
+import btc.SessionContext;
+import lib.jog.input;
+import lib.jog.window;
+import scn.Game;
+import scn.Game.DifficultySetting;
+import srv.GameServer;
+import srv.Session;
+
+public class GameServerTest {
+
+	/** The server under test */
+	private GameServer server;
+
+	@Before
+	public void setUp() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+		server = new GameServer(4, GameServer.DEFAULT_TICK_BUDGET);
+	}
+
+	@After
+	public void tearDown() {
+		server.shutdown();
+		input.setState(null);
+		window.setVirtualSize(0, 0);
+	}
+
+
+	// Session tests --------------------------------------------------------------------
+
+	// Test that sessions played together play out as they would alone
+	@Test
+	public void testSessionsMatchGamesPlayedAlone() throws InterruptedException {
+		Session[] sessions = new Session[8];
+		for (int i = 0; i < sessions.length; i++) {
+			sessions[i] = server.open(DifficultySetting.MEDIUM, i % 4, "greedy", 0, 30);
+		}
+
+		assertTrue("Games aren't seen outside their sessions",
+				Game.getInstance() == null);
+		awaitFinished(sessions);
+
+		for (int i = 0; i < sessions.length; i++) {
+			assertTrue("Session didn't fail", sessions[i].getFailure() == null);
+			assertTrue("Same seeds play out the same", sessions[i].getFingerprint()
+					== sessions[i % 4].getFingerprint());
+		}
+
+		BotMatch match = new BotMatch("greedy", DifficultySetting.MEDIUM, 30);
+		for (int seed = 0; seed < 4; seed++) {
+			BotMatch.Result alone = match.play(seed);
+
+			assertTrue("Same score as alone",
+					sessions[seed].getScore() == alone.getScore());
+			assertTrue("Same ticks as alone",
+					sessions[seed].getTicks() == alone.getTicks());
+			assertTrue("Same ending as alone",
+					sessions[seed].isCrashed() == alone.isCrashed());
+		}
+	}
+
+	// Test that commands are run in their session, with its controls
+	@Test
+	public void testCommandsRunInSession() throws InterruptedException {
+		final Session session = server.open(DifficultySetting.EASY, 1, null, 1, 0);
+		final CountDownLatch ran = new CountDownLatch(1);
+		final boolean[] isInSession = new boolean[1];
+
+		session.post(new Session.Command() {
+			@Override
+			public void run(Controls controls) {
+				isInSession[0] = (Game.getInstance() == controls.getGame())
+						&& Game.getInstance() != null;
+				ran.countDown();
+			}
+		});
+
+		assertTrue("Command ran", ran.await(5, TimeUnit.SECONDS));
+		assertTrue("Command ran in the session's context", isInSession[0]);
+		assertTrue("Game isn't seen outside the session", Game.getInstance() == null);
+	}
+
+	// Test that closed sessions stop being played
+	@Test
+	public void testClosedSessionsStop() throws InterruptedException {
+		Session session = server.open(DifficultySetting.EASY, 2, "idle", 0, 0);
+		Thread.sleep(50);
+
+		server.close(session);
+		long ticks = session.getTicks();
+		Thread.sleep(50);
+
+		assertTrue("Session finished", session.isFinished());
+		assertTrue("No more ticks", session.getTicks() == ticks);
+		assertTrue("Session removed", server.getSessions().isEmpty());
+	}
+
+
+	// Test that sessions are played with their own settings, which don't
+	// change the settings of the thread which opened them
+	@Test
+	public void testSessionsKeepOwnSettings() throws InterruptedException {
+		GameSettings settings = SessionContext.current().getSettings();
+		int hangarSize = settings.getHangarSize();
+
+		GameSettings small = new GameSettings(settings);
+		small.setAirportCapacity(1, 1, 0);
+		GameSettings large = new GameSettings(settings);
+		large.setAirportCapacity(8, 3, 0);
+
+		Session[] sessions = new Session[] {
+				server.open(DifficultySetting.EASY, 1, "idle", 1, 0, small),
+				server.open(DifficultySetting.EASY, 1, "idle", 1, 0, large)
+		};
+		small.setAirportCapacity(4, 4, 0);
+
+		final CountDownLatch ran = new CountDownLatch(sessions.length);
+		final int[] hangarSizes = new int[sessions.length];
+		for (int i = 0; i < sessions.length; i++) {
+			final int index = i;
+			sessions[i].post(new Session.Command() {
+				@Override
+				public void run(Controls controls) {
+					hangarSizes[index] = SessionContext.current().getSettings()
+							.getHangarSize();
+					ran.countDown();
+				}
+			});
+		}
+
+		assertTrue("Commands ran", ran.await(5, TimeUnit.SECONDS));
+		assertEquals("First session's settings", 1, hangarSizes[0]);
+		assertEquals("Second session's settings", 8, hangarSizes[1]);
+		assertEquals("Opening thread's settings unchanged", hangarSize,
+				SessionContext.current().getSettings().getHangarSize());
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Waits for sessions to finish.
+	 * @param sessions - the sessions to wait for
+	 */
+	private static void awaitFinished(Session[] sessions) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 60000;
+
+		for (Session session : sessions) {
+			while (!session.isFinished() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertTrue("Session finished in time", session.isFinished());
+		}
+	}
+
+}
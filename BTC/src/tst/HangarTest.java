@@ -0,0 +1,104 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cls.Hangar;
+
+public class HangarTest {
+
+	Hangar hangar;
+
+
+	@Before
+	public void setup() {
+		hangar = new Hangar(3);
+	}
+
+	/**
+	 * Aircraft leave the hangar in the order they entered.
+	 * <p>
+	 * Entries are told apart by the time they entered, so no aircraft
+	 * need to be created.
+	 * </p>
+	 */
+	@Test
+	public void testOrder() {
+		hangar.add(null, 1);
+		hangar.add(null, 2);
+		assertTrue("The front entered at 1", hangar.getTimeEntered(0) == 1);
+
+		hangar.remove();
+		hangar.add(null, 3);
+		hangar.add(null, 4);
+
+		// The buffer has now wrapped round
+		assertTrue("The hangar holds 3", hangar.size() == 3);
+		assertTrue("The front entered at 2", hangar.getTimeEntered(0) == 2);
+		assertTrue("The back entered at 4", hangar.getTimeEntered(2) == 4);
+	}
+
+	/**
+	 * Aircraft aren't added to a full hangar.
+	 */
+	@Test
+	public void testFull() {
+		assertTrue("Added 1", hangar.add(null, 1));
+		assertTrue("Added 2", hangar.add(null, 2));
+		assertTrue("Added 3", hangar.add(null, 3));
+		assertTrue("The hangar is full", hangar.isFull());
+		assertFalse("Not added to a full hangar", hangar.add(null, 4));
+		assertTrue("The hangar holds 3", hangar.size() == 3);
+	}
+
+	/**
+	 * Removing from an empty hangar gives nothing.
+	 */
+	@Test
+	public void testEmpty() {
+		assertTrue("The hangar is empty", hangar.isEmpty());
+		assertNull("Nothing removed from an empty hangar", hangar.remove());
+
+		hangar.add(null, 1);
+		hangar.clear();
+		assertTrue("The hangar is empty once cleared", hangar.isEmpty());
+	}
+
+	/**
+	 * Resizing keeps the aircraft in order, and never drops any.
+	 */
+	@Test
+	public void testSetCapacity() {
+		hangar.add(null, 1);
+		hangar.add(null, 2);
+		hangar.remove();
+		hangar.add(null, 3);
+		hangar.add(null, 4);
+
+		hangar.setCapacity(5);
+		assertTrue("The capacity is 5", hangar.getCapacity() == 5);
+		assertTrue("The front entered at 2", hangar.getTimeEntered(0) == 2);
+		assertTrue("The back entered at 4", hangar.getTimeEntered(2) == 4);
+
+		hangar.setCapacity(1);
+		assertTrue("The capacity isn't less than the size",
+				hangar.getCapacity() == 3);
+		assertTrue("The hangar holds 3", hangar.size() == 3);
+	}
+
+	/**
+	 * A copy isn't affected by changes to the original.
+	 */
+	@Test
+	public void testCopy() {
+		hangar.add(null, 1);
+		Hangar copy = new Hangar(hangar);
+		hangar.remove();
+
+		assertTrue("The copy holds 1", copy.size() == 1);
+		assertTrue("The copy's front entered at 1", copy.getTimeEntered(0) == 1);
+	}
+
+}
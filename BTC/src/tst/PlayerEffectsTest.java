@@ -0,0 +1,113 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cls.PlayerEffects;
+import cls.Powerup;
+import cls.Powerup.PowerupEffect;
+
+public class PlayerEffectsTest {
+	
+	PlayerEffects effects;
+	
+	
+	@Before
+	public void setup() {
+		effects = new PlayerEffects();
+	}
+	
+	
+	// Stacking tests -------------------------------------------------------------------
+	
+	/**
+	 * Test that speed powerups stack
+	 */
+	@Test
+	public void testSpeedStacks() {
+		effects.apply(new Powerup(PowerupEffect.SPEED_UP));
+		effects.apply(new Powerup(PowerupEffect.SPEED_UP));
+		assertTrue("Two speed ups = x4", effects.getSpeedScale() == 4);
+		
+		effects.apply(new Powerup(PowerupEffect.SLOW_DOWN));
+		assertTrue("Slow down halves speed", effects.getSpeedScale() == 2);
+	}
+	
+	/**
+	 * Test that fog is only applied once
+	 */
+	@Test
+	public void testFogDoesNotStack() {
+		Powerup first = new Powerup(PowerupEffect.FOG);
+		effects.apply(first);
+		effects.apply(new Powerup(PowerupEffect.FOG));
+		
+		assertTrue("Fogged", effects.isFogged());
+		assertTrue("Fog doesn't affect speed", effects.getSpeedScale() == 1);
+		
+		effects.remove(first);
+		assertTrue("Still fogged by the other", effects.isFogged());
+	}
+	
+	/**
+	 * Test that applying the same powerup twice has no further effect
+	 */
+	@Test
+	public void testApplyTwice() {
+		Powerup powerup = new Powerup(PowerupEffect.SPEED_UP);
+		effects.apply(powerup);
+		effects.apply(powerup);
+		
+		assertTrue("Applied once", effects.getSpeedScale() == 2);
+	}
+	
+	
+	// Removal tests --------------------------------------------------------------------
+	
+	/**
+	 * Test that removing a powerup removes its effect
+	 */
+	@Test
+	public void testRemove() {
+		Powerup powerup = new Powerup(PowerupEffect.FOG);
+		effects.apply(powerup);
+		effects.remove(powerup);
+		
+		assertFalse("No longer fogged", effects.isFogged());
+	}
+	
+	/**
+	 * Test that clearing removes every effect
+	 */
+	@Test
+	public void testClear() {
+		effects.apply(new Powerup(PowerupEffect.SLOW_DOWN));
+		effects.apply(new Powerup(PowerupEffect.FOG));
+		effects.clear();
+		
+		assertTrue("Speed reset", effects.getSpeedScale() == 1);
+		assertFalse("No fog", effects.isFogged());
+	}
+	
+	
+	// Copy tests -----------------------------------------------------------------------
+	
+	/**
+	 * Test that copies are independent of the original
+	 */
+	@Test
+	public void testCopy() {
+		Powerup fog = new Powerup(PowerupEffect.FOG);
+		effects.apply(new Powerup(PowerupEffect.SPEED_UP));
+		effects.apply(fog);
+		PlayerEffects copy = new PlayerEffects(effects);
+		effects.clear();
+		
+		assertTrue("Copy keeps effects", copy.getSpeedScale() == 2);
+		copy.remove(fog);
+		assertFalse("Copy keeps powerups", copy.isFogged());
+	}
+	
+}
@@ -72,7 +72,7 @@ public class PowerupTest {
 	@Test
 	public void testTimeActivatedMethod() {
 		powerup.activateEffect();
-		assertTrue("Test that the timeActivated method is correct", powerup.getTimeActivated() == System.currentTimeMillis());
+		assertTrue("Test that the timeActivated method is correct", powerup.getTimeActivated() == (long) (Game.getInstance().getTime() * 1000));
 	}
 	
 	@Test
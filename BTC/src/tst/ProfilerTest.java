@@ -0,0 +1,54 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import lib.Profiler;
+
+public class ProfilerTest {
+	
+	// Test percentile function
+	@Test
+	public void testPercentile() {
+		long[] samples = new long[100];
+		for (int i = 0; i < samples.length; i++) {
+			samples[i] = 100 - i;
+		}
+		
+		assertTrue("p50 = 50", Profiler.percentile(samples.clone(), 50) == 50);
+		assertTrue("p95 = 95", Profiler.percentile(samples.clone(), 95) == 95);
+		assertTrue("p99 = 99", Profiler.percentile(samples.clone(), 99) == 99);
+	}
+	
+	@Test
+	public void testPercentileEmpty() {
+		assertTrue("No samples gives 0",
+				Profiler.percentile(new long[0], 50) == 0);
+	}
+	
+	// Test that the ring buffer only keeps the most recent samples
+	@Test
+	public void testRingBuffer() {
+		Profiler.Scope scope = Profiler.scope("ProfilerTest.ring");
+		
+		for (int i = 0; i < Profiler.SAMPLE_COUNT + 10; i++) {
+			scope.record(i, i);
+		}
+		
+		long[] durations = scope.getDurations();
+		assertTrue("Buffer is full", durations.length == Profiler.SAMPLE_COUNT);
+		assertTrue("Oldest samples dropped", durations[0] == 10);
+		assertTrue("Newest sample last",
+				durations[durations.length - 1] == Profiler.SAMPLE_COUNT + 9);
+	}
+	
+	// Test scopes are shared by name
+	@Test
+	public void testScopeLookup() {
+		assertTrue("Same scope returned for the same name",
+				Profiler.scope("ProfilerTest.lookup")
+				== Profiler.scope("ProfilerTest.lookup"));
+	}
+
+}
@@ -0,0 +1,183 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cls.RunwaySequencer;
+import cls.RunwaySequencer.Clearance;
+import cls.RunwaySequencer.Operation;
+
+public class RunwaySequencerTest {
+
+	RunwaySequencer<String> sequencer;
+
+
+	@Before
+	public void setup() {
+		sequencer = new RunwaySequencer<String>(1);
+	}
+
+	/**
+	 * Gives runways to every operation which can go at a time.
+	 * @param sequencer - the sequencer to dispatch from
+	 * @param time - the current time
+	 * @return the number of operations given a runway
+	 */
+	private int dispatch(RunwaySequencer<String> sequencer, double time) {
+		int count = 0;
+		while (sequencer.next(time) != null) count++;
+		return count;
+	}
+
+	/**
+	 * An arrival holds its runway until it is released.
+	 */
+	@Test
+	public void testArrivalHoldsRunway() {
+		sequencer.request(Operation.ARRIVAL, "A1", 0);
+		Clearance<String> first = sequencer.next(0);
+		assertTrue("The arrival lands", first.getAircraft().equals("A1"));
+
+		sequencer.request(Operation.DEPARTURE, "D1", 0);
+		assertNull("The departure waits for the runway", sequencer.next(5));
+		assertTrue("The departure is next in line",
+				sequencer.getPosition("D1") == 1);
+
+		sequencer.release("A1", 10);
+		Clearance<String> second = sequencer.next(10);
+		assertTrue("The departure goes once the runway is released",
+				second.getAircraft().equals("D1"));
+		assertTrue("The departure waited 10", second.getDelay() == 10);
+		assertTrue("The average delay is 5", sequencer.getAverageDelay() == 5);
+	}
+
+	/**
+	 * Operations wait for the separation after the previous operation.
+	 */
+	@Test
+	public void testSeparation() {
+		sequencer.setSeparation(Operation.DEPARTURE, Operation.DEPARTURE, 3);
+		sequencer.request(Operation.DEPARTURE, "D1", 0);
+		sequencer.request(Operation.DEPARTURE, "D2", 0);
+
+		assertTrue("One departure goes", dispatch(sequencer, 0) == 1);
+		assertTrue("The second waits for the separation",
+				dispatch(sequencer, 2) == 0);
+		assertTrue("The second goes once separated",
+				dispatch(sequencer, 3) == 1);
+	}
+
+	/**
+	 * Each runway can be used at once.
+	 */
+	@Test
+	public void testMultipleRunways() {
+		sequencer.setRunways(2);
+		sequencer.request(Operation.ARRIVAL, "A1", 0);
+		sequencer.request(Operation.ARRIVAL, "A2", 0);
+		sequencer.request(Operation.ARRIVAL, "A3", 0);
+
+		assertTrue("Two arrivals land at once", dispatch(sequencer, 0) == 2);
+		assertTrue("Both runways are in use", sequencer.getRunwaysInUse(0) == 2);
+		assertTrue("One arrival is waiting",
+				sequencer.getQueueLength(Operation.ARRIVAL) == 1);
+
+		sequencer.cancel("A2", 4);
+		assertTrue("A cancelled arrival frees its runway",
+				dispatch(sequencer, 4) == 1);
+	}
+
+	/**
+	 * Where mixed operations need less separation, arrivals and departures
+	 * are interleaved.
+	 */
+	@Test
+	public void testInterleaving() {
+		sequencer.setSeparation(Operation.DEPARTURE, Operation.DEPARTURE, 4);
+		sequencer.setSeparation(Operation.DEPARTURE, Operation.ARRIVAL, 1);
+		sequencer.request(Operation.DEPARTURE, "D1", 0);
+		sequencer.request(Operation.DEPARTURE, "D2", 0);
+		sequencer.request(Operation.ARRIVAL, "A1", 0.5);
+
+		sequencer.next(0);
+		Clearance<String> next = sequencer.next(1);
+		assertTrue("The arrival goes between the departures",
+				next.getAircraft().equals("A1"));
+	}
+
+	/**
+	 * Clearing an aircraft twice has no effect.
+	 */
+	@Test
+	public void testDuplicateRequest() {
+		assertTrue("Cleared once", sequencer.request(Operation.ARRIVAL, "A1", 0));
+		assertFalse("Not cleared twice",
+				sequencer.request(Operation.ARRIVAL, "A1", 0));
+		sequencer.next(0);
+		assertFalse("Not cleared while landing",
+				sequencer.request(Operation.ARRIVAL, "A1", 1));
+	}
+
+	/**
+	 * Runs a busy airport for a period, with an arrival and a departure
+	 * cleared every 2 seconds and each landing taking 5 seconds.
+	 * @param runways - the number of runways
+	 * @return the number of operations which got a runway
+	 */
+	private int simulateRushHour(int runways) {
+		RunwaySequencer<String> airport = new RunwaySequencer<String>(runways);
+		airport.setSeparation(Operation.ARRIVAL, Operation.ARRIVAL, 2);
+		airport.setSeparation(Operation.DEPARTURE, Operation.DEPARTURE, 1);
+		airport.setDepartureOccupancy(1);
+
+		String[] landing = new String[runways];
+		double[] landed = new double[runways];
+		int next = 0;
+
+		for (int tick = 0; tick <= 6000; tick++) {
+			double time = tick / 10.0;
+
+			if (tick % 20 == 0) {
+				airport.request(Operation.ARRIVAL, "A" + next, time);
+				airport.request(Operation.DEPARTURE, "D" + next, time);
+				next++;
+			}
+
+			for (int i = 0; i < runways; i++) {
+				if (landing[i] != null && time >= landed[i]) {
+					airport.release(landing[i], time);
+					landing[i] = null;
+				}
+			}
+
+			Clearance<String> clearance;
+			while ((clearance = airport.next(time)) != null) {
+				if (clearance.getOperation() == Operation.ARRIVAL) {
+					landing[clearance.getRunway()] = clearance.getAircraft();
+					landed[clearance.getRunway()] = time + 5;
+				}
+			}
+		}
+
+		return airport.getOperations();
+	}
+
+	/**
+	 * Adding runways raises the number of operations a busy airport
+	 * can handle.
+	 */
+	@Test
+	public void testThroughput() {
+		int one = simulateRushHour(1);
+		int two = simulateRushHour(2);
+		int four = simulateRushHour(4);
+
+		assertTrue("Two runways handle more than one: " + one + ", " + two,
+				two > one);
+		assertTrue("Four runways handle every operation: " + four,
+				four == 2 * 301);
+	}
+
+}
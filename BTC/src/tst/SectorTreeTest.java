@@ -0,0 +1,203 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import btc.Main;
+import cls.Aircraft;
+import cls.SectorTree;
+import cls.Waypoint;
+import lib.jog.window;
+import scn.Game;
+import scn.Game.DifficultySetting;
+
+public class SectorTreeTest {
+
+	/** The size of the airspace */
+	private static final double WIDTH = 1280, HEIGHT = 960;
+
+	@Before
+	public void setUp() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+	}
+
+	@After
+	public void tearDown() {
+		window.setVirtualSize(0, 0);
+	}
+
+
+	// Search tests ---------------------------------------------------------------------
+
+	// Test that every aircraft in range is found, in the order they were listed
+	@Test
+	public void testFindNearMatchesEveryAircraft() {
+		ArrayList<Aircraft> aircraft = createAircraft(600, 3);
+		SectorTree sectors = new SectorTree();
+		sectors.rebuild(aircraft, WIDTH, HEIGHT);
+
+		assertTrue("Airspace was divided", sectors.getSectorCount() > 1);
+
+		ArrayList<Aircraft> near = new ArrayList<Aircraft>();
+		for (Aircraft plane : aircraft) {
+			near.clear();
+			sectors.findNear(plane.getPosition().getX(),
+					plane.getPosition().getY(), 96, near);
+
+			int last = -1;
+			for (Aircraft found : near) {
+				int index = aircraft.indexOf(found);
+				assertTrue("Found in the order listed", index > last);
+				last = index;
+			}
+
+			for (Aircraft other : aircraft) {
+				double dx = other.getPosition().getX() - plane.getPosition().getX();
+				double dy = other.getPosition().getY() - plane.getPosition().getY();
+
+				if (dx * dx + dy * dy < 96 * 96) {
+					assertTrue("Aircraft in range found", near.contains(other));
+				}
+			}
+		}
+	}
+
+	// Test that checking aircraft near each other finds the same conflicts as
+	// checking every aircraft
+	@Test
+	public void testCollisionsMatchEveryAircraft() {
+		ArrayList<Aircraft> everyAircraft = createAircraft(300, 1);
+		ArrayList<Aircraft> nearbyAircraft = createAircraft(300, 1);
+		SectorTree sectors = new SectorTree();
+		sectors.rebuild(nearbyAircraft, WIDTH, HEIGHT);
+
+		ArrayList<Aircraft> near = new ArrayList<Aircraft>();
+		for (int i = 0; i < everyAircraft.size(); i++) {
+			if (!everyAircraft.get(i).isFinished()) {
+				everyAircraft.get(i).updateCollisions(1 / 60d, everyAircraft);
+			}
+
+			Aircraft plane = nearbyAircraft.get(i);
+			if (!plane.isFinished()) {
+				near.clear();
+				sectors.findNear(plane.getPosition().getX(),
+						plane.getPosition().getY(), plane.getCollisionRange(), near);
+				plane.updateCollisions(1 / 60d, near);
+			}
+		}
+
+		int conflicts = 0;
+		for (int i = 0; i < everyAircraft.size(); i++) {
+			Aircraft expected = everyAircraft.get(i);
+			Aircraft actual = nearbyAircraft.get(i);
+
+			assertTrue("Same crashes", expected.isFinished() == actual.isFinished());
+			assertTrue("Same separation breaches",
+					expected.isInDanger() == actual.isInDanger());
+			assertTrue("Same score", expected.getScore() == actual.getScore());
+			if (expected.isFinished() || expected.isInDanger()) conflicts++;
+		}
+		assertTrue("Some aircraft were in conflict", conflicts > 0);
+	}
+
+	// Test that aircraft sharing a position don't divide the airspace forever
+	@Test
+	public void testDepthLimited() {
+		ArrayList<Aircraft> aircraft = createAircraft(100, 0);
+		SectorTree sectors = new SectorTree(4, 3);
+		sectors.rebuild(aircraft, WIDTH, HEIGHT);
+
+		ArrayList<Aircraft> near = new ArrayList<Aircraft>();
+		sectors.findNear(WIDTH / 2, HEIGHT / 2, 1, near);
+
+		assertTrue("Depth is limited", sectors.getDepth() == 3);
+		assertTrue("Every aircraft found", near.size() == 100);
+	}
+
+
+	// Visibility tests -----------------------------------------------------------------
+
+	// Test that aircraft in view are in visible sectors, and distant ones aren't
+	@Test
+	public void testVisibleSectors() {
+		ArrayList<Aircraft> aircraft = createAircraft(600, 3);
+		SectorTree sectors = new SectorTree();
+		sectors.rebuild(aircraft, WIDTH, HEIGHT);
+		sectors.setVisibleArea(0, 0, WIDTH / 4, HEIGHT / 4);
+
+		int hidden = 0;
+		for (Aircraft plane : aircraft) {
+			double x = plane.getPosition().getX();
+			double y = plane.getPosition().getY();
+
+			if (x <= WIDTH / 4 && y <= HEIGHT / 4) {
+				assertTrue("Aircraft in view are in visible sectors",
+						sectors.isInVisibleSector(x, y));
+			} else if (x > WIDTH / 2 || y > HEIGHT / 2) {
+				assertFalse("Distant aircraft are in hidden sectors",
+						sectors.isInVisibleSector(x, y));
+				hidden++;
+			}
+		}
+		assertTrue("Some aircraft were out of view", hidden > 0);
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Creates aircraft gathered around a few points in the airspace, each
+	 * time in the same way.
+	 * @param count - the number of aircraft to create
+	 * @param clusters - the number of points to gather around, or 0 to
+	 * 			put every aircraft in the middle of the airspace
+	 * @return the aircraft
+	 */
+	private ArrayList<Aircraft> createAircraft(int count, int clusters) {
+		Random random = new Random(11);
+		Main.setRandomSeed(11);
+
+		Waypoint[] waypoints = new Waypoint[] {
+				new Waypoint(0.5, 0.5, false, true)
+		};
+
+		ArrayList<Aircraft> aircraft = new ArrayList<Aircraft>();
+		for (int i = 0; i < count; i++) {
+			double x = 0.5, y = 0.5;
+
+			if (clusters > 0) {
+				// Half the aircraft are spread out, and the rest gathered
+				if (i % 2 == 0) {
+					x = random.nextDouble();
+					y = random.nextDouble();
+				} else {
+					x = 0.1 + (0.8 * (i % clusters) / clusters)
+							+ (random.nextGaussian() * 0.03);
+					y = 0.2 + (0.6 * (i % clusters) / clusters)
+							+ (random.nextGaussian() * 0.03);
+				}
+			}
+
+			Waypoint origin = new Waypoint(x, y, true, "Origin", true);
+			Waypoint destination = new Waypoint(random.nextDouble(),
+					random.nextDouble(), true, "Destination", true);
+
+			aircraft.add(new Aircraft("SEC" + i, "Sector Air",
+					"Destination", "Origin", destination, origin, 10,
+					waypoints, DifficultySetting.MEDIUM, null, null));
+		}
+
+		return aircraft;
+	}
+
+}
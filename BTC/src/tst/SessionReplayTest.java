@@ -0,0 +1,173 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import btc.Main;
+import lib.jog.input;
+import lib.jog.window;
+import rpl.SessionLog;
+import rpl.SessionRecorder;
+import rpl.SessionReplayer;
+import scn.Game;
+import scn.SinglePlayerGame;
+import scn.Game.DifficultySetting;
+
+public class SessionReplayTest {
+
+	/** The file sessions are recorded to */
+	File file;
+
+	/** The recorder of the current session */
+	SessionRecorder recorder;
+
+	/** The scripted position of the mouse */
+	int mouseX, mouseY;
+
+	/** Whether the scripted W key is held down */
+	boolean isWDown;
+
+	/** The scripted keyboard and mouse state */
+	input.State scripted = new input.State() {
+		@Override
+		public boolean isKeyDown(int key) {
+			return key == input.KEY_W && isWDown;
+		}
+
+		@Override
+		public boolean isMouseDown(int button) {
+			return false;
+		}
+
+		@Override
+		public int mouseX() {
+			return mouseX;
+		}
+
+		@Override
+		public int mouseY() {
+			return mouseY;
+		}
+	};
+
+
+	@Before
+	public void setUp() throws IOException {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+		file = File.createTempFile("session", SessionLog.EXTENSION);
+	}
+
+	@After
+	public void tearDown() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		input.setState(null);
+		window.setVirtualSize(0, 0);
+		file.delete();
+	}
+
+	/**
+	 * Plays and records a game with scripted input.
+	 * @param seed - the seed of the game's random numbers
+	 * @param ticks - the number of updates to play for
+	 * @return the game, which is still running
+	 */
+	private Game record(int seed, int ticks) throws IOException {
+		Main.setRandomSeed(seed);
+		SinglePlayerGame game = SinglePlayerGame
+				.createSinglePlayerGame(DifficultySetting.HARD);
+		game.start();
+
+		// Games aren't recorded while testing, so record this one directly
+		recorder = new SessionRecorder(file.getPath(), seed,
+				DifficultySetting.HARD, 1280, 960, scripted);
+		game.setRecorder(recorder);
+
+		// Jitter the time steps, as the simulation thread's are measured
+		Random jitter = new Random(seed);
+
+		for (int i = 0; i < ticks && !game.isOver(); i++) {
+			if (i % 60 == 0) {
+				mouseX = 200 + jitter.nextInt(900);
+				mouseY = 50 + jitter.nextInt(850);
+				game.mousePressed(input.MOUSE_LEFT, mouseX, mouseY);
+				game.mouseReleased(input.MOUSE_LEFT, mouseX, mouseY);
+			}
+
+			isWDown = (i % 200) < 50;
+			if (i % 300 == 0) game.keyReleased(input.KEY_SPACE);
+
+			long nanos = 16666667 + jitter.nextInt(2000000) - 1000000;
+			game.update(nanos / 1000000000d);
+		}
+
+		return game;
+	}
+
+
+	// Replay tests ---------------------------------------------------------------------
+
+	// Test that a replayed session ends in the same state as it was recorded in
+	@Test
+	public void testReplayReproducesSession() throws IOException {
+		Game game = record(42, 3000);
+		long fingerprint = SessionLog.fingerprint(game);
+		int score = game.getPlayer().getScore();
+		game.close();
+
+		SessionReplayer.Result result = new SessionReplayer(file.getPath())
+				.replay(0);
+
+		assertTrue("Session was ended", result.isComplete());
+		assertTrue("Replay reproduced the session", result.isReproduced());
+		assertTrue("Same final state", result.getFingerprint() == fingerprint);
+		assertTrue("Same score", result.getScore() == score);
+	}
+
+	// Test that a session which wasn't ended can still be replayed
+	@Test
+	public void testReplayUnendedSession() throws IOException {
+		Game game = record(7, 600);
+		long fingerprint = SessionLog.fingerprint(game);
+
+		// Close the recording without ending it, as if the process had exited
+		recorder.close();
+		game.setRecorder(null);
+		game.close();
+
+		SessionReplayer.Result result = new SessionReplayer(file.getPath())
+				.replay(0);
+
+		assertFalse("Session wasn't ended", result.isComplete());
+		assertTrue("Every update replayed", result.getTicks() == 600);
+		assertTrue("Same final state", result.getFingerprint() == fingerprint);
+	}
+
+	// Test that the log takes only a few bytes per update
+	@Test
+	public void testLogIsCompact() throws IOException {
+		record(3, 3000).close();
+		assertTrue("Under 8 bytes per update", file.length() < 3000 * 8);
+	}
+
+	// Test that files which aren't recorded sessions are rejected
+	@Test(expected = IOException.class)
+	public void testRejectsOtherFiles() throws IOException {
+		java.nio.file.Files.write(file.toPath(), "Not a session".getBytes());
+		new SessionReplayer(file.getPath());
+	}
+
+}
@@ -0,0 +1,163 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import btc.Main;
+import cls.Aircraft;
+import cls.Vector;
+import lib.jog.input;
+import lib.jog.window;
+import scn.Game;
+import scn.StressGame;
+import scn.Game.DifficultySetting;
+
+public class StressGameTest {
+
+	/** The time between updates */
+	private static final double TIME_STEP = 1 / 60d;
+
+	/** The game under test */
+	private StressGame game;
+
+	@Before
+	public void setUp() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+		Main.setRandomSeed(2014);
+		input.setState(input.IDLE_STATE);
+	}
+
+	@After
+	public void tearDown() {
+		if (game != null) {
+			game.close();
+			game = null;
+		}
+
+		input.setState(null);
+		window.setVirtualSize(0, 0);
+	}
+
+
+	// Airspace tests -------------------------------------------------------------------
+
+	// Test that the airspace is filled without aircraft entering on top of each other
+	@Test
+	public void testAirspaceFilled() {
+		game = StressGame.createStressGame(DifficultySetting.MEDIUM, 300, 6);
+		game.start();
+
+		assertTrue("Airspace is full", game.getAllAircraft().size() == 300);
+
+		for (Aircraft aircraft : game.getAllAircraft()) {
+			for (Aircraft other : game.getAllAircraft()) {
+				if (aircraft == other) continue;
+
+				assertFalse("Aircraft entered clear of each other",
+						aircraft.isCloseToEntry(other.getPosition()));
+			}
+		}
+	}
+
+	// Test that the airspace is large enough to hold the aircraft
+	@Test
+	public void testAirspaceScalesWithAircraft() {
+		game = StressGame.createStressGame(DifficultySetting.MEDIUM, 300, 6);
+		double smallArea = Game.getAirspaceWidth() * Game.getAirspaceHeight();
+		game.close();
+
+		game = StressGame.createStressGame(DifficultySetting.MEDIUM, 1200, 6);
+		double largeArea = Game.getAirspaceWidth() * Game.getAirspaceHeight();
+
+		assertTrue("Airspace is at least a normal game's",
+				smallArea >= (1280 - 2 * Game.getXOffset())
+						* (960 - 2 * Game.getYOffset()));
+		assertTrue("More aircraft get more airspace", largeArea > 3 * smallArea);
+		assertTrue("Window keeps its size", window.width() == 1280);
+	}
+
+	// Test that the game keeps the airspace full, and carries on after crashes
+	@Test
+	public void testAircraftReplaced() {
+		game = StressGame.createStressGame(DifficultySetting.HARD, 200, 4);
+		game.start();
+
+		for (int i = 0; i < 60 * 60; i++) {
+			game.update(TIME_STEP);
+
+			// An aircraft may have to wait an update for somewhere to enter
+			assertTrue("Airspace stays full", game.getAllAircraft().size() >= 190);
+		}
+
+		assertFalse("Game doesn't end", game.isOver());
+		assertTrue("Aircraft have finished and been replaced",
+				game.getPlayer().getPlanesCleared()
+				+ game.getPlayer().getPlanesLanded()
+				+ game.getPlayer().getPlanesCollided() > 0);
+	}
+
+	// Test that aircraft out of view are updated less often, but keep flying
+	@Test
+	public void testAircraftOutOfViewUpdatedLessOften() {
+		game = StressGame.createStressGame(DifficultySetting.MEDIUM, 200, 4);
+		game.start();
+		game.getCamera().zoomAt(8, 0, 0);
+
+		ArrayList<Aircraft> distant = new ArrayList<Aircraft>();
+		ArrayList<Vector> positions = new ArrayList<Vector>();
+		for (Aircraft aircraft : game.getAllAircraft()) {
+			if (aircraft.getPosition().getX() > Game.getAirspaceWidth() / 2) {
+				distant.add(aircraft);
+				positions.add(aircraft.getPosition());
+			}
+		}
+
+		game.update(TIME_STEP);
+
+		int skipped = 0;
+		for (int i = 0; i < distant.size(); i++) {
+			if (distant.get(i).getPosition().equals(positions.get(i))) skipped++;
+		}
+		assertTrue("Some aircraft out of view weren't updated", skipped > 0);
+
+		for (int i = 0; i < 8; i++) {
+			game.update(TIME_STEP);
+		}
+
+		for (int i = 0; i < distant.size(); i++) {
+			if (distant.get(i).isFinished()) continue;
+
+			assertFalse("Aircraft out of view keep flying",
+					distant.get(i).getPosition().equals(positions.get(i)));
+		}
+	}
+
+	// Test that flight names stay unique once three digits run out
+	@Test
+	public void testFlightNamesLengthen() {
+		game = StressGame.createStressGame(DifficultySetting.EASY, 4100, 2);
+		game.start();
+
+		HashSet<String> names = new HashSet<String>();
+		boolean isLengthened = false;
+
+		for (Aircraft aircraft : game.getAllAircraft()) {
+			assertTrue("Names are unique", names.add(aircraft.getName()));
+			isLengthened |= aircraft.getName().length() > 5;
+		}
+
+		assertTrue("Every aircraft created", names.size() == 4100);
+		assertTrue("Longer flight numbers used", isLengthened);
+	}
+
+}
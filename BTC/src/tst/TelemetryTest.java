@@ -0,0 +1,239 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import btc.Main;
+import cls.Aircraft;
+import lib.jog.window;
+import rpl.TelemetryReader;
+import rpl.TelemetryWriter;
+import scn.Game;
+import scn.SinglePlayerGame;
+import scn.Game.DifficultySetting;
+
+public class TelemetryTest {
+
+	/** The file telemetry is written to */
+	File file;
+
+	/** The times at which the game's state was noted */
+	ArrayList<Double> times = new ArrayList<Double>();
+
+	/** The aircraft's names at each noted time */
+	ArrayList<ArrayList<String>> names = new ArrayList<ArrayList<String>>();
+
+	/** The aircraft's positions at each noted time */
+	ArrayList<ArrayList<double[]>> positions = new ArrayList<ArrayList<double[]>>();
+
+	/** The player's score at each noted time */
+	ArrayList<Integer> scores = new ArrayList<Integer>();
+
+	/** The number of updates played, which is fewer if the game ended */
+	int ticks;
+
+	/** The number of aircraft in the airspace, summed over every update */
+	int aircraftTicks;
+
+	/** The time the game ran for */
+	double endTime;
+
+
+	@Before
+	public void setUp() throws IOException {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+		file = File.createTempFile("telemetry", TelemetryWriter.EXTENSION);
+	}
+
+	@After
+	public void tearDown() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(0, 0);
+		file.delete();
+	}
+
+	/**
+	 * Plays a game, writing its telemetry every update and noting its
+	 * state every second.
+	 * @param ticks - the number of updates to play for
+	 * @param isClosed - whether to close the telemetry at the end
+	 */
+	private void play(int ticks, boolean isClosed) throws IOException {
+		Main.setRandomSeed(11);
+		SinglePlayerGame game = SinglePlayerGame
+				.createSinglePlayerGame(DifficultySetting.HARD);
+		game.start();
+
+		// Telemetry isn't written while testing, so write this game's directly
+		TelemetryWriter telemetry = new TelemetryWriter(file.getPath(), 0, 20,
+				1280, 960);
+		game.setTelemetry(telemetry);
+
+		for (int i = 0; i < ticks && !game.isOver(); i++) {
+			game.update(1 / 60d);
+			this.ticks++;
+			aircraftTicks += game.getAllAircraft().size();
+
+			if (i % 60 == 30) {
+				ArrayList<String> tickNames = new ArrayList<String>();
+				ArrayList<double[]> tickPositions = new ArrayList<double[]>();
+
+				for (Aircraft aircraft : game.getAllAircraft()) {
+					tickNames.add(aircraft.getName());
+					tickPositions.add(new double[] {aircraft.getPosition().getX(),
+							aircraft.getPosition().getY(),
+							aircraft.getPosition().getZ()});
+				}
+
+				times.add(game.getTime());
+				names.add(tickNames);
+				positions.add(tickPositions);
+				scores.add(game.getPlayer().getScore());
+			}
+		}
+
+		endTime = game.getTime();
+		game.setTelemetry(null);
+		game.close();
+
+		if (!isClosed) {
+			// Leave the file as it would be if the game had exited mid-write
+			truncateIndex();
+		}
+	}
+
+	/**
+	 * Cuts the index, and part of the last frame, off the telemetry.
+	 */
+	private void truncateIndex() throws IOException {
+		int keyframes = new TelemetryReader(file.getPath()).getKeyframeCount();
+
+		// The index frame's header, count and entries, the trailer, and a
+		// few bytes of the frame before
+		long indexSize = 5 + 1 + keyframes * 16 + 12;
+
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(raf.length() - indexSize - 3);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Checks that seeking to each noted time gives the state noted.
+	 * @param reader - the telemetry to check
+	 * @param order - the order to seek to the noted times in
+	 */
+	private void checkSeeks(TelemetryReader reader, int[] order) {
+		for (int i : order) {
+			TelemetryReader.Frame frame = reader.seek(times.get(i));
+
+			assertTrue("Frame found", frame != null);
+			assertTrue("Frame at the time sought", frame.getTime() == times.get(i));
+			assertTrue("Same score", frame.getPlayers().get(0).getScore()
+					== scores.get(i));
+			assertTrue("Same aircraft", frame.getAircraft().size()
+					== names.get(i).size());
+
+			for (int j = 0; j < names.get(i).size(); j++) {
+				TelemetryReader.AircraftState aircraft = frame
+						.getAircraft(names.get(i).get(j));
+				double[] position = positions.get(i).get(j);
+
+				assertTrue("Aircraft found", aircraft != null);
+				assertTrue("Same x", Math.abs(aircraft.getX() - position[0]) <= 1 / 16d);
+				assertTrue("Same y", Math.abs(aircraft.getY() - position[1]) <= 1 / 16d);
+				assertTrue("Same altitude", Math.abs(aircraft.getAltitude()
+						- position[2]) <= 0.5);
+			}
+		}
+	}
+
+	/**
+	 * Gets the noted times in order, then in reverse, then alternating
+	 * between the ends.
+	 * @return the indices of the noted times
+	 */
+	private int[] getSeekOrder() {
+		int count = times.size();
+		int[] order = new int[count * 3];
+
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+			order[count + i] = count - 1 - i;
+			order[2 * count + i] = (i % 2 == 0) ? i / 2 : count - 1 - i / 2;
+		}
+
+		return order;
+	}
+
+
+	// Seeking tests --------------------------------------------------------------------
+
+	// Test that seeking to any time, forwards or backwards, gives the state then
+	@Test
+	public void testSeekGivesRecordedState() throws IOException {
+		play(1800, true);
+		assertTrue("Aircraft were flying", !names.get(names.size() - 1).isEmpty());
+
+		TelemetryReader reader = new TelemetryReader(file.getPath());
+
+		assertTrue("Keyframes indexed", reader.getKeyframeCount() == (ticks + 19) / 20);
+		assertTrue("Ends at the last update", reader.getEndTime() == endTime);
+		checkSeeks(reader, getSeekOrder());
+	}
+
+	// Test that telemetry which wasn't closed is indexed by scanning it
+	@Test
+	public void testIndexRebuiltWhenNotClosed() throws IOException {
+		play(1200, false);
+
+		TelemetryReader reader = new TelemetryReader(file.getPath());
+
+		assertTrue("Keyframes indexed", reader.getKeyframeCount() >= (ticks - 1) / 20);
+		checkSeeks(reader, getSeekOrder());
+	}
+
+	// Test that seeking before the first frame gives the first frame
+	@Test
+	public void testSeekBeforeStart() throws IOException {
+		play(120, true);
+
+		TelemetryReader reader = new TelemetryReader(file.getPath());
+		TelemetryReader.Frame frame = reader.seek(-1);
+
+		assertTrue("First frame", frame.getTime() == reader.getStartTime());
+	}
+
+	// Test that frames take only a few bytes per aircraft
+	@Test
+	public void testTelemetryIsCompact() throws IOException {
+		play(1800, true);
+		assertTrue("Under 8 bytes per aircraft per update",
+				file.length() < ticks * 24 + aircraftTicks * 8);
+	}
+
+	// Test that files which aren't telemetry are rejected
+	@Test(expected = IOException.class)
+	public void testRejectsOtherFiles() throws IOException {
+		java.nio.file.Files.write(file.toPath(), "Not telemetry".getBytes());
+		new TelemetryReader(file.getPath());
+	}
+
+}
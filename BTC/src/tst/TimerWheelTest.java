@@ -0,0 +1,192 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import lib.TimerWheel;
+
+public class TimerWheelTest {
+	
+	TimerWheel timers;
+	ArrayList<String> fired;
+	
+	
+	@Before
+	public void setup() {
+		timers = new TimerWheel(1.0 / 60);
+		fired = new ArrayList<String>();
+	}
+	
+	/**
+	 * Creates a task which records that it has run.
+	 * @param name - the name to record
+	 */
+	private Runnable record(final String name) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				fired.add(name);
+			}
+		};
+	}
+	
+	/**
+	 * Advances the timers a frame at a time, as the game does.
+	 * @param from - the time to start from
+	 * @param to - the time to advance to
+	 */
+	private void step(double from, double to) {
+		for (double time = from; time < to; time += 1.0 / 60) {
+			timers.advance(time);
+		}
+		timers.advance(to);
+	}
+	
+	
+	// Scheduling tests -----------------------------------------------------------------
+	
+	// Test that a timer runs once its time is reached, and not before
+	@Test
+	public void testRunsWhenDue() {
+		timers.schedule(0.5, record("a"));
+		
+		step(0, 0.49);
+		assertTrue("Not run early", fired.isEmpty());
+		
+		step(0.49, 0.5);
+		assertTrue("Run when due", fired.size() == 1);
+		assertTrue("Nothing pending", timers.size() == 0);
+	}
+	
+	// Test that timers run in the order they are due
+	@Test
+	public void testOrder() {
+		timers.schedule(3, record("c"));
+		timers.schedule(1, record("a"));
+		timers.schedule(2, record("b"));
+		
+		step(0, 4);
+		assertTrue("Run in order", fired.toString().equals("[a, b, c]"));
+	}
+	
+	// Test that timers due on the same tick run in the order they were
+	// scheduled, even when the first was held in an outer wheel
+	@Test
+	public void testSameTickOrder() {
+		// Due on the tick at which the outer wheel's slot is moved inwards
+		double due = 128.0 / 60;
+		timers.scheduleAt(due, record("a"));
+		timers.scheduleAt(due, record("b"));
+		
+		step(0, 127.0 / 60);
+		timers.scheduleAt(due, record("c"));
+		
+		step(127.0 / 60, due);
+		assertTrue("Run in the order scheduled", fired.toString().equals("[a, b, c]"));
+	}
+	
+	// Test timers far enough ahead to be held in the outer wheels
+	@Test
+	public void testLongDelays() {
+		timers.schedule(100, record("a"));
+		timers.schedule(5000, record("b"));
+		
+		timers.advance(99.9);
+		assertTrue("Not run early", fired.isEmpty());
+		
+		timers.advance(100);
+		assertTrue("First run", fired.toString().equals("[a]"));
+		
+		timers.advance(4999.9);
+		assertTrue("Second not run early", fired.size() == 1);
+		
+		timers.advance(5000);
+		assertTrue("Second run", fired.toString().equals("[a, b]"));
+	}
+	
+	// Test a timer beyond the range of every wheel
+	@Test
+	public void testBeyondSpan() {
+		TimerWheel coarse = new TimerWheel(1);
+		final int[] count = new int[1];
+		
+		coarse.schedule(20000000, new Runnable() {
+			@Override
+			public void run() {
+				count[0]++;
+			}
+		});
+		
+		coarse.advance(19999999);
+		assertTrue("Not run early", count[0] == 0);
+		
+		coarse.advance(20000000);
+		assertTrue("Run when due", count[0] == 1);
+	}
+	
+	// Test that a task can schedule another
+	@Test
+	public void testRescheduling() {
+		timers.schedule(1, new Runnable() {
+			@Override
+			public void run() {
+				fired.add("a");
+				timers.schedule(0, record("b"));
+			}
+		});
+		
+		timers.advance(1);
+		assertTrue("Rescheduled task waits for next tick", fired.size() == 1);
+		
+		timers.advance(1 + 1.0 / 60);
+		assertTrue("Rescheduled task run", fired.toString().equals("[a, b]"));
+	}
+	
+	
+	// Cancellation tests ---------------------------------------------------------------
+	
+	// Test that a cancelled timer doesn't run
+	@Test
+	public void testCancel() {
+		TimerWheel.Timer timer = timers.schedule(1, record("a"));
+		timers.schedule(1, record("b"));
+		
+		assertTrue("Cancelled", timer.cancel());
+		assertFalse("Not pending", timer.isPending());
+		assertFalse("Can't cancel twice", timer.cancel());
+		
+		timers.advance(2);
+		assertTrue("Only uncancelled run", fired.toString().equals("[b]"));
+	}
+	
+	// Test that a timer marking time is pending until due
+	@Test
+	public void testCooldown() {
+		TimerWheel.Timer cooldown = timers.schedule(0.25, null);
+		
+		timers.advance(0.2);
+		assertTrue("Pending", cooldown.isPending());
+		
+		timers.advance(0.25);
+		assertFalse("No longer pending", cooldown.isPending());
+	}
+	
+	// Test that resetting cancels every timer
+	@Test
+	public void testReset() {
+		TimerWheel.Timer timer = timers.schedule(100, record("a"));
+		timers.advance(10);
+		timers.reset();
+		
+		assertFalse("Cancelled", timer.isPending());
+		assertTrue("Clock reset", timers.getTime() == 0);
+		
+		timers.advance(200);
+		assertTrue("Nothing run", fired.isEmpty());
+	}
+	
+}
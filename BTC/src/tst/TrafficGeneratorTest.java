@@ -0,0 +1,218 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import lib.TimerWheel;
+import trf.FixedRateTraffic;
+import trf.PoissonTraffic;
+import trf.RushHourTraffic;
+import trf.ScriptedTraffic;
+import trf.TrafficGenerator;
+import trf.TrafficModel;
+
+public class TrafficGeneratorTest {
+	
+	TimerWheel timers;
+	Random random;
+	
+	/** Whether the test spawner has room for an aircraft */
+	boolean room;
+	
+	/** The number of aircraft the test spawner has introduced */
+	int spawned;
+	
+	TrafficGenerator.Spawner spawner = new TrafficGenerator.Spawner() {
+		@Override
+		public boolean spawn() {
+			if (room) spawned++;
+			return room;
+		}
+	};
+	
+	
+	@Before
+	public void setup() {
+		timers = new TimerWheel(1.0 / 60);
+		random = new Random(0);
+		room = true;
+		spawned = 0;
+	}
+	
+	
+	// Model tests ----------------------------------------------------------------------
+	
+	// Test the fixed rate, with a head start for the first arrival
+	@Test
+	public void testFixedRate() {
+		TrafficModel model = new FixedRateTraffic(6, 4);
+		assertTrue("First arrival sooner", model.getNextArrival(0, random) == 2);
+		assertTrue("Then every interval", model.getNextArrival(2, random) == 8);
+	}
+	
+	// Test that Poisson arrivals average the given rate
+	@Test
+	public void testPoissonRate() {
+		TrafficModel model = new PoissonTraffic(2);
+		double time = 0;
+		
+		for (int i = 0; i < 10000; i++) {
+			time = model.getNextArrival(time, random);
+		}
+		
+		double rate = 10000 / time;
+		assertTrue("Average rate ~2, was " + rate, Math.abs(rate - 2) < 0.1);
+	}
+	
+	// Test that rush hour traffic follows its profile
+	@Test
+	public void testRushHourProfile() {
+		RushHourTraffic model = new RushHourTraffic(1,
+				new double[] {1, 3}, 100);
+		
+		assertTrue("Quiet hour", model.getRate(0) == 1);
+		assertTrue("Busy hour", model.getRate(50) == 3);
+		assertTrue("Between hours", model.getRate(25) == 2);
+		assertTrue("Next day", model.getRate(150) == 3);
+	}
+	
+	// Test that scripted traffic repeats
+	@Test
+	public void testScriptedRepeat() {
+		TrafficModel model = new ScriptedTraffic(new double[] {5, 1}, 10);
+		
+		assertTrue("Sorted", model.getNextArrival(0, random) == 1);
+		assertTrue("Second", model.getNextArrival(1, random) == 5);
+		assertTrue("Repeats", model.getNextArrival(5, random) == 11);
+	}
+	
+	// Test that scripted traffic without a repeat ends
+	@Test
+	public void testScriptedEnds() {
+		TrafficModel model = new ScriptedTraffic(new double[] {1}, 0);
+		
+		model.getNextArrival(0, random);
+		assertTrue("No more arrivals",
+				Double.isInfinite(model.getNextArrival(1, random)));
+	}
+	
+	// Test parsing model descriptions
+	@Test
+	public void testParseModel() {
+		assertTrue("Poisson", TrafficGenerator.parseModel("poisson:0.5")
+				instanceof PoissonTraffic);
+		assertTrue("Rush hour", TrafficGenerator.parseModel("rush:1:60")
+				instanceof RushHourTraffic);
+		assertTrue("Fixed", TrafficGenerator.parseModel("fixed:3")
+				instanceof FixedRateTraffic);
+	}
+	
+	
+	// Generator tests ------------------------------------------------------------------
+	
+	// Test that arrivals are introduced when they arrive
+	@Test
+	public void testGenerate() {
+		TrafficGenerator generator = new TrafficGenerator(
+				new FixedRateTraffic(1), timers, random, 3, spawner);
+		generator.start();
+		
+		timers.advance(3.5);
+		assertTrue("Three arrivals", generator.getArrivals() == 3);
+		assertTrue("All introduced", spawned == 3);
+	}
+	
+	// Test that arrivals wait while there's no room, rather than being lost
+	@Test
+	public void testBackPressure() {
+		TrafficGenerator generator = new TrafficGenerator(
+				new FixedRateTraffic(1), timers, random, 3, spawner);
+		generator.start();
+		room = false;
+		
+		timers.advance(2.5);
+		assertTrue("Two waiting", generator.getBacklog() == 2);
+		assertTrue("None lost", generator.getDropped() == 0);
+		
+		room = true;
+		timers.advance(2.5 + TrafficGenerator.RETRY_INTERVAL);
+		assertTrue("Waiting aircraft introduced, with the next arrival",
+				spawned == 3);
+		assertTrue("None waiting", generator.getBacklog() == 0);
+	}
+	
+	// Test that arrivals are turned away, and counted, once the backlog is full
+	@Test
+	public void testBacklogFull() {
+		TrafficGenerator generator = new TrafficGenerator(
+				new FixedRateTraffic(1), timers, random, 2, spawner);
+		generator.start();
+		room = false;
+		
+		timers.advance(5);
+		assertTrue("Backlog full", generator.getBacklog() == 2);
+		assertTrue("Rest turned away", generator.getDropped() == 3);
+	}
+	
+	// Test that several arrivals at once are all taken
+	@Test
+	public void testSimultaneousArrivals() {
+		TrafficGenerator generator = new TrafficGenerator(
+				new ScriptedTraffic(new double[] {1, 1, 1}, 0),
+				timers, random, 3, spawner);
+		generator.start();
+		
+		timers.advance(1);
+		assertTrue("All three introduced", spawned == 3);
+	}
+	
+	// Test that arrivals still enter without a backlog, and are only turned
+	// away when there's no room for them
+	@Test
+	public void testNoBacklog() {
+		TrafficGenerator generator = new TrafficGenerator(
+				new FixedRateTraffic(1), timers, random, 0, spawner);
+		generator.start();
+		
+		timers.advance(3.5);
+		assertTrue("All introduced", spawned == 3);
+		assertTrue("None turned away", generator.getDropped() == 0);
+		
+		room = false;
+		timers.advance(5.5);
+		assertTrue("Arrivals without room turned away", generator.getDropped() == 2);
+		assertTrue("None waiting", generator.getBacklog() == 0);
+	}
+	
+	// Test that a burst of more arrivals than the backlog holds all enter
+	// while there's room for them
+	@Test
+	public void testBurstLargerThanBacklog() {
+		TrafficGenerator generator = new TrafficGenerator(
+				new ScriptedTraffic(new double[] {1, 1, 1, 1, 1}, 0),
+				timers, random, 3, spawner);
+		generator.start();
+		
+		timers.advance(1.1);
+		assertTrue("Every arrival taken", generator.getArrivals() == 5);
+		assertTrue("All five introduced", spawned == 5);
+		assertTrue("None turned away", generator.getDropped() == 0);
+	}
+	
+	// Test that stopping cancels any arrivals
+	@Test
+	public void testStop() {
+		TrafficGenerator generator = new TrafficGenerator(
+				new FixedRateTraffic(1), timers, random, 3, spawner);
+		generator.start();
+		generator.stop();
+		
+		timers.advance(5);
+		assertTrue("Nothing introduced", spawned == 0);
+	}
+	
+}
@@ -0,0 +1,121 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import lib.TripleBuffer;
+
+public class TripleBufferTest {
+
+	/** The number of frames published by the concurrent test */
+	private static final int FRAME_COUNT = 200000;
+
+	/** The buffer under test */
+	private TripleBuffer<int[]> buffer;
+
+	@Before
+	public void setUp() {
+		buffer = new TripleBuffer<int[]>();
+	}
+
+
+	// Handoff tests --------------------------------------------------------------------
+
+	// Test that nothing is acquired before a frame is published
+	@Test
+	public void testNothingPublished() {
+		assertFalse("No new frame", buffer.hasNewValue());
+		assertNull("Nothing acquired", buffer.acquire());
+	}
+
+	// Test that the latest frame published is acquired, and kept until replaced
+	@Test
+	public void testAcquiresLatestFrame() {
+		int[] first = createFrame(1);
+		int[] second = createFrame(2);
+
+		buffer.publish(first);
+		assertTrue("New frame waiting", buffer.hasNewValue());
+		assertSame("Published frame acquired", first, buffer.acquire());
+		assertFalse("No new frame once acquired", buffer.hasNewValue());
+		assertSame("Same frame acquired again", first, buffer.acquire());
+
+		buffer.publish(second);
+		assertSame("Newer frame acquired", second, buffer.acquire());
+	}
+
+	// Test that frames published before the last acquire are skipped
+	@Test
+	public void testSkipsOlderFrames() {
+		for (int i = 1; i <= 5; i++) {
+			buffer.publish(createFrame(i));
+		}
+
+		assertEquals("Only the latest frame acquired", 5, buffer.acquire()[0]);
+		assertEquals("Latest frame kept", 5, buffer.acquire()[0]);
+	}
+
+	// Test that frames handed between threads are always complete, and never
+	// older than a frame already acquired
+	@Test
+	public void testConcurrentHandoff() throws InterruptedException {
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 1; i <= FRAME_COUNT; i++) {
+					buffer.publish(createFrame(i));
+				}
+			}
+		});
+		producer.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(Thread thread, Throwable e) {
+				failure.set(e);
+			}
+		});
+		producer.start();
+
+		int last = 0;
+		while (last < FRAME_COUNT) {
+			int[] frame = buffer.acquire();
+			if (frame == null) continue;
+
+			for (int value : frame) {
+				assertEquals("Frame is complete", frame[0], value);
+			}
+			assertTrue("Frames don't go backwards", frame[0] >= last);
+			last = frame[0];
+
+			if (!producer.isAlive() && !buffer.hasNewValue()) break;
+		}
+
+		producer.join();
+		assertNull("Producer ran", failure.get());
+		assertEquals("Last frame acquired", FRAME_COUNT, buffer.acquire()[0]);
+	}
+
+
+	// Helper methods -------------------------------------------------------------------
+
+	/**
+	 * Creates a frame filled with its number.
+	 * @param number - the number of the frame
+	 * @return the frame
+	 */
+	private static int[] createFrame(int number) {
+		int[] frame = new int[16];
+
+		for (int i = 0; i < frame.length; i++) {
+			frame[i] = number;
+		}
+
+		return frame;
+	}
+
+}
@@ -0,0 +1,151 @@
+package tst;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import bot.TuningHarness;
+import bot.TuningHarness.Parameters;
+import bot.TuningHarness.Summary;
+import lib.jog.input;
+import lib.jog.window;
+import scn.Game;
+import scn.Game.DifficultySetting;
+
+public class TuningHarnessTest {
+
+	@Before
+	public void setUp() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		window.setVirtualSize(1280, 960);
+	}
+
+	@After
+	public void tearDown() {
+		if (Game.getInstance() != null) {
+			Game.getInstance().close();
+		}
+
+		new Parameters(0, 0, 0, 0).apply();
+		input.setState(null);
+		window.setVirtualSize(0, 0);
+	}
+
+
+	// Parameters tests -----------------------------------------------------------------
+
+	// Test that settings are read back as they were written
+	@Test
+	public void testParametersRoundTrip() {
+		Parameters parameters = new Parameters(96, 0.75, 4.5, 6);
+		Parameters parsed = Parameters.parse(parameters.toString());
+
+		assertTrue("Separation kept", parsed.getSeparation() == 96);
+		assertTrue("Turn speed kept", parsed.getTurnSpeed() == 0.75);
+		assertTrue("Spawn interval kept", parsed.getSpawnInterval() == 4.5);
+		assertTrue("Maximum aircraft kept", parsed.getMaxAircraft() == 6);
+	}
+
+	// Test that unknown settings are rejected
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownParameterRejected() {
+		Parameters.parse("separation=64,wind=12");
+	}
+
+	// Test that the grid holds every combination of settings
+	@Test
+	public void testGridCoversEveryCombination() {
+		List<Parameters> grid = TuningHarness.createGrid(new int[] {64, 96, 128},
+				new double[] {0}, new double[] {3, 6}, new int[] {0});
+
+		assertTrue("Six combinations", grid.size() == 6);
+		assertTrue("Separation varies slowest", grid.get(1).getSeparation() == 64);
+		assertTrue("Spawn interval varies fastest",
+				grid.get(1).getSpawnInterval() == 6);
+	}
+
+
+	// Summary tests --------------------------------------------------------------------
+
+	// Test that summaries report their games' statistics
+	@Test
+	public void testSummaryStatistics() {
+		Summary summary = new Summary(new Parameters(0, 0, 0, 0));
+		for (int i = 1; i <= 10; i++) {
+			summary.add(60, i * 100, 1, i > 8);
+		}
+
+		assertTrue("Ten games", summary.getGames() == 10);
+		assertTrue("Two crashes", summary.getCrashRate() == 0.2);
+		assertTrue("One breach a minute", summary.getBreachesPerMinute() == 1);
+		assertTrue("Mean score", summary.getMeanScore() == 550);
+		assertTrue("10th percentile", summary.getScorePercentile(10) == 100);
+		assertTrue("Median", summary.getScorePercentile(50) == 500);
+		assertTrue("90th percentile", summary.getScorePercentile(90) == 900);
+	}
+
+	// Test that merged summaries hold every game of both
+	@Test
+	public void testSummariesMerge() {
+		Summary first = new Summary(new Parameters(0, 0, 0, 0));
+		Summary second = new Summary(new Parameters(0, 0, 0, 0));
+		first.add(30, 100, 2, true);
+		second.add(90, 300, 0, false);
+
+		first.merge(second);
+
+		assertTrue("Two games", first.getGames() == 2);
+		assertTrue("Mean survival", first.getMeanSurvival() == 60);
+		assertTrue("Breaches per minute", first.getBreachesPerMinute() == 1);
+		assertTrue("Half crashed", first.getCrashRate() == 0.5);
+	}
+
+
+	// Sweep tests ----------------------------------------------------------------------
+
+	// Test that a sweep plays every game of every set
+	@Test
+	public void testSweepInProcess() {
+		TuningHarness harness = new TuningHarness("greedy", DifficultySetting.EASY,
+				2, 30);
+		harness.setWorkers(0);
+
+		List<Summary> summaries = harness.sweep(TuningHarness.createGrid(
+				new int[] {64, 128}, new double[] {0}, new double[] {0}, new int[] {0}));
+
+		assertTrue("A summary for each set", summaries.size() == 2);
+		for (Summary summary : summaries) {
+			assertTrue("Every game played", summary.getGames() == 2);
+			assertTrue("Games played for their time",
+					summary.getMeanSurvival() > 0 && summary.getMeanSurvival() <= 31);
+		}
+	}
+
+	// Test that games played by workers match those played in process
+	@Test
+	public void testWorkersMatchInProcess() {
+		List<Parameters> grid = TuningHarness.createGrid(new int[] {96},
+				new double[] {0}, new double[] {0}, new int[] {0});
+
+		TuningHarness harness = new TuningHarness("greedy", DifficultySetting.MEDIUM,
+				3, 20);
+		harness.setWorkers(0);
+		Summary local = harness.sweep(grid).get(0);
+
+		harness.setWorkers(2);
+		Summary forked = harness.sweep(grid).get(0);
+
+		assertTrue("Every game played", forked.getGames() == 3);
+		assertTrue("Same scores", local.getMeanScore() == forked.getMeanScore());
+		assertTrue("Same breaches",
+				local.getBreachesPerMinute() == forked.getBreachesPerMinute());
+	}
+
+}